@@ -1,8 +1,11 @@
+import monitoring.MonitoringRegistry;
+import replication.ReplicationLeader;
 import ui.ConsoleMenu;
 import ui.command.*;
 import service.*;
 import saving.*;
 
+import java.io.IOException;
 import java.util.Scanner;
 
 public class Main {
@@ -12,15 +15,38 @@ public class Main {
         ProductRepository prodRepo = new ProductRepository("product_repo");
         SaladRepository saladRepo = new SaladRepository("salad_repo", prodRepo);
 
+        // Кілька запущених екземплярів можуть працювати з одними файлами
+        prodRepo.enableSharedAccess();
+        saladRepo.enableSharedAccess();
+
         prodRepo.loadFromFile();
         saladRepo.loadAllSalads();
 
+        MonitoringRegistry.registerRepositories(prodRepo, saladRepo);
+
+        // --replication-port=N: роздавати зміни реплікам (tools.ReplicaNode) через TCP
+        for (String arg : args) {
+            if (arg.startsWith("--replication-port=")) {
+                int port = Integer.parseInt(arg.substring("--replication-port=".length()));
+                try {
+                    new ReplicationLeader(prodRepo, saladRepo, port);
+                } catch (IOException e) {
+                    System.err.println("Не вдалося запустити лідера реплікації на порту " + port + ": " + e.getMessage());
+                }
+            }
+        }
+
         // Отримувачі
-        ProductService productService = new ProductService(prodRepo, new Scanner(System.in));
+        ProductService productService = new ProductService(prodRepo, saladRepo, new Scanner(System.in));
         SaladService saladService = new SaladService(saladRepo, prodRepo, new Scanner(System.in));
 
         // Викликач
         ConsoleMenu menu = new ConsoleMenu();
+        // Перед кожною командою підхоплюємо зміни, збережені іншими екземплярами (каталог — першим)
+        menu.setBeforeCommand(() -> {
+            prodRepo.refreshFromDisk();
+            saladRepo.refreshFromDisk();
+        });
 
         // Products Commands
         Command addVegetable = new AddNewVegetableCommand(productService);
@@ -35,8 +61,15 @@ public class Main {
         Command removeDressing = new RemoveDressingCommand(productService);
         Command removeTopping = new RemoveToppingCommand(productService);
 
+        Command editVegetable = new EditVegetableCommand(productService);
+        Command editDressing = new EditDressingCommand(productService);
+        Command editTopping = new EditToppingCommand(productService);
+
+        Command importProducts = new ImportProductsCommand(productService);
+
         // Salad Commands
         Command createSalad = new CreateSaladCommand(saladService);
+        Command editSalad = new EditSaladCommand(saladService);
         Command viewSalads = new ViewSaladsCommand(saladService);
         Command deleteSalad = new RemoveSaladCommand(saladService);
 
@@ -44,6 +77,11 @@ public class Main {
         Command sortSaladIngridients = new SortIngredientsCommand(saladService);
         Command sortSalads = new SortSaladsByCaloriesCommand(saladService);
         Command findVegetablesByCalories = new FindVegetablesByCaloriesCommand(saladService);
+        Command optimizeSalad = new OptimizeSaladCommand(saladService);
+        Command nutritionReport = new ShowNutritionReportCommand(saladService);
+        Command topSalads = new TopSaladsByCaloriesCommand(saladService);
+        Command similarSalads = new FindSimilarSaladsCommand(saladService);
+        Command makeableSalads = new FindMakeableSaladsCommand(saladService);
 
         Command exit = new ExitCommand();
 
@@ -51,26 +89,38 @@ public class Main {
         menu.addMenuItem("1", viewVegetables);
         menu.addMenuItem("2", addVegetable);
         menu.addMenuItem("3", removeVegetable);
+        menu.addMenuItem("17", editVegetable);
 
         menu.addMenuItem("s2", new MenuSeparatorCommand("\u001B[32m--- Керування заправками ---\u001B[0m"));
         menu.addMenuItem("4", viewDressings);
         menu.addMenuItem("5", addDressing);
         menu.addMenuItem("6", removeDressing);
+        menu.addMenuItem("18", editDressing);
 
         menu.addMenuItem("s3", new MenuSeparatorCommand("\u001B[32m--- Керування топінгами ---\u001B[0m"));
         menu.addMenuItem("7", viewToppings);
         menu.addMenuItem("8", addTopping);
         menu.addMenuItem("9", removeTopping);
+        menu.addMenuItem("19", editTopping);
+
+        menu.addMenuItem("s6", new MenuSeparatorCommand("\u001B[32m--- Імпорт каталогу ---\u001B[0m"));
+        menu.addMenuItem("23", importProducts);
 
         menu.addMenuItem("s4", new MenuSeparatorCommand("\u001B[32m--- Керування салатами ---\u001B[0m"));
         menu.addMenuItem("10", createSalad);
+        menu.addMenuItem("24", editSalad);
         menu.addMenuItem("11", viewSalads);
         menu.addMenuItem("12", deleteSalad);
 
         menu.addMenuItem("13", viewSaladRecipe);
         menu.addMenuItem("14", sortSaladIngridients);
         menu.addMenuItem("15", sortSalads);
+        menu.addMenuItem("22", topSalads);
+        menu.addMenuItem("25", similarSalads);
+        menu.addMenuItem("26", makeableSalads);
         menu.addMenuItem("16", findVegetablesByCalories);
+        menu.addMenuItem("20", optimizeSalad);
+        menu.addMenuItem("21", nutritionReport);
 
         menu.addMenuItem("s5", new MenuSeparatorCommand("\u001B[31m--- Вихід ---\u001B[0m"));
         menu.addMenuItem("0", exit);
@@ -0,0 +1,132 @@
+package event;
+
+import products.IProduct;
+import salad.Salad;
+
+/**
+ * Подія зміни даних у репозиторії продуктів або салатів.
+ *
+ * Корисне навантаження залежить від типу: для продуктів — product (та previous при оновленні),
+ * для салатів — salad (для SALAD_DELETED лише назва), для повного перезавантаження — нічого.
+ * Події незмінні, тож їх можна передавати в інші потоки без копіювання: продукти незмінні самі по собі,
+ * а salad — це знімок складу на момент збереження, а не живий об'єкт із репозиторію.
+ */
+public final class ChangeEvent {
+
+    public enum Type {
+        PRODUCT_ADDED,
+        PRODUCT_REMOVED,
+        PRODUCT_UPDATED,
+        PRODUCTS_RELOADED,
+        // Салат записано або його склад у репозиторії змінився (наприклад, після редагування продукту)
+        SALAD_SAVED,
+        SALAD_DELETED,
+        SALADS_RELOADED
+    }
+
+    private final Type type;
+    private final long sequence;
+    private final long timestampMillis;
+    private final IProduct product;
+    private final IProduct previous;
+    private final Salad salad;
+    private final String saladName;
+    private final boolean remote;
+
+    private ChangeEvent(Type type, long sequence, IProduct product, IProduct previous, Salad salad, String saladName) {
+        this.type = type;
+        this.sequence = sequence;
+        this.timestampMillis = System.currentTimeMillis();
+        this.product = product;
+        this.previous = previous;
+        this.salad = salad;
+        this.saladName = saladName;
+        this.remote = ChangeEventBus.isPublishingRemote();
+    }
+
+    static ChangeEvent productAdded(long sequence, IProduct product) {
+        return new ChangeEvent(Type.PRODUCT_ADDED, sequence, product, null, null, null);
+    }
+
+    static ChangeEvent productRemoved(long sequence, IProduct product) {
+        return new ChangeEvent(Type.PRODUCT_REMOVED, sequence, product, null, null, null);
+    }
+
+    static ChangeEvent productUpdated(long sequence, IProduct previous, IProduct product) {
+        return new ChangeEvent(Type.PRODUCT_UPDATED, sequence, product, previous, null, null);
+    }
+
+    static ChangeEvent productsReloaded(long sequence) {
+        return new ChangeEvent(Type.PRODUCTS_RELOADED, sequence, null, null, null, null);
+    }
+
+    static ChangeEvent saladSaved(long sequence, Salad salad) {
+        return new ChangeEvent(Type.SALAD_SAVED, sequence, null, null, salad, salad.getName());
+    }
+
+    static ChangeEvent saladDeleted(long sequence, String saladName) {
+        return new ChangeEvent(Type.SALAD_DELETED, sequence, null, null, null, saladName);
+    }
+
+    static ChangeEvent saladsReloaded(long sequence) {
+        return new ChangeEvent(Type.SALADS_RELOADED, sequence, null, null, null, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Порядковий номер події в межах шини (починається з 1, без пропусків).
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * Доданий, видалений або нова версія оновленого продукту.
+     */
+    public IProduct getProduct() {
+        return product;
+    }
+
+    /**
+     * Попередня версія продукту (лише для PRODUCT_UPDATED).
+     */
+    public IProduct getPrevious() {
+        return previous;
+    }
+
+    /**
+     * Знімок збереженого салату (лише для SALAD_SAVED); подальші зміни рецепту в репозиторії його не зачіпають.
+     */
+    public Salad getSalad() {
+        return salad;
+    }
+
+    public String getSaladName() {
+        return saladName;
+    }
+
+    /**
+     * true, якщо зміну зробив інший екземпляр програми, а цей лише підхопив її зі спільного сховища.
+     */
+    public boolean isRemote() {
+        return remote;
+    }
+
+    public boolean isProductEvent() {
+        return type == Type.PRODUCT_ADDED || type == Type.PRODUCT_REMOVED
+                || type == Type.PRODUCT_UPDATED || type == Type.PRODUCTS_RELOADED;
+    }
+
+    @Override
+    public String toString() {
+        String subject = product != null ? product.getName() : saladName;
+        return "#" + sequence + " " + type + (subject != null ? " '" + subject + "'" : "") + (remote ? " (remote)" : "");
+    }
+}
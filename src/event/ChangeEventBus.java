@@ -0,0 +1,260 @@
+package event;
+
+import products.IProduct;
+import salad.Salad;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Внутрішня шина подій зміни даних (в межах процесу).
+ *
+ * Репозиторії публікують події після кожної зміни; кеші, індекси та похідні підсумки підписуються
+ * на потрібні типи подій і оновлюються інкрементально замість повного перерахунку.
+ *
+ * Синхронні підписники викликаються в потоці публікації. Асинхронні — в одному фоновому потоці
+ * шини, строго в порядку номерів подій. Якщо підписників немає, публікація не створює об'єктів подій.
+ * Виняток у підписнику логується й не впливає ні на інших підписників, ні на репозиторій.
+ */
+public class ChangeEventBus {
+    private static final Logger logger = LogManager.getLogger(ChangeEventBus.class);
+
+    // Події, опубліковані всередині publishRemote, позначаються як зміни з іншого екземпляра
+    private static final ThreadLocal<Boolean> PUBLISHING_REMOTE = ThreadLocal.withInitial(() -> false);
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    // Номери подій починаються з 1 у кожному екземплярі шини; епоха відрізняє їх від номерів попереднього запуску
+    private final long epoch = ThreadLocalRandom.current().nextLong();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile ExecutorService asyncExecutor;
+    private ChangeFeed changeFeed;
+
+    /**
+     * Підписка; cancel() (або close()) припиняє доставку подій.
+     */
+    public final class Subscription implements AutoCloseable {
+        private final Set<ChangeEvent.Type> types;
+        private final ChangeListener listener;
+        private final boolean async;
+        private volatile boolean active = true;
+
+        private Subscription(Set<ChangeEvent.Type> types, ChangeListener listener, boolean async) {
+            this.types = types;
+            this.listener = listener;
+            this.async = async;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public void cancel() {
+            active = false;
+            subscriptions.remove(this);
+        }
+
+        @Override
+        public void close() {
+            cancel();
+        }
+
+        private void deliver(ChangeEvent event) {
+            if (!active) {
+                return;
+            }
+            try {
+                listener.onChange(event);
+                delivered.incrementAndGet();
+            } catch (RuntimeException e) {
+                failures.incrementAndGet();
+                logger.error("Помилка обробника події {}: {}", event, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Синхронна підписка на події заданих типів.
+     */
+    public Subscription subscribe(Set<ChangeEvent.Type> types, ChangeListener listener) {
+        return register(types, listener, false);
+    }
+
+    /**
+     * Асинхронна підписка: обробник викликається у фоновому потоці шини.
+     */
+    public Subscription subscribeAsync(Set<ChangeEvent.Type> types, ChangeListener listener) {
+        return register(types, listener, true);
+    }
+
+    // Під тим самим монітором, що й видача номерів: підписник отримає кожну подію з номером,
+    // більшим за getLastSequence() на момент підписки
+    private synchronized Subscription register(Set<ChangeEvent.Type> types, ChangeListener listener, boolean async) {
+        Set<ChangeEvent.Type> filter = Collections.unmodifiableSet(types.isEmpty()
+                ? EnumSet.noneOf(ChangeEvent.Type.class) : EnumSet.copyOf(types));
+        Subscription subscription = new Subscription(filter, listener, async);
+        subscriptions.add(subscription);
+        logger.debug("Нова {} підписка на події {}.", async ? "асинхронна" : "синхронна", filter);
+        return subscription;
+    }
+
+    public void productAdded(IProduct product) {
+        publish(ChangeEvent.Type.PRODUCT_ADDED, seq -> ChangeEvent.productAdded(seq, product));
+    }
+
+    public void productRemoved(IProduct product) {
+        publish(ChangeEvent.Type.PRODUCT_REMOVED, seq -> ChangeEvent.productRemoved(seq, product));
+    }
+
+    public void productUpdated(IProduct previous, IProduct product) {
+        publish(ChangeEvent.Type.PRODUCT_UPDATED, seq -> ChangeEvent.productUpdated(seq, previous, product));
+    }
+
+    public void productsReloaded() {
+        publish(ChangeEvent.Type.PRODUCTS_RELOADED, ChangeEvent::productsReloaded);
+    }
+
+    /**
+     * salad має бути знімком (Salad.copy()), який після публікації ніхто не змінює.
+     */
+    public void saladSaved(Salad salad) {
+        publish(ChangeEvent.Type.SALAD_SAVED, seq -> ChangeEvent.saladSaved(seq, salad));
+    }
+
+    public void saladDeleted(String saladName) {
+        publish(ChangeEvent.Type.SALAD_DELETED, seq -> ChangeEvent.saladDeleted(seq, saladName));
+    }
+
+    public void saladsReloaded() {
+        publish(ChangeEvent.Type.SALADS_RELOADED, ChangeEvent::saladsReloaded);
+    }
+
+    /**
+     * Публікує події змін, підхоплених зі спільного сховища (зроблених іншим екземпляром програми).
+     */
+    public void publishRemote(Runnable publications) {
+        boolean previous = PUBLISHING_REMOTE.get();
+        PUBLISHING_REMOTE.set(true);
+        try {
+            publications.run();
+        } finally {
+            PUBLISHING_REMOTE.set(previous);
+        }
+    }
+
+    static boolean isPublishingRemote() {
+        return PUBLISHING_REMOTE.get();
+    }
+
+    private void publish(ChangeEvent.Type type, LongFunction<ChangeEvent> factory) {
+        ChangeEvent event;
+        // Номер і постановка в чергу асинхронної доставки — атомарно, щоб порядок доставки збігався з номерами
+        synchronized (this) {
+            long number = sequence.incrementAndGet();
+            if (subscriptions.isEmpty()) {
+                return;
+            }
+            event = factory.apply(number);
+            for (Subscription subscription : subscriptions) {
+                if (subscription.async && subscription.types.contains(type)) {
+                    asyncExecutor().execute(() -> subscription.deliver(event));
+                }
+            }
+        }
+        logger.trace("Подія {}", event);
+
+        for (Subscription subscription : subscriptions) {
+            if (!subscription.async && subscription.types.contains(type)) {
+                subscription.deliver(event);
+            }
+        }
+    }
+
+    private ExecutorService asyncExecutor() {
+        ExecutorService executor = asyncExecutor;
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "change-event-bus");
+                thread.setDaemon(true);
+                return thread;
+            });
+            asyncExecutor = executor;
+        }
+        return executor;
+    }
+
+    /**
+     * Чекає, доки асинхронні підписники оброблять усі вже опубліковані події.
+     * Повертає false, якщо час очікування вичерпано.
+     */
+    public boolean awaitAsyncDelivery(long timeoutMillis) throws InterruptedException {
+        ExecutorService executor;
+        CountDownLatch done = new CountDownLatch(1);
+        synchronized (this) {
+            executor = asyncExecutor;
+            if (executor == null) {
+                return true;
+            }
+            executor.execute(done::countDown);
+        }
+        return done.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Стрічка змін для зовнішніх споживачів; створюється при першому зверненні (або після close()
+     * попередньої) і містить лише зміни, що відбулися після цього.
+     */
+    public synchronized ChangeFeed getChangeFeed() {
+        if (changeFeed == null) {
+            changeFeed = new ChangeFeed(this);
+        }
+        return changeFeed;
+    }
+
+    // Викликається з ChangeFeed.close(), щоб getChangeFeed() не повертав закриту стрічку
+    synchronized void feedClosed(ChangeFeed feed) {
+        if (changeFeed == feed) {
+            changeFeed = null;
+        }
+    }
+
+    /**
+     * Епоха нумерації подій: випадкове значення, нове при кожному створенні шини (тобто при кожному запуску).
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Номер останньої опублікованої події.
+     */
+    public long getLastSequence() {
+        return sequence.get();
+    }
+
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+}
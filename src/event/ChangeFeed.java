@@ -0,0 +1,318 @@
+package event;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Стрічка змін каталогу й рецептів для зовнішніх споживачів (java.util.concurrent.Flow).
+ *
+ * Записи зберігаються в кільцевому буфері фіксованого розміру; кожен підписник має лише власний курсор
+ * (номер останнього отриманого запису) і лічильник запитаного (demand), тож повільний споживач
+ * не збільшує використання пам'яті. Підписник може продовжити з відомого номера (subscribe(s, from)).
+ * Якщо потрібні записи вже витіснені з буфера, підписник отримує onError(SequenceGapException)
+ * і має перечитати дані повністю, а потім підписатися з поточного номера.
+ *
+ * Номери записів — це номери подій шини, вони живуть лише в пам'яті процесу й після перезапуску
+ * знову починаються з 1. Тому споживач, що зберігає позицію між запусками, зберігає її разом з
+ * getEpoch() і продовжує через subscribe(s, epoch, after): при іншій епосі він отримає SequenceGapException.
+ */
+public class ChangeFeed implements Flow.Publisher<ChangeRecord>, AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(ChangeFeed.class);
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final ChangeEventBus bus;
+    private final ChangeRecord[] ring;
+    private final Executor executor;
+    private final List<FeedSubscription> subscribers = new CopyOnWriteArrayList<>();
+    private final ChangeEventBus.Subscription busSubscription;
+
+    // Найбільший номер, до якого (включно) всі записи вже в буфері; записи з номером > watermark ще не видимі
+    private long watermark;
+    private volatile boolean closed;
+
+    /**
+     * Відрив від буфера: запитаний запис уже перезаписано новішими або його вміст не вдалося зняти.
+     */
+    public static class SequenceGapException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final long requested;
+        private final long oldestAvailable;
+
+        SequenceGapException(long requested, long oldestAvailable) {
+            super("Запис #" + requested + " уже недоступний (найстаріший у буфері: #" + oldestAvailable + ").");
+            this.requested = requested;
+            this.oldestAvailable = oldestAvailable;
+        }
+
+        public long getRequested() {
+            return requested;
+        }
+
+        public long getOldestAvailable() {
+            return oldestAvailable;
+        }
+    }
+
+    public ChangeFeed(ChangeEventBus bus) {
+        this(bus, DEFAULT_CAPACITY, ForkJoinPool.commonPool());
+    }
+
+    public ChangeFeed(ChangeEventBus bus, int capacity, Executor executor) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Розмір буфера стрічки має бути додатним.");
+        }
+        this.bus = bus;
+        this.ring = new ChangeRecord[capacity];
+        this.executor = executor;
+        // Синхронний обробник: вміст салату знімається в момент зміни, доки його ніхто не змінив далі
+        synchronized (bus) {
+            this.busSubscription = bus.subscribe(EnumSet.allOf(ChangeEvent.Type.class), this::append);
+            this.watermark = bus.getLastSequence();
+        }
+        logger.info("Стрічку змін запущено з #{} (буфер {} записів).", watermark, capacity);
+    }
+
+    /**
+     * Підписка з поточного моменту: лише зміни, що відбудуться після неї.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super ChangeRecord> subscriber) {
+        subscribe(subscriber, getLastSequence());
+    }
+
+    /**
+     * Підписка з записів, номер яких більший за afterSequence (номер останнього обробленого споживачем запису).
+     */
+    public void subscribe(Flow.Subscriber<? super ChangeRecord> subscriber, long afterSequence) {
+        subscribe(subscriber, getEpoch(), afterSequence);
+    }
+
+    /**
+     * Продовження з позиції, збереженої разом з епохою (напр. до перезапуску програми).
+     * Якщо епоха інша, номери вже означають інші зміни — підписник одразу отримує SequenceGapException.
+     */
+    public void subscribe(Flow.Subscriber<? super ChangeRecord> subscriber, long epoch, long afterSequence) {
+        Objects.requireNonNull(subscriber, "Підписник не може бути null");
+        FeedSubscription subscription = new FeedSubscription(subscriber, afterSequence);
+        if (epoch != getEpoch()) {
+            logger.warn("Підписка з епохи {} замість {}: позиція #{} недійсна.", epoch, getEpoch(), afterSequence);
+            subscription.pendingError = new SequenceGapException(afterSequence + 1, getOldestSequence());
+        }
+        subscriber.onSubscribe(subscription);
+        if (closed) {
+            subscription.complete();
+            return;
+        }
+        subscribers.add(subscription);
+        logger.info("Новий підписник стрічки змін (з #{}). Усього: {}.", afterSequence, subscribers.size());
+        subscription.schedule();
+    }
+
+    /**
+     * Номер останнього запису, доступного підписникам.
+     */
+    public synchronized long getLastSequence() {
+        return watermark;
+    }
+
+    /**
+     * Епоха нумерації записів (див. ChangeEventBus.getEpoch()); зберігається споживачем разом з номером.
+     */
+    public long getEpoch() {
+        return bus.getEpoch();
+    }
+
+    private synchronized long getOldestSequence() {
+        return Math.max(1, watermark - ring.length + 1);
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Завершує стрічку: нові зміни не записуються, підписники отримують onComplete
+     * після того, як дочитають уже наявні записи.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        busSubscription.cancel();
+        bus.feedClosed(this);
+        for (FeedSubscription subscription : subscribers) {
+            subscription.schedule();
+        }
+        logger.info("Стрічку змін закрито на #{}.", getLastSequence());
+    }
+
+    private void append(ChangeEvent event) {
+        ChangeRecord record;
+        try {
+            record = ChangeRecord.of(event);
+        } catch (RuntimeException e) {
+            // Номер усе одно займається, інакше watermark зупинився б на ньому назавжди
+            logger.error("Не вдалося зняти вміст події #{} для стрічки: {}", event.getSequence(), e.getMessage(), e);
+            record = ChangeRecord.lost(event);
+        }
+        synchronized (this) {
+            if (record.getSequence() <= watermark) {
+                return;
+            }
+            ring[slot(record.getSequence())] = record;
+            // Обробники шини можуть викликатися конкурентно, тож записи приходять не завжди по порядку
+            while (true) {
+                ChangeRecord next = ring[slot(watermark + 1)];
+                if (next == null || next.getSequence() != watermark + 1) {
+                    break;
+                }
+                watermark++;
+            }
+        }
+        for (FeedSubscription subscription : subscribers) {
+            subscription.schedule();
+        }
+    }
+
+    // Запис із заданим номером; null, якщо його ще немає
+    private synchronized ChangeRecord read(long sequence) {
+        if (sequence > watermark) {
+            return null;
+        }
+        ChangeRecord record = ring[slot(sequence)];
+        if (record == null || record.getSequence() != sequence) {
+            throw new SequenceGapException(sequence, getOldestSequence());
+        }
+        if (record.isLost()) {
+            throw new SequenceGapException(sequence, sequence + 1);
+        }
+        return record;
+    }
+
+    private synchronized boolean isDrained(long cursor) {
+        return cursor >= watermark;
+    }
+
+    private int slot(long sequence) {
+        return (int) Math.floorMod(sequence, (long) ring.length);
+    }
+
+    /**
+     * Стан одного підписника. Доставка — у пулі executor, не більше одного drain одночасно
+     * (лічильник wip), тож onNext викликається послідовно, як вимагає специфікація Reactive Streams.
+     */
+    private final class FeedSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super ChangeRecord> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private long cursor;
+        private volatile boolean cancelled;
+        // Помилка, яку треба доставити при найближчому drain (невірний request або чужа епоха)
+        private volatile Throwable pendingError;
+
+        FeedSubscription(Flow.Subscriber<? super ChangeRecord> subscriber, long afterSequence) {
+            this.subscriber = subscriber;
+            this.cursor = afterSequence;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                pendingError = new IllegalArgumentException("Кількість запитаних записів має бути додатною: " + n);
+            } else {
+                demand.accumulateAndGet(n, (current, added) -> {
+                    long sum = current + added;
+                    return sum < 0 ? Long.MAX_VALUE : sum;
+                });
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscribers.remove(this);
+        }
+
+        void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        void complete() {
+            cancelled = true;
+            subscriber.onComplete();
+        }
+
+        private void drain() {
+            int missed = 1;
+            while (true) {
+                if (!cancelled && deliverAvailable() && closed && isDrained(cursor)) {
+                    cancel();
+                    subscriber.onComplete();
+                }
+
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        // false, якщо підписку завершено помилкою
+        private boolean deliverAvailable() {
+            if (pendingError != null) {
+                fail(pendingError);
+                return false;
+            }
+
+            while (!cancelled && demand.get() > 0) {
+                ChangeRecord record;
+                try {
+                    record = read(cursor + 1);
+                } catch (SequenceGapException e) {
+                    logger.warn("Підписник стрічки відстав: {}", e.getMessage());
+                    fail(e);
+                    return false;
+                }
+                if (record == null) {
+                    break;
+                }
+
+                cursor = record.getSequence();
+                if (demand.get() != Long.MAX_VALUE) {
+                    demand.decrementAndGet();
+                }
+                try {
+                    subscriber.onNext(record);
+                } catch (RuntimeException e) {
+                    logger.error("Підписник стрічки кинув виняток в onNext: {}", e.getMessage(), e);
+                    cancel();
+                    return false;
+                }
+            }
+            return !cancelled;
+        }
+
+        private void fail(Throwable error) {
+            cancel();
+            subscriber.onError(error);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package event;
+
+/**
+ * Обробник подій зміни даних. Синхронні обробники викликаються в потоці, що змінив дані,
+ * одразу після зміни, тому мають бути швидкими; довгу роботу варто підписувати асинхронно.
+ */
+@FunctionalInterface
+public interface ChangeListener {
+    void onChange(ChangeEvent event);
+}
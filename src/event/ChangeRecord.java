@@ -0,0 +1,112 @@
+package event;
+
+import products.FixedPoint;
+import products.IProduct;
+import salad.Salad;
+import salad.SaladIngredient;
+
+/**
+ * Незмінний запис стрічки змін для зовнішніх споживачів.
+ *
+ * На відміну від ChangeEvent не містить живих об'єктів репозиторію: вміст продукту чи салату
+ * знімається в момент зміни у тому ж текстовому форматі, що й у файлах каталогу та рецептів.
+ */
+public final class ChangeRecord {
+
+    private final long sequence;
+    private final long timestampMillis;
+    private final ChangeEvent.Type type;
+    private final String subject;
+    private final String previousSubject;
+    private final String payload;
+    // Вміст не вдалося зняти: запис лише тримає номер, підписникам він видається як розрив
+    private final boolean lost;
+
+    private ChangeRecord(long sequence, long timestampMillis, ChangeEvent.Type type,
+                         String subject, String previousSubject, String payload, boolean lost) {
+        this.sequence = sequence;
+        this.timestampMillis = timestampMillis;
+        this.type = type;
+        this.subject = subject;
+        this.previousSubject = previousSubject;
+        this.payload = payload;
+        this.lost = lost;
+    }
+
+    static ChangeRecord of(ChangeEvent event) {
+        String subject = null;
+        String previousSubject = null;
+        String payload = null;
+
+        IProduct product = event.getProduct();
+        if (product != null) {
+            subject = product.getName();
+            payload = event.getType() == ChangeEvent.Type.PRODUCT_REMOVED ? null : product.toTxtLine();
+        }
+        if (event.getPrevious() != null) {
+            previousSubject = event.getPrevious().getName();
+        }
+        if (event.getSaladName() != null) {
+            subject = event.getSaladName();
+        }
+        Salad salad = event.getSalad();
+        if (salad != null) {
+            StringBuilder content = new StringBuilder();
+            for (SaladIngredient ingredient : salad.getIngredients()) {
+                content.append(ingredient.getConsumable().getName()).append(';')
+                        .append(FixedPoint.format(ingredient.getWeightInMilligrams())).append('\n');
+            }
+            payload = content.toString();
+        }
+        return new ChangeRecord(event.getSequence(), event.getTimestampMillis(), event.getType(),
+                subject, previousSubject, payload, false);
+    }
+
+    static ChangeRecord lost(ChangeEvent event) {
+        return new ChangeRecord(event.getSequence(), event.getTimestampMillis(), event.getType(),
+                null, null, null, true);
+    }
+
+    boolean isLost() {
+        return lost;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public ChangeEvent.Type getType() {
+        return type;
+    }
+
+    /**
+     * Назва продукту чи салату; null для подій повного перезавантаження.
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * Попередня назва продукту (PRODUCT_UPDATED), щоб споживач міг обробити перейменування.
+     */
+    public String getPreviousSubject() {
+        return previousSubject;
+    }
+
+    /**
+     * Рядок каталогу продукту або вміст рецепту ("назва;вага" по рядку на інгредієнт);
+     * null для видалень і перезавантажень.
+     */
+    public String getPayload() {
+        return payload;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + type + (subject != null ? " '" + subject + "'" : "");
+    }
+}
@@ -0,0 +1,229 @@
+package index;
+
+import products.IProduct;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Нечіткий пошук назв продуктів: інвертований індекс триграм + перевірка відстанню Левенштейна.
+ *
+ * Кандидатів беремо лише з найрідкісніших триграм запиту (prefix filtering):
+ * рядок на відстані не більше k втрачає щонайбільше 3·k триграм запиту, тож хоча б одна
+ * з 3·k + 1 найрідкісніших триграм у нього обов'язково є.
+ */
+public class NGramIndex {
+
+    private static final int Q = 3;
+    private static final char PAD = '\u0001';
+
+    // Слот продукту -> продукт (null після видалення) та його назва у нижньому регістрі
+    private final List<IProduct> products = new ArrayList<>();
+    private final List<String> foldedNames = new ArrayList<>();
+    private final Map<IProduct, Integer> slotByProduct = new IdentityHashMap<>();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private int removedSlots;
+
+    public void add(IProduct product) {
+        int slot = products.size();
+        String folded = ProductNameIndex.fold(product.getName());
+        products.add(product);
+        foldedNames.add(folded);
+        slotByProduct.put(product, slot);
+
+        for (long gram : distinctGrams(folded)) {
+            postings.computeIfAbsent(gram, k -> new IntList()).add(slot);
+        }
+    }
+
+    public void remove(IProduct product) {
+        Integer slot = slotByProduct.remove(product);
+        if (slot == null) {
+            return;
+        }
+
+        // Записи в posting-списках залишаються, але слот позначається порожнім
+        products.set(slot, null);
+        removedSlots++;
+        if (removedSlots > 1024 && removedSlots > products.size() / 2) {
+            rebuild();
+        }
+    }
+
+    public void clear() {
+        products.clear();
+        foldedNames.clear();
+        slotByProduct.clear();
+        postings.clear();
+        removedSlots = 0;
+    }
+
+    /**
+     * Повертає до limit продуктів, назва яких відрізняється від name не більше ніж на maxDistance правок.
+     * Результати впорядковані за відстанню, потім за назвою.
+     */
+    public List<IProduct> findSimilar(String name, int maxDistance, int limit) {
+        String query = ProductNameIndex.fold(name);
+        if (query.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        long[] grams = distinctGrams(query);
+        IntList[] lists = new IntList[grams.length];
+        int present = 0;
+        for (long gram : grams) {
+            IntList list = postings.get(gram);
+            if (list != null) {
+                lists[present++] = list;
+            }
+        }
+        lists = Arrays.copyOf(lists, present);
+        Arrays.sort(lists, Comparator.comparingInt(l -> l.size));
+
+        // Скільки найрідкісніших списків достатньо переглянути; відсутні в індексі триграми
+        // вважаються найрідкіснішими (порожніми) і зменшують цю кількість
+        int mustShare = grams.length - Q * maxDistance;
+        int probe = mustShare <= 0
+                ? lists.length
+                : Math.min(lists.length, grams.length - mustShare + 1 - (grams.length - present));
+
+        Set<Integer> candidates = new HashSet<>();
+        for (int i = 0; i < probe; i++) {
+            IntList list = lists[i];
+            for (int j = 0; j < list.size; j++) {
+                candidates.add(list.values[j]);
+            }
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (int slot : candidates) {
+            IProduct product = products.get(slot);
+            if (product == null) {
+                continue;
+            }
+
+            String candidate = foldedNames.get(slot);
+            if (Math.abs(candidate.length() - query.length()) > maxDistance) {
+                continue;
+            }
+
+            int distance = boundedEditDistance(query, candidate, maxDistance);
+            if (distance <= maxDistance) {
+                matches.add(new Match(product, distance));
+            }
+        }
+
+        matches.sort(Comparator.comparingInt((Match m) -> m.distance)
+                .thenComparing(m -> m.product.getName()));
+
+        List<IProduct> result = new ArrayList<>();
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            result.add(matches.get(i).product);
+        }
+        return result;
+    }
+
+    /**
+     * Допустима кількість правок залежно від довжини запиту: 1 для коротких назв, до 3 для довгих.
+     */
+    public static int defaultMaxDistance(String name) {
+        int length = name == null ? 0 : name.length();
+        return Math.max(1, Math.min(3, length / 4));
+    }
+
+    /**
+     * Відстань Левенштейна з раннім виходом: якщо вона гарантовано більша за limit, повертає limit + 1.
+     */
+    public static int boundedEditDistance(String a, String b, int limit) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > limit) {
+            return limit + 1;
+        }
+
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[m], limit + 1);
+    }
+
+    // Унікальні триграми рядка з доповненням по краях; кожна триграма кодується в long (3 × 16 біт)
+    private static long[] distinctGrams(String folded) {
+        String padded = "" + PAD + PAD + folded + PAD + PAD;
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + Q <= padded.length(); i++) {
+            grams.add(((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2));
+        }
+
+        long[] result = new long[grams.size()];
+        int i = 0;
+        for (long gram : grams) {
+            result[i++] = gram;
+        }
+        return result;
+    }
+
+    private void rebuild() {
+        List<IProduct> alive = new ArrayList<>();
+        for (IProduct product : products) {
+            if (product != null) {
+                alive.add(product);
+            }
+        }
+
+        clear();
+        for (IProduct product : alive) {
+            add(product);
+        }
+    }
+
+    private static final class Match {
+        final IProduct product;
+        final int distance;
+
+        Match(IProduct product, int distance) {
+            this.product = product;
+            this.distance = distance;
+        }
+    }
+
+    // Мінімальний динамічний масив int без упаковки в Integer
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
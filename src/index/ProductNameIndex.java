@@ -0,0 +1,88 @@
+package index;
+
+import products.IProduct;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Відсортований індекс назв продуктів (без урахування регістру).
+ * Дає точний пошук за O(log n) і автодоповнення за префіксом за O(log n + N).
+ */
+public class ProductNameIndex {
+
+    // Ключ — назва у нижньому регістрі; значення — продукти з такою назвою (зазвичай один)
+    private final TreeMap<String, List<IProduct>> byFoldedName = new TreeMap<>();
+
+    /**
+     * Приводить назву до ключа індексу. Використовується всіма індексами за назвою.
+     */
+    public static String fold(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT);
+    }
+
+    public void add(IProduct product) {
+        byFoldedName.computeIfAbsent(fold(product.getName()), k -> new ArrayList<>(1)).add(product);
+    }
+
+    public void remove(IProduct product) {
+        String key = fold(product.getName());
+        List<IProduct> products = byFoldedName.get(key);
+        if (products == null) {
+            return;
+        }
+
+        // Видаляємо саме цей екземпляр (продукти не перевизначають equals)
+        products.removeIf(p -> p == product);
+        if (products.isEmpty()) {
+            byFoldedName.remove(key);
+        }
+    }
+
+    /**
+     * Груба оцінка пам'яті індексу: вузол TreeMap, ключ у нижньому регістрі та список.
+     */
+    public long estimateRetainedBytes() {
+        long total = 0;
+        for (String key : byFoldedName.keySet()) {
+            total += 40 + 24 + 16 + 40 + key.length() * 2L;
+        }
+        return total;
+    }
+
+    public void clear() {
+        byFoldedName.clear();
+    }
+
+    public Optional<IProduct> findExact(String name) {
+        List<IProduct> products = byFoldedName.get(fold(name));
+        return products == null ? Optional.empty() : Optional.of(products.get(0));
+    }
+
+    /**
+     * Повертає до limit продуктів, назва яких починається з prefix (в алфавітному порядку).
+     */
+    public List<IProduct> complete(String prefix, int limit) {
+        String key = fold(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        List<IProduct> result = new ArrayList<>(Math.min(limit, 16));
+        Map<String, List<IProduct>> range = byFoldedName.subMap(key, true, key + Character.MAX_VALUE, false);
+        for (List<IProduct> products : range.values()) {
+            for (IProduct product : products) {
+                result.add(product);
+                if (result.size() >= limit) {
+                    return result;
+                }
+            }
+        }
+        return result;
+    }
+}
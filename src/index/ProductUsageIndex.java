@@ -0,0 +1,72 @@
+package index;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Зворотний індекс "продукт -> салати, що його використовують".
+ * Ключі — назви у нижньому регістрі (див. ProductNameIndex.fold).
+ */
+public class ProductUsageIndex {
+
+    private final Map<String, Set<String>> saladsByProduct = new HashMap<>();
+    // Прямий індекс потрібен, щоб при перезбереженні салату прибрати його старі зв'язки
+    private final Map<String, Set<String>> productsBySalad = new HashMap<>();
+
+    /**
+     * Замінює набір продуктів салату (викликається при завантаженні та збереженні).
+     */
+    public void index(String saladName, Collection<String> productNames) {
+        String saladKey = ProductNameIndex.fold(saladName);
+        remove(saladName);
+
+        Set<String> productKeys = new LinkedHashSet<>();
+        for (String productName : productNames) {
+            productKeys.add(ProductNameIndex.fold(productName));
+        }
+
+        for (String productKey : productKeys) {
+            saladsByProduct.computeIfAbsent(productKey, k -> new LinkedHashSet<>()).add(saladKey);
+        }
+        productsBySalad.put(saladKey, productKeys);
+    }
+
+    public void remove(String saladName) {
+        String saladKey = ProductNameIndex.fold(saladName);
+        Set<String> previous = productsBySalad.remove(saladKey);
+        if (previous == null) {
+            return;
+        }
+
+        for (String productKey : previous) {
+            Set<String> salads = saladsByProduct.get(productKey);
+            if (salads != null) {
+                salads.remove(saladKey);
+                if (salads.isEmpty()) {
+                    saladsByProduct.remove(productKey);
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        saladsByProduct.clear();
+        productsBySalad.clear();
+    }
+
+    /**
+     * Ключі салатів, що використовують продукт (лише для читання).
+     */
+    public Set<String> saladsUsing(String productName) {
+        Set<String> salads = saladsByProduct.get(ProductNameIndex.fold(productName));
+        return salads == null ? Collections.emptySet() : Collections.unmodifiableSet(salads);
+    }
+
+    public boolean isUsed(String productName) {
+        return saladsByProduct.containsKey(ProductNameIndex.fold(productName));
+    }
+}
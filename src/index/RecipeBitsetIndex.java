@@ -0,0 +1,210 @@
+package index;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Склад рецептів як бітові множини над щільними номерами продуктів — для запиту
+ * "що можна приготувати з наявного".
+ *
+ * Кожен продукт, що трапляється в рецептах, отримує малий номер (номери звільнених продуктів
+ * використовуються повторно, тож множини лишаються щільними). Кількість відсутніх інгредієнтів
+ * рецепта R при наявних продуктах S — popcount(R & ~S), що рахується по 64 продукти за операцію.
+ * Ключі — назви у нижньому регістрі (див. ProductNameIndex.fold).
+ */
+public class RecipeBitsetIndex {
+
+    // Щільні номери продуктів, назви для результатів і кількість рецептів, що використовують кожен номер
+    private final Map<String, Integer> idByProduct = new HashMap<>();
+    private final List<String> productById = new ArrayList<>();
+    private final List<Integer> usageById = new ArrayList<>();
+    private final Deque<Integer> freeIds = new ArrayDeque<>();
+
+    // Слоти рецептів: бітова множина та назва (null — вільний слот)
+    private final List<long[]> recipeBits = new ArrayList<>();
+    private final List<String> recipeNames = new ArrayList<>();
+    private final Map<String, Integer> slotBySalad = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+    /**
+     * Рецепт і продукти, яких для нього бракує.
+     */
+    public static class Match {
+        private final String saladName;
+        private final List<String> missingProducts;
+
+        Match(String saladName, List<String> missingProducts) {
+            this.saladName = saladName;
+            this.missingProducts = missingProducts;
+        }
+
+        public String getSaladName() {
+            return saladName;
+        }
+
+        public int getMissingCount() {
+            return missingProducts.size();
+        }
+
+        public List<String> getMissingProducts() {
+            return new ArrayList<>(missingProducts);
+        }
+    }
+
+    /**
+     * Замінює набір продуктів салату (викликається при завантаженні та збереженні).
+     * Порожній салат з індексу прибирається: інакше його "можна приготувати" з будь-чого.
+     */
+    public void index(String saladName, Collection<String> productNames) {
+        remove(saladName);
+        if (productNames.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> products = new LinkedHashMap<>();
+        for (String productName : productNames) {
+            products.putIfAbsent(ProductNameIndex.fold(productName), productName);
+        }
+
+        int[] ids = new int[products.size()];
+        int maxId = -1;
+        int i = 0;
+        for (Map.Entry<String, String> product : products.entrySet()) {
+            int id = acquireId(product.getKey(), product.getValue());
+            ids[i++] = id;
+            maxId = Math.max(maxId, id);
+        }
+
+        long[] bits = new long[(maxId >> 6) + 1];
+        for (int id : ids) {
+            bits[id >> 6] |= 1L << id;
+        }
+
+        String saladKey = ProductNameIndex.fold(saladName);
+        Integer slot = freeSlots.poll();
+        if (slot == null) {
+            slot = recipeBits.size();
+            recipeBits.add(bits);
+            recipeNames.add(saladName);
+        } else {
+            recipeBits.set(slot, bits);
+            recipeNames.set(slot, saladName);
+        }
+        slotBySalad.put(saladKey, slot);
+    }
+
+    public void remove(String saladName) {
+        Integer slot = slotBySalad.remove(ProductNameIndex.fold(saladName));
+        if (slot == null) {
+            return;
+        }
+
+        long[] bits = recipeBits.get(slot);
+        for (int word = 0; word < bits.length; word++) {
+            long remaining = bits[word];
+            while (remaining != 0) {
+                releaseId((word << 6) + Long.numberOfTrailingZeros(remaining));
+                remaining &= remaining - 1;
+            }
+        }
+        recipeBits.set(slot, null);
+        recipeNames.set(slot, null);
+        freeSlots.push(slot);
+    }
+
+    public void clear() {
+        idByProduct.clear();
+        productById.clear();
+        usageById.clear();
+        freeIds.clear();
+        recipeBits.clear();
+        recipeNames.clear();
+        slotBySalad.clear();
+        freeSlots.clear();
+    }
+
+    public int size() {
+        return slotBySalad.size();
+    }
+
+    /**
+     * Рецепти, яким бракує не більше maxMissing продуктів із наявних availableProducts,
+     * упорядковані за кількістю відсутніх, далі за назвою.
+     */
+    public List<Match> findMakeable(Collection<String> availableProducts, int maxMissing) {
+        long[] stock = new long[(productById.size() >> 6) + 1];
+        for (String productName : availableProducts) {
+            Integer id = idByProduct.get(ProductNameIndex.fold(productName));
+            if (id != null) {
+                stock[id >> 6] |= 1L << id;
+            }
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (int slot = 0; slot < recipeBits.size(); slot++) {
+            long[] bits = recipeBits.get(slot);
+            if (bits == null) {
+                continue;
+            }
+
+            int missing = 0;
+            for (int word = 0; word < bits.length && missing <= maxMissing; word++) {
+                missing += Long.bitCount(bits[word] & ~stock[word]);
+            }
+            if (missing <= maxMissing) {
+                matches.add(new Match(recipeNames.get(slot), missingProducts(bits, stock)));
+            }
+        }
+
+        matches.sort(Comparator.comparingInt(Match::getMissingCount).thenComparing(Match::getSaladName));
+        return matches;
+    }
+
+    // Назви відсутніх продуктів будуються лише для рецептів, що пройшли відбір
+    private List<String> missingProducts(long[] bits, long[] stock) {
+        List<String> missing = new ArrayList<>();
+        for (int word = 0; word < bits.length; word++) {
+            long remaining = bits[word] & ~stock[word];
+            while (remaining != 0) {
+                missing.add(productById.get((word << 6) + Long.numberOfTrailingZeros(remaining)));
+                remaining &= remaining - 1;
+            }
+        }
+        return missing;
+    }
+
+    private int acquireId(String productKey, String productName) {
+        Integer id = idByProduct.get(productKey);
+        if (id == null) {
+            id = freeIds.poll();
+            if (id == null) {
+                id = productById.size();
+                productById.add(productName);
+                usageById.add(0);
+            } else {
+                productById.set(id, productName);
+            }
+            idByProduct.put(productKey, id);
+        }
+        usageById.set(id, usageById.get(id) + 1);
+        return id;
+    }
+
+    // Номер, який більше не використовує жоден рецепт, повертається до пулу
+    private void releaseId(int id) {
+        int usage = usageById.get(id) - 1;
+        usageById.set(id, usage);
+        if (usage == 0) {
+            idByProduct.remove(ProductNameIndex.fold(productById.get(id)));
+            productById.set(id, null);
+            freeIds.push(id);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Пошук салатів зі схожим складом: MinHash-сигнатури наборів продуктів + LSH за смугами (banding).
+ *
+ * Сигнатура — bands · rows мінімумів незалежних хешів над елементами набору; частка збігів двох
+ * сигнатур оцінює коефіцієнт Жаккара їхніх наборів. Сигнатура ділиться на bands смуг по rows значень,
+ * і салат потрапляє в кошик кожної смуги; кандидати для запиту — лише салати зі спільним кошиком,
+ * тож запит не порівнює всі рецепти попарно. Пара зі схожістю s стає кандидатом з імовірністю
+ * 1 - (1 - s^rows)^bands (для 16×4 поріг близько 0.5).
+ *
+ * Якщо задано gramsPerToken, продукт дає стільки елементів, скільки порцій цієї ваги є в салаті,
+ * і схожість наближає зважений коефіцієнт Жаккара (враховує не лише склад, а й пропорції).
+ * Репозиторій рецептів бере значення із системної властивості salad.similarity.gramsPerToken (див. configured()).
+ * Ключі — назви у нижньому регістрі (див. ProductNameIndex.fold).
+ */
+public class SaladSimilarityIndex {
+    private static final Logger logger = LogManager.getLogger(SaladSimilarityIndex.class);
+
+    public static final String GRAMS_PER_TOKEN_PROPERTY = "salad.similarity.gramsPerToken";
+
+    public static final int DEFAULT_BANDS = 16;
+    public static final int DEFAULT_ROWS = 4;
+
+    private final int bands;
+    private final int rows;
+    private final double gramsPerToken;
+    private final long[] seeds;
+
+    // Ключ салату -> сигнатура і назва для результатів
+    private final Map<String, long[]> signatures = new HashMap<>();
+    private final Map<String, String> names = new HashMap<>();
+    // Для кожної смуги: хеш смуги -> ключі салатів у кошику
+    private final List<Map<Long, Set<String>>> buckets;
+
+    /**
+     * Один знайдений салат та оцінка схожості (0..1).
+     */
+    public static class Match {
+        private final String saladName;
+        private final double similarity;
+
+        Match(String saladName, double similarity) {
+            this.saladName = saladName;
+            this.similarity = similarity;
+        }
+
+        public String getSaladName() {
+            return saladName;
+        }
+
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+
+    public SaladSimilarityIndex() {
+        this(DEFAULT_BANDS, DEFAULT_ROWS, 0);
+    }
+
+    /**
+     * gramsPerToken <= 0 — лише склад без урахування ваги.
+     */
+    public SaladSimilarityIndex(int bands, int rows, double gramsPerToken) {
+        if (bands <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("Кількість смуг і рядків LSH має бути додатною.");
+        }
+        if (!Double.isFinite(gramsPerToken)) {
+            throw new IllegalArgumentException("Вага порції для схожості має бути скінченним числом: " + gramsPerToken);
+        }
+        this.bands = bands;
+        this.rows = rows;
+        this.gramsPerToken = gramsPerToken;
+        // Фіксоване зерно: сигнатури відтворювані між запусками
+        SplittableRandom random = new SplittableRandom(0x5A1AD5EEDL);
+        this.seeds = new long[bands * rows];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = random.nextLong();
+        }
+        this.buckets = new ArrayList<>(bands);
+        for (int band = 0; band < bands; band++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Індекс зі стандартними смугами та вагою порції із системної властивості salad.similarity.gramsPerToken
+     * (грами; не задано або <= 0 — лише склад без урахування ваги).
+     */
+    public static SaladSimilarityIndex configured() {
+        String value = System.getProperty(GRAMS_PER_TOKEN_PROPERTY);
+        if (value == null || value.isBlank()) {
+            return new SaladSimilarityIndex();
+        }
+        double gramsPerToken;
+        try {
+            gramsPerToken = Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            gramsPerToken = Double.NaN;
+        }
+        if (!Double.isFinite(gramsPerToken)) {
+            logger.warn("Невірне значення {}='{}', схожість рахується лише за складом.", GRAMS_PER_TOKEN_PROPERTY, value);
+            return new SaladSimilarityIndex();
+        }
+        logger.info("Схожість салатів з урахуванням ваги: порція {} г.", gramsPerToken);
+        return new SaladSimilarityIndex(DEFAULT_BANDS, DEFAULT_ROWS, gramsPerToken);
+    }
+
+    public double getGramsPerToken() {
+        return gramsPerToken;
+    }
+
+    /**
+     * Замінює склад салату (назва продукту -> вага в міліграмах). Порожній салат з індексу прибирається.
+     */
+    public void index(String saladName, Map<String, Long> milligramsByProduct) {
+        remove(saladName);
+        long[] signature = signatureOf(milligramsByProduct);
+        if (signature == null) {
+            return;
+        }
+
+        String saladKey = ProductNameIndex.fold(saladName);
+        signatures.put(saladKey, signature);
+        names.put(saladKey, saladName);
+        for (int band = 0; band < bands; band++) {
+            buckets.get(band).computeIfAbsent(bandHash(signature, band), k -> new LinkedHashSet<>()).add(saladKey);
+        }
+    }
+
+    public void remove(String saladName) {
+        String saladKey = ProductNameIndex.fold(saladName);
+        long[] previous = signatures.remove(saladKey);
+        names.remove(saladKey);
+        if (previous == null) {
+            return;
+        }
+
+        for (int band = 0; band < bands; band++) {
+            Map<Long, Set<String>> bandBuckets = buckets.get(band);
+            long hash = bandHash(previous, band);
+            Set<String> bucket = bandBuckets.get(hash);
+            if (bucket != null) {
+                bucket.remove(saladKey);
+                if (bucket.isEmpty()) {
+                    bandBuckets.remove(hash);
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        signatures.clear();
+        names.clear();
+        buckets.forEach(Map::clear);
+    }
+
+    public int size() {
+        return signatures.size();
+    }
+
+    /**
+     * До limit салатів, найсхожіших на проіндексований салат saladName (сам він не повертається),
+     * від найсхожішого. Порожній список, якщо салату немає в індексі.
+     */
+    public List<Match> findSimilar(String saladName, int limit) {
+        String saladKey = ProductNameIndex.fold(saladName);
+        long[] signature = signatures.get(saladKey);
+        if (signature == null) {
+            return Collections.emptyList();
+        }
+        return rank(signature, saladKey, limit);
+    }
+
+    /**
+     * До limit салатів, найсхожіших на довільний склад (наприклад, ще не збережений салат).
+     */
+    public List<Match> findSimilar(Map<String, Long> milligramsByProduct, int limit) {
+        long[] signature = signatureOf(milligramsByProduct);
+        if (signature == null) {
+            return Collections.emptyList();
+        }
+        return rank(signature, null, limit);
+    }
+
+    private List<Match> rank(long[] signature, String excludedKey, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        Set<String> candidates = new HashSet<>();
+        for (int band = 0; band < bands; band++) {
+            Set<String> bucket = buckets.get(band).get(bandHash(signature, band));
+            if (bucket != null) {
+                candidates.addAll(bucket);
+            }
+        }
+        candidates.remove(excludedKey);
+
+        List<Match> matches = new ArrayList<>(candidates.size());
+        for (String candidate : candidates) {
+            matches.add(new Match(names.get(candidate), estimate(signature, signatures.get(candidate))));
+        }
+        matches.sort(Comparator.comparingDouble(Match::getSimilarity).reversed()
+                .thenComparing(Match::getSaladName));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    // Частка однакових мінімумів — незміщена оцінка коефіцієнта Жаккара
+    private static double estimate(long[] first, long[] second) {
+        int equal = 0;
+        for (int i = 0; i < first.length; i++) {
+            if (first[i] == second[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / first.length;
+    }
+
+    // null для порожнього складу
+    private long[] signatureOf(Map<String, Long> milligramsByProduct) {
+        if (milligramsByProduct.isEmpty()) {
+            return null;
+        }
+
+        long[] signature = new long[seeds.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (Map.Entry<String, Long> entry : milligramsByProduct.entrySet()) {
+            long productHash = hashOf(ProductNameIndex.fold(entry.getKey()));
+            int tokens = tokensFor(entry.getValue());
+            for (int token = 0; token < tokens; token++) {
+                long element = mix(productHash + token * 0x9E3779B97F4A7C15L);
+                for (int i = 0; i < seeds.length; i++) {
+                    long hash = mix(element ^ seeds[i]);
+                    if (hash < signature[i]) {
+                        signature[i] = hash;
+                    }
+                }
+            }
+        }
+        return signature;
+    }
+
+    private int tokensFor(long milligrams) {
+        if (gramsPerToken <= 0) {
+            return 1;
+        }
+        return (int) Math.max(1, Math.round(milligrams / 1000.0 / gramsPerToken));
+    }
+
+    private long bandHash(long[] signature, int band) {
+        long hash = band;
+        for (int row = 0; row < rows; row++) {
+            hash = hash * 31 + signature[band * rows + row];
+        }
+        return mix(hash);
+    }
+
+    // FNV-1a по символах назви
+    private static long hashOf(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // Фіналізатор MurmurHash3: рівномірно перемішує біти
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,44 @@
+package monitoring;
+
+import saving.ProductRepository;
+import saving.SaladRepository;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Реєструє MBean-и репозиторіїв у платформному MBeanServer (JConsole, jcmd, VisualVM).
+ */
+public class MonitoringRegistry {
+    private static final Logger logger = LogManager.getLogger(MonitoringRegistry.class);
+
+    public static final String DOMAIN = "salad.app";
+
+    private MonitoringRegistry() {
+    }
+
+    public static void registerRepositories(ProductRepository productRepository, SaladRepository saladRepository) {
+        register(new ProductRepositoryMonitor(productRepository), "ProductRepository");
+        register(new SaladRepositoryMonitor(saladRepository), "SaladRepository");
+    }
+
+    private static void register(Object mbean, String type) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=" + type);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(mbean, name);
+            logger.info("Зареєстровано MBean {}.", name);
+        } catch (JMException e) {
+            // Моніторинг не є критичним — програма продовжує роботу без нього
+            logger.warn("Не вдалося зареєструвати MBean для {}: {}", type, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package monitoring;
+
+import saving.ProductRepository;
+import saving.RepositoryStats;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Адаптер ProductRepository для JMX.
+ * Операції reload/flush викликаються з потоку JMX: репозиторій сам блокує свої дані,
+ * тож вони не перетинаються ні між собою, ні зі змінами з консолі.
+ */
+public class ProductRepositoryMonitor implements ProductRepositoryMonitorMBean {
+    private static final Logger logger = LogManager.getLogger(ProductRepositoryMonitor.class);
+
+    private final ProductRepository repository;
+    private final RepositoryStats stats;
+
+    public ProductRepositoryMonitor(ProductRepository repository) {
+        this.repository = repository;
+        this.stats = repository.getStats();
+    }
+
+    @Override
+    public String getFilePath() {
+        return repository.getFilePath();
+    }
+
+    @Override
+    public int getProductCount() {
+        return repository.getProductCount();
+    }
+
+    @Override
+    public long getLoadCount() {
+        return stats.getLoadCount();
+    }
+
+    @Override
+    public long getLastLoadDurationMillis() {
+        return stats.getLastLoadDurationMillis();
+    }
+
+    @Override
+    public long getSaveCount() {
+        return stats.getSaveCount();
+    }
+
+    @Override
+    public long getLastSaveDurationMillis() {
+        return stats.getLastSaveDurationMillis();
+    }
+
+    @Override
+    public long getLastSaveTimeMillis() {
+        return stats.getLastSaveTimeMillis();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return stats.getBytesWritten();
+    }
+
+    @Override
+    public long getSyncCount() {
+        return stats.getSyncCount();
+    }
+
+    @Override
+    public long getSkippedWrites() {
+        return stats.getSkippedWrites();
+    }
+
+    @Override
+    public long getParseErrors() {
+        return stats.getParseErrors();
+    }
+
+    @Override
+    public long getEstimatedRetainedBytes() {
+        return repository.estimateRetainedBytes();
+    }
+
+    @Override
+    public void reload() {
+        logger.info("JMX: запит на перезавантаження каталогу продуктів.");
+        repository.loadFromFile();
+    }
+
+    @Override
+    public void flush() {
+        logger.info("JMX: запит на примусове збереження каталогу продуктів.");
+        repository.forceSaveToFile();
+    }
+}
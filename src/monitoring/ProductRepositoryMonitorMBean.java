@@ -0,0 +1,37 @@
+package monitoring;
+
+/**
+ * JMX-інтерфейс моніторингу каталогу продуктів (видно в JConsole як salad.app:type=ProductRepository).
+ */
+public interface ProductRepositoryMonitorMBean {
+
+    String getFilePath();
+
+    int getProductCount();
+
+    long getLoadCount();
+
+    long getLastLoadDurationMillis();
+
+    long getSaveCount();
+
+    long getLastSaveDurationMillis();
+
+    long getLastSaveTimeMillis();
+
+    long getBytesWritten();
+
+    long getParseErrors();
+
+    long getSyncCount();
+
+    long getSkippedWrites();
+
+    long getEstimatedRetainedBytes();
+
+    // Перечитує каталог із файлу
+    void reload();
+
+    // Записує каталог у файл навіть без змін у пам'яті (напр. щоб відновити видалений файл)
+    void flush();
+}
@@ -0,0 +1,101 @@
+package monitoring;
+
+import saving.RepositoryStats;
+import saving.SaladRepository;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Адаптер SaladRepository для JMX.
+ * Операції reload/flush викликаються з потоку JMX: репозиторій сам блокує свої дані,
+ * тож вони не перетинаються ні між собою, ні зі змінами з консолі.
+ */
+public class SaladRepositoryMonitor implements SaladRepositoryMonitorMBean {
+    private static final Logger logger = LogManager.getLogger(SaladRepositoryMonitor.class);
+
+    private final SaladRepository repository;
+    private final RepositoryStats stats;
+
+    public SaladRepositoryMonitor(SaladRepository repository) {
+        this.repository = repository;
+        this.stats = repository.getStats();
+    }
+
+    @Override
+    public String getDirectoryPath() {
+        return repository.getDirectoryPath();
+    }
+
+    @Override
+    public int getSaladCount() {
+        return repository.getSaladCount();
+    }
+
+    @Override
+    public long getLoadCount() {
+        return stats.getLoadCount();
+    }
+
+    @Override
+    public long getLastLoadDurationMillis() {
+        return stats.getLastLoadDurationMillis();
+    }
+
+    @Override
+    public long getSaveCount() {
+        return stats.getSaveCount();
+    }
+
+    @Override
+    public long getLastSaveDurationMillis() {
+        return stats.getLastSaveDurationMillis();
+    }
+
+    @Override
+    public long getLastSaveTimeMillis() {
+        return stats.getLastSaveTimeMillis();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return stats.getBytesWritten();
+    }
+
+    @Override
+    public long getSyncCount() {
+        return stats.getSyncCount();
+    }
+
+    @Override
+    public long getSkippedWrites() {
+        return stats.getSkippedWrites();
+    }
+
+    @Override
+    public long getConflicts() {
+        return stats.getConflicts();
+    }
+
+    @Override
+    public long getParseErrors() {
+        return stats.getParseErrors();
+    }
+
+    @Override
+    public long getEstimatedRetainedBytes() {
+        return repository.estimateRetainedBytes();
+    }
+
+    @Override
+    public void reload() {
+        logger.info("JMX: запит на перезавантаження рецептів.");
+        repository.loadAllSalads();
+    }
+
+    @Override
+    public void flush() {
+        logger.info("JMX: запит на збереження всіх рецептів.");
+        repository.saveAllSalads();
+    }
+}
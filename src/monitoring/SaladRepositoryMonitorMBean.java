@@ -0,0 +1,39 @@
+package monitoring;
+
+/**
+ * JMX-інтерфейс моніторингу рецептів салатів (видно в JConsole як salad.app:type=SaladRepository).
+ */
+public interface SaladRepositoryMonitorMBean {
+
+    String getDirectoryPath();
+
+    int getSaladCount();
+
+    long getLoadCount();
+
+    long getLastLoadDurationMillis();
+
+    long getSaveCount();
+
+    long getLastSaveDurationMillis();
+
+    long getLastSaveTimeMillis();
+
+    long getBytesWritten();
+
+    long getParseErrors();
+
+    long getSyncCount();
+
+    long getSkippedWrites();
+
+    long getConflicts();
+
+    long getEstimatedRetainedBytes();
+
+    // Перечитує всі рецепти з директорії
+    void reload();
+
+    // Примусово перезаписує файли всіх рецептів
+    void flush();
+}
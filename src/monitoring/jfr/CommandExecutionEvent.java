@@ -0,0 +1,59 @@
+package monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-подія для виконання команди консольного меню.
+ * Як і PersistenceEvent, створюється лише під час активного запису.
+ */
+@Name("salad.CommandExecution")
+@Label("Command Execution")
+@Category({"Salad App", "Commands"})
+@Description("Виконання пункту меню (Command.execute)")
+public class CommandExecutionEvent extends Event {
+
+    private static final CommandExecutionEvent PROBE = new CommandExecutionEvent();
+
+    @Label("Menu Key")
+    private String menuKey;
+
+    @Label("Command")
+    private String commandClass;
+
+    @Label("Title")
+    private String title;
+
+    /**
+     * Починає відлік тривалості команди; null, якщо подія зараз не записується.
+     */
+    public static CommandExecutionEvent beginIfEnabled() {
+        if (!PROBE.isEnabled()) {
+            return null;
+        }
+        CommandExecutionEvent event = new CommandExecutionEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Завершує подію, розпочату beginIfEnabled (event може бути null). Клас і назва команди
+     * обчислюються лише для подій, що будуть записані.
+     */
+    public static void finish(CommandExecutionEvent event, String menuKey, Object command, String title) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.menuKey = menuKey;
+        event.commandClass = command.getClass().getSimpleName();
+        event.title = title;
+        event.commit();
+    }
+}
@@ -0,0 +1,75 @@
+package monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-подія для операцій читання/запису репозиторіїв.
+ * Якщо запис JFR не активний, об'єкт події не створюється (beginIfEnabled повертає null),
+ * а поля заповнюються лише для подій, що пройшли поріг запису (shouldCommit).
+ */
+@Name("salad.Persistence")
+@Label("Persistence Operation")
+@Category({"Salad App", "Persistence"})
+@Description("Завантаження, збереження або видалення даних репозиторію")
+public class PersistenceEvent extends Event {
+
+    // Один екземпляр лише для перевірки isEnabled() без створення події на кожен виклик
+    private static final PersistenceEvent PROBE = new PersistenceEvent();
+
+    @Label("Repository")
+    private String repository;
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Path")
+    private String path;
+
+    @Label("Record Count")
+    private int recordCount;
+
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    @Label("Success")
+    private boolean success;
+
+    /**
+     * Починає відлік тривалості операції; null, якщо подія зараз не записується.
+     */
+    public static PersistenceEvent beginIfEnabled() {
+        if (!PROBE.isEnabled()) {
+            return null;
+        }
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Завершує подію, розпочату beginIfEnabled (event може бути null).
+     */
+    public static void finish(PersistenceEvent event, String repository, String operation, String path,
+                              int recordCount, long bytes, boolean success) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.repository = repository;
+        event.operation = operation;
+        event.path = path;
+        event.recordCount = recordCount;
+        event.bytes = bytes;
+        event.success = success;
+        event.commit();
+    }
+}
@@ -6,14 +6,14 @@ import java.util.Optional;
 public class Dressing implements IProduct {
 
     private final String name;
-    private final double caloriesPer100g;
+    private final long milliCaloriesPer100g; // мілікалорії, double-геттер — лише представлення
 
     // Тип основи заправки ("Олійна", "Вершкова", "Кисломолочна", "Кисла").
     private final String baseType;
 
     public Dressing(String name, double caloriesPer100g, String baseType) {
         this.name = name;
-        this.caloriesPer100g = caloriesPer100g;
+        this.milliCaloriesPer100g = FixedPoint.toMilli(FixedPoint.requireNonNegative(caloriesPer100g, "калорійність"));
         this.baseType = baseType;
     }
 
@@ -28,7 +28,12 @@ public class Dressing implements IProduct {
 
     @Override
     public double getCaloriesPer100g() {
-        return this.caloriesPer100g;
+        return FixedPoint.toDouble(this.milliCaloriesPer100g);
+    }
+
+    @Override
+    public long getMilliCaloriesPer100g() {
+        return this.milliCaloriesPer100g;
     }
 
     @Override
@@ -58,8 +63,13 @@ public class Dressing implements IProduct {
 
     @Override
     public String toTxtLine() {
-        return String.format("Dressing;%s;%.2f;%s",
-                this.getName(), this.getCaloriesPer100g(), this.getBaseType());
+        return String.format("Dressing;%s;%s;%s",
+                this.getName(), FixedPoint.format(this.getMilliCaloriesPer100g()), this.getBaseType());
+    }
+
+    @Override
+    public ProductKind getKind() {
+        return ProductKind.DRESSING;
     }
 
     @Override
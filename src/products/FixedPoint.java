@@ -0,0 +1,95 @@
+package products;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Числа з фіксованою крапкою: тисячні частки в long (міліграми, мілікалорії).
+ *
+ * Суми таких значень точні й не залежать від порядку додавання (у тому числі в паралельних потоках),
+ * а текстове представлення не залежить від локалі: завжди крапка як роздільник.
+ */
+public final class FixedPoint {
+
+    public static final long SCALE = 1000;
+    // Найбільше значення, тисячні частки якого ще вміщаються в long
+    public static final double MAX_VALUE = (double) (Long.MAX_VALUE / SCALE);
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Значення у тисячних частках (округлення до найближчого).
+     */
+    public static long toMilli(double value) {
+        if (!(Math.abs(value) <= MAX_VALUE)) {
+            throw new IllegalArgumentException("Некоректне числове значення: " + value);
+        }
+        return Math.round(value * SCALE);
+    }
+
+    /**
+     * Перевірка числового поля продукту при створенні: NaN, нескінченність, від'ємні та завеликі
+     * значення відхиляються одразу, а не під час запису каталогу.
+     */
+    public static double requireNonNegative(double value, String field) {
+        if (!(value >= 0 && value <= MAX_VALUE)) {
+            throw new IllegalArgumentException("Поле '" + field + "' має бути невід'ємним числом: " + value);
+        }
+        return value;
+    }
+
+    public static double toDouble(long milli) {
+        return (double) milli / SCALE;
+    }
+
+    /**
+     * a * b / divisor з округленням половини вгору — для добутків на кшталт "вага × калорійність".
+     */
+    public static long multiplyDivide(long a, long b, long divisor) {
+        long product = Math.multiplyExact(a, b);
+        return Math.floorDiv(Math.addExact(product, divisor / 2), divisor);
+    }
+
+    /**
+     * Текстове представлення без урахування локалі: щонайменше два знаки після крапки ("41.00", "0.125").
+     */
+    public static String format(long milli) {
+        StringBuilder text = new StringBuilder();
+        if (milli < 0) {
+            text.append('-');
+        }
+        long abs = Math.abs(milli);
+        text.append(abs / SCALE).append('.');
+
+        String fraction = String.valueOf(SCALE + abs % SCALE).substring(1);
+        if (fraction.charAt(2) == '0') {
+            fraction = fraction.substring(0, 2);
+        }
+        return text.append(fraction).toString();
+    }
+
+    /**
+     * Те саме для значення, що зберігається як double (вміст цукру, клітковини тощо).
+     */
+    public static String toText(double value) {
+        return format(toMilli(value));
+    }
+
+    /**
+     * Розбір числа з файлу чи консолі. Приймає і крапку, і кому (файли, записані старими версіями через %.2f).
+     */
+    public static long parse(String text) {
+        if (text == null) {
+            throw new NumberFormatException("Рядок для парсингу є null.");
+        }
+        try {
+            return new BigDecimal(text.trim().replace(',', '.'))
+                    .movePointRight(3)
+                    .setScale(0, RoundingMode.HALF_UP)
+                    .longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Число поза допустимим діапазоном: " + text);
+        }
+    }
+}
@@ -9,7 +9,7 @@ public class FruitingVegetable extends Vegetable {
 
     public FruitingVegetable(String name, double calories, double waterContentPercent) {
         super(name, calories);
-        this.waterContentPercent = waterContentPercent;
+        this.waterContentPercent = FixedPoint.requireNonNegative(waterContentPercent, "вміст води");
     }
 
     public double getWaterContentPercent() {
@@ -44,8 +44,14 @@ public class FruitingVegetable extends Vegetable {
 
     @Override
     public String toTxtLine() {
-        return String.format("FruitingVegetable;%s;%.2f;%.2f;%b",
-                this.getName(), this.getCaloriesPer100g(), this.getWaterContentPercent(), this.needsSeedRemoval());
+        return String.format("FruitingVegetable;%s;%s;%s;%b",
+                this.getName(), FixedPoint.format(this.getMilliCaloriesPer100g()),
+                FixedPoint.toText(this.getWaterContentPercent()), this.needsSeedRemoval());
+    }
+
+    @Override
+    public ProductKind getKind() {
+        return ProductKind.FRUITING_VEGETABLE;
     }
 
     @Override
@@ -5,7 +5,22 @@ import java.util.Optional;
 public interface IProduct {
     String getName();
     double getCaloriesPer100g();
+
+    /**
+     * Калорійність на 100 г у мілікалоріях (фіксована крапка, див. FixedPoint).
+     */
+    default long getMilliCaloriesPer100g() {
+        return FixedPoint.toMilli(getCaloriesPer100g());
+    }
+
     Optional<String> getCookingTip();
     String toTxtLine();
     String getUkrName();
+
+    /**
+     * Тип продукту. Конкретні класи повертають константу; за замовчуванням тип визначається за класом.
+     */
+    default ProductKind getKind() {
+        return ProductKind.of(this);
+    }
 }
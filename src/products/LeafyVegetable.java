@@ -9,7 +9,7 @@ public class LeafyVegetable extends Vegetable {
 
     public LeafyVegetable(String name, double caloriesPer100g, double fiberContent) {
         super(name, caloriesPer100g);
-        this.fiberContent = fiberContent;
+        this.fiberContent = FixedPoint.requireNonNegative(fiberContent, "вміст клітковини");
     }
 
     public double getFiberContent() {
@@ -32,8 +32,14 @@ public class LeafyVegetable extends Vegetable {
 
     @Override
     public String toTxtLine() {
-        return String.format("LeafyVegetable;%s;%.2f;%.2f",
-                this.getName(), this.getCaloriesPer100g(), this.getFiberContent());
+        return String.format("LeafyVegetable;%s;%s;%s",
+                this.getName(), FixedPoint.format(this.getMilliCaloriesPer100g()),
+                FixedPoint.toText(this.getFiberContent()));
+    }
+
+    @Override
+    public ProductKind getKind() {
+        return ProductKind.LEAFY_VEGETABLE;
     }
 
     @Override
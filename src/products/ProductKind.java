@@ -0,0 +1,77 @@
+package products;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Конкретний тип продукту. Назва типу збігається з першим полем рядка у файлі каталогу.
+ *
+ * Порядок констант — частина бінарного формату (OffHeapProductCatalog зберігає ordinal),
+ * тому нові типи додаються лише в кінець.
+ */
+public enum ProductKind {
+    ROOT_VEGETABLE("RootVegetable"),
+    LEAFY_VEGETABLE("LeafyVegetable"),
+    FRUITING_VEGETABLE("FruitingVegetable"),
+    TUBER_VEGETABLE("TuberVegetable"),
+    DRESSING("Dressing"),
+    TOPPING("Topping");
+
+    private static final ProductKind[] VALUES = values();
+
+    public static final Set<ProductKind> VEGETABLES =
+            Collections.unmodifiableSet(EnumSet.range(ROOT_VEGETABLE, TUBER_VEGETABLE));
+    public static final Set<ProductKind> DRESSINGS = Collections.unmodifiableSet(EnumSet.of(DRESSING));
+    public static final Set<ProductKind> TOPPINGS = Collections.unmodifiableSet(EnumSet.of(TOPPING));
+
+    private final String typeName;
+
+    ProductKind(String typeName) {
+        this.typeName = typeName;
+    }
+
+    public String getTypeName() {
+        return typeName;
+    }
+
+    public boolean isVegetable() {
+        return this != DRESSING && this != TOPPING;
+    }
+
+    public static ProductKind fromOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal >= VALUES.length) {
+            throw new IllegalArgumentException("Невідомий код типу продукту: " + ordinal);
+        }
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Тип за назвою з файлу каталогу (напр. "LeafyVegetable"), без урахування регістру.
+     */
+    public static ProductKind fromTypeName(String typeName) {
+        for (ProductKind kind : VALUES) {
+            if (kind.typeName.equalsIgnoreCase(typeName)) {
+                return kind;
+            }
+        }
+        throw new IllegalArgumentException("Невідомий тип продукту: " + typeName);
+    }
+
+    public static ProductKind of(IProduct product) {
+        if (product instanceof RootVegetable) {
+            return ROOT_VEGETABLE;
+        } else if (product instanceof LeafyVegetable) {
+            return LEAFY_VEGETABLE;
+        } else if (product instanceof FruitingVegetable) {
+            return FRUITING_VEGETABLE;
+        } else if (product instanceof TuberVegetable) {
+            return TUBER_VEGETABLE;
+        } else if (product instanceof Dressing) {
+            return DRESSING;
+        } else if (product instanceof Topping) {
+            return TOPPING;
+        }
+        throw new IllegalArgumentException("Невідомий клас продукту: " + product.getClass().getName());
+    }
+}
@@ -10,7 +10,7 @@ public class RootVegetable extends Vegetable {
 
     public RootVegetable(String name, double caloriesPer100g, double sugarContent, boolean isHard) {
         super(name, caloriesPer100g);
-        this.sugarContent = sugarContent;
+        this.sugarContent = FixedPoint.requireNonNegative(sugarContent, "вміст цукру");
         this.isHard = isHard;
     }
 
@@ -45,8 +45,14 @@ public class RootVegetable extends Vegetable {
 
     @Override
     public String toTxtLine() {
-        return String.format("RootVegetable;%s;%.2f;%.2f;%b",
-                this.getName(), this.getCaloriesPer100g(), this.getSugarContent(), this.isHard());
+        return String.format("RootVegetable;%s;%s;%s;%b",
+                this.getName(), FixedPoint.format(this.getMilliCaloriesPer100g()),
+                FixedPoint.toText(this.getSugarContent()), this.isHard());
+    }
+
+    @Override
+    public ProductKind getKind() {
+        return ProductKind.ROOT_VEGETABLE;
     }
 
     @Override
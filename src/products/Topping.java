@@ -6,14 +6,14 @@ import java.util.Optional;
 public class Topping implements IProduct {
 
     private final String name;
-    private final double caloriesPer100g;
+    private final long milliCaloriesPer100g; // мілікалорії, double-геттер — лише представлення
 
     // Чи є цей додаток хрустким (сухарики, горіхи).
     private final boolean isCrunchy;
 
     public Topping(String name, double caloriesPer100g, boolean isCrunchy) {
         this.name = name;
-        this.caloriesPer100g = caloriesPer100g;
+        this.milliCaloriesPer100g = FixedPoint.toMilli(FixedPoint.requireNonNegative(caloriesPer100g, "калорійність"));
         this.isCrunchy = isCrunchy;
     }
 
@@ -28,7 +28,12 @@ public class Topping implements IProduct {
 
     @Override
     public double getCaloriesPer100g() {
-        return this.caloriesPer100g;
+        return FixedPoint.toDouble(this.milliCaloriesPer100g);
+    }
+
+    @Override
+    public long getMilliCaloriesPer100g() {
+        return this.milliCaloriesPer100g;
     }
 
     @Override
@@ -44,8 +49,13 @@ public class Topping implements IProduct {
 
     @Override
     public String toTxtLine() {
-        return String.format("Topping;%s;%.2f;%b",
-                this.getName(), this.getCaloriesPer100g(), this.isCrunchy());
+        return String.format("Topping;%s;%s;%b",
+                this.getName(), FixedPoint.format(this.getMilliCaloriesPer100g()), this.isCrunchy());
+    }
+
+    @Override
+    public ProductKind getKind() {
+        return ProductKind.TOPPING;
     }
 
     @Override
@@ -9,7 +9,7 @@ public class TuberVegetable extends Vegetable {
 
     public TuberVegetable(String name, double calories, double starchContent) {
         super(name, calories);
-        this.starchContent = starchContent;
+        this.starchContent = FixedPoint.requireNonNegative(starchContent, "вміст крохмалю");
     }
 
     public double getStarchContent() {
@@ -25,8 +25,14 @@ public class TuberVegetable extends Vegetable {
 
     @Override
     public String toTxtLine() {
-        return String.format("TuberVegetable;%s;%.2f;%.2f",
-                this.getName(), this.getCaloriesPer100g(), this.getStarchContent());
+        return String.format("TuberVegetable;%s;%s;%s",
+                this.getName(), FixedPoint.format(this.getMilliCaloriesPer100g()),
+                FixedPoint.toText(this.getStarchContent()));
+    }
+
+    @Override
+    public ProductKind getKind() {
+        return ProductKind.TUBER_VEGETABLE;
     }
 
     @Override
@@ -5,11 +5,11 @@ import java.util.Optional;
 public abstract class Vegetable implements IProduct {
 
     private String name;
-    private double caloriesPer100g;
+    private long milliCaloriesPer100g; // мілікалорії, double-геттер — лише представлення
 
     public Vegetable(String name, double caloriesPer100g) {
         this.name = name;
-        this.caloriesPer100g = caloriesPer100g;
+        this.milliCaloriesPer100g = FixedPoint.toMilli(FixedPoint.requireNonNegative(caloriesPer100g, "калорійність"));
     }
 
     @Override
@@ -19,7 +19,12 @@ public abstract class Vegetable implements IProduct {
 
     @Override
     public double getCaloriesPer100g() {
-        return this.caloriesPer100g;
+        return FixedPoint.toDouble(this.milliCaloriesPer100g);
+    }
+
+    @Override
+    public long getMilliCaloriesPer100g() {
+        return this.milliCaloriesPer100g;
     }
 
     @Override
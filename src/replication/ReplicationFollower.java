@@ -0,0 +1,343 @@
+package replication;
+
+import event.ChangeEvent;
+import index.ProductNameIndex;
+import products.IProduct;
+import salad.Salad;
+import saving.ProductRepository;
+import saving.SaladRepository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Репліка лише для читання: отримує стрічку змін від ReplicationLeader і застосовує її
+ * до власних репозиторіїв у пам'яті (getProductRepository / getSaladRepository).
+ *
+ * Після розриву з'єднання репліка перепідключається і продовжує з останнього застосованого запису;
+ * якщо лідер уже не має потрібних записів (або перезапустився), він надсилає повний знімок.
+ *
+ * Зміни застосовує потік репліки, поки інші потоки читають репозиторії, тож читання покладається
+ * на власні блокування ProductRepository і SaladRepository: узгоджений лише кожен окремий виклик.
+ * Каталог і рецепти оновлюються не разом (салат може на мить посилатися на продукт, якого каталог
+ * ще не має), а під час застосування знімка видно суміш старого й нового стану. Об'єкти Salad
+ * репліка може змінювати на місці (заміна продукту), тож склад варто читати одним getIngredients().
+ * Стабільний стан на певний номер — після awaitSequence, доки не надійшли нові записи.
+ */
+public class ReplicationFollower implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(ReplicationFollower.class);
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final int RECONNECT_DELAY_MILLIS = 1000;
+    // Без кадрів протягом кількох інтервалів heartbeat лідер вважається недоступним
+    private static final int READ_TIMEOUT_MILLIS = 3 * ReplicationProtocol.HEARTBEAT_INTERVAL_MILLIS;
+
+    private final InetSocketAddress leaderAddress;
+    private final ProductRepository products = ProductRepository.inMemory();
+    private final SaladRepository salads = SaladRepository.inMemory(products);
+    private Thread thread;
+    private final Object progress = new Object();
+
+    private volatile boolean closed;
+    private volatile boolean connected;
+    private volatile Socket socket;
+    private long leaderEpoch;
+    private volatile long appliedSequence = ReplicationProtocol.NO_STATE;
+    private volatile long leaderSequence;
+    // Локальний час, коли репліка востаннє наздогнала лідера, і коли отримала від нього останній кадр
+    private volatile long caughtUpAtMillis = System.currentTimeMillis();
+    private volatile long lastContactMillis;
+    private volatile long snapshotCount;
+    private volatile long appliedCount;
+
+    public ReplicationFollower(String host, int port) {
+        this.leaderAddress = new InetSocketAddress(host, port);
+    }
+
+    // Потік створюється тут, а не в конструкторі: this::run не публікує ще не сконструйований об'єкт
+    public synchronized void start() {
+        if (thread != null) {
+            throw new IllegalStateException("Репліку вже запущено.");
+        }
+        logger.info("Репліка підключається до лідера {}.", leaderAddress);
+        thread = new Thread(this::run, "replication-follower");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public ProductRepository getProductRepository() {
+        return products;
+    }
+
+    public SaladRepository getSaladRepository() {
+        return salads;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Номер останнього застосованого запису лідера; NO_STATE (-1), доки не отримано перший знімок.
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    public long getLeaderSequence() {
+        return leaderSequence;
+    }
+
+    /**
+     * Відставання в записах: скільки змін лідера, про які репліка вже знає, ще не застосовано.
+     */
+    public long getLagRecords() {
+        return Math.max(0, leaderSequence - appliedSequence);
+    }
+
+    /**
+     * Відставання в часі: скільки мілісекунд (за локальним годинником) репліка не була синхронною з лідером.
+     */
+    public long getLagMillis() {
+        return getLagRecords() == 0 ? 0 : System.currentTimeMillis() - caughtUpAtMillis;
+    }
+
+    /**
+     * Мілісекунди від останнього кадру лідера; -1, якщо зв'язку ще не було.
+     */
+    public long getMillisSinceLastContact() {
+        return lastContactMillis == 0 ? -1 : System.currentTimeMillis() - lastContactMillis;
+    }
+
+    public long getSnapshotCount() {
+        return snapshotCount;
+    }
+
+    public long getAppliedCount() {
+        return appliedCount;
+    }
+
+    /**
+     * Чекає, доки репліка застосує запис із номером sequence. Повертає false, якщо час вичерпано.
+     */
+    public boolean awaitSequence(long sequence, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (progress) {
+            while (appliedSequence < sequence) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                progress.wait(remaining);
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                logger.debug("Помилка закриття сокета репліки: {}", e.getMessage());
+            }
+        }
+        synchronized (this) {
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+        logger.info("Репліку зупинено на #{}.", appliedSequence);
+    }
+
+    private void run() {
+        while (!closed) {
+            try (Socket connection = new Socket()) {
+                socket = connection;
+                connection.connect(leaderAddress, CONNECT_TIMEOUT_MILLIS);
+                connection.setSoTimeout(READ_TIMEOUT_MILLIS);
+                connection.setTcpNoDelay(true);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+
+                long epoch = in.readLong();
+                boolean sameHistory = epoch == leaderEpoch && appliedSequence != ReplicationProtocol.NO_STATE;
+                leaderEpoch = epoch;
+                out.writeLong(sameHistory ? appliedSequence : ReplicationProtocol.NO_STATE);
+                out.flush();
+                connected = true;
+                logger.info("Репліку підключено до {} (продовження з #{}).", leaderAddress,
+                        sameHistory ? appliedSequence : "знімка");
+
+                while (!closed) {
+                    readFrame(in);
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    logger.warn("Зв'язок з лідером {} втрачено: {}. Повтор через {} мс.",
+                            leaderAddress, e.getMessage(), RECONNECT_DELAY_MILLIS);
+                }
+            } finally {
+                connected = false;
+                socket = null;
+            }
+
+            if (!closed) {
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void readFrame(DataInputStream in) throws IOException {
+        byte frame = in.readByte();
+        lastContactMillis = System.currentTimeMillis();
+        switch (frame) {
+            case ReplicationProtocol.HEARTBEAT:
+                observeLeader(in.readLong());
+                in.readLong();
+                break;
+            case ReplicationProtocol.RECORD:
+                long sequence = in.readLong();
+                in.readLong();
+                ChangeEvent.Type type = ChangeEvent.Type.valueOf(ReplicationProtocol.readString(in));
+                String subject = ReplicationProtocol.readString(in);
+                String previousSubject = ReplicationProtocol.readString(in);
+                String payload = ReplicationProtocol.readString(in);
+                observeLeader(sequence);
+                applyRecord(type, subject, previousSubject, payload);
+                appliedCount++;
+                advance(sequence);
+                break;
+            case ReplicationProtocol.SNAPSHOT:
+                applySnapshot(in);
+                break;
+            default:
+                throw new IOException("Невідомий кадр реплікації: " + frame);
+        }
+    }
+
+    private void observeLeader(long sequence) {
+        if (sequence > leaderSequence) {
+            leaderSequence = sequence;
+        }
+        if (appliedSequence >= leaderSequence) {
+            caughtUpAtMillis = System.currentTimeMillis();
+        }
+    }
+
+    private void advance(long sequence) {
+        synchronized (progress) {
+            appliedSequence = sequence;
+            if (sequence >= leaderSequence) {
+                caughtUpAtMillis = System.currentTimeMillis();
+            }
+            progress.notifyAll();
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Застосовано #{}, відставання {} записів.", sequence, getLagRecords());
+        }
+    }
+
+    // Записи після знімка можуть повторювати вже включені в нього зміни, тож застосування ідемпотентне
+    private void applyRecord(ChangeEvent.Type type, String subject, String previousSubject, String payload) {
+        switch (type) {
+            case PRODUCT_ADDED:
+            case PRODUCT_UPDATED:
+                List<IProduct> parsed = products.parseCatalog(List.of(payload));
+                if (parsed.isEmpty()) {
+                    logger.warn("Запис продукту '{}' не розпізнано, пропущено: {}", subject, payload);
+                    return;
+                }
+                IProduct product = parsed.get(0);
+                Optional<IProduct> existing = previousSubject != null
+                        ? products.getProductByName(previousSubject) : Optional.empty();
+                if (existing.isEmpty()) {
+                    existing = products.getProductByName(product.getName());
+                }
+                if (existing.isEmpty()) {
+                    products.addProduct(product);
+                } else if (!existing.get().toTxtLine().equals(product.toTxtLine())) {
+                    products.updateProduct(existing.get(), product);
+                    salads.replaceProductInSalads(existing.get(), product);
+                }
+                break;
+            case PRODUCT_REMOVED:
+                products.getProductByName(subject).ifPresent(products::removeProduct);
+                break;
+            case SALAD_SAVED:
+                salads.saveSalad(salads.parseRecipe(subject, payload));
+                break;
+            case SALAD_DELETED:
+                salads.deleteSalad(subject);
+                break;
+            default:
+                // Перезавантаження лідер замінює знімком
+                logger.debug("Запис {} не потребує застосування.", type);
+        }
+    }
+
+    private void applySnapshot(DataInputStream in) throws IOException {
+        long sequence = in.readLong();
+        int productCount = in.readInt();
+        List<String> lines = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i++) {
+            lines.add(ReplicationProtocol.readString(in));
+        }
+        int saladCount = in.readInt();
+        List<String[]> recipes = new ArrayList<>(saladCount);
+        for (int i = 0; i < saladCount; i++) {
+            recipes.add(new String[]{ReplicationProtocol.readString(in), ReplicationProtocol.readString(in)});
+        }
+
+        List<IProduct> snapshotProducts = products.parseCatalog(lines);
+        Set<String> productNames = new HashSet<>();
+        for (IProduct product : snapshotProducts) {
+            productNames.add(ProductNameIndex.fold(product.getName()));
+        }
+        for (IProduct product : products.getAllProducts()) {
+            if (!productNames.contains(ProductNameIndex.fold(product.getName()))) {
+                products.removeProduct(product);
+            }
+        }
+        products.upsertAll(snapshotProducts);
+
+        // Салати перебудовуються повністю: так вони посилаються на продукти з оновленого каталогу
+        Set<String> saladNames = new HashSet<>();
+        for (String[] recipe : recipes) {
+            saladNames.add(ProductNameIndex.fold(recipe[0]));
+            salads.saveSalad(salads.parseRecipe(recipe[0], recipe[1]));
+        }
+        for (Salad salad : salads.getAllSalads()) {
+            if (!saladNames.contains(ProductNameIndex.fold(salad.getName()))) {
+                salads.deleteSalad(salad.getName());
+            }
+        }
+
+        snapshotCount++;
+        observeLeader(sequence);
+        advance(sequence);
+        logger.info("Застосовано знімок #{}: {} продуктів, {} салатів.", sequence,
+                products.getProductCount(), salads.getSaladCount());
+    }
+}
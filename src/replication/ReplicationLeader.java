@@ -0,0 +1,292 @@
+package replication;
+
+import event.ChangeEvent;
+import event.ChangeFeed;
+import event.ChangeRecord;
+import products.IProduct;
+import saving.ProductRepository;
+import saving.SaladRepository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Лідер реплікації: роздає стрічку змін каталогу й рецептів репліками через TCP.
+ *
+ * Кожна репліка обслуговується окремим потоком-відправником. Записи стрічки надходять у чергу
+ * з обмеженим запитом (backpressure Flow), тож повільна репліка не займає пул стрічки і не накопичує пам'ять:
+ * якщо вона відстане більше, ніж вміщує буфер стрічки, лідер надішле їй знімок і продовжить з його номера.
+ */
+public class ReplicationLeader implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(ReplicationLeader.class);
+
+    // Скільки записів відправник може тримати в черзі (і, відповідно, запитати наперед у стрічки)
+    private static final int WINDOW = 256;
+    // Сигнал відправнику: стрічка обірвалась (відрив від буфера), потрібен знімок
+    private static final Object RESYNC = new Object();
+
+    private final ProductRepository productRepository;
+    private final SaladRepository saladRepository;
+    private final ChangeFeed feed;
+    private final ServerSocket serverSocket;
+    private final List<FollowerSession> sessions = new CopyOnWriteArrayList<>();
+    private final Thread acceptThread;
+    // Епоха відрізняє історії записів різних запусків лідера
+    private final long epoch = ThreadLocalRandom.current().nextLong();
+    private volatile boolean closed;
+
+    /**
+     * Починає приймати репліки на порту port (0 — будь-який вільний, див. getPort) на всіх інтерфейсах.
+     */
+    public ReplicationLeader(ProductRepository productRepository, SaladRepository saladRepository, int port)
+            throws IOException {
+        this(productRepository, saladRepository, new InetSocketAddress(port));
+    }
+
+    public ReplicationLeader(ProductRepository productRepository, SaladRepository saladRepository,
+                             InetSocketAddress address) throws IOException {
+        this.productRepository = productRepository;
+        this.saladRepository = saladRepository;
+        this.feed = productRepository.getChangeFeed();
+        this.serverSocket = new ServerSocket();
+        // Перезапущений лідер має зайняти той самий порт, навіть якщо старі з'єднання ще в TIME_WAIT
+        this.serverSocket.setReuseAddress(true);
+        this.serverSocket.bind(address);
+        this.acceptThread = new Thread(this::acceptLoop, "replication-leader");
+        this.acceptThread.setDaemon(true);
+        this.acceptThread.start();
+        logger.info("Лідер реплікації слухає {}.", serverSocket.getLocalSocketAddress());
+    }
+
+    /**
+     * Лідер лише на loopback-інтерфейсі (локальні репліки й тести).
+     */
+    public static ReplicationLeader onLoopback(ProductRepository productRepository, SaladRepository saladRepository,
+                                               int port) throws IOException {
+        return new ReplicationLeader(productRepository, saladRepository,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getFollowerCount() {
+        return sessions.size();
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                FollowerSession session = new FollowerSession(socket);
+                sessions.add(session);
+                Thread sender = new Thread(session, "replication-sender-" + socket.getPort());
+                sender.setDaemon(true);
+                sender.start();
+            } catch (IOException e) {
+                if (!closed) {
+                    logger.error("Помилка прийому репліки: {}", e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            logger.warn("Помилка закриття сокета лідера: {}", e.getMessage());
+        }
+        for (FollowerSession session : sessions) {
+            session.close();
+        }
+        logger.info("Лідер реплікації зупинено.");
+    }
+
+    /**
+     * З'єднання з однією реплікою: підписник стрічки (складає записи в чергу) і відправник (потік сесії).
+     */
+    private final class FollowerSession implements Runnable, Flow.Subscriber<ChangeRecord> {
+        private final Socket socket;
+        private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+        private volatile Flow.Subscription subscription;
+        // Номер останнього надісланого запису (або знімка); записи з меншим номером пропускаються
+        private long sentSequence;
+
+        FollowerSession(Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void run() {
+            String follower = String.valueOf(socket.getRemoteSocketAddress());
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+                out.writeLong(epoch);
+                out.flush();
+                long followerSequence = in.readLong();
+                logger.info("Репліка {} підключилась (застосовано до #{}).", follower, followerSequence);
+
+                if (followerSequence == ReplicationProtocol.NO_STATE || followerSequence > feed.getLastSequence()) {
+                    sendSnapshot(out);
+                } else {
+                    sentSequence = followerSequence;
+                    subscribe();
+                }
+                stream(out);
+            } catch (IOException e) {
+                if (!closed) {
+                    logger.warn("З'єднання з реплікою {} розірвано: {}", follower, e.getMessage());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                cancelSubscription();
+                sessions.remove(this);
+                close();
+            }
+        }
+
+        private void stream(DataOutputStream out) throws IOException, InterruptedException {
+            while (!closed && !socket.isClosed()) {
+                Object item = queue.poll(ReplicationProtocol.HEARTBEAT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (item == null) {
+                    out.writeByte(ReplicationProtocol.HEARTBEAT);
+                    out.writeLong(feed.getLastSequence());
+                    out.writeLong(System.currentTimeMillis());
+                    out.flush();
+                    continue;
+                }
+                if (item == RESYNC) {
+                    logger.warn("Репліка {} відстала більше, ніж вміщує стрічка; надсилаємо знімок.",
+                            socket.getRemoteSocketAddress());
+                    sendSnapshot(out);
+                    continue;
+                }
+
+                ChangeRecord record = (ChangeRecord) item;
+                if (record.getSequence() > sentSequence) {
+                    if (record.getType() == ChangeEvent.Type.PRODUCTS_RELOADED
+                            || record.getType() == ChangeEvent.Type.SALADS_RELOADED) {
+                        // Перезавантаження не несе вмісту — репліка отримує новий стан знімком
+                        sendSnapshot(out);
+                        continue;
+                    }
+                    writeRecord(out, record);
+                    sentSequence = record.getSequence();
+                }
+                if (queue.isEmpty()) {
+                    out.flush();
+                }
+                subscription.request(1);
+            }
+        }
+
+        private void writeRecord(DataOutputStream out, ChangeRecord record) throws IOException {
+            out.writeByte(ReplicationProtocol.RECORD);
+            out.writeLong(record.getSequence());
+            out.writeLong(record.getTimestampMillis());
+            ReplicationProtocol.writeString(out, record.getType().name());
+            ReplicationProtocol.writeString(out, record.getSubject());
+            ReplicationProtocol.writeString(out, record.getPreviousSubject());
+            ReplicationProtocol.writeString(out, record.getPayload());
+        }
+
+        // Номер знімка береться до читання даних: зміни, що відбудуться під час читання, все одно
+        // прийдуть окремими записами, а їх повторне застосування на репліці нічого не змінює
+        private void sendSnapshot(DataOutputStream out) throws IOException {
+            cancelSubscription();
+            queue.clear();
+            long sequence = feed.getLastSequence();
+            // Обидва виклики знімають стан під блокуваннями репозиторіїв
+            List<IProduct> products = productRepository.getAllProducts();
+            Map<String, String> recipes = saladRepository.exportRecipes();
+
+            out.writeByte(ReplicationProtocol.SNAPSHOT);
+            out.writeLong(sequence);
+            out.writeInt(products.size());
+            for (IProduct product : products) {
+                ReplicationProtocol.writeString(out, product.toTxtLine());
+            }
+            out.writeInt(recipes.size());
+            for (Map.Entry<String, String> recipe : recipes.entrySet()) {
+                ReplicationProtocol.writeString(out, recipe.getKey());
+                ReplicationProtocol.writeString(out, recipe.getValue());
+            }
+            out.flush();
+            logger.info("Знімок #{} надіслано репліці {}: {} продуктів, {} салатів.", sequence,
+                    socket.getRemoteSocketAddress(), products.size(), recipes.size());
+
+            sentSequence = sequence;
+            subscribe();
+        }
+
+        private void subscribe() {
+            feed.subscribe(this, sentSequence);
+        }
+
+        private void cancelSubscription() {
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+                subscription = null;
+            }
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(WINDOW);
+        }
+
+        @Override
+        public void onNext(ChangeRecord record) {
+            queue.add(record);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (throwable instanceof ChangeFeed.SequenceGapException) {
+                queue.add(RESYNC);
+            } else {
+                logger.error("Помилка стрічки змін для репліки: {}", throwable.getMessage(), throwable);
+                close();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            close();
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                logger.debug("Помилка закриття сокета репліки: {}", e.getMessage());
+            }
+        }
+    }
+}
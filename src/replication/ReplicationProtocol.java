@@ -0,0 +1,51 @@
+package replication;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Формат потоку реплікації (TCP, DataOutputStream).
+ *
+ * Після з'єднання лідер надсилає свою епоху (випадкове число, нове при кожному запуску), а репліка —
+ * номер останнього застосованого запису або NO_STATE, якщо даних ще немає чи вони отримані від лідера
+ * з іншою епохою (номери записів після перезапуску лідера починаються спочатку). Далі лідер надсилає кадри:
+ *   SNAPSHOT  — номер, кількість продуктів, рядки каталогу, кількість салатів, пари (назва, рецепт);
+ *   RECORD    — один запис стрічки змін (номер, час, тип, назва, попередня назва, вміст);
+ *   HEARTBEAT — останній номер лідера і його поточний час, щоб репліка рахувала відставання без змін.
+ * Рядки передаються як довжина + UTF-8 (довжина -1 — null), без обмеження writeUTF у 64 КБ.
+ */
+final class ReplicationProtocol {
+
+    static final long NO_STATE = -1;
+
+    static final byte SNAPSHOT = 'S';
+    static final byte RECORD = 'R';
+    static final byte HEARTBEAT = 'H';
+
+    static final int HEARTBEAT_INTERVAL_MILLIS = 1000;
+
+    private ReplicationProtocol() {
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,175 @@
+package salad;
+
+import products.FixedPoint;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Пакетний розрахунок калорійності багатьох салатів.
+ *
+ * Склад усіх салатів розкладається у плоскі масиви примітивів (CSR): ваги інгредієнтів (мг),
+ * калорійність (мкал / 100 г) та зсуви початку кожного салату. Далі підсумки рахуються простими циклами
+ * без віртуальних викликів і без звернень до об'єктів продуктів. Арифметика — цілочисельна
+ * (FixedPoint), тому результати точно збігаються з Salad.getTotalMilliCalories().
+ * Цикли звичайні скалярні: Vector API (jdk.incubator.vector) не використовується, а множення з
+ * перевіркою переповнення (Math.multiplyExact/floorDiv) C2 не векторизує. Виграш дає саме плоска
+ * розкладка — див. tools.CalorieBatchBenchmark для замірів на конкретній машині.
+ */
+public final class CalorieBatch {
+    private static final Logger logger = LogManager.getLogger(CalorieBatch.class);
+
+    private final List<Salad> salads;
+    private final List<List<SaladIngredient>> compositions;
+    // offsets[i]..offsets[i + 1] — інгредієнти i-го салату у milligrams/milliCaloriesPer100g
+    private final int[] offsets;
+    private final long[] milligrams;
+    private final long[] milliCaloriesPer100g;
+
+    private CalorieBatch(List<Salad> salads, List<List<SaladIngredient>> compositions, int[] offsets,
+                         long[] milligrams, long[] milliCaloriesPer100g) {
+        this.salads = salads;
+        this.compositions = compositions;
+        this.offsets = offsets;
+        this.milligrams = milligrams;
+        this.milliCaloriesPer100g = milliCaloriesPer100g;
+    }
+
+    /**
+     * Знімок складу салатів. Подальші зміни салатів у знімок не потрапляють.
+     */
+    public static CalorieBatch of(Collection<Salad> salads) {
+        List<Salad> snapshot = new ArrayList<>(salads);
+        List<List<SaladIngredient>> compositions = new ArrayList<>(snapshot.size());
+        int[] offsets = new int[snapshot.size() + 1];
+        for (int i = 0; i < snapshot.size(); i++) {
+            List<SaladIngredient> ingredients = snapshot.get(i).getIngredients();
+            compositions.add(Collections.unmodifiableList(ingredients));
+            offsets[i + 1] = offsets[i] + ingredients.size();
+        }
+
+        long[] milligrams = new long[offsets[snapshot.size()]];
+        long[] milliCaloriesPer100g = new long[milligrams.length];
+        int position = 0;
+        for (List<SaladIngredient> ingredients : compositions) {
+            for (SaladIngredient ingredient : ingredients) {
+                milligrams[position] = ingredient.getWeightInMilligrams();
+                milliCaloriesPer100g[position] = ingredient.getConsumable().getMilliCaloriesPer100g();
+                position++;
+            }
+        }
+        return new CalorieBatch(snapshot, compositions, offsets, milligrams, milliCaloriesPer100g);
+    }
+
+    public int size() {
+        return salads.size();
+    }
+
+    public Salad getSalad(int index) {
+        return salads.get(index);
+    }
+
+    /**
+     * Склад салату на момент знімка.
+     */
+    public List<SaladIngredient> getIngredients(int index) {
+        return compositions.get(index);
+    }
+
+    /**
+     * Позиція першого інгредієнта салату в масиві computeIngredientMilliCalories().
+     */
+    public int ingredientOffset(int index) {
+        return offsets[index];
+    }
+
+    /**
+     * Загальна калорійність кожного салату в ккал (у порядку знімка).
+     */
+    public double[] computeTotals() {
+        long[] milliTotals = computeMilliTotals();
+        double[] totals = new double[milliTotals.length];
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] = FixedPoint.toDouble(milliTotals[i]);
+        }
+        return totals;
+    }
+
+    /**
+     * Калорійність кожного інгредієнта в мілікалоріях; інгредієнти салату i починаються з ingredientOffset(i).
+     */
+    public long[] computeIngredientMilliCalories() {
+        long divisor = 100 * FixedPoint.SCALE;
+
+        // Поелементний добуток без залежностей між ітераціями; та сама функція, що й у
+        // SaladIngredient.getTotalMilliCalories(), тож і округлення, і ArithmeticException при переповненні однакові
+        long[] calories = new long[milligrams.length];
+        for (int i = 0; i < calories.length; i++) {
+            calories[i] = FixedPoint.multiplyDivide(milligrams[i], milliCaloriesPer100g[i], divisor);
+        }
+        return calories;
+    }
+
+    /**
+     * Загальна калорійність кожного салату в мілікалоріях (у порядку знімка).
+     */
+    public long[] computeMilliTotals() {
+        long start = System.nanoTime();
+        long[] calories = computeIngredientMilliCalories();
+
+        // Суми відрізків; у салаті кілька інгредієнтів, тож розгортання циклу тут нічого не дає
+        long[] totals = new long[salads.size()];
+        for (int s = 0; s < totals.length; s++) {
+            long sum = 0;
+            for (int i = offsets[s]; i < offsets[s + 1]; i++) {
+                sum += calories[i];
+            }
+            totals[s] = sum;
+        }
+
+        logger.debug("Пакетний розрахунок калорійності: {} салатів, {} інгредієнтів, {} мкс.",
+                totals.length, milligrams.length, (System.nanoTime() - start) / 1_000);
+        return totals;
+    }
+
+    /**
+     * Номери салатів у порядку зростання калорійності; салати з однаковою калорійністю лишаються в порядку знімка.
+     */
+    public static int[] orderByTotals(double[] totals) {
+        int[] order = new int[totals.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        // Стійке висхідне злиття по масиву int, без упаковки номерів в Integer
+        int[] buffer = new int[order.length];
+        for (int width = 1; width < order.length; width <<= 1) {
+            for (int from = 0; from < order.length; from += width << 1) {
+                int middle = Math.min(from + width, order.length);
+                int to = Math.min(from + (width << 1), order.length);
+                int left = from;
+                int right = middle;
+                int out = from;
+                while (left < middle && right < to) {
+                    buffer[out++] = Double.compare(totals[order[right]], totals[order[left]]) < 0
+                            ? order[right++] : order[left++];
+                }
+                while (left < middle) {
+                    buffer[out++] = order[left++];
+                }
+                while (right < to) {
+                    buffer[out++] = order[right++];
+                }
+            }
+            int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+        return order;
+    }
+}
@@ -1,20 +1,41 @@
 package salad;
 
+import products.FixedPoint;
+import products.IProduct;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 public class Salad {
 
+    private static final long UNKNOWN = Long.MIN_VALUE;
+
     private String name;
     private final List<SaladIngredient> ingredients;
 
+    // Кешована загальна калорійність у мілікалоріях; UNKNOWN означає, що її потрібно перерахувати
+    private long totalMilliCalories = UNKNOWN;
+    // Лічильник змін: репозиторій порівнює його зі збереженою версією, щоб не перезаписувати незмінені салати
+    private long revision;
+
     public Salad(String name) {
         Objects.requireNonNull(name, "Назва салату не може бути null");
         this.name = name;
         this.ingredients = new ArrayList<>();
     }
 
+    /**
+     * Незалежна копія для редагування: власний список інгредієнтів (самі інгредієнти незмінні).
+     */
+    public Salad copy() {
+        Salad copy = new Salad(this.name);
+        copy.ingredients.addAll(this.ingredients);
+        copy.totalMilliCalories = this.totalMilliCalories;
+        copy.revision = this.revision;
+        return copy;
+    }
+
     public String getName() {
         return name;
     }
@@ -26,15 +47,72 @@ public class Salad {
     public void setName(String name) {
         Objects.requireNonNull(name, "Назва салату не може бути null");
         this.name = name;
+        this.revision++;
+    }
+
+    /**
+     * Номер версії складу; збільшується при кожній зміні салату.
+     */
+    public long getRevision() {
+        return revision;
     }
 
     public void addIngredient(SaladIngredient ingredient) {
         Objects.requireNonNull(ingredient, "Інгредієнт не може бути null");
         this.ingredients.add(ingredient);
+        this.totalMilliCalories = UNKNOWN;
+        this.revision++;
     }
 
     public void removeIngredient(SaladIngredient ingredient) {
         Objects.requireNonNull(ingredient, "Інгредієнт не може бути null");
-        this.ingredients.remove(ingredient);
+        if (this.ingredients.remove(ingredient)) {
+            this.totalMilliCalories = UNKNOWN;
+            this.revision++;
+        }
+    }
+
+    /**
+     * Загальна калорійність салату. Рахується лише після зміни складу.
+     */
+    public double getTotalCalories() {
+        return FixedPoint.toDouble(getTotalMilliCalories());
+    }
+
+    /**
+     * Загальна калорійність у мілікалоріях — точна сума, що не залежить від порядку інгредієнтів.
+     */
+    public long getTotalMilliCalories() {
+        if (totalMilliCalories == UNKNOWN) {
+            long sum = 0;
+            for (SaladIngredient ingredient : ingredients) {
+                sum += ingredient.getTotalMilliCalories();
+            }
+            totalMilliCalories = sum;
+        }
+        return totalMilliCalories;
+    }
+
+    /**
+     * Замінює продукт (за назвою) в усіх інгредієнтах, зберігаючи вагу.
+     * Повертає true, якщо склад салату змінився.
+     */
+    public boolean replaceProduct(IProduct existing, IProduct replacement) {
+        Objects.requireNonNull(replacement, "Продукт не може бути null");
+        boolean changed = false;
+
+        for (int i = 0; i < ingredients.size(); i++) {
+            SaladIngredient ingredient = ingredients.get(i);
+            if (ingredient.getConsumable().getName().equalsIgnoreCase(existing.getName())) {
+                ingredients.set(i, new SaladIngredient(replacement, ingredient.getWeightInGrams()));
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            this.totalMilliCalories = UNKNOWN;
+            this.revision++;
+        }
+        return changed;
     }
-}
\ No newline at end of file
+}
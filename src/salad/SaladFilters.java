@@ -0,0 +1,28 @@
+package salad;
+
+import products.ProductKind;
+
+import java.util.function.Predicate;
+
+/**
+ * Готові фільтри салатів для запитів до репозиторію (напр. top-K за калорійністю).
+ */
+public final class SaladFilters {
+
+    private SaladFilters() {
+    }
+
+    public static Predicate<Salad> any() {
+        return salad -> true;
+    }
+
+    public static Predicate<Salad> withoutDressing() {
+        return salad -> salad.getIngredients().stream()
+                .noneMatch(ing -> ing.getConsumable().getKind() == ProductKind.DRESSING);
+    }
+
+    public static Predicate<Salad> withTopping() {
+        return salad -> salad.getIngredients().stream()
+                .anyMatch(ing -> ing.getConsumable().getKind() == ProductKind.TOPPING);
+    }
+}
@@ -1,21 +1,26 @@
 package salad;
 
+import products.FixedPoint;
 import products.IProduct;
 import java.util.Objects;
 
 public class SaladIngredient {
 
     private final IProduct product;
-    private final double weightInGrams;
+    // Вага в міліграмах; getWeightInGrams() — лише представлення в грамах
+    private final long weightInMilligrams;
 
     public SaladIngredient(IProduct product, double weightInGrams) {
         Objects.requireNonNull(product, "Продукт (consumable) не може бути null");
-        if (weightInGrams <= 0) {
-            throw new IllegalArgumentException("Вага має бути додатним числом.");
+        if (!(weightInGrams > 0) || weightInGrams > FixedPoint.MAX_VALUE) {
+            throw new IllegalArgumentException("Вага має бути додатним числом: " + weightInGrams);
         }
 
         this.product = product;
-        this.weightInGrams = weightInGrams;
+        this.weightInMilligrams = FixedPoint.toMilli(weightInGrams);
+        if (this.weightInMilligrams <= 0) {
+            throw new IllegalArgumentException("Вага має бути не меншою за 1 мг.");
+        }
     }
 
     public IProduct getConsumable() {
@@ -23,18 +28,29 @@ public class SaladIngredient {
     }
 
     public double getWeightInGrams() {
-        return weightInGrams;
+        return FixedPoint.toDouble(weightInMilligrams);
+    }
+
+    public long getWeightInMilligrams() {
+        return weightInMilligrams;
     }
 
     public double getTotalCalories() {
-        return (product.getCaloriesPer100g() / 100.0) * weightInGrams;
+        return FixedPoint.toDouble(getTotalMilliCalories());
+    }
+
+    /**
+     * Калорійність інгредієнта в мілікалоріях: мг × (мкал / 100 г) / 100 000.
+     */
+    public long getTotalMilliCalories() {
+        return FixedPoint.multiplyDivide(weightInMilligrams, product.getMilliCaloriesPer100g(), 100 * FixedPoint.SCALE);
     }
 
     @Override
     public String toString() {
         return String.format("%s (%.2f г) - %.2f ккал",
                 product.getName(),
-                weightInGrams,
+                getWeightInGrams(),
                 getTotalCalories());
     }
 }
\ No newline at end of file
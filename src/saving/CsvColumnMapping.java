@@ -0,0 +1,126 @@
+package saving;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Відповідність полів продукту колонкам CSV-файлу постачальника.
+ *
+ * Колонки задаються або назвою із заголовка (resolve підставляє індекс), або номером (з 0).
+ * За замовчуванням очікуються заголовки type, name, calories, sugar, hard, fiber, water, starch, base_type, crunchy.
+ */
+public class CsvColumnMapping {
+
+    public enum Field {
+        TYPE, NAME, CALORIES, SUGAR, HARD, FIBER, WATER, STARCH, BASE_TYPE, CRUNCHY;
+
+        String defaultHeader() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final Map<Field, String> headerNames = new EnumMap<>(Field.class);
+    private final Map<Field, Integer> indexes = new EnumMap<>(Field.class);
+    private char delimiter = ',';
+    private boolean hasHeader = true;
+
+    public static CsvColumnMapping defaults() {
+        CsvColumnMapping mapping = new CsvColumnMapping();
+        for (Field field : Field.values()) {
+            mapping.headerNames.put(field, field.defaultHeader());
+        }
+        return mapping;
+    }
+
+    /**
+     * Розбирає опис виду "name=Назва;calories=Ккал;type=3". Незгадані поля мають стандартні заголовки.
+     */
+    public static CsvColumnMapping parse(String spec) {
+        CsvColumnMapping mapping = defaults();
+        if (spec == null || spec.isBlank()) {
+            return mapping;
+        }
+
+        for (String pair : spec.split(";")) {
+            String[] parts = pair.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Невірний опис колонки: '" + pair + "'. Очікується поле=колонка.");
+            }
+
+            Field field;
+            try {
+                field = Field.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Невідоме поле: '" + parts[0].trim() + "'.");
+            }
+
+            String column = parts[1].trim();
+            if (column.matches("\\d+")) {
+                mapping.column(field, Integer.parseInt(column));
+            } else {
+                mapping.column(field, column);
+            }
+        }
+        return mapping;
+    }
+
+    public CsvColumnMapping column(Field field, String headerName) {
+        headerNames.put(field, headerName);
+        indexes.remove(field);
+        return this;
+    }
+
+    public CsvColumnMapping column(Field field, int index) {
+        indexes.put(field, index);
+        headerNames.remove(field);
+        return this;
+    }
+
+    public CsvColumnMapping delimiter(char delimiter) {
+        this.delimiter = delimiter;
+        return this;
+    }
+
+    public CsvColumnMapping hasHeader(boolean hasHeader) {
+        this.hasHeader = hasHeader;
+        return this;
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    public boolean hasHeader() {
+        return hasHeader;
+    }
+
+    /**
+     * Перетворює назви колонок на індекси за рядком заголовка. TYPE, NAME і CALORIES обов'язкові.
+     */
+    int[] resolve(String[] header) {
+        int[] resolved = new int[Field.values().length];
+        for (Field field : Field.values()) {
+            resolved[field.ordinal()] = -1;
+            Integer index = indexes.get(field);
+            String name = headerNames.get(field);
+            if (index != null) {
+                resolved[field.ordinal()] = index;
+            } else if (name != null && header != null) {
+                for (int i = 0; i < header.length; i++) {
+                    if (header[i].trim().equalsIgnoreCase(name)) {
+                        resolved[field.ordinal()] = i;
+                        break;
+                    }
+                }
+            }
+        }
+
+        for (Field required : new Field[]{Field.TYPE, Field.NAME, Field.CALORIES}) {
+            if (resolved[required.ordinal()] < 0) {
+                throw new IllegalArgumentException("У файлі не знайдено колонку для поля " + required.defaultHeader() + ".");
+            }
+        }
+        return resolved;
+    }
+}
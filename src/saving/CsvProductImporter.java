@@ -0,0 +1,386 @@
+package saving;
+
+import index.ProductNameIndex;
+import products.*;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Потоковий імпорт каталогу продуктів із CSV постачальника.
+ *
+ * Файл читається послідовно шматками по chunkSize рядків; шматки розбираються паралельно
+ * на fork-join пулі (у польоті не більше кількох шматків, тож пам'ять не росте з розміром файлу),
+ * а результати застосовуються в порядку рядків — при повторі назви перемагає останній рядок.
+ * Відхилені рядки пишуться у звіт, а каталог зберігається один раз наприкінці.
+ */
+public class CsvProductImporter {
+    private static final Logger logger = LogManager.getLogger(CsvProductImporter.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 5000;
+
+    private final ProductRepository repository;
+    private final CsvColumnMapping mapping;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public CsvProductImporter(ProductRepository repository, CsvColumnMapping mapping) {
+        this(repository, mapping, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public CsvProductImporter(ProductRepository repository, CsvColumnMapping mapping, ForkJoinPool pool, int chunkSize) {
+        this.repository = repository;
+        this.mapping = mapping;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Підсумок імпорту.
+     */
+    public static class ImportReport {
+        private final long rowsRead;
+        private final int inserted;
+        private final int unchanged;
+        private final int rejected;
+        private final Map<IProduct, IProduct> replaced;
+        private final Path rejectedReport;
+        private final long durationMillis;
+
+        ImportReport(long rowsRead, int inserted, int unchanged, int rejected, Map<IProduct, IProduct> replaced,
+                     Path rejectedReport, long durationMillis) {
+            this.rowsRead = rowsRead;
+            this.inserted = inserted;
+            this.unchanged = unchanged;
+            this.rejected = rejected;
+            this.replaced = replaced;
+            this.rejectedReport = rejectedReport;
+            this.durationMillis = durationMillis;
+        }
+
+        public long getRowsRead() {
+            return rowsRead;
+        }
+
+        public int getInserted() {
+            return inserted;
+        }
+
+        public int getUpdated() {
+            return replaced.size();
+        }
+
+        /**
+         * Рядки, що повністю збігаються з наявними продуктами (не перезаписувались).
+         */
+        public int getUnchanged() {
+            return unchanged;
+        }
+
+        public int getRejected() {
+            return rejected;
+        }
+
+        /**
+         * Оновлені продукти: стара версія -> нова (для оновлення рецептів, що їх використовують).
+         */
+        public Map<IProduct, IProduct> getReplaced() {
+            return replaced;
+        }
+
+        /**
+         * Шлях до звіту про відхилені рядки або null, якщо відхилених не було.
+         */
+        public Path getRejectedReport() {
+            return rejectedReport;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+    }
+
+    /**
+     * Імпортує csvFile; відхилені рядки (номер;причина;рядок) записуються у rejectedReport.
+     * Звіт попереднього імпорту видаляється на початку, тож після чистого імпорту звіту немає.
+     */
+    public ImportReport importFile(Path csvFile, Path rejectedReport) throws IOException {
+        logger.info("Початок імпорту продуктів із {}.", csvFile);
+        long start = System.nanoTime();
+
+        Map<String, IProduct> pending = new LinkedHashMap<>();
+        if (Files.deleteIfExists(rejectedReport)) {
+            logger.debug("Видалено звіт попереднього імпорту {}.", rejectedReport);
+        }
+        RejectedWriter rejected = new RejectedWriter(rejectedReport);
+        int maxInFlight = Math.max(2, pool.getParallelism() * 2);
+        long rowsRead = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (line != null && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+
+            long lineNumber = 1;
+            int[] columns;
+            if (mapping.hasHeader()) {
+                columns = mapping.resolve(line == null ? new String[0] : splitCsv(line, mapping.getDelimiter()));
+                line = reader.readLine();
+                lineNumber++;
+            } else {
+                columns = mapping.resolve(null);
+            }
+
+            Deque<ForkJoinTask<ChunkResult>> inFlight = new ArrayDeque<>();
+            List<String> chunk = new ArrayList<>(chunkSize);
+            long chunkStart = lineNumber;
+            for (; line != null; line = reader.readLine(), lineNumber++) {
+                if (chunk.isEmpty()) {
+                    chunkStart = lineNumber;
+                }
+                chunk.add(line);
+                rowsRead++;
+
+                if (chunk.size() == chunkSize) {
+                    inFlight.add(pool.submit(new ChunkParser(chunk, chunkStart, columns, mapping.getDelimiter())));
+                    chunk = new ArrayList<>(chunkSize);
+                    if (inFlight.size() >= maxInFlight) {
+                        apply(inFlight.poll().join(), pending, rejected);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                inFlight.add(pool.submit(new ChunkParser(chunk, chunkStart, columns, mapping.getDelimiter())));
+            }
+            while (!inFlight.isEmpty()) {
+                apply(inFlight.poll().join(), pending, rejected);
+            }
+        } finally {
+            rejected.close();
+        }
+
+        ProductRepository.UpsertResult upsert = repository.upsertAll(new ArrayList<>(pending.values()));
+
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+        ImportReport report = new ImportReport(rowsRead, upsert.getInserted(), upsert.getUnchanged(), rejected.count,
+                upsert.getReplaced(), rejected.count > 0 ? rejectedReport : null, durationMillis);
+        logger.info("Імпорт із {} завершено за {} мс: рядків {}, додано {}, оновлено {}, без змін {}, відхилено {}.",
+                csvFile, durationMillis, rowsRead, report.getInserted(), report.getUpdated(),
+                report.getUnchanged(), report.getRejected());
+        return report;
+    }
+
+    private void apply(ChunkResult result, Map<String, IProduct> pending, RejectedWriter rejected) throws IOException {
+        for (IProduct product : result.products) {
+            String key = ProductNameIndex.fold(product.getName());
+            // Повтор назви у файлі: лишається останній рядок, але на позиції першої появи
+            pending.put(key, product);
+        }
+        for (Rejection rejection : result.rejections) {
+            rejected.write(rejection);
+        }
+    }
+
+    /**
+     * Розбиває рядок CSV з урахуванням лапок ("a,b" та подвоєних "" всередині).
+     */
+    static String[] splitCsv(String line, char delimiter) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("незакриті лапки");
+        }
+        fields.add(current.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    private static final class ChunkResult {
+        final List<IProduct> products = new ArrayList<>();
+        final List<Rejection> rejections = new ArrayList<>();
+    }
+
+    private static final class Rejection {
+        final long lineNumber;
+        final String reason;
+        final String line;
+
+        Rejection(long lineNumber, String reason, String line) {
+            this.lineNumber = lineNumber;
+            this.reason = reason;
+            this.line = line;
+        }
+    }
+
+    /**
+     * Розбір одного шматка рядків; не торкається репозиторію, тож безпечний для паралельного виконання.
+     */
+    private static final class ChunkParser implements Callable<ChunkResult> {
+        private final List<String> lines;
+        private final long firstLineNumber;
+        private final int[] columns;
+        private final char delimiter;
+
+        ChunkParser(List<String> lines, long firstLineNumber, int[] columns, char delimiter) {
+            this.lines = lines;
+            this.firstLineNumber = firstLineNumber;
+            this.columns = columns;
+            this.delimiter = delimiter;
+        }
+
+        @Override
+        public ChunkResult call() {
+            ChunkResult result = new ChunkResult();
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    result.products.add(parse(splitCsv(line, delimiter)));
+                } catch (IllegalArgumentException e) {
+                    result.rejections.add(new Rejection(firstLineNumber + i, e.getMessage(), line));
+                }
+            }
+            return result;
+        }
+
+        private IProduct parse(String[] row) {
+            String type = required(row, CsvColumnMapping.Field.TYPE);
+            String name = required(row, CsvColumnMapping.Field.NAME);
+            if (name.indexOf(';') >= 0) {
+                throw new IllegalArgumentException("назва містить ';'");
+            }
+            double calories = number(row, CsvColumnMapping.Field.CALORIES);
+
+            switch (type.toLowerCase(Locale.ROOT)) {
+                case "rootvegetable":
+                    return new RootVegetable(name, calories, number(row, CsvColumnMapping.Field.SUGAR),
+                            bool(row, CsvColumnMapping.Field.HARD));
+                case "leafyvegetable":
+                    return new LeafyVegetable(name, calories, number(row, CsvColumnMapping.Field.FIBER));
+                case "fruitingvegetable":
+                    return new FruitingVegetable(name, calories, number(row, CsvColumnMapping.Field.WATER));
+                case "tubervegetable":
+                    return new TuberVegetable(name, calories, number(row, CsvColumnMapping.Field.STARCH));
+                case "dressing":
+                    String baseType = required(row, CsvColumnMapping.Field.BASE_TYPE);
+                    if (baseType.indexOf(';') >= 0) {
+                        throw new IllegalArgumentException("основа заправки містить ';'");
+                    }
+                    return new Dressing(name, calories, baseType);
+                case "topping":
+                    return new Topping(name, calories, bool(row, CsvColumnMapping.Field.CRUNCHY));
+                default:
+                    throw new IllegalArgumentException("невідомий тип продукту '" + type + "'");
+            }
+        }
+
+        private String required(String[] row, CsvColumnMapping.Field field) {
+            int index = columns[field.ordinal()];
+            String value = index >= 0 && index < row.length ? row[index].trim() : "";
+            if (value.isEmpty()) {
+                throw new IllegalArgumentException("порожнє поле " + field.name().toLowerCase(Locale.ROOT));
+            }
+            return value;
+        }
+
+        // Double.parseDouble приймає "NaN" та "Infinity"; такі й від'ємні значення відхиляються разом із рядком
+        private double number(String[] row, CsvColumnMapping.Field field) {
+            String value = required(row, field);
+            double number;
+            try {
+                number = Double.parseDouble(value.replace(",", "."));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("поле " + field.name().toLowerCase(Locale.ROOT) + " не є числом: '" + value + "'");
+            }
+            if (!Double.isFinite(number)) {
+                throw new IllegalArgumentException("поле " + field.name().toLowerCase(Locale.ROOT) + " не є скінченним числом: '" + value + "'");
+            }
+            if (number < 0) {
+                throw new IllegalArgumentException("поле " + field.name().toLowerCase(Locale.ROOT) + " від'ємне: '" + value + "'");
+            }
+            return number;
+        }
+
+        private boolean bool(String[] row, CsvColumnMapping.Field field) {
+            String value = required(row, field).toLowerCase(Locale.ROOT);
+            switch (value) {
+                case "true": case "1": case "yes": case "так":
+                    return true;
+                case "false": case "0": case "no": case "ні":
+                    return false;
+                default:
+                    throw new IllegalArgumentException("поле " + field.name().toLowerCase(Locale.ROOT) + " не є логічним: '" + value + "'");
+            }
+        }
+    }
+
+    // Звіт про відхилені рядки; файл створюється лише за першої відмови
+    private static final class RejectedWriter {
+        private final Path path;
+        private BufferedWriter writer;
+        int count;
+
+        RejectedWriter(Path path) {
+            this.path = path;
+        }
+
+        void write(Rejection rejection) throws IOException {
+            if (writer == null) {
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+                writer.write("рядок;причина;вміст");
+                writer.newLine();
+            }
+            writer.write(rejection.lineNumber + ";" + rejection.reason + ";" + rejection.line);
+            writer.newLine();
+            count++;
+        }
+
+        void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package saving;
+
+import java.util.Locale;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Рівень гарантій при записі файлів репозиторіїв (див. DurableFileWriter).
+ */
+public enum Durability {
+    // Атомарна заміна файлу без fsync: швидко, але після збою ОС останні записи можуть зникнути
+    NONE,
+    // Записи, що надійшли одночасно, об'єднуються в групу з одним fsync директорії на групу
+    PER_BATCH,
+    // Кожен коміт окремо: fsync файлу і директорії для кожного запису
+    PER_COMMIT;
+
+    public static final String PROPERTY = "salad.durability";
+
+    private static final Logger logger = LogManager.getLogger(Durability.class);
+
+    /**
+     * Рівень із системної властивості salad.durability (none / per_batch / per_commit), за замовчуванням PER_BATCH.
+     */
+    public static Durability configured() {
+        String value = System.getProperty(PROPERTY);
+        if (value == null || value.isBlank()) {
+            return PER_BATCH;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Невідоме значення {}='{}', використовується per_batch (допустимі: none, per_batch, per_commit).",
+                    PROPERTY, value);
+            return PER_BATCH;
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package saving;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Безпечний при збоях запис файлів: вміст пишеться у тимчасовий файл поруч із цільовим,
+ * за потреби синхронізується на диск і атомарно перейменовується на місце старого.
+ * Обірваний запис залишає або старий, або новий файл, але ніколи не обрізаний.
+ *
+ * Group commit: перший потік, що прийшов із записом, стає лідером і виконує всі коміти,
+ * які накопичились у черзі, одним пакетом; решта потоків чекають результату свого коміту.
+ * У пакеті повторні записи того самого файлу зливаються (лишається останній вміст),
+ * а директорії синхронізуються один раз на пакет.
+ */
+public class DurableFileWriter {
+    private static final Logger logger = LogManager.getLogger(DurableFileWriter.class);
+
+    private static final String TEMP_SUFFIX = ".tmp";
+    // Молодший тимчасовий файл може належати запису, що саме триває в іншому процесі
+    private static final Duration STALE_TEMP_AGE = Duration.ofMinutes(10);
+
+    private final RepositoryStats stats;
+    private volatile Durability durability;
+
+    private final Object lock = new Object();
+    private final List<Commit> queue = new ArrayList<>();
+    private boolean leaderActive;
+
+    public DurableFileWriter(RepositoryStats stats, Durability durability) {
+        this.stats = stats;
+        this.durability = durability;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public void setDurability(Durability durability) {
+        this.durability = durability;
+    }
+
+    public void write(Path target, byte[] content) throws IOException {
+        write(target, ByteBuffer.wrap(content));
+    }
+
+    /**
+     * Записує вміст, складений з кількох буферів підряд (наприклад, шматків MemorySegment,
+     * більшого за масив). Позиції самих буферів не змінюються.
+     */
+    public void write(Path target, ByteBuffer... content) throws IOException {
+        Map<Path, ByteBuffer[]> files = new LinkedHashMap<>();
+        files.put(target, content.clone());
+        commit(files);
+    }
+
+    /**
+     * Записує кілька файлів як один логічний коміт і повертається після того, як коміт
+     * виконано з поточним рівнем durability.
+     */
+    public void writeAll(Map<Path, byte[]> files) throws IOException {
+        Map<Path, ByteBuffer[]> buffers = new LinkedHashMap<>();
+        files.forEach((target, content) -> buffers.put(target, new ByteBuffer[]{ByteBuffer.wrap(content)}));
+        commit(buffers);
+    }
+
+    private void commit(Map<Path, ByteBuffer[]> files) throws IOException {
+        if (files.isEmpty()) {
+            return;
+        }
+
+        Commit commit = new Commit(files);
+        boolean leader;
+        synchronized (lock) {
+            queue.add(commit);
+            leader = !leaderActive;
+            if (leader) {
+                leaderActive = true;
+            }
+        }
+
+        if (leader) {
+            lead();
+        } else {
+            awaitCommit(commit);
+        }
+
+        if (commit.error != null) {
+            throw new IOException(commit.error.getMessage(), commit.error);
+        }
+    }
+
+    /**
+     * Видаляє тимчасові файли, що лишились після збою посеред запису, у директорії, якою репозиторій
+     * володіє повністю. Файли, змінені менш ніж 10 хвилин тому, не чіпаються: ними може користуватися
+     * інший екземпляр програми.
+     */
+    public static void deleteStaleTempFiles(Path directory) {
+        deleteStaleTempFiles(directory, STALE_TEMP_AGE);
+    }
+
+    public static void deleteStaleTempFiles(Path directory, Duration minAge) {
+        deleteStale(directory, name -> name.startsWith(".") && name.endsWith(TEMP_SUFFIX), minAge);
+    }
+
+    /**
+     * Те саме лише для тимчасових файлів target і файлів поруч із ним з тим самим префіксом
+     * (напр. target.manifest): директорія може бути спільною, чужі файли не видаляються.
+     */
+    public static void deleteStaleTempFilesOf(Path target) {
+        deleteStaleTempFilesOf(target, STALE_TEMP_AGE);
+    }
+
+    public static void deleteStaleTempFilesOf(Path target, Duration minAge) {
+        Path absolute = target.toAbsolutePath();
+        // Не glob: назва файлу може містити символи шаблону
+        String prefix = "." + absolute.getFileName() + ".";
+        deleteStale(absolute.getParent(), name -> name.startsWith(prefix) && name.endsWith(TEMP_SUFFIX), minAge);
+    }
+
+    private static void deleteStale(Path directory, Predicate<String> ownTempName, Duration minAge) {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        FileTime cutoff = FileTime.from(Instant.now().minus(minAge));
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory,
+                path -> ownTempName.test(path.getFileName().toString()))) {
+            for (Path path : stale) {
+                try {
+                    if (Files.getLastModifiedTime(path).compareTo(cutoff) > 0) {
+                        logger.debug("Тимчасовий файл {} ще свіжий, лишається.", path);
+                        continue;
+                    }
+                    Files.delete(path);
+                    logger.warn("Видалено незавершений тимчасовий файл {}.", path);
+                } catch (NoSuchFileException e) {
+                    logger.debug("Тимчасовий файл {} уже прибрано.", path);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Не вдалося очистити тимчасові файли в {}: {}", directory, e.getMessage());
+        }
+    }
+
+    // Лідер виконує пакети, доки черга не спорожніє, і лише тоді віддає лідерство
+    private void lead() {
+        while (true) {
+            List<Commit> batch;
+            synchronized (lock) {
+                if (queue.isEmpty()) {
+                    leaderActive = false;
+                    return;
+                }
+                batch = new ArrayList<>(queue);
+                queue.clear();
+            }
+
+            try {
+                process(batch);
+            } catch (RuntimeException e) {
+                for (Commit commit : batch) {
+                    if (commit.error == null) {
+                        commit.error = new IOException(e.getMessage(), e);
+                    }
+                }
+            }
+
+            synchronized (lock) {
+                for (Commit commit : batch) {
+                    commit.done = true;
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void awaitCommit(Commit commit) throws InterruptedIOException {
+        synchronized (lock) {
+            while (!commit.done) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Очікування запису перервано.");
+                }
+            }
+        }
+    }
+
+    private void process(List<Commit> batch) {
+        Durability mode = durability;
+        if (mode == Durability.PER_COMMIT) {
+            for (Commit commit : batch) {
+                try {
+                    writeFiles(commit.files, true);
+                    stats.recordSync();
+                } catch (IOException e) {
+                    commit.error = e;
+                }
+            }
+            return;
+        }
+
+        // Злиття: якщо файл записували кілька разів у пакеті, на диск потрапляє лише останній вміст
+        Map<Path, ByteBuffer[]> merged = new LinkedHashMap<>();
+        for (Commit commit : batch) {
+            merged.putAll(commit.files);
+        }
+
+        try {
+            writeFiles(merged, mode == Durability.PER_BATCH);
+            if (mode == Durability.PER_BATCH) {
+                stats.recordSync();
+            }
+            logger.debug("Пакет записано: комітів {}, файлів {}, режим {}.", batch.size(), merged.size(), mode);
+        } catch (IOException e) {
+            for (Commit commit : batch) {
+                commit.error = e;
+            }
+        }
+    }
+
+    private void writeFiles(Map<Path, ByteBuffer[]> files, boolean sync) throws IOException {
+        Set<Path> directories = new LinkedHashSet<>();
+        for (Map.Entry<Path, ByteBuffer[]> entry : files.entrySet()) {
+            Path target = entry.getKey().toAbsolutePath();
+            Path directory = target.getParent();
+            Path temp = createTempFile(directory, target);
+            try {
+                copyPermissions(target, temp);
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    // duplicate: вміст коміту лишається цілим, якщо запис доведеться повторити
+                    for (ByteBuffer part : entry.getValue()) {
+                        ByteBuffer buffer = part.duplicate();
+                        while (buffer.hasRemaining()) {
+                            channel.write(buffer);
+                        }
+                    }
+                    if (sync) {
+                        channel.force(true);
+                    }
+                }
+                move(temp, target);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            directories.add(directory);
+        }
+
+        if (sync) {
+            for (Path directory : directories) {
+                syncDirectory(directory);
+            }
+        }
+    }
+
+    // Не Files.createTempFile: той створює файл із правами 0600, тож новий файл отримав би їх замість
+    // звичайних (за umask). Права наявного файлу переносить copyPermissions
+    private static Path createTempFile(Path directory, Path target) throws IOException {
+        while (true) {
+            Path temp = directory.resolve("." + target.getFileName() + "."
+                    + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + TEMP_SUFFIX);
+            try {
+                return Files.createFile(temp);
+            } catch (FileAlreadyExistsException e) {
+                logger.debug("Тимчасова назва {} зайнята, обираємо іншу.", temp);
+            }
+        }
+    }
+
+    // Перезаписаний файл зберігає POSIX-права оригіналу
+    private static void copyPermissions(Path target, Path temp) throws IOException {
+        try {
+            Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+        } catch (NoSuchFileException e) {
+            logger.trace("Файл {} ще не існує, права за замовчуванням.", target);
+        } catch (UnsupportedOperationException e) {
+            logger.trace("Файлова система не підтримує POSIX-права: {}", target);
+        }
+    }
+
+    private static void move(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            logger.warn("Файлова система не підтримує атомарне перейменування, використовується звичайне: {}", target);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Фіксує на диску сам запис перейменування; на Windows директорію відкрити не можна — це не помилка
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            logger.debug("fsync директорії {} недоступний: {}", directory, e.getMessage());
+        }
+    }
+
+    private static final class Commit {
+        final Map<Path, ByteBuffer[]> files;
+        // Поля змінюються лідером під lock або до notifyAll, тож видимі очікувачам після виходу з wait
+        boolean done;
+        IOException error;
+
+        Commit(Map<Path, ByteBuffer[]> files) {
+            this.files = files;
+        }
+    }
+}
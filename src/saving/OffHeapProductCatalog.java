@@ -0,0 +1,414 @@
+package saving;
+
+import index.ProductNameIndex;
+import products.*;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Каталог продуктів поза heap (Foreign Function & Memory API).
+ *
+ * Усі дані лежать в одному MemorySegment з однаковою розкладкою в пам'яті та на диску,
+ * тож знімок каталогу можна відобразити (mmap) з файлу без розбору:
+ *
+ *   заголовок (48 байт) | записи фіксованої ширини (48 байт) | хеш-таблиця назв (int) | пул рядків UTF-8
+ *
+ * Запис: тип (ordinal ProductKind), прапорець (isHard / isCrunchy), калорії в мілікалоріях (long, як
+ * у FixedPoint — без похибок double при сумуванні), числовий атрибут типу
+ * (цукор / клітковина / вода / крохмаль), посилання на назву та основу заправки у пулі, хеш назви.
+ * Назовні продукти видаються як легкі flyweight-об'єкти (Entry), що читають поля прямо з сегмента;
+ * GC бачить лише сам каталог, а не мільйони продуктів.
+ */
+public final class OffHeapProductCatalog implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(OffHeapProductCatalog.class);
+
+    private static final long MAGIC = 0x5341_4C41_4443_4154L; // "SALADCAT"
+    // 2 — калорії зберігаються як long (мілікалорії) замість double
+    private static final int FORMAT_VERSION = 2;
+
+    private static final long HEADER_SIZE = 48;
+    private static final long H_MAGIC = 0;
+    private static final long H_VERSION = 8;
+    private static final long H_RECORD_SIZE = 12;
+    private static final long H_COUNT = 16;
+    private static final long H_TABLE_SLOTS = 24;
+    private static final long H_POOL_SIZE = 32;
+
+    private static final long RECORD_SIZE = 48;
+    private static final long R_KIND = 0;
+    private static final long R_FLAG = 1;
+    private static final long R_NAME_LENGTH = 4;
+    private static final long R_NAME_OFFSET = 8;
+    private static final long R_CALORIES = 16;
+    private static final long R_ATTRIBUTE = 24;
+    private static final long R_EXTRA_OFFSET = 32;
+    private static final long R_EXTRA_LENGTH = 40;
+    private static final long R_NAME_HASH = 44;
+
+    private static final ValueLayout.OfByte BYTE = ValueLayout.JAVA_BYTE;
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED;
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED;
+    private static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE_UNALIGNED;
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final long count;
+    private final long tableSlots;
+    private final long tableOffset;
+    private final long poolOffset;
+
+    private OffHeapProductCatalog(Arena arena, MemorySegment segment) {
+        this.arena = arena;
+        this.segment = segment;
+
+        if (segment.byteSize() < HEADER_SIZE || segment.get(LONG, H_MAGIC) != MAGIC) {
+            throw new IllegalArgumentException("Сегмент не містить каталогу продуктів.");
+        }
+        if (segment.get(INT, H_VERSION) != FORMAT_VERSION || segment.get(INT, H_RECORD_SIZE) != RECORD_SIZE) {
+            throw new IllegalArgumentException("Непідтримувана версія формату каталогу.");
+        }
+
+        this.count = segment.get(LONG, H_COUNT);
+        this.tableSlots = segment.get(LONG, H_TABLE_SLOTS);
+        long poolSize = segment.get(LONG, H_POOL_SIZE);
+        long available = segment.byteSize() - HEADER_SIZE;
+        if (count < 0 || count > available / RECORD_SIZE || poolSize < 0 || poolSize > available) {
+            throw new IllegalArgumentException("Пошкоджений заголовок каталогу: записів " + count + ", пул " + poolSize + ".");
+        }
+        // Маска (tableSlots - 1) коректна лише для степеня двійки, а пошук зупиняється лише на порожньому слоті
+        if (Long.bitCount(tableSlots) != 1 || tableSlots <= count || tableSlots > available / Integer.BYTES) {
+            throw new IllegalArgumentException("Пошкоджена хеш-таблиця каталогу: " + tableSlots + " слотів на "
+                    + count + " записів.");
+        }
+
+        this.tableOffset = HEADER_SIZE + count * RECORD_SIZE;
+        this.poolOffset = tableOffset + tableSlots * Integer.BYTES;
+        if (poolOffset + poolSize != segment.byteSize()) {
+            throw new IllegalArgumentException("Розмір сегмента не відповідає заголовку каталогу.");
+        }
+    }
+
+    /**
+     * Будує каталог у власній (shared) арені з наявних продуктів.
+     */
+    public static OffHeapProductCatalog build(List<? extends IProduct> products) {
+        long start = System.nanoTime();
+        int count = products.size();
+
+        // Перший прохід: розміри назв і основ заправок, щоб виділити сегмент одним шматком
+        byte[][] names = new byte[count][];
+        byte[][] extras = new byte[count][];
+        long poolSize = 0;
+        for (int i = 0; i < count; i++) {
+            IProduct product = products.get(i);
+            names[i] = product.getName().getBytes(StandardCharsets.UTF_8);
+            poolSize += names[i].length;
+            if (product instanceof Dressing) {
+                extras[i] = ((Dressing) product).getBaseType().getBytes(StandardCharsets.UTF_8);
+                poolSize += extras[i].length;
+            }
+        }
+
+        long tableSlots = Long.highestOneBit(Math.max(2, (long) count * 2 - 1)) << 1;
+        long tableOffset = HEADER_SIZE + count * RECORD_SIZE;
+        long poolOffset = tableOffset + tableSlots * Integer.BYTES;
+
+        Arena arena = Arena.ofShared();
+        MemorySegment segment = arena.allocate(poolOffset + poolSize, Long.BYTES);
+        segment.set(LONG, H_MAGIC, MAGIC);
+        segment.set(INT, H_VERSION, FORMAT_VERSION);
+        segment.set(INT, H_RECORD_SIZE, (int) RECORD_SIZE);
+        segment.set(LONG, H_COUNT, count);
+        segment.set(LONG, H_TABLE_SLOTS, tableSlots);
+        segment.set(LONG, H_POOL_SIZE, poolSize);
+
+        long poolCursor = 0;
+        for (int i = 0; i < count; i++) {
+            IProduct product = products.get(i);
+            long record = HEADER_SIZE + i * RECORD_SIZE;
+            ProductKind kind = product.getKind();
+            int hash = nameHash(product.getName());
+
+            segment.set(BYTE, record + R_KIND, (byte) kind.ordinal());
+            segment.set(BYTE, record + R_FLAG, (byte) (flagOf(product) ? 1 : 0));
+            segment.set(LONG, record + R_CALORIES, product.getMilliCaloriesPer100g());
+            segment.set(DOUBLE, record + R_ATTRIBUTE, attributeOf(product));
+            segment.set(INT, record + R_NAME_HASH, hash);
+
+            MemorySegment.copy(names[i], 0, segment, BYTE, poolOffset + poolCursor, names[i].length);
+            segment.set(LONG, record + R_NAME_OFFSET, poolCursor);
+            segment.set(INT, record + R_NAME_LENGTH, names[i].length);
+            poolCursor += names[i].length;
+
+            if (extras[i] != null) {
+                MemorySegment.copy(extras[i], 0, segment, BYTE, poolOffset + poolCursor, extras[i].length);
+                segment.set(LONG, record + R_EXTRA_OFFSET, poolCursor);
+                segment.set(INT, record + R_EXTRA_LENGTH, extras[i].length);
+                poolCursor += extras[i].length;
+            }
+
+            // Відкрита адресація з лінійним пробуванням; у слоті — номер запису + 1 (0 = порожньо)
+            long slot = hash & (tableSlots - 1);
+            while (segment.get(INT, tableOffset + slot * Integer.BYTES) != 0) {
+                slot = (slot + 1) & (tableSlots - 1);
+            }
+            segment.set(INT, tableOffset + slot * Integer.BYTES, i + 1);
+        }
+
+        logger.info("Off-heap каталог побудовано: {} продуктів, {} байт, {} мс.", count, segment.byteSize(),
+                (System.nanoTime() - start) / 1_000_000);
+        return new OffHeapProductCatalog(arena, segment);
+    }
+
+    /**
+     * Відображає знімок каталогу з файлу в пам'ять (тільки читання), без розбору та копіювання.
+     */
+    public static OffHeapProductCatalog map(Path file) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            OffHeapProductCatalog catalog = new OffHeapProductCatalog(arena, segment);
+            logger.info("Off-heap каталог відображено з {}: {} продуктів.", file, catalog.size());
+            return catalog;
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Записує знімок каталогу у файл у тому ж форматі, що й у пам'яті. Файл замінюється атомарно
+     * (DurableFileWriter), тож каталог, відображений зі старого знімка, лишається цілим.
+     */
+    public void writeTo(Path file) throws IOException {
+        long chunk = 1 << 24;
+        ByteBuffer[] chunks = new ByteBuffer[(int) ((segment.byteSize() + chunk - 1) / chunk)];
+        for (int i = 0; i < chunks.length; i++) {
+            long offset = i * chunk;
+            chunks[i] = segment.asSlice(offset, Math.min(chunk, segment.byteSize() - offset)).asByteBuffer();
+        }
+        new DurableFileWriter(new RepositoryStats(), Durability.PER_COMMIT).write(file, chunks);
+        logger.info("Знімок off-heap каталогу записано у {} ({} байт).", file, segment.byteSize());
+    }
+
+    public long size() {
+        return count;
+    }
+
+    /**
+     * Обсяг пам'яті поза heap, який займає каталог.
+     */
+    public long byteSize() {
+        return segment.byteSize();
+    }
+
+    /**
+     * Flyweight продукту за номером запису. Об'єкт не містить даних, лише посилання на запис.
+     */
+    public Entry get(long index) {
+        Objects.checkIndex(index, count);
+        return new Entry(this, index);
+    }
+
+    /**
+     * Пошук за назвою без урахування регістру через хеш-таблицю в сегменті.
+     */
+    public Optional<Entry> findByName(String name) {
+        int hash = nameHash(name);
+        long slot = hash & (tableSlots - 1);
+        while (true) {
+            int stored = segment.get(INT, tableOffset + slot * Integer.BYTES);
+            if (stored == 0) {
+                return Optional.empty();
+            }
+
+            long index = stored - 1L;
+            long record = recordOffset(index);
+            if (segment.get(INT, record + R_NAME_HASH) == hash && readName(index).equalsIgnoreCase(name)) {
+                return Optional.of(new Entry(this, index));
+            }
+            slot = (slot + 1) & (tableSlots - 1);
+        }
+    }
+
+    /**
+     * Сума калорійності (на 100 г) усіх продуктів заданого типу — прохід по записах без створення об'єктів.
+     */
+    public double sumCalories(ProductKind kind) {
+        long sum = 0;
+        byte tag = (byte) kind.ordinal();
+        for (long i = 0; i < count; i++) {
+            long record = HEADER_SIZE + i * RECORD_SIZE;
+            if (segment.get(BYTE, record + R_KIND) == tag) {
+                sum = Math.addExact(sum, segment.get(LONG, record + R_CALORIES));
+            }
+        }
+        return FixedPoint.toDouble(sum);
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    private long recordOffset(long index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    private String readName(long index) {
+        long record = recordOffset(index);
+        return readPoolString(segment.get(LONG, record + R_NAME_OFFSET), segment.get(INT, record + R_NAME_LENGTH));
+    }
+
+    private String readPoolString(long offset, int length) {
+        byte[] bytes = new byte[length];
+        MemorySegment.copy(segment, BYTE, poolOffset + offset, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int nameHash(String name) {
+        return ProductNameIndex.fold(name).hashCode();
+    }
+
+    private static boolean flagOf(IProduct product) {
+        if (product instanceof RootVegetable) {
+            return ((RootVegetable) product).isHard();
+        } else if (product instanceof Topping) {
+            return ((Topping) product).isCrunchy();
+        }
+        return false;
+    }
+
+    private static double attributeOf(IProduct product) {
+        if (product instanceof RootVegetable) {
+            return ((RootVegetable) product).getSugarContent();
+        } else if (product instanceof LeafyVegetable) {
+            return ((LeafyVegetable) product).getFiberContent();
+        } else if (product instanceof FruitingVegetable) {
+            return ((FruitingVegetable) product).getWaterContentPercent();
+        } else if (product instanceof TuberVegetable) {
+            return ((TuberVegetable) product).getStarchContent();
+        }
+        return 0;
+    }
+
+    /**
+     * Легкий продукт-вказівник на запис каталогу. Поля читаються з сегмента при кожному зверненні;
+     * для коду, що працює з конкретними класами (instanceof), є toHeapProduct().
+     */
+    public static final class Entry implements IProduct {
+        private final OffHeapProductCatalog catalog;
+        private final long index;
+
+        private Entry(OffHeapProductCatalog catalog, long index) {
+            this.catalog = catalog;
+            this.index = index;
+        }
+
+        public long getIndex() {
+            return index;
+        }
+
+        @Override
+        public ProductKind getKind() {
+            return ProductKind.fromOrdinal(catalog.segment.get(BYTE, catalog.recordOffset(index) + R_KIND));
+        }
+
+        @Override
+        public String getName() {
+            return catalog.readName(index);
+        }
+
+        @Override
+        public double getCaloriesPer100g() {
+            return FixedPoint.toDouble(getMilliCaloriesPer100g());
+        }
+
+        @Override
+        public long getMilliCaloriesPer100g() {
+            return catalog.segment.get(LONG, catalog.recordOffset(index) + R_CALORIES);
+        }
+
+        /**
+         * Звичайний heap-об'єкт відповідного класу з тими ж значеннями полів.
+         */
+        public IProduct toHeapProduct() {
+            long record = catalog.recordOffset(index);
+            String name = getName();
+            double calories = getCaloriesPer100g();
+            double attribute = catalog.segment.get(DOUBLE, record + R_ATTRIBUTE);
+            boolean flag = catalog.segment.get(BYTE, record + R_FLAG) != 0;
+
+            switch (getKind()) {
+                case ROOT_VEGETABLE:
+                    return new RootVegetable(name, calories, attribute, flag);
+                case LEAFY_VEGETABLE:
+                    return new LeafyVegetable(name, calories, attribute);
+                case FRUITING_VEGETABLE:
+                    return new FruitingVegetable(name, calories, attribute);
+                case TUBER_VEGETABLE:
+                    return new TuberVegetable(name, calories, attribute);
+                case DRESSING:
+                    String baseType = catalog.readPoolString(catalog.segment.get(LONG, record + R_EXTRA_OFFSET),
+                            catalog.segment.get(INT, record + R_EXTRA_LENGTH));
+                    return new Dressing(name, calories, baseType);
+                case TOPPING:
+                default:
+                    return new Topping(name, calories, flag);
+            }
+        }
+
+        // Рідкісні операції делегуються тимчасовому heap-об'єкту, щоб не дублювати логіку класів продуктів
+
+        @Override
+        public Optional<String> getCookingTip() {
+            return toHeapProduct().getCookingTip();
+        }
+
+        @Override
+        public String toTxtLine() {
+            return toHeapProduct().toTxtLine();
+        }
+
+        @Override
+        public String getUkrName() {
+            return toHeapProduct().getUkrName();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry other = (Entry) o;
+            return catalog == other.catalog && index == other.index;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(index) * 31 + System.identityHashCode(catalog);
+        }
+
+        @Override
+        public String toString() {
+            return getName();
+        }
+    }
+}
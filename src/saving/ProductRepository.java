@@ -1,5 +1,10 @@
 package saving;
 
+import event.ChangeEventBus;
+import event.ChangeFeed;
+import index.NGramIndex;
+import index.ProductNameIndex;
+import monitoring.jfr.PersistenceEvent;
 import products.*;
 
 import java.io.IOException;
@@ -8,8 +13,16 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -17,17 +30,57 @@ import org.apache.logging.log4j.Logger;
 /**
  * Керує каталогом продуктів, використовуючи txt файл.
  * Реалізує логіку читання/запису.
+ *
+ * Каталог доступний з кількох потоків (консоль, JMX, реплікація): читання виконуються під спільним
+ * блокуванням, зміни та запис файлу — під винятковим. Події змін публікуються вже після звільнення блокування.
  */
 public class ProductRepository {
     private static final Logger logger = LogManager.getLogger(ProductRepository.class);
 
     private List<IProduct> availableProducts;
     private final String FILE_PATH;
+    private final RepositoryStats stats = new RepositoryStats();
+    private final DurableFileWriter writer = new DurableFileWriter(stats, Durability.configured());
+    private final ProductNameIndex nameIndex = new ProductNameIndex();
+    private final NGramIndex ngramIndex = new NGramIndex();
+    private final ChangeEventBus events;
+    // Продукти кожного типу в порядку каталогу: перегляд одного типу не потребує обходу всього каталогу
+    private final Map<ProductKind, List<IProduct>> partitions = new EnumMap<>(ProductKind.class);
+    // Лічильник змін каталогу та його значення на момент останнього запису/читання файлу
+    private long modCount;
+    private long savedModCount = -1;
+    // Спільний доступ кількох екземплярів до одного файлу (вмикається через enableSharedAccess)
+    private SharedStore sharedStore;
+    private long knownGeneration;
+    // Назви продуктів, змінених цим екземпляром після останньої синхронізації зі спільним файлом
+    private final Set<String> localChanges = new HashSet<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
     public ProductRepository(String filePath) {
+        this(filePath, new ChangeEventBus());
+    }
+
+    /**
+     * Каталог лише в пам'яті, без файлу (наприклад, репліка, яку наповнює ReplicationFollower).
+     */
+    public static ProductRepository inMemory() {
+        return new ProductRepository(null, new ChangeEventBus());
+    }
+
+    /**
+     * Репозиторій, що публікує події змін у спільну шину (наприклад, разом із SaladRepository).
+     */
+    public ProductRepository(String filePath, ChangeEventBus events) {
         this.FILE_PATH = filePath;
+        this.events = events;
         this.availableProducts = new ArrayList<>();
+        for (ProductKind kind : ProductKind.values()) {
+            partitions.put(kind, new ArrayList<>());
+        }
         logger.info("ProductRepository ініціалізовано. Шлях до файлу: {}", FILE_PATH);
+        if (FILE_PATH == null) {
+            return;
+        }
 
         try {
             Path path = Paths.get(FILE_PATH);
@@ -46,28 +99,225 @@ public class ProductRepository {
      * Використовує поліморфний метод product.toTxtLine().
      */
     public void saveToFile() {
-        logger.info("Запущено збереження каталогу продуктів ({} шт.).", this.availableProducts.size());
-        List<String> lines = new ArrayList<>();
+        save(false);
+    }
 
-        for (IProduct product : this.availableProducts) {
-            lines.add(product.toTxtLine());
-            logger.trace("Генерування рядка для збереження: {}", product.getName());
+    /**
+     * Записує каталог навіть тоді, коли в пам'яті нічого не змінилось з останнього збереження —
+     * наприклад, щоб відновити файл, який видалили або пошкодили ззовні.
+     */
+    public void forceSaveToFile() {
+        save(true);
+    }
+
+    private void save(boolean force) {
+        List<Runnable> remoteChanges;
+        lock.writeLock().lock();
+        try {
+            remoteChanges = persist(force);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        publishRemote(remoteChanges);
+    }
+
+    private List<Runnable> persist() {
+        return persist(false);
+    }
+
+    // Викликається під винятковим блокуванням; повертає відкладені сповіщення про злиті чужі зміни
+    private List<Runnable> persist(boolean force) {
+        if (!force && modCount == savedModCount) {
+            stats.recordSkippedWrite();
+            logger.debug("Каталог не змінився з останнього збереження, запис пропущено.");
+            return List.of();
         }
+        if (FILE_PATH == null) {
+            savedModCount = modCount;
+            return List.of();
+        }
+
+        logger.info("Запущено збереження каталогу продуктів ({} шт.).", this.availableProducts.size());
+        PersistenceEvent event = PersistenceEvent.beginIfEnabled();
+        long start = System.nanoTime();
+        long bytesWritten = 0;
+        boolean success = true;
+        List<Runnable> remoteChanges = List.of();
 
         try {
-            Files.write(Paths.get(FILE_PATH), lines, StandardCharsets.UTF_8);
+            byte[] bytes;
+            if (sharedStore == null) {
+                bytes = encodeCatalog();
+                writer.write(Paths.get(FILE_PATH), bytes);
+            } else {
+                try (SharedStore.Lease lease = sharedStore.acquire()) {
+                    // Інший екземпляр записав каталог після нашої синхронізації: зливаємо його зміни з нашими
+                    if (lease.getManifest().getGeneration() != knownGeneration) {
+                        logger.warn("Каталог змінено іншим екземпляром (покоління {} замість {}), зливаємо зміни.",
+                                lease.getManifest().getGeneration(), knownGeneration);
+                        remoteChanges = applyRemote(parseCatalog(readCatalogLines()), localChanges);
+                    }
+                    bytes = encodeCatalog();
+                    Map<Path, byte[]> files = new LinkedHashMap<>();
+                    files.put(Paths.get(FILE_PATH), bytes);
+                    lease.commit(files, List.of(), List.of());
+                    writer.writeAll(files);
+                    knownGeneration = lease.getManifest().getGeneration();
+                    localChanges.clear();
+                }
+            }
+            savedModCount = modCount;
+            stats.recordSave(System.nanoTime() - start, bytes.length);
+            bytesWritten = bytes.length;
             System.out.println("Каталог збережено у " + FILE_PATH);
-            logger.info("Каталог успішно збережено у {}. Рядків: {}", FILE_PATH, lines.size());
+            logger.info("Каталог успішно збережено у {}. Рядків: {}", FILE_PATH, this.availableProducts.size());
         } catch (IOException e) {
+            success = false;
             System.err.println("Помилка збереження файлу продуктів: " + e.getMessage());
             logger.error("Помилка збереження файлу продуктів {}: {}", FILE_PATH, e.getMessage(), e);
         }
+
+        PersistenceEvent.finish(event, "ProductRepository", "saveToFile", FILE_PATH,
+                this.availableProducts.size(), bytesWritten, success);
+        return remoteChanges;
+    }
+
+    private byte[] encodeCatalog() {
+        StringBuilder content = new StringBuilder();
+        for (IProduct product : this.availableProducts) {
+            content.append(product.toTxtLine()).append(System.lineSeparator());
+            logger.trace("Генерування рядка для збереження: {}", product.getName());
+        }
+        return content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private List<String> readCatalogLines() throws IOException {
+        Path path = Paths.get(FILE_PATH);
+        return Files.exists(path) ? Files.readAllLines(path, StandardCharsets.UTF_8) : List.of();
+    }
+
+    /**
+     * Вмикає координацію з іншими екземплярами програми, що працюють з тим самим файлом каталогу:
+     * записи йдуть під FileChannel.lock, а покоління в маніфесті дозволяє помітити чужі зміни.
+     * Викликається до loadFromFile.
+     */
+    public void enableSharedAccess() {
+        if (FILE_PATH == null) {
+            throw new IllegalStateException("Каталог у пам'яті не має файлу для спільного доступу.");
+        }
+        this.sharedStore = new SharedStore(Paths.get(FILE_PATH + ".manifest"), Paths.get(FILE_PATH + ".lock"));
+        logger.info("Спільний доступ до каталогу увімкнено (маніфест {}).", sharedStore.getManifestFile());
+    }
+
+    public boolean isSharedAccessEnabled() {
+        return sharedStore != null;
+    }
+
+    /**
+     * Підхоплює зміни каталогу, зроблені іншими екземплярами. Дешево, якщо змін немає:
+     * читається лише перший рядок маніфесту. Повертає true, якщо каталог у пам'яті оновлено.
+     */
+    public boolean refreshFromDisk() {
+        if (sharedStore == null) {
+            return false;
+        }
+
+        List<Runnable> remoteChanges;
+        lock.writeLock().lock();
+        try {
+            long generation = sharedStore.readGeneration();
+            if (generation == knownGeneration) {
+                return false;
+            }
+
+            // Маніфест замінюється після даних, тож прочитаний далі файл щонайменше такий же новий
+            boolean clean = modCount == savedModCount;
+            remoteChanges = applyRemote(parseCatalog(readCatalogLines()), localChanges);
+            knownGeneration = generation;
+            if (clean) {
+                savedModCount = modCount;
+            }
+            logger.info("Каталог оновлено до покоління {}: {} змін від інших екземплярів.",
+                    generation, remoteChanges.size());
+        } catch (IOException e) {
+            logger.error("Помилка перевірки спільного каталогу {}: {}", FILE_PATH, e.getMessage(), e);
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        publishRemote(remoteChanges);
+        return !remoteChanges.isEmpty();
+    }
+
+    // Приводить каталог у пам'яті до стану з диска, крім продуктів, змінених цим екземпляром (keepLocal).
+    // Повертає відкладені сповіщення: їх публікують після звільнення блокування.
+    private List<Runnable> applyRemote(List<IProduct> diskProducts, Set<String> keepLocal) {
+        List<Runnable> notifications = new ArrayList<>();
+        Map<String, IProduct> onDisk = new LinkedHashMap<>();
+        for (IProduct product : diskProducts) {
+            onDisk.put(ProductNameIndex.fold(product.getName()), product);
+        }
+
+        Iterator<IProduct> iterator = this.availableProducts.iterator();
+        while (iterator.hasNext()) {
+            IProduct product = iterator.next();
+            String key = ProductNameIndex.fold(product.getName());
+            if (!onDisk.containsKey(key) && !keepLocal.contains(key)) {
+                iterator.remove();
+                unindex(product);
+                modCount++;
+                notifications.add(() -> events.productRemoved(product));
+            }
+        }
+
+        for (Map.Entry<String, IProduct> entry : onDisk.entrySet()) {
+            if (keepLocal.contains(entry.getKey())) {
+                continue;
+            }
+            IProduct remote = entry.getValue();
+            Optional<IProduct> local = nameIndex.findExact(remote.getName());
+            if (local.isEmpty()) {
+                this.availableProducts.add(remote);
+                index(remote);
+                modCount++;
+                notifications.add(() -> events.productAdded(remote));
+            } else if (!local.get().toTxtLine().equals(remote.toTxtLine())) {
+                IProduct previous = local.get();
+                for (int i = 0; i < this.availableProducts.size(); i++) {
+                    if (this.availableProducts.get(i) == previous) {
+                        this.availableProducts.set(i, remote);
+                        break;
+                    }
+                }
+                reindex(previous, remote);
+                modCount++;
+                notifications.add(() -> events.productUpdated(previous, remote));
+            }
+        }
+        return notifications;
+    }
+
+    private void publishRemote(List<Runnable> notifications) {
+        if (!notifications.isEmpty()) {
+            events.publishRemote(() -> notifications.forEach(Runnable::run));
+        }
+    }
+
+    private void markLocalChange(IProduct product) {
+        if (sharedStore != null) {
+            localChanges.add(ProductNameIndex.fold(product.getName()));
+        }
     }
 
     /**
      * Читає txt файл, парсить його і заповнює availableProducts.
      */
     public void loadFromFile() {
+        if (FILE_PATH == null) {
+            logger.debug("Каталог у пам'яті: завантаження з файлу пропущено.");
+            return;
+        }
         logger.info("Початок завантаження каталогу продуктів із {}.", FILE_PATH);
         Path path = Paths.get(FILE_PATH);
         if (!Files.exists(path)) {
@@ -76,77 +326,191 @@ public class ProductRepository {
             return;
         }
 
+        DurableFileWriter.deleteStaleTempFilesOf(path);
+        boolean loaded = false;
+        lock.writeLock().lock();
         try {
+            loaded = readCatalogFile(path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (loaded) {
+            events.productsReloaded();
+        }
+    }
+
+    // Викликається під винятковим блокуванням
+    private boolean readCatalogFile(Path path) {
+        boolean loaded = false;
+        PersistenceEvent event = PersistenceEvent.beginIfEnabled();
+        long start = System.nanoTime();
+        long bytesRead = 0;
+        try {
+            // Покоління читається до даних: якщо файл зміниться між цими кроками, refreshFromDisk підхопить це
+            if (sharedStore != null) {
+                knownGeneration = sharedStore.readGeneration();
+                localChanges.clear();
+            }
+            bytesRead = Files.size(path);
             List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
             availableProducts.clear();
+            nameIndex.clear();
+            ngramIndex.clear();
+            partitions.values().forEach(List::clear);
             logger.debug("Зчитано {} рядків із файлу.", lines.size());
-            int successfullyLoaded = 0;
+            for (IProduct product : parseCatalog(lines)) {
+                availableProducts.add(product);
+                index(product);
+            }
+            modCount++;
+            savedModCount = modCount;
+            stats.recordLoad(System.nanoTime() - start);
+            logger.info("Завантаження завершено. Успішно завантажено {} продуктів.", availableProducts.size());
+            loaded = true;
+        } catch (IOException e) {
+            System.err.println("Помилка читання файлу продуктів: " + e.getMessage());
+            logger.error("❌ Помилка читання файлу продуктів {}: {}", FILE_PATH, e.getMessage(), e);
+        }
 
-            for (String line : lines) {
-                if (line == null || line.trim().isEmpty()) continue;
+        PersistenceEvent.finish(event, "ProductRepository", "loadFromFile", FILE_PATH,
+                availableProducts.size(), bytesRead, loaded);
+        return loaded;
+    }
 
-                String[] parts = line.split(";");
-                if (parts.length < 3) {
-                    logger.warn("⚠️ Невірний формат рядка (замало частин). Пропущено: {}", line);
-                    continue;
-                }
+    /**
+     * Розбирає рядки файлу каталогу (формат IProduct.toTxtLine); некоректні рядки пропускаються
+     * (з записом у статистику).
+     */
+    public List<IProduct> parseCatalog(List<String> lines) {
+        List<IProduct> products = new ArrayList<>();
 
-                try {
-                    String type = parts[0];
-                    String name = parts[1];
-                    String caloriesString = parts[2].replace(",", ".");
-                    double calories = parseDoubleWithLocaleFix(caloriesString);
-
-                    IProduct product = null;
-                    switch (type) {
-                        case "RootVegetable":
-                            // RootVegetable;назва;калорії;sugarContent;isHard
-                            product = new RootVegetable(name, calories, parseDoubleWithLocaleFix(parts[3]), Boolean.parseBoolean(parts[4]));
-                            break;
-                        case "LeafyVegetable":
-                            // LeafyVegetable;назва;калорії;fiberContent
-                            product = new LeafyVegetable(name, calories, parseDoubleWithLocaleFix(parts[3]));
-                            break;
-                        case "FruitingVegetable":
-                            // FruitingVegetable;назва;калорії;waterContentPercent
-                            product = new FruitingVegetable(name, calories, parseDoubleWithLocaleFix(parts[3]));
-                            break;
-                        case "TuberVegetable":
-                            // TuberVegetable;назва;калорії;starchContent
-                            product = new TuberVegetable(name, calories, parseDoubleWithLocaleFix(parts[3]));
-                            break;
-                        case "Dressing":
-                            // Dressing;назва;калорії;baseType
-                            product = new Dressing(name, calories, parts[3]);
-                            break;
-                        case "Topping":
-                            // Topping;назва;калорії;isCrunchy
-                            product = new Topping(name, calories, Boolean.parseBoolean(parts[3]));
-                            break;
-                    }
-                    if (product != null) {
-                        availableProducts.add(product);
-                        logger.trace("Завантажено продукт: {} ({})", name, type);
-                        successfullyLoaded++;
-                    }
-                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
-                    System.err.println("Помилка читання рядка (неправильний формат). Пропущено: " + line);
-                    logger.warn("Помилка парсингу рядка (неправильний формат). Пропущено: {}. Помилка: {}", line, e.getMessage());
+        for (String line : lines) {
+            if (line == null || line.trim().isEmpty()) continue;
+
+            String[] parts = line.split(";");
+            if (parts.length < 3) {
+                logger.warn("⚠️ Невірний формат рядка (замало частин). Пропущено: {}", line);
+                stats.recordParseError();
+                continue;
+            }
+
+            try {
+                String type = parts[0];
+                String name = parts[1];
+                String caloriesString = parts[2].replace(",", ".");
+                double calories = parseDoubleWithLocaleFix(caloriesString);
+
+                IProduct product = null;
+                switch (type) {
+                    case "RootVegetable":
+                        // RootVegetable;назва;калорії;sugarContent;isHard
+                        product = new RootVegetable(name, calories, parseDoubleWithLocaleFix(parts[3]), Boolean.parseBoolean(parts[4]));
+                        break;
+                    case "LeafyVegetable":
+                        // LeafyVegetable;назва;калорії;fiberContent
+                        product = new LeafyVegetable(name, calories, parseDoubleWithLocaleFix(parts[3]));
+                        break;
+                    case "FruitingVegetable":
+                        // FruitingVegetable;назва;калорії;waterContentPercent
+                        product = new FruitingVegetable(name, calories, parseDoubleWithLocaleFix(parts[3]));
+                        break;
+                    case "TuberVegetable":
+                        // TuberVegetable;назва;калорії;starchContent
+                        product = new TuberVegetable(name, calories, parseDoubleWithLocaleFix(parts[3]));
+                        break;
+                    case "Dressing":
+                        // Dressing;назва;калорії;baseType
+                        product = new Dressing(name, calories, parts[3]);
+                        break;
+                    case "Topping":
+                        // Topping;назва;калорії;isCrunchy
+                        product = new Topping(name, calories, Boolean.parseBoolean(parts[3]));
+                        break;
                 }
+                if (product != null) {
+                    products.add(product);
+                    logger.trace("Завантажено продукт: {} ({})", name, type);
+                } else {
+                    stats.recordParseError();
+                    logger.warn("Невідомий тип продукту '{}'. Пропущено: {}", type, line);
+                }
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                // IllegalArgumentException покриває і NumberFormatException, і відхилені конструктором значення
+                stats.recordParseError();
+                System.err.println("Помилка читання рядка (неправильний формат). Пропущено: " + line);
+                logger.warn("Помилка парсингу рядка (неправильний формат). Пропущено: {}. Помилка: {}", line, e.getMessage());
             }
-            logger.info("Завантаження завершено. Успішно завантажено {} продуктів.", successfullyLoaded);
-        } catch (IOException e) {
-            System.err.println("Помилка читання файлу продуктів: " + e.getMessage());
-            logger.error("❌ Помилка читання файлу продуктів {}: {}", FILE_PATH, e.getMessage(), e);
         }
+        return products;
     }
 
     /**
      * Повертає копію списку всіх продуктів.
      */
     public List<IProduct> getAllProducts() {
-        logger.debug("Виклик getAllProducts. Повертається {} продуктів.", this.availableProducts.size());
-        return new ArrayList<>(this.availableProducts);
+        lock.readLock().lock();
+        try {
+            logger.debug("Виклик getAllProducts. Повертається {} продуктів.", this.availableProducts.size());
+            return new ArrayList<>(this.availableProducts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Кількість продуктів у каталозі (без копіювання списку).
+     */
+    public int getProductCount() {
+        lock.readLock().lock();
+        try {
+            return this.availableProducts.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String getFilePath() {
+        return FILE_PATH;
+    }
+
+    public ChangeEventBus getEventBus() {
+        return events;
+    }
+
+    /**
+     * Стрічка змін каталогу та рецептів (Flow.Publisher) для зовнішніх споживачів.
+     */
+    public ChangeFeed getChangeFeed() {
+        return events.getChangeFeed();
+    }
+
+    public RepositoryStats getStats() {
+        return stats;
+    }
+
+    public Durability getDurability() {
+        return writer.getDurability();
+    }
+
+    public void setDurability(Durability durability) {
+        logger.info("Рівень durability каталогу продуктів: {}", durability);
+        writer.setDurability(durability);
+    }
+
+    /**
+     * Приблизний обсяг heap, який утримує каталог: об'єкти продуктів та їхні назви.
+     */
+    public long estimateRetainedBytes() {
+        lock.readLock().lock();
+        try {
+            long total = 16 + 4L * this.availableProducts.size(); // сам ArrayList і масив посилань
+            for (IProduct product : this.availableProducts) {
+                total += 48 + RepositoryStats.estimateStringBytes(product.getName());
+            }
+            return total + nameIndex.estimateRetainedBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -154,8 +518,19 @@ public class ProductRepository {
      */
     public void addProduct(IProduct product) {
         logger.info("Додавання нового продукту до каталогу: {}", product.getName());
-        this.availableProducts.add(product);
-        saveToFile();
+        List<Runnable> remoteChanges;
+        lock.writeLock().lock();
+        try {
+            this.availableProducts.add(product);
+            index(product);
+            markLocalChange(product);
+            modCount++;
+            remoteChanges = persist();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        publishRemote(remoteChanges);
+        events.productAdded(product);
     }
 
     /**
@@ -163,18 +538,266 @@ public class ProductRepository {
      */
     public void removeProduct(IProduct product) {
         logger.info("Видалення продукту з каталогу: {}", product.getName());
-        this.availableProducts.remove(product);
-        saveToFile();
+        boolean removed;
+        List<Runnable> remoteChanges;
+        lock.writeLock().lock();
+        try {
+            removed = this.availableProducts.remove(product);
+            if (removed) {
+                markLocalChange(product);
+                modCount++;
+            }
+            unindex(product);
+            remoteChanges = persist();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        publishRemote(remoteChanges);
+        if (removed) {
+            events.productRemoved(product);
+        }
+    }
+
+    /**
+     * Замінює продукт новою версією на тому ж місці каталогу (редагування) і викликає saveToFile().
+     * Повертає false, якщо такого продукту в каталозі немає або нова назва вже належить іншому продукту;
+     * назва перевіряється під тим самим блокуванням, що й заміна, тож два редагування не дадуть дублікат.
+     */
+    public boolean updateProduct(IProduct existing, IProduct replacement) {
+        List<Runnable> remoteChanges;
+        lock.writeLock().lock();
+        try {
+            int position = -1;
+            for (int i = 0; i < this.availableProducts.size(); i++) {
+                if (this.availableProducts.get(i) == existing) {
+                    position = i;
+                    break;
+                }
+            }
+
+            if (position < 0) {
+                logger.warn("Оновлення неможливе: продукт '{}' відсутній у каталозі.", existing.getName());
+                return false;
+            }
+
+            Optional<IProduct> sameName = nameIndex.findExact(replacement.getName());
+            if (sameName.isPresent() && sameName.get() != existing) {
+                logger.warn("Оновлення неможливе: назва '{}' вже зайнята іншим продуктом.", replacement.getName());
+                return false;
+            }
+
+            logger.info("Оновлення продукту '{}' -> '{}'.", existing.getName(), replacement.getName());
+            this.availableProducts.set(position, replacement);
+            reindex(existing, replacement);
+            markLocalChange(existing);
+            markLocalChange(replacement);
+            // Редагування без фактичних змін не потребує перезапису файлу
+            if (!existing.toTxtLine().equals(replacement.toTxtLine())) {
+                modCount++;
+            }
+            remoteChanges = persist();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        publishRemote(remoteChanges);
+        events.productUpdated(existing, replacement);
+        return true;
+    }
+
+    /**
+     * Результат масового оновлення каталогу (див. upsertAll).
+     */
+    public static class UpsertResult {
+        private final int inserted;
+        private final int unchanged;
+        private final Map<IProduct, IProduct> replaced;
+
+        UpsertResult(int inserted, int unchanged, Map<IProduct, IProduct> replaced) {
+            this.inserted = inserted;
+            this.unchanged = unchanged;
+            this.replaced = replaced;
+        }
+
+        public int getInserted() {
+            return inserted;
+        }
+
+        public int getUnchanged() {
+            return unchanged;
+        }
+
+        /**
+         * Замінені продукти: стара версія -> нова.
+         */
+        public Map<IProduct, IProduct> getReplaced() {
+            return replaced;
+        }
+    }
+
+    /**
+     * Масове додавання/оновлення за назвою (без урахування регістру) з одним saveToFile() наприкінці.
+     * Продукти, що збігаються з наявними за вмістом, пропускаються.
+     */
+    public UpsertResult upsertAll(List<IProduct> products) {
+        logger.info("Масове оновлення каталогу: {} продуктів.", products.size());
+        int inserted = 0;
+        int unchanged = 0;
+        Map<IProduct, IProduct> replaced = new IdentityHashMap<>();
+        // Події публікуються після запису файлу, у порядку вхідного списку
+        List<Runnable> notifications = new ArrayList<>();
+        List<Runnable> remoteChanges;
+        lock.writeLock().lock();
+        try {
+            Map<IProduct, Integer> positions = new IdentityHashMap<>();
+            for (int i = 0; i < this.availableProducts.size(); i++) {
+                positions.put(this.availableProducts.get(i), i);
+            }
+
+            for (IProduct product : products) {
+                Optional<IProduct> existing = nameIndex.findExact(product.getName());
+                if (existing.isPresent()) {
+                    IProduct previous = existing.get();
+                    if (previous.toTxtLine().equals(product.toTxtLine())) {
+                        unchanged++;
+                        continue;
+                    }
+                    int position = positions.remove(previous);
+                    this.availableProducts.set(position, product);
+                    positions.put(product, position);
+                    reindex(previous, product);
+                    replaced.put(previous, product);
+                    notifications.add(() -> events.productUpdated(previous, product));
+                } else {
+                    positions.put(product, this.availableProducts.size());
+                    this.availableProducts.add(product);
+                    index(product);
+                    notifications.add(() -> events.productAdded(product));
+                    inserted++;
+                }
+                markLocalChange(product);
+                modCount++;
+            }
+            remoteChanges = persist();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        publishRemote(remoteChanges);
+        notifications.forEach(Runnable::run);
+        return new UpsertResult(inserted, unchanged, replaced);
+    }
+
+    /**
+     * Продукти заданих типів у порядку каталогу (копія). Вартість — O(k) від розміру результату.
+     */
+    public List<IProduct> getProductsByKind(Set<ProductKind> kinds) {
+        lock.readLock().lock();
+        try {
+            List<IProduct> result = new ArrayList<>(countByKind(kinds));
+            for (ProductKind kind : kinds) {
+                result.addAll(partitions.get(kind));
+            }
+            logger.debug("Виклик getProductsByKind({}). Повертається {} продуктів.", kinds, result.size());
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
-     * Шукає продукт за назвою (без урахування регістру).
+     * Кількість продуктів заданих типів (без копіювання).
+     */
+    public int countByKind(Set<ProductKind> kinds) {
+        lock.readLock().lock();
+        try {
+            int count = 0;
+            for (ProductKind kind : kinds) {
+                count += partitions.get(kind).size();
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(IProduct product) {
+        nameIndex.add(product);
+        ngramIndex.add(product);
+        partitions.get(product.getKind()).add(product);
+    }
+
+    private void unindex(IProduct product) {
+        nameIndex.remove(product);
+        ngramIndex.remove(product);
+        removeByIdentity(partitions.get(product.getKind()), product);
+    }
+
+    // Заміна продукту тієї ж категорії зберігає його місце в розділі
+    private void reindex(IProduct existing, IProduct replacement) {
+        nameIndex.remove(existing);
+        ngramIndex.remove(existing);
+        nameIndex.add(replacement);
+        ngramIndex.add(replacement);
+
+        List<IProduct> partition = partitions.get(existing.getKind());
+        if (existing.getKind() == replacement.getKind()) {
+            for (int i = 0; i < partition.size(); i++) {
+                if (partition.get(i) == existing) {
+                    partition.set(i, replacement);
+                    return;
+                }
+            }
+        }
+        removeByIdentity(partition, existing);
+        partitions.get(replacement.getKind()).add(replacement);
+    }
+
+    private static void removeByIdentity(List<IProduct> partition, IProduct product) {
+        for (int i = 0; i < partition.size(); i++) {
+            if (partition.get(i) == product) {
+                partition.remove(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Шукає продукт за назвою (без урахування регістру) через індекс назв.
      */
     public Optional<IProduct> getProductByName(String name) {
         logger.debug("Пошук продукту за назвою: '{}'", name);
-        return this.availableProducts.stream()
-                .filter(p -> p.getName().equalsIgnoreCase(name))
-                .findFirst();
+        lock.readLock().lock();
+        try {
+            return nameIndex.findExact(name);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Автодоповнення: до limit продуктів, назва яких починається з prefix (без урахування регістру).
+     */
+    public List<IProduct> findByPrefix(String prefix, int limit) {
+        logger.debug("Автодоповнення за префіксом: '{}' (ліміт {})", prefix, limit);
+        lock.readLock().lock();
+        try {
+            return nameIndex.complete(prefix, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Нечіткий пошук: до limit продуктів із назвою, схожою на name (з урахуванням одруківок).
+     */
+    public List<IProduct> findSimilar(String name, int limit) {
+        logger.debug("Нечіткий пошук продукту: '{}' (ліміт {})", name, limit);
+        lock.readLock().lock();
+        try {
+            return ngramIndex.findSimilar(name, NGramIndex.defaultMaxDistance(name), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     private double parseDoubleWithLocaleFix(String value) throws NumberFormatException {
@@ -183,6 +806,7 @@ public class ProductRepository {
             throw new NumberFormatException("Рядок для парсингу є null.");
         }
 
-        return Double.parseDouble(value.replace(",", "."));
+        // Старі файли записувались через %.2f і могли містити кому залежно від локалі
+        return FixedPoint.toDouble(FixedPoint.parse(value));
     }
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+package saving;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Лічильники роботи репозиторію (завантаження, збереження, помилки парсингу).
+ * Оновлюються з робочого потоку, читаються з потоків моніторингу (JMX).
+ */
+public class RepositoryStats {
+
+    private final AtomicLong loadCount = new AtomicLong();
+    private final AtomicLong saveCount = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong parseErrors = new AtomicLong();
+    private final AtomicLong syncCount = new AtomicLong();
+    private final AtomicLong skippedWrites = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+
+    private volatile long lastLoadDurationMillis;
+    private volatile long lastSaveDurationMillis;
+    private volatile long lastSaveTimeMillis;
+
+    void recordLoad(long durationNanos) {
+        loadCount.incrementAndGet();
+        lastLoadDurationMillis = durationNanos / 1_000_000;
+    }
+
+    void recordSave(long durationNanos, long bytes) {
+        saveCount.incrementAndGet();
+        bytesWritten.addAndGet(bytes);
+        lastSaveDurationMillis = durationNanos / 1_000_000;
+        lastSaveTimeMillis = System.currentTimeMillis();
+    }
+
+    void recordParseError() {
+        parseErrors.incrementAndGet();
+    }
+
+    void recordSync() {
+        syncCount.incrementAndGet();
+    }
+
+    void recordSkippedWrite() {
+        skippedWrites.incrementAndGet();
+    }
+
+    void recordConflict() {
+        conflicts.incrementAndGet();
+    }
+
+    public long getLoadCount() {
+        return loadCount.get();
+    }
+
+    public long getSaveCount() {
+        return saveCount.get();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    public long getParseErrors() {
+        return parseErrors.get();
+    }
+
+    /**
+     * Кількість синхронізацій на диск (fsync-пакетів); при group commit менша за кількість збережень.
+     */
+    public long getSyncCount() {
+        return syncCount.get();
+    }
+
+    /**
+     * Скільки збережень пропущено, бо дані не змінились з останнього запису.
+     */
+    public long getSkippedWrites() {
+        return skippedWrites.get();
+    }
+
+    /**
+     * Скільки комітів відхилено через конфлікт версій (хтось зберіг салат раніше).
+     */
+    public long getConflicts() {
+        return conflicts.get();
+    }
+
+    public long getLastLoadDurationMillis() {
+        return lastLoadDurationMillis;
+    }
+
+    public long getLastSaveDurationMillis() {
+        return lastSaveDurationMillis;
+    }
+
+    /**
+     * Час останнього збереження (мс від епохи) або 0, якщо збережень ще не було.
+     */
+    public long getLastSaveTimeMillis() {
+        return lastSaveTimeMillis;
+    }
+
+    /**
+     * Груба оцінка розміру рядка в heap: заголовок String + масив символів.
+     * Кирилиця не вміщується в Latin-1, тому рахуємо по 2 байти на символ.
+     */
+    static long estimateStringBytes(String value) {
+        if (value == null) {
+            return 0;
+        }
+
+        boolean latin1 = value.chars().allMatch(c -> c < 256);
+        return 24 + 16 + (long) value.length() * (latin1 ? 1 : 2);
+    }
+}
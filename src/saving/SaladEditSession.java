@@ -0,0 +1,63 @@
+package saving;
+
+import salad.Salad;
+
+/**
+ * Сесія редагування салату: зміни вносяться у приватну копію, а фіксуються через
+ * SaladRepository.saveSalad(salad, expectedVersion) — лише якщо салат ніхто не змінив
+ * з моменту відкриття сесії (optimistic concurrency, без блокування на час редагування).
+ */
+public class SaladEditSession {
+
+    private final SaladRepository repository;
+    private final Salad working;
+    private final boolean creating;
+    private long baseVersion;
+    private long baseRevision;
+
+    SaladEditSession(SaladRepository repository, Salad working, long baseVersion, boolean creating) {
+        this.repository = repository;
+        this.working = working;
+        this.baseVersion = baseVersion;
+        this.baseRevision = working.getRevision();
+        this.creating = creating;
+    }
+
+    /**
+     * Робоча копія; інші користувачі її не бачать до commit().
+     */
+    public Salad getSalad() {
+        return working;
+    }
+
+    public long getBaseVersion() {
+        return baseVersion;
+    }
+
+    /**
+     * true для нового салату (ще не збереженого) або якщо копію змінено після відкриття/останнього commit.
+     */
+    public boolean hasChanges() {
+        return (creating && baseVersion == SaladRepository.NO_VERSION) || working.getRevision() != baseRevision;
+    }
+
+    /**
+     * Фіксує зміни. Повертає false, якщо салат тим часом змінив хтось інший (конфлікт);
+     * тоді копія лишається незбереженою, і можна викликати rebase() або відмовитись від змін.
+     */
+    public boolean commit() {
+        if (!repository.saveSalad(working, baseVersion)) {
+            return false;
+        }
+        baseVersion = repository.getVersion(working.getName());
+        baseRevision = working.getRevision();
+        return true;
+    }
+
+    /**
+     * Приймає поточну версію в репозиторії як базову, щоб наступний commit перезаписав чужі зміни.
+     */
+    public void rebase() {
+        baseVersion = repository.getVersion(working.getName());
+    }
+}
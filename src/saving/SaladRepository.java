@@ -1,6 +1,16 @@
 package saving;
 
+import event.ChangeEvent;
+import event.ChangeEventBus;
+import event.ChangeFeed;
+import index.ProductNameIndex;
+import index.ProductUsageIndex;
+import index.RecipeBitsetIndex;
+import index.SaladSimilarityIndex;
+import monitoring.jfr.PersistenceEvent;
+import products.FixedPoint;
 import products.IProduct;
+import salad.CalorieBatch;
 import salad.Salad;
 import salad.SaladIngredient;
 
@@ -10,8 +20,26 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -20,32 +48,133 @@ import org.apache.logging.log4j.Logger;
 
 /**
  * Відповідає за збереження та завантаження рецептів салатів.
+ *
+ * Кожен салат має версію, що зростає з кожним комітом. Зміни фіксуються під блокуванням
+ * лише відповідного салату, тож різні салати можна зберігати паралельно, а читання не блокуються.
+ * Повне перезавантаження (loadAllSalads) виключає всі коміти: вони тримають спільну частину reloadLock.
  */
 public class SaladRepository {
     private static final Logger logger = LogManager.getLogger(SaladRepository.class);
 
     private final String directoryPath;
     private final ProductRepository productRepository;
-    private List<Salad> savedSalads;
+    // Версія відсутнього салату: сесія створення очікує, що салату з такою назвою ще немає
+    public static final long NO_VERSION = 0;
+    // Збереження без перевірки версії (останній запис перемагає)
+    public static final long ANY_VERSION = -1;
+
+    // Ключ — назва салату в нижньому регістрі; порядок — за ключем
+    private final ConcurrentMap<String, Salad> savedSalads = new ConcurrentSkipListMap<>();
+    // Остання версія за ключем; не видаляється разом із салатом, тож номери версій не повторюються
+    private final ConcurrentMap<String, Long> versions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ReentrantLock> commitLocks = new ConcurrentHashMap<>();
+    // Спільна частина — коміти окремих салатів, виняткова — перезавантаження всіх рецептів
+    private final ReentrantReadWriteLock reloadLock = new ReentrantReadWriteLock();
+    private final RepositoryStats stats = new RepositoryStats();
+    private final DurableFileWriter writer = new DurableFileWriter(stats, Durability.configured());
+    private final ProductUsageIndex usageIndex = new ProductUsageIndex();
+    private final SaladSimilarityIndex similarityIndex = SaladSimilarityIndex.configured();
+    private final RecipeBitsetIndex bitsetIndex = new RecipeBitsetIndex();
+    private final ChangeEventBus events;
+    // Версія (Salad.getRevision) кожного салату на момент останнього запису або читання його файлу
+    private final Map<Salad, Long> persistedRevisions = Collections.synchronizedMap(new IdentityHashMap<>());
+    // Спільний доступ кількох екземплярів до однієї директорії (вмикається через enableSharedAccess)
+    private volatile SharedStore sharedStore;
+    // Віддалені зміни продуктів бувають лише у спільному режимі, тож підписка створюється в enableSharedAccess
+    private ChangeEventBus.Subscription remoteProductUpdates;
+    private volatile long knownGeneration;
+    // Покоління маніфесту, з яким узгоджено кожен салат у пам'яті (ключ — назва в нижньому регістрі)
+    private final ConcurrentMap<String, Long> knownEntryGenerations = new ConcurrentHashMap<>();
 
     public SaladRepository(String directoryPath, ProductRepository productRepository) {
         this.directoryPath = directoryPath;
         this.productRepository = productRepository;
-        this.savedSalads = new ArrayList<>();
+        // Спільна шина з каталогом: підписники бачать зміни продуктів і салатів в одному порядку
+        this.events = productRepository != null ? productRepository.getEventBus() : new ChangeEventBus();
         logger.info("SaladRepository ініціалізовано. Шлях до даних: {}", directoryPath);
 
-        try {
-            Files.createDirectories(Paths.get(directoryPath));
-            logger.debug("Директорія для рецептів '{}' готова.", directoryPath);
-        } catch (IOException e) {
-            logger.fatal("Помилка створення директорії {}: {}", directoryPath, e.getMessage(), e);
-            System.err.println("Помилка створення директорії " + directoryPath + ": " + e.getMessage());
+        if (directoryPath != null) {
+            try {
+                Files.createDirectories(Paths.get(directoryPath));
+                logger.debug("Директорія для рецептів '{}' готова.", directoryPath);
+            } catch (IOException e) {
+                logger.fatal("Помилка створення директорії {}: {}", directoryPath, e.getMessage(), e);
+                System.err.println("Помилка створення директорії " + directoryPath + ": " + e.getMessage());
+            }
         }
     }
 
+    /**
+     * Рецепти лише в пам'яті, без файлів (наприклад, репліка, яку наповнює ReplicationFollower).
+     */
+    public static SaladRepository inMemory(ProductRepository productRepository) {
+        return new SaladRepository(null, productRepository);
+    }
+
+    /**
+     * Вмикає координацію з іншими екземплярами програми, що працюють з тією ж директорією рецептів:
+     * коміти виконуються під FileChannel.lock, а маніфест зберігає покоління останньої зміни кожного салату.
+     * Викликається до loadAllSalads.
+     */
+    public void enableSharedAccess() {
+        if (directoryPath == null) {
+            throw new IllegalStateException("Рецепти в пам'яті не мають директорії для спільного доступу.");
+        }
+        if (productRepository != null && remoteProductUpdates == null) {
+            // Інший екземпляр змінив продукт: салати в пам'яті мають посилатися на нову версію.
+            // Власні зміни поширює ProductService, тому тут обробляються лише віддалені події
+            remoteProductUpdates = events.subscribe(EnumSet.of(ChangeEvent.Type.PRODUCT_UPDATED), event -> {
+                if (event.isRemote()) {
+                    replaceProductInSalads(event.getPrevious(), event.getProduct());
+                }
+            });
+        }
+        this.sharedStore = new SharedStore(Paths.get(directoryPath, ".manifest"), Paths.get(directoryPath, ".lock"));
+        logger.info("Спільний доступ до рецептів увімкнено (маніфест {}).", sharedStore.getManifestFile());
+    }
+
+    public boolean isSharedAccessEnabled() {
+        return sharedStore != null;
+    }
+
     public void loadAllSalads() {
+        if (directoryPath == null) {
+            logger.debug("Рецепти в пам'яті: завантаження з файлів пропущено.");
+            return;
+        }
         logger.info("Початок завантаження всіх рецептів із '{}'.", directoryPath);
+        reloadLock.writeLock().lock();
+        try {
+            readAllSalads();
+        } finally {
+            reloadLock.writeLock().unlock();
+        }
+        events.saladsReloaded();
+    }
+
+    // Викликається під винятковим блокуванням reloadLock
+    private void readAllSalads() {
+        PersistenceEvent event = PersistenceEvent.beginIfEnabled();
+        long start = System.nanoTime();
+        long bytesRead = 0;
+        boolean success = true;
         savedSalads.clear();
+        clearIndexes();
+        persistedRevisions.clear();
+        DurableFileWriter.deleteStaleTempFiles(Paths.get(directoryPath));
+        if (sharedStore != null) {
+            // Маніфест читається до файлів: пізніші чужі зміни підхопить refreshFromDisk
+            knownEntryGenerations.clear();
+            try {
+                SharedStore.Manifest manifest = sharedStore.readManifest();
+                knownGeneration = manifest.getGeneration();
+                for (SharedStore.Entry entry : manifest.getEntries()) {
+                    knownEntryGenerations.put(ProductNameIndex.fold(entry.getName()), entry.getGeneration());
+                }
+            } catch (IOException e) {
+                logger.error("Помилка читання маніфесту рецептів: {}", e.getMessage(), e);
+            }
+        }
 
         try (Stream<Path> paths = Files.walk(Paths.get(directoryPath))) {
             List<Path> files = paths
@@ -59,76 +188,536 @@ public class SaladRepository {
                 try {
                     String fileName = filePath.getFileName().toString();
                     String saladName = fileName.substring(0, fileName.lastIndexOf('.'));
-                    Salad salad = new Salad(saladName);
-
-                    List<String> lines = Files.readAllLines(filePath, StandardCharsets.UTF_8);
-                    logger.debug("Завантаження салату '{}'. Знайдено {} рядків.", saladName, lines.size());
-                    for (String line : lines) {
-                        if (line == null || line.trim().isEmpty()) {
-                            continue;
-                        }
-
-                        String[] parts = line.split(";");
-                        if (parts.length != 2) {
-                            logger.warn("Невірний формат інгредієнта у {}: '{}'. Пропущено.", fileName, line);
-                            System.err.println("Невірний формат інгредієнта у " + fileName + ": " + line);
-                            continue;
-                        }
-
-                        String productName = parts[0];
-                        double weight = Double.parseDouble(parts[1]);
-
-                        Optional<IProduct> productOpt = productRepository.getProductByName(productName);
-                        if (productOpt.isPresent()) {
-                            SaladIngredient ingredient = new SaladIngredient(productOpt.get(), weight);
-                            salad.addIngredient(ingredient);
-                            logger.trace("Додано інгредієнт: {} ({}г)", productName, weight);
-                        } else {
-                            System.err.println("Продукт '" + productName + "' не знайдено в каталозі. "
-                                    + "Інгредієнт не додано до салату '" + saladName + "'.");
-                            logger.error("Продукт '{}' не знайдено в каталозі. Інгредієнт не додано до '{}'.",
-                                    productName, saladName);
-                        }
-                    }
 
-                    savedSalads.add(salad);
+                    bytesRead += Files.size(filePath);
+                    Salad salad = readSalad(saladName, filePath);
+                    putSalad(salad);
+                    persistedRevisions.put(salad, salad.getRevision());
+                    versions.merge(ProductNameIndex.fold(saladName), 1L, Long::sum);
                     logger.info("Рецепт '{}' успішно завантажено.", saladName);
 
                 } catch (IOException | NumberFormatException e) {
+                    stats.recordParseError();
                     logger.error("Помилка завантаження рецепту {}: {}", filePath.getFileName(), e.getMessage(), e);
                     System.err.println("Помилка завантаження рецепту " + filePath.getFileName() + ": " + e.getMessage());
                 }
             }
         } catch (IOException e) {
+            success = false;
             logger.error("Помилка доступу до папки рецептів {}: {}", directoryPath, e.getMessage(), e);
             System.err.println("Помилка доступу до папки рецептів " + directoryPath + ": " + e.getMessage());
         }
 
+        PersistenceEvent.finish(event, "SaladRepository", "loadAllSalads", directoryPath,
+                savedSalads.size(), bytesRead, success);
+        stats.recordLoad(System.nanoTime() - start);
         logger.info("Завантаження завершено. Загалом завантажено {} рецептів.", savedSalads.size());
     }
 
+    private Salad readSalad(String saladName, Path filePath) throws IOException {
+        return parseSalad(saladName, Files.readAllLines(filePath, StandardCharsets.UTF_8),
+                filePath.getFileName().toString());
+    }
+
     /**
-     * Зберігає один салат у файл (наприклад, "Цезар.txt").
+     * Будує салат з тексту рецепту у форматі файлу ("назва продукту;вага" по рядку на інгредієнт),
+     * беручи продукти з каталогу цього репозиторію. Салат не зберігається.
+     */
+    public Salad parseRecipe(String saladName, String content) {
+        return parseSalad(saladName, content.lines().collect(Collectors.toList()), saladName);
+    }
+
+    private Salad parseSalad(String saladName, List<String> lines, String fileName) {
+        Salad salad = new Salad(saladName);
+        logger.debug("Завантаження салату '{}'. Знайдено {} рядків.", saladName, lines.size());
+        for (String line : lines) {
+            if (line == null || line.trim().isEmpty()) {
+                continue;
+            }
+
+            String[] parts = line.split(";");
+            if (parts.length != 2) {
+                stats.recordParseError();
+                logger.warn("Невірний формат інгредієнта у {}: '{}'. Пропущено.", fileName, line);
+                System.err.println("Невірний формат інгредієнта у " + fileName + ": " + line);
+                continue;
+            }
+
+            String productName = parts[0];
+            double weight = FixedPoint.toDouble(FixedPoint.parse(parts[1]));
+
+            Optional<IProduct> productOpt = productRepository.getProductByName(productName);
+            if (productOpt.isPresent()) {
+                SaladIngredient ingredient = new SaladIngredient(productOpt.get(), weight);
+                salad.addIngredient(ingredient);
+                logger.trace("Додано інгредієнт: {} ({}г)", productName, weight);
+            } else {
+                stats.recordParseError();
+                String hint = describeSimilarProducts(productName);
+                System.err.println("Продукт '" + productName + "' не знайдено в каталозі. "
+                        + "Інгредієнт не додано до салату '" + saladName + "'." + hint);
+                logger.error("Продукт '{}' не знайдено в каталозі. Інгредієнт не додано до '{}'.{}",
+                        productName, saladName, hint);
+            }
+        }
+        return salad;
+    }
+
+    /**
+     * Підхоплює рецепти, збережені або видалені іншими екземплярами. Дешево, якщо змін немає:
+     * читається лише перший рядок маніфесту; інакше перечитуються тільки салати з новішим поколінням.
+     * Повертає true, якщо рецепти в пам'яті оновлено.
+     */
+    public boolean refreshFromDisk() {
+        if (sharedStore == null) {
+            return false;
+        }
+
+        SharedStore.Manifest manifest;
+        try {
+            if (sharedStore.readGeneration() == knownGeneration) {
+                return false;
+            }
+            manifest = sharedStore.readManifest();
+        } catch (IOException e) {
+            logger.error("Помилка перевірки маніфесту рецептів: {}", e.getMessage(), e);
+            return false;
+        }
+
+        List<Salad> reloaded = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        reloadLock.readLock().lock();
+        try {
+            applyManifest(manifest, reloaded, deleted);
+        } finally {
+            reloadLock.readLock().unlock();
+        }
+        logger.info("Рецепти оновлено до покоління {}: перечитано {}, видалено {}.",
+                manifest.getGeneration(), reloaded.size(), deleted.size());
+
+        if (reloaded.isEmpty() && deleted.isEmpty()) {
+            return false;
+        }
+        events.publishRemote(() -> {
+            reloaded.forEach(events::saladSaved);
+            deleted.forEach(events::saladDeleted);
+        });
+        return true;
+    }
+
+    // Перечитує салати з новішим поколінням у маніфесті; викликається під спільним блокуванням reloadLock
+    private void applyManifest(SharedStore.Manifest manifest, List<Salad> reloaded, List<String> deleted) {
+        for (SharedStore.Entry entry : manifest.getEntries()) {
+            String key = ProductNameIndex.fold(entry.getName());
+            if (entry.getGeneration() <= knownEntryGenerations.getOrDefault(key, 0L)) {
+                continue;
+            }
+
+            ReentrantLock lock = lockFor(key);
+            lock.lock();
+            try {
+                if (entry.isDeleted()) {
+                    Salad removed = savedSalads.remove(key);
+                    if (removed != null) {
+                        persistedRevisions.remove(removed);
+                        versions.merge(key, 1L, Long::sum);
+                        unindexSalad(removed.getName());
+                        deleted.add(removed.getName());
+                    }
+                } else {
+                    Salad salad = readSalad(entry.getName(), fileFor(entry.getName()));
+                    // Знімок для події — до публікації салату, поки його ще ніхто не може змінити
+                    reloaded.add(salad.copy());
+                    putSalad(salad);
+                    persistedRevisions.put(salad, salad.getRevision());
+                    // Нова версія: відкриті сесії цього салату отримають конфлікт замість перезапису чужих змін
+                    versions.merge(key, 1L, Long::sum);
+                }
+                knownEntryGenerations.put(key, entry.getGeneration());
+            } catch (IOException | NumberFormatException e) {
+                stats.recordParseError();
+                logger.error("Помилка перечитування рецепту '{}': {}", entry.getName(), e.getMessage(), e);
+            } finally {
+                lock.unlock();
+            }
+        }
+        knownGeneration = manifest.getGeneration();
+    }
+
+    // Підказка для нерозпізнаного рядка рецепту: найближчі назви з каталогу
+    private String describeSimilarProducts(String productName) {
+        List<IProduct> similar = productRepository.findSimilar(productName, 3);
+        if (similar.isEmpty()) {
+            return "";
+        }
+
+        return " Можливо, мались на увазі: " + similar.stream()
+                .map(IProduct::getName)
+                .collect(Collectors.joining(", ")) + ".";
+    }
+
+    /**
+     * Зберігає один салат у файл (наприклад, "Цезар.txt") без перевірки версії.
      */
     public void saveSalad(Salad salad) {
-        logger.info("Спроба збереження рецепту: '{}'.", salad.getName());
-        Path filePath = Paths.get(directoryPath, salad.getName() + ".txt");
-        List<String> lines = new ArrayList<>();
+        saveSalad(salad, ANY_VERSION);
+    }
 
-        for (SaladIngredient ingredient : salad.getIngredients()) {
-            String line = ingredient.getConsumable().getName() + ";" + ingredient.getWeightInGrams();
-            lines.add(line);
+    /**
+     * Compare-and-set: зберігає салат, лише якщо його поточна версія дорівнює expectedVersion
+     * (NO_VERSION — салату ще не існує, ANY_VERSION — без перевірки).
+     * Повертає false при конфлікті версій або помилці запису.
+     */
+    public boolean saveSalad(Salad salad, long expectedVersion) {
+        String key = ProductNameIndex.fold(salad.getName());
+        Salad saved = null;
+        ReentrantLock lock = lockSalad(key);
+        try {
+            long currentVersion = getVersion(salad.getName());
+            if (expectedVersion != ANY_VERSION && expectedVersion != currentVersion) {
+                stats.recordConflict();
+                logger.warn("Конфлікт версій рецепту '{}': очікувалась {}, поточна {}.",
+                        salad.getName(), expectedVersion, currentVersion);
+                return false;
+            }
+
+            if (!hasUnsavedChanges(salad)) {
+                stats.recordSkippedWrite();
+                logger.debug("Рецепт '{}' не змінився, запис пропущено.", salad.getName());
+                return true;
+            }
+
+            if (writeSalad(salad, key, expectedVersion == ANY_VERSION)) {
+                saved = salad.copy();
+            }
+        } finally {
+            unlockSalad(lock);
+        }
+
+        if (saved != null) {
+            events.saladSaved(saved);
+        } else if (sharedStore != null) {
+            // Запис могло бути відхилено через чужу зміну: підтягуємо її, щоб повторна спроба бачила актуальну версію
+            refreshFromDisk();
         }
+        return saved != null;
+    }
+
+    // Викликається під блокуванням салату
+    private boolean writeSalad(Salad salad, String key, boolean overwrite) {
+        logger.info("Спроба збереження рецепту: '{}'.", salad.getName());
+        long start = System.nanoTime();
+        Path filePath = fileFor(salad);
+        PersistenceEvent event = PersistenceEvent.beginIfEnabled();
+        boolean saved = false;
+        long bytesWritten = 0;
 
         try {
-            Files.write(filePath, lines, StandardCharsets.UTF_8);
-            savedSalads.removeIf(s -> s.getName().equalsIgnoreCase(salad.getName()));
-            savedSalads.add(salad);
-            logger.info("Салат '{}' успішно збережено у файл {}.", salad.getName(), filePath.getFileName());
+            long revision = salad.getRevision();
+            byte[] bytes = encode(salad);
+            if (!commitFiles(Map.of(salad.getName(), bytes), List.of(), overwrite).isEmpty()) {
+                stats.recordSave(System.nanoTime() - start, bytes.length);
+                bytesWritten = bytes.length;
+                putSalad(salad);
+                persistedRevisions.put(salad, revision);
+                versions.merge(key, 1L, Long::sum);
+                saved = true;
+                logger.info("Салат '{}' успішно збережено у файл {}.", salad.getName(), filePath.getFileName());
+            }
         } catch (IOException e) {
             logger.error("Помилка збереження рецепту {}: {}", salad.getName(), e.getMessage(), e);
             System.err.println("Помилка збереження рецепту " + salad.getName() + ": " + e.getMessage());
         }
+
+        if (event != null) {
+            PersistenceEvent.finish(event, "SaladRepository", "saveSalad", filePath.toString(),
+                    salad.getIngredients().size(), bytesWritten, saved);
+        }
+        return saved;
+    }
+
+    /**
+     * Поточна версія салату або NO_VERSION, якщо такого салату немає.
+     */
+    public long getVersion(String saladName) {
+        String key = ProductNameIndex.fold(saladName);
+        return savedSalads.containsKey(key) ? versions.getOrDefault(key, NO_VERSION) : NO_VERSION;
+    }
+
+    /**
+     * Відкриває сесію редагування наявного салату на приватній копії.
+     */
+    public Optional<SaladEditSession> openEditSession(String saladName) {
+        ReentrantLock lock = lockSalad(ProductNameIndex.fold(saladName));
+        try {
+            // Копія і версія читаються узгоджено: коміт цього салату не може вклинитись між ними
+            return getSaladByName(saladName)
+                    .map(salad -> new SaladEditSession(this, salad.copy(), getVersion(saladName), false));
+        } finally {
+            unlockSalad(lock);
+        }
+    }
+
+    /**
+     * Сесія створення нового салату; коміт не вдасться, якщо салат з такою назвою з'явиться раніше.
+     */
+    public SaladEditSession openNewSaladSession(String saladName) {
+        return new SaladEditSession(this, new Salad(saladName), NO_VERSION, true);
+    }
+
+    private ReentrantLock lockFor(String key) {
+        return commitLocks.computeIfAbsent(key, k -> new ReentrantLock());
+    }
+
+    // Блокує один салат (спершу спільна частина reloadLock, щоб коміт не перетнувся з перезавантаженням)
+    private ReentrantLock lockSalad(String key) {
+        reloadLock.readLock().lock();
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        return lock;
+    }
+
+    private void unlockSalad(ReentrantLock lock) {
+        lock.unlock();
+        reloadLock.readLock().unlock();
+    }
+
+    // Блокує кілька салатів у порядку ключів, щоб уникнути взаємоблокування
+    private List<ReentrantLock> lockAll(Collection<Salad> salads) {
+        reloadLock.readLock().lock();
+        Set<String> keys = new TreeSet<>();
+        for (Salad salad : salads) {
+            keys.add(ProductNameIndex.fold(salad.getName()));
+        }
+
+        List<ReentrantLock> locks = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            ReentrantLock lock = lockFor(key);
+            lock.lock();
+            locks.add(lock);
+        }
+        return locks;
+    }
+
+    private void unlockAll(List<ReentrantLock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+        reloadLock.readLock().unlock();
+    }
+
+    /**
+     * Зберігає кілька салатів одним комітом (один fsync на групу замість одного на файл).
+     */
+    private void saveSalads(List<Salad> candidates) {
+        List<Salad> written;
+        List<ReentrantLock> locks = lockAll(candidates);
+        try {
+            written = snapshots(writeSalads(candidates));
+        } finally {
+            unlockAll(locks);
+        }
+        written.forEach(events::saladSaved);
+        if (sharedStore != null) {
+            refreshFromDisk();
+        }
+    }
+
+    // Викликається під блокуванням усіх салатів зі списку; повертає фактично записані салати
+    // Копії салатів для подій; викликається під блокуваннями цих салатів, щоб склад не змінився під час копіювання
+    private static List<Salad> snapshots(List<Salad> salads) {
+        List<Salad> copies = new ArrayList<>(salads.size());
+        for (Salad salad : salads) {
+            copies.add(salad.copy());
+        }
+        return copies;
+    }
+
+    private List<Salad> writeSalads(List<Salad> candidates) {
+        List<Salad> salads = new ArrayList<>(candidates.size());
+        for (Salad salad : candidates) {
+            if (hasUnsavedChanges(salad)) {
+                salads.add(salad);
+            } else {
+                stats.recordSkippedWrite();
+            }
+        }
+        if (salads.isEmpty()) {
+            return salads;
+        }
+
+        long start = System.nanoTime();
+        PersistenceEvent event = PersistenceEvent.beginIfEnabled();
+        int recordCount = salads.size();
+        long totalBytes = 0;
+        boolean success = true;
+
+        Map<String, byte[]> contents = new LinkedHashMap<>();
+        Map<Salad, Long> revisions = new IdentityHashMap<>();
+        for (Salad salad : salads) {
+            revisions.put(salad, salad.getRevision());
+            contents.put(salad.getName(), encode(salad));
+        }
+
+        try {
+            List<String> committed = commitFiles(contents, List.of(), false);
+            if (committed.size() < salads.size()) {
+                salads.removeIf(salad -> !committed.contains(salad.getName()));
+            }
+            long durationNanos = System.nanoTime() - start;
+            for (String name : committed) {
+                byte[] bytes = contents.get(name);
+                stats.recordSave(durationNanos, bytes.length);
+                totalBytes += bytes.length;
+            }
+            for (Salad salad : salads) {
+                putSalad(salad);
+                versions.merge(ProductNameIndex.fold(salad.getName()), 1L, Long::sum);
+            }
+            for (Salad salad : salads) {
+                persistedRevisions.put(salad, revisions.get(salad));
+            }
+            logger.info("Збережено {} рецептів одним комітом.", salads.size());
+        } catch (IOException e) {
+            success = false;
+            logger.error("Помилка збереження {} рецептів: {}", salads.size(), e.getMessage(), e);
+            System.err.println("Помилка збереження рецептів: " + e.getMessage());
+            salads.clear();
+        }
+
+        PersistenceEvent.finish(event, "SaladRepository", "saveSalads", directoryPath, recordCount, totalBytes, success);
+        return salads;
+    }
+
+    /**
+     * true, якщо салат ще не записувався цим репозиторієм або змінився після останнього запису.
+     */
+    public boolean hasUnsavedChanges(Salad salad) {
+        Long persisted = persistedRevisions.get(salad);
+        return persisted == null || persisted != salad.getRevision()
+                || savedSalads.get(ProductNameIndex.fold(salad.getName())) != salad;
+    }
+
+    private Path fileFor(Salad salad) {
+        return fileFor(salad.getName());
+    }
+
+    // У режимі пам'яті шлях лише позначає рецепт у подіях JFR і журналі
+    private Path fileFor(String saladName) {
+        return directoryPath == null ? Paths.get(saladName + ".txt") : Paths.get(directoryPath, saladName + ".txt");
+    }
+
+    /**
+     * Фіксує нові вмісти рецептів (назва → байти) і видалення. У спільному режимі коміт іде під блокуванням
+     * сховища разом із новим поколінням маніфесту, а салати, змінені іншим екземпляром після нашого
+     * останнього читання, не перезаписуються (крім overwrite — тоді останній запис перемагає).
+     * Видалення виконуються завжди. Повертає назви фактично записаних рецептів.
+     */
+    private List<String> commitFiles(Map<String, byte[]> contents, List<String> deleted, boolean overwrite)
+            throws IOException {
+        Map<Path, byte[]> files = new LinkedHashMap<>();
+        List<String> written = new ArrayList<>(contents.size());
+        if (directoryPath == null) {
+            written.addAll(contents.keySet());
+            return written;
+        }
+        SharedStore store = sharedStore;
+        if (store == null) {
+            contents.forEach((name, bytes) -> files.put(fileFor(name), bytes));
+            writer.writeAll(files);
+            for (String name : deleted) {
+                Files.deleteIfExists(fileFor(name));
+            }
+            written.addAll(contents.keySet());
+            return written;
+        }
+
+        try (SharedStore.Lease lease = store.acquire()) {
+            for (Map.Entry<String, byte[]> entry : contents.entrySet()) {
+                if (isCurrent(lease.getManifest(), entry.getKey(), overwrite)) {
+                    files.put(fileFor(entry.getKey()), entry.getValue());
+                    written.add(entry.getKey());
+                }
+            }
+            if (written.isEmpty() && deleted.isEmpty()) {
+                return written;
+            }
+
+            for (String name : deleted) {
+                Files.deleteIfExists(fileFor(name));
+            }
+            lease.commit(files, written, deleted);
+            writer.writeAll(files);
+
+            long generation = lease.getManifest().getGeneration();
+            for (String name : written) {
+                knownEntryGenerations.put(ProductNameIndex.fold(name), generation);
+            }
+            for (String name : deleted) {
+                knownEntryGenerations.put(ProductNameIndex.fold(name), generation);
+            }
+        }
+        return written;
+    }
+
+    // Чи бачив цей екземпляр останню зміну салату в маніфесті; викликається під блокуванням сховища
+    private boolean isCurrent(SharedStore.Manifest manifest, String saladName, boolean overwrite) {
+        long onDisk = manifest.getEntryGeneration(saladName);
+        long known = knownEntryGenerations.getOrDefault(ProductNameIndex.fold(saladName), 0L);
+        if (onDisk <= known) {
+            return true;
+        }
+        if (overwrite) {
+            logger.warn("Рецепт '{}' змінено іншим екземпляром (покоління {}), перезаписуємо.", saladName, onDisk);
+            return true;
+        }
+
+        stats.recordConflict();
+        logger.warn("Рецепт '{}' змінено іншим екземпляром (покоління {} замість {}), запис відхилено.",
+                saladName, onDisk, known);
+        return false;
+    }
+
+    private static byte[] encode(Salad salad) {
+        return formatRecipe(salad).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Назви й тексти рецептів усіх салатів (для знімка репліки). Кожен салат форматується під його
+     * блокуванням, і всі блокування тримаються до кінця, тож знімок не містить напівзастосованих змін.
+     * Салати, додані вже під час експорту, до нього не потрапляють.
+     */
+    public Map<String, String> exportRecipes() {
+        List<Salad> current = new ArrayList<>(savedSalads.values());
+        Set<String> keys = new HashSet<>();
+        for (Salad salad : current) {
+            keys.add(ProductNameIndex.fold(salad.getName()));
+        }
+
+        List<ReentrantLock> locks = lockAll(current);
+        try {
+            Map<String, String> recipes = new LinkedHashMap<>();
+            for (Map.Entry<String, Salad> entry : savedSalads.entrySet()) {
+                if (keys.contains(entry.getKey())) {
+                    recipes.put(entry.getValue().getName(), formatRecipe(entry.getValue()));
+                }
+            }
+            return recipes;
+        } finally {
+            unlockAll(locks);
+        }
+    }
+
+    /**
+     * Текст рецепту у форматі файлу; зворотна операція — parseRecipe.
+     */
+    public static String formatRecipe(Salad salad) {
+        StringBuilder content = new StringBuilder();
+        for (SaladIngredient ingredient : salad.getIngredients()) {
+            content.append(ingredient.getConsumable().getName()).append(';')
+                    .append(FixedPoint.format(ingredient.getWeightInMilligrams())).append(System.lineSeparator());
+        }
+        return content.toString();
     }
 
     /**
@@ -136,26 +725,315 @@ public class SaladRepository {
      */
     public void deleteSalad(String saladName) {
         logger.info("Спроба видалення рецепту: '{}'.", saladName);
-        Path filePath = Paths.get(directoryPath, saladName + ".txt");
+        String key = ProductNameIndex.fold(saladName);
+        PersistenceEvent event = PersistenceEvent.beginIfEnabled();
+        boolean success = true;
 
+        Salad removed = null;
+        ReentrantLock lock = lockSalad(key);
         try {
-            Files.deleteIfExists(filePath);
-            savedSalads.removeIf(s -> s.getName().equalsIgnoreCase(saladName));
+            commitFiles(Map.of(), List.of(saladName), true);
+            removed = savedSalads.remove(key);
+            if (removed != null) {
+                persistedRevisions.remove(removed);
+                // Видалення теж змінює версію: відкриті сесії цього салату отримають конфлікт
+                versions.merge(key, 1L, Long::sum);
+            }
+            unindexSalad(saladName);
             logger.info("Рецепт '{}' успішно видалено з файлової системи.", saladName);
         } catch (IOException e) {
+            success = false;
             System.err.println("Помилка видалення рецепту " + saladName + ": " + e.getMessage());
             logger.warn("Рецепт '{}' не знайдено для видалення.", saladName);
+        } finally {
+            unlockSalad(lock);
+        }
+
+        if (event != null) {
+            PersistenceEvent.finish(event, "SaladRepository", "deleteSalad", fileFor(saladName).toString(),
+                    success ? 1 : 0, 0, success);
+        }
+        if (removed != null) {
+            events.saladDeleted(removed.getName());
+        }
+    }
+
+    /**
+     * Перезаписує файли всіх рецептів, що зберігаються в пам'яті.
+     */
+    public void saveAllSalads() {
+        logger.info("Збереження всіх рецептів ({} шт.).", savedSalads.size());
+        saveSalads(new ArrayList<>(savedSalads.values()));
+    }
+
+    /**
+     * Салати, до складу яких входить продукт (через зворотний індекс, без перебору рецептів).
+     */
+    public List<Salad> getSaladsUsing(String productName) {
+        Set<String> saladKeys;
+        synchronized (usageIndex) {
+            saladKeys = new LinkedHashSet<>(usageIndex.saladsUsing(productName));
+        }
+        List<Salad> result = new ArrayList<>(saladKeys.size());
+        for (String key : saladKeys) {
+            Salad salad = savedSalads.get(key);
+            if (salad != null) {
+                result.add(salad);
+            }
+        }
+        return result;
+    }
+
+    public boolean isProductUsed(String productName) {
+        synchronized (usageIndex) {
+            return usageIndex.isUsed(productName);
+        }
+    }
+
+    /**
+     * Каскадне видалення: прибирає продукт з усіх рецептів, що його містять,
+     * і перезаписує лише ці рецепти. Повертає кількість змінених салатів.
+     * Салати змінюються на місці під їхніми блокуваннями; версії зростають, тож відкриті сесії отримають конфлікт.
+     */
+    public int removeProductFromSalads(String productName) {
+        List<Salad> affected = getSaladsUsing(productName);
+        logger.info("Каскадне видалення продукту '{}' з {} рецептів.", productName, affected.size());
+
+        List<Salad> written;
+        List<ReentrantLock> locks = lockAll(affected);
+        try {
+            for (Salad salad : affected) {
+                for (SaladIngredient ingredient : salad.getIngredients()) {
+                    if (ingredient.getConsumable().getName().equalsIgnoreCase(productName)) {
+                        salad.removeIngredient(ingredient);
+                    }
+                }
+            }
+            written = snapshots(writeSalads(affected));
+        } finally {
+            unlockAll(locks);
+        }
+        written.forEach(events::saladSaved);
+        return affected.size();
+    }
+
+    /**
+     * Поширює редагування продукту на рецепти, що його містять (лише на них).
+     * Калорійність цих салатів перераховується ліниво; файли перезаписуються
+     * тільки якщо змінилась назва продукту, бо у файлі рецепту зберігаються назва та вага.
+     */
+    public int replaceProductInSalads(IProduct existing, IProduct replacement) {
+        List<Salad> affected = getSaladsUsing(existing.getName());
+        boolean renamed = !existing.getName().equals(replacement.getName());
+        logger.info("Оновлення продукту '{}' у {} рецептах (перейменування: {}).",
+                existing.getName(), affected.size(), renamed);
+
+        List<Salad> changed;
+        List<ReentrantLock> locks = lockAll(affected);
+        try {
+            for (Salad salad : affected) {
+                boolean wasClean = !hasUnsavedChanges(salad);
+                salad.replaceProduct(existing, replacement);
+                // Без перейменування вміст файлу (назва;вага) не змінився — салат лишається "чистим"
+                if (!renamed) {
+                    if (wasClean) {
+                        persistedRevisions.put(salad, salad.getRevision());
+                    }
+                    versions.merge(ProductNameIndex.fold(salad.getName()), 1L, Long::sum);
+                }
+            }
+            changed = snapshots(renamed ? writeSalads(affected) : affected);
+        } finally {
+            unlockAll(locks);
+        }
+        // Без перейменування файли не переписуються, але склад салатів у пам'яті змінився
+        changed.forEach(events::saladSaved);
+        return affected.size();
+    }
+
+    // Замінює салат з такою ж назвою (без урахування регістру) і оновлює зворотний індекс
+    private void putSalad(Salad salad) {
+        String key = ProductNameIndex.fold(salad.getName());
+        // Одна заміна: читачі без блокування бачать або старий, або новий салат, але не прогалину
+        Salad previous = savedSalads.put(key, salad);
+        if (previous != null && previous != salad) {
+            persistedRevisions.remove(previous);
+        }
+        indexSalad(salad);
+    }
+
+    // Індекси не потокобезпечні, тож кожен оновлюється під власним монітором
+    private void indexSalad(Salad salad) {
+        List<String> productNames = new ArrayList<>();
+        Map<String, Long> composition = new LinkedHashMap<>();
+        for (SaladIngredient ingredient : salad.getIngredients()) {
+            productNames.add(ingredient.getConsumable().getName());
+            composition.merge(ingredient.getConsumable().getName(), ingredient.getWeightInMilligrams(), Long::sum);
+        }
+        synchronized (usageIndex) {
+            usageIndex.index(salad.getName(), productNames);
+        }
+        synchronized (similarityIndex) {
+            similarityIndex.index(salad.getName(), composition);
+        }
+        synchronized (bitsetIndex) {
+            bitsetIndex.index(salad.getName(), productNames);
+        }
+    }
+
+    private void unindexSalad(String saladName) {
+        synchronized (usageIndex) {
+            usageIndex.remove(saladName);
+        }
+        synchronized (similarityIndex) {
+            similarityIndex.remove(saladName);
+        }
+        synchronized (bitsetIndex) {
+            bitsetIndex.remove(saladName);
+        }
+    }
+
+    private void clearIndexes() {
+        synchronized (usageIndex) {
+            usageIndex.clear();
+        }
+        synchronized (similarityIndex) {
+            similarityIndex.clear();
+        }
+        synchronized (bitsetIndex) {
+            bitsetIndex.clear();
+        }
+    }
+
+    /**
+     * Салати, які можна приготувати з наявних продуктів, докупивши не більше maxMissing інгредієнтів;
+     * спершу ті, яким бракує найменше.
+     */
+    public List<RecipeBitsetIndex.Match> findMakeableSalads(Collection<String> availableProducts, int maxMissing) {
+        long start = System.nanoTime();
+        List<RecipeBitsetIndex.Match> matches;
+        synchronized (bitsetIndex) {
+            matches = bitsetIndex.findMakeable(availableProducts, maxMissing);
+        }
+        logger.debug("Пошук салатів із {} наявних продуктів: {} результатів за {} мкс.",
+                availableProducts.size(), matches.size(), (System.nanoTime() - start) / 1000);
+        return matches;
+    }
+
+    /**
+     * До limit салатів зі схожим складом продуктів (MinHash/LSH, без попарного порівняння всіх рецептів),
+     * від найсхожішого. Порожній список, якщо салату немає або він порожній.
+     */
+    public List<SaladSimilarityIndex.Match> findSimilarSalads(String saladName, int limit) {
+        synchronized (similarityIndex) {
+            return similarityIndex.findSimilar(saladName, limit);
+        }
+    }
+
+    public int getSaladCount() {
+        return savedSalads.size();
+    }
+
+    public String getDirectoryPath() {
+        return directoryPath;
+    }
+
+    public ChangeEventBus getEventBus() {
+        return events;
+    }
+
+    /**
+     * Стрічка змін рецептів і каталогу (Flow.Publisher) для зовнішніх споживачів.
+     */
+    public ChangeFeed getChangeFeed() {
+        return events.getChangeFeed();
+    }
+
+    public RepositoryStats getStats() {
+        return stats;
+    }
+
+    public Durability getDurability() {
+        return writer.getDurability();
+    }
+
+    public void setDurability(Durability durability) {
+        logger.info("Рівень durability рецептів: {}", durability);
+        writer.setDurability(durability);
+    }
+
+    /**
+     * Приблизний обсяг heap, який утримують рецепти (салати, інгредієнти та назви салатів).
+     * Продукти враховуються у ProductRepository, тут — лише посилання на них.
+     */
+    public long estimateRetainedBytes() {
+        long total = 16 + 4L * savedSalads.size();
+        for (Salad salad : savedSalads.values()) {
+            total += 40 + RepositoryStats.estimateStringBytes(salad.getName());
+            total += 24L * salad.getIngredients().size();
+        }
+        return total;
+    }
+
+    /**
+     * До k найменш калорійних салатів, що проходять filter, від найлегшого.
+     */
+    public List<Salad> findLowestCalorie(int k, Predicate<Salad> filter) {
+        return topK(k, filter, false);
+    }
+
+    /**
+     * До k найкалорійніших салатів, що проходять filter, від найкалорійнішого.
+     */
+    public List<Salad> findHighestCalorie(int k, Predicate<Salad> filter) {
+        return topK(k, filter, true);
+    }
+
+    // Калорійність відібраних салатів рахується одним пакетом (CalorieBatch), далі обмежена купа
+    // на k номерів: O(n log k) замість повного сортування
+    private List<Salad> topK(int k, Predicate<Salad> filter, boolean highest) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+
+        List<Salad> candidates = new ArrayList<>();
+        for (Salad salad : savedSalads.values()) {
+            if (filter.test(salad)) {
+                candidates.add(salad);
+            }
+        }
+        CalorieBatch batch = CalorieBatch.of(candidates);
+        long[] totals = batch.computeMilliTotals();
+        Comparator<Integer> order = highest
+                ? (first, second) -> Long.compare(totals[second], totals[first])
+                : (first, second) -> Long.compare(totals[first], totals[second]);
+
+        // На вершині — найгірший із відібраних, тобто перший кандидат на витіснення
+        PriorityQueue<Integer> heap = new PriorityQueue<>(k + 1, order.reversed());
+        for (int index = 0; index < totals.length; index++) {
+            if (heap.size() < k) {
+                heap.add(index);
+            } else if (order.compare(index, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(index);
+            }
+        }
+
+        List<Integer> selected = new ArrayList<>(heap);
+        selected.sort(order);
+        List<Salad> result = new ArrayList<>(selected.size());
+        for (int index : selected) {
+            result.add(batch.getSalad(index));
         }
+        return result;
     }
 
     public List<Salad> getAllSalads() {
         logger.debug("Виклик getAllSalads. Повертається {} рецептів.", savedSalads.size());
-        return new ArrayList<>(savedSalads);
+        return new ArrayList<>(savedSalads.values());
     }
 
     public Optional<Salad> getSaladByName(String name) {
-        return savedSalads.stream()
-                .filter(s -> s.getName().equalsIgnoreCase(name))
-                .findFirst();
+        return Optional.ofNullable(savedSalads.get(ProductNameIndex.fold(name)));
     }
 }
@@ -0,0 +1,241 @@
+package saving;
+
+import index.ProductNameIndex;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Координація кількох екземплярів програми, що працюють з одним сховищем на спільному томі.
+ *
+ * Поруч зі сховищем лежать два службові файли:
+ *   - lock-файл, на якому записувачі беруть FileChannel.lock (міжпроцесне виключне блокування);
+ *   - маніфест з лічильником поколінь (generation) та поколінням останньої зміни кожного запису.
+ *
+ * Маніфест замінюється атомарно разом із даними (DurableFileWriter), тож читачам блокування не потрібне:
+ * щоб помітити чужі зміни, достатньо прочитати перший рядок маніфесту й порівняти покоління з відомим.
+ */
+public class SharedStore {
+    private static final Logger logger = LogManager.getLogger(SharedStore.class);
+
+    private static final String GENERATION_PREFIX = "generation;";
+
+    // FileLock діє на рівні процесу, тому потоки (та екземпляри репозиторіїв) однієї JVM виключаються окремо
+    private static final ConcurrentMap<Path, ReentrantLock> LOCAL_LOCKS = new ConcurrentHashMap<>();
+
+    private final Path manifestFile;
+    private final Path lockFile;
+
+    public SharedStore(Path manifestFile, Path lockFile) {
+        this.manifestFile = manifestFile.toAbsolutePath().normalize();
+        this.lockFile = lockFile.toAbsolutePath().normalize();
+    }
+
+    public Path getManifestFile() {
+        return manifestFile;
+    }
+
+    /**
+     * Покоління останньої зміни одного запису (салату); deleted — запис видалено в цьому поколінні.
+     */
+    public static class Entry {
+        private final String name;
+        private final long generation;
+        private final boolean deleted;
+
+        Entry(String name, long generation, boolean deleted) {
+            this.name = name;
+            this.generation = generation;
+            this.deleted = deleted;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getGeneration() {
+            return generation;
+        }
+
+        public boolean isDeleted() {
+            return deleted;
+        }
+    }
+
+    /**
+     * Вміст маніфесту. Змінюється лише під виключним блокуванням (див. Lease).
+     */
+    public static class Manifest {
+        private long generation;
+        private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+        public long getGeneration() {
+            return generation;
+        }
+
+        public Entry getEntry(String name) {
+            return entries.get(ProductNameIndex.fold(name));
+        }
+
+        /**
+         * Покоління останньої зміни запису або 0, якщо маніфест про нього нічого не знає.
+         */
+        public long getEntryGeneration(String name) {
+            Entry entry = getEntry(name);
+            return entry == null ? 0 : entry.generation;
+        }
+
+        public Collection<Entry> getEntries() {
+            return Collections.unmodifiableCollection(entries.values());
+        }
+
+        void advance() {
+            generation++;
+        }
+
+        void recordChange(String name, boolean deleted) {
+            entries.put(ProductNameIndex.fold(name), new Entry(name, generation, deleted));
+        }
+
+        byte[] encode() {
+            StringBuilder content = new StringBuilder(GENERATION_PREFIX).append(generation).append('\n');
+            for (Entry entry : entries.values()) {
+                content.append(entry.name).append(';')
+                        .append(entry.deleted ? -entry.generation : entry.generation).append('\n');
+            }
+            return content.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Поточне покоління сховища (0, якщо маніфесту ще немає). Читає лише перший рядок маніфесту.
+     */
+    public long readGeneration() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(manifestFile, StandardCharsets.UTF_8)) {
+            return parseGeneration(reader.readLine());
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    public Manifest readManifest() throws IOException {
+        Manifest manifest = new Manifest();
+        try (BufferedReader reader = Files.newBufferedReader(manifestFile, StandardCharsets.UTF_8)) {
+            manifest.generation = parseGeneration(reader.readLine());
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.lastIndexOf(';');
+                if (separator <= 0) {
+                    continue;
+                }
+                long value = Long.parseLong(line.substring(separator + 1).trim());
+                String name = line.substring(0, separator);
+                manifest.entries.put(ProductNameIndex.fold(name), new Entry(name, Math.abs(value), value < 0));
+            }
+        } catch (NoSuchFileException e) {
+            return manifest;
+        } catch (NumberFormatException e) {
+            throw new IOException("Пошкоджений маніфест " + manifestFile + ": " + e.getMessage(), e);
+        }
+        return manifest;
+    }
+
+    private long parseGeneration(String line) throws IOException {
+        if (line == null) {
+            return 0;
+        }
+        if (!line.startsWith(GENERATION_PREFIX)) {
+            throw new IOException("Пошкоджений маніфест " + manifestFile + ": " + line);
+        }
+        return Long.parseLong(line.substring(GENERATION_PREFIX.length()).trim());
+    }
+
+    /**
+     * Бере виключне блокування сховища (спершу всередині JVM, потім FileChannel.lock для інших процесів)
+     * і читає актуальний маніфест. Блокування звільняється через close().
+     */
+    public Lease acquire() throws IOException {
+        ReentrantLock local = LOCAL_LOCKS.computeIfAbsent(lockFile, path -> new ReentrantLock());
+        local.lock();
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            long start = System.nanoTime();
+            FileLock fileLock = channel.lock();
+            long waitedMillis = (System.nanoTime() - start) / 1_000_000;
+            if (waitedMillis > 100) {
+                logger.info("Очікування блокування {} тривало {} мс.", lockFile.getFileName(), waitedMillis);
+            }
+            return new Lease(local, channel, fileLock, readManifest());
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            local.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Утримуване виключне блокування разом із прочитаним під ним маніфестом.
+     */
+    public final class Lease implements AutoCloseable {
+        private final ReentrantLock local;
+        private final FileChannel channel;
+        private final FileLock fileLock;
+        private final Manifest manifest;
+
+        private Lease(ReentrantLock local, FileChannel channel, FileLock fileLock, Manifest manifest) {
+            this.local = local;
+            this.channel = channel;
+            this.fileLock = fileLock;
+            this.manifest = manifest;
+        }
+
+        public Manifest getManifest() {
+            return manifest;
+        }
+
+        /**
+         * Нове покоління: змінені записи позначаються ним, а вміст маніфесту додається
+         * останнім файлом до коміту, щоб читачі побачили нове покоління вже після даних.
+         */
+        public void commit(Map<Path, byte[]> files, Collection<String> changed, Collection<String> deleted) {
+            manifest.advance();
+            for (String name : changed) {
+                manifest.recordChange(name, false);
+            }
+            for (String name : deleted) {
+                manifest.recordChange(name, true);
+            }
+            files.put(manifestFile, manifest.encode());
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                fileLock.release();
+                channel.close();
+            } finally {
+                local.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package service;
+
+import products.FixedPoint;
+import products.IProduct;
+import products.ProductKind;
+import salad.CalorieBatch;
+import salad.Salad;
+import salad.SaladIngredient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Рахує агрегати по всіх салатах за один паралельний прохід.
+ *
+ * Калорійність інгредієнтів рахується заздалегідь одним пакетом (CalorieBatch), а прохід
+ * лише розкладає готові значення за типами.
+ *
+ * Кожен потік fork-join пулу (через parallelStream) наповнює власний Accumulator,
+ * а потім часткові результати зливаються через combine — без спільного змінного стану.
+ * Суми ведуться в мілікалоріях і міліграмах (long), тож результат не залежить від розбиття на потоки.
+ */
+public class NutritionAnalytics {
+    private static final Logger logger = LogManager.getLogger(NutritionAnalytics.class);
+
+    private final int heaviestLimit;
+
+    public NutritionAnalytics() {
+        this(10);
+    }
+
+    public NutritionAnalytics(int heaviestLimit) {
+        this.heaviestLimit = heaviestLimit;
+    }
+
+    public NutritionReport analyze(Collection<Salad> salads) {
+        long start = System.nanoTime();
+        CalorieBatch batch = CalorieBatch.of(salads);
+        long[] calories = batch.computeIngredientMilliCalories();
+        Accumulator result = IntStream.range(0, batch.size()).parallel()
+                .collect(() -> new Accumulator(heaviestLimit),
+                        (accumulator, index) -> accumulator.accept(batch, calories, index), Accumulator::combine);
+
+        NutritionReport report = result.toReport();
+        logger.info("Аналітика по {} салатах завершена за {} мс.", report.getSaladCount(),
+                (System.nanoTime() - start) / 1_000_000);
+        return report;
+    }
+
+    /**
+     * Частковий результат; злиття асоціативне, тож порядок обробки салатів неважливий.
+     */
+    private static final class Accumulator {
+        private static final Comparator<NutritionReport.IngredientUsage> BY_WEIGHT =
+                Comparator.comparingDouble(NutritionReport.IngredientUsage::getWeightInGrams);
+
+        private final int heaviestLimit;
+        private int saladCount;
+        private int ingredientCount;
+        private long totalCalories;
+        private long totalWeight;
+        private long dressingCalories;
+        private long vegetableCalories;
+        private long toppingCalories;
+        private final Map<String, Long> caloriesByType = new HashMap<>();
+        // Min-heap: на вершині найлегший із поки що найважчих інгредієнтів
+        private final PriorityQueue<NutritionReport.IngredientUsage> heaviest = new PriorityQueue<>(BY_WEIGHT);
+
+        Accumulator(int heaviestLimit) {
+            this.heaviestLimit = heaviestLimit;
+        }
+
+        void accept(CalorieBatch batch, long[] ingredientCalories, int index) {
+            Salad salad = batch.getSalad(index);
+            int position = batch.ingredientOffset(index);
+            saladCount++;
+            for (SaladIngredient ingredient : batch.getIngredients(index)) {
+                IProduct product = ingredient.getConsumable();
+                long calories = ingredientCalories[position++];
+
+                ingredientCount++;
+                totalCalories += calories;
+                totalWeight += ingredient.getWeightInMilligrams();
+                ProductKind kind = product.getKind();
+                caloriesByType.merge(kind.getTypeName(), calories, Long::sum);
+
+                if (kind == ProductKind.DRESSING) {
+                    dressingCalories += calories;
+                } else if (kind == ProductKind.TOPPING) {
+                    toppingCalories += calories;
+                } else {
+                    vegetableCalories += calories;
+                }
+
+                offerHeaviest(new NutritionReport.IngredientUsage(salad.getName(), product.getName(),
+                        ingredient.getWeightInGrams()));
+            }
+        }
+
+        void combine(Accumulator other) {
+            saladCount += other.saladCount;
+            ingredientCount += other.ingredientCount;
+            totalCalories += other.totalCalories;
+            totalWeight += other.totalWeight;
+            dressingCalories += other.dressingCalories;
+            vegetableCalories += other.vegetableCalories;
+            toppingCalories += other.toppingCalories;
+            other.caloriesByType.forEach((type, calories) -> caloriesByType.merge(type, calories, Long::sum));
+            for (NutritionReport.IngredientUsage usage : other.heaviest) {
+                offerHeaviest(usage);
+            }
+        }
+
+        private void offerHeaviest(NutritionReport.IngredientUsage usage) {
+            if (heaviestLimit <= 0) {
+                return;
+            }
+            if (heaviest.size() < heaviestLimit) {
+                heaviest.add(usage);
+            } else if (usage.getWeightInGrams() > heaviest.peek().getWeightInGrams()) {
+                heaviest.poll();
+                heaviest.add(usage);
+            }
+        }
+
+        NutritionReport toReport() {
+            Map<String, Double> sortedByType = new LinkedHashMap<>();
+            caloriesByType.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .forEach(e -> sortedByType.put(e.getKey(), FixedPoint.toDouble(e.getValue())));
+
+            List<NutritionReport.IngredientUsage> sortedHeaviest = new ArrayList<>(heaviest);
+            sortedHeaviest.sort(BY_WEIGHT.reversed());
+
+            return new NutritionReport(saladCount, ingredientCount,
+                    FixedPoint.toDouble(totalCalories), FixedPoint.toDouble(totalWeight),
+                    FixedPoint.toDouble(dressingCalories), FixedPoint.toDouble(vegetableCalories),
+                    FixedPoint.toDouble(toppingCalories), sortedByType, sortedHeaviest);
+        }
+    }
+}
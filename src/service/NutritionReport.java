@@ -0,0 +1,130 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Незмінний результат аналітики по всіх салатах (див. NutritionAnalytics).
+ */
+public class NutritionReport {
+
+    private final int saladCount;
+    private final int ingredientCount;
+    private final double totalCalories;
+    private final double totalWeight;
+    private final double dressingCalories;
+    private final double vegetableCalories;
+    private final double toppingCalories;
+    private final Map<String, Double> caloriesByType;
+    private final List<IngredientUsage> heaviestIngredients;
+
+    NutritionReport(int saladCount, int ingredientCount, double totalCalories, double totalWeight,
+                    double dressingCalories, double vegetableCalories, double toppingCalories,
+                    Map<String, Double> caloriesByType, List<IngredientUsage> heaviestIngredients) {
+        this.saladCount = saladCount;
+        this.ingredientCount = ingredientCount;
+        this.totalCalories = totalCalories;
+        this.totalWeight = totalWeight;
+        this.dressingCalories = dressingCalories;
+        this.vegetableCalories = vegetableCalories;
+        this.toppingCalories = toppingCalories;
+        this.caloriesByType = Collections.unmodifiableMap(new LinkedHashMap<>(caloriesByType));
+        this.heaviestIngredients = Collections.unmodifiableList(new ArrayList<>(heaviestIngredients));
+    }
+
+    /**
+     * Інгредієнт конкретного салату (для рейтингу найважчих інгредієнтів).
+     */
+    public static class IngredientUsage {
+        private final String saladName;
+        private final String productName;
+        private final double weightInGrams;
+
+        IngredientUsage(String saladName, String productName, double weightInGrams) {
+            this.saladName = saladName;
+            this.productName = productName;
+            this.weightInGrams = weightInGrams;
+        }
+
+        public String getSaladName() {
+            return saladName;
+        }
+
+        public String getProductName() {
+            return productName;
+        }
+
+        public double getWeightInGrams() {
+            return weightInGrams;
+        }
+    }
+
+    public int getSaladCount() {
+        return saladCount;
+    }
+
+    public int getIngredientCount() {
+        return ingredientCount;
+    }
+
+    public double getTotalCalories() {
+        return totalCalories;
+    }
+
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Калорії за типом продукту (ім'я класу, напр. "LeafyVegetable"), від більшого до меншого.
+     */
+    public Map<String, Double> getCaloriesByType() {
+        return caloriesByType;
+    }
+
+    public double getDressingCalories() {
+        return dressingCalories;
+    }
+
+    public double getVegetableCalories() {
+        return vegetableCalories;
+    }
+
+    public double getToppingCalories() {
+        return toppingCalories;
+    }
+
+    public double getDressingShare() {
+        return share(dressingCalories);
+    }
+
+    public double getVegetableShare() {
+        return share(vegetableCalories);
+    }
+
+    public double getToppingShare() {
+        return share(toppingCalories);
+    }
+
+    public double getAverageSaladWeight() {
+        return saladCount == 0 ? 0 : totalWeight / saladCount;
+    }
+
+    public double getAverageSaladCalories() {
+        return saladCount == 0 ? 0 : totalCalories / saladCount;
+    }
+
+    /**
+     * Найважчі інгредієнти серед усіх салатів, від найважчого.
+     */
+    public List<IngredientUsage> getHeaviestIngredients() {
+        return heaviestIngredients;
+    }
+
+    private double share(double calories) {
+        return totalCalories == 0 ? 0 : calories / totalCalories;
+    }
+}
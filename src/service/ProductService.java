@@ -1,11 +1,22 @@
 package service;
 
+import saving.CsvColumnMapping;
+import saving.CsvProductImporter;
 import saving.ProductRepository;
+import saving.SaladRepository;
 import products.*;
+import salad.Salad;
+import ui.render.PagedRenderer;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
@@ -18,22 +29,24 @@ public class ProductService {
     private static final Logger logger = LogManager.getLogger(ProductService.class);
 
     private final ProductRepository productRepository;
+    // Може бути null: тоді перевірка використання продуктів у рецептах не виконується
+    private final SaladRepository saladRepository;
     private final Scanner scanner;
+    private final PagedRenderer renderer;
 
     public ProductService(ProductRepository repo, Scanner scanner) {
+        this(repo, null, scanner);
+    }
+
+    public ProductService(ProductRepository repo, SaladRepository saladRepo, Scanner scanner) {
         this.productRepository = repo;
+        this.saladRepository = saladRepo;
         this.scanner = scanner;
+        this.renderer = new PagedRenderer(scanner);
 
         logger.info("ProductService ініціалізовано. Репозиторій: {}", repo.getClass().getSimpleName());
     }
 
-    private <T extends IProduct> List<T> filterProductsByType(Class<T> type) {
-        return productRepository.getAllProducts().stream()
-                .filter(type::isInstance)
-                .map(type::cast)
-                .collect(Collectors.toList());
-    }
-
     // Функціонал додавання
 
     public void addNewVegetable() {
@@ -102,8 +115,9 @@ public class ProductService {
                 System.out.println("Овоч '" + name + "' (" + newProduct.getClass().getSimpleName() + ") успішно додано та збережено.");
             }
 
-        } catch (NumberFormatException e) {
-            System.out.println("Помилка введення: Калорійність, цукор, клітковина або крохмаль мають бути числами.");
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException або значення, яке відхилив конструктор продукту (NaN, від'ємне)
+            System.out.println("Помилка введення: Калорійність, цукор, клітковина або крохмаль мають бути невід'ємними числами.");
 
             logger.warn("Помилка введення числових даних під час додавання овоча: {}", e.getMessage());
         } catch (Exception e) {
@@ -129,8 +143,8 @@ public class ProductService {
             productRepository.addProduct(newProduct);
             System.out.println("Заправка '" + name + "' успішно додана та збережена.");
             logger.info("Успішно додано заправку: {} ({})", name, baseType);
-        } catch (NumberFormatException e) {
-            System.out.println("Помилка введення: Калорійність має бути числом.");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Помилка введення: Калорійність має бути невід'ємним числом.");
             logger.warn("Помилка введення числових даних під час додавання заправки: {}", e.getMessage());
         }
     }
@@ -153,8 +167,8 @@ public class ProductService {
             productRepository.addProduct(newProduct);
             System.out.println("Топінг '" + name + "' успішно додано та збережено.");
             logger.info("Успішно додано топінг: {})", name);
-        } catch (NumberFormatException e) {
-            System.out.println("Помилка введення: Калорійність має бути числом.");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Помилка введення: Калорійність має бути невід'ємним числом.");
             logger.warn("Помилка введення числових даних під час додавання топінгу: {}", e.getMessage());
         }
     }
@@ -163,7 +177,7 @@ public class ProductService {
 
     public void viewVegetables() {
         logger.info("Користувач переглядає каталог овочів.");
-        List<Vegetable> products = filterProductsByType(Vegetable.class);
+        List<IProduct> products = productRepository.getProductsByKind(ProductKind.VEGETABLES);
         if (products.isEmpty()) {
             System.out.println("Каталог овочів порожній.");
             logger.info("Каталог овочів порожній.");
@@ -171,14 +185,13 @@ public class ProductService {
         }
 
         logger.debug("Знайдено {} овочів для відображення.", products.size());
-        System.out.println("\nНаявні овочі");
-        products.forEach(p -> System.out.println(String.format("%s | %s | %.2f ккал",
-                p.getName(), p.getUkrName(), p.getCaloriesPer100g())));
+        renderer.render("\nНаявні овочі", products, (out, i, p) -> out.format("%s | %s | %.2f ккал",
+                p.getName(), p.getUkrName(), p.getCaloriesPer100g()));
     }
 
     public void viewDressings() {
         logger.info("Користувач переглядає каталог заправок.");
-        List<Dressing> products = filterProductsByType(Dressing.class);
+        List<IProduct> products = productRepository.getProductsByKind(ProductKind.DRESSINGS);
         if (products.isEmpty()) {
             System.out.println("Каталог заправок порожній.");
             logger.info("Каталог заправок порожній.");
@@ -186,14 +199,13 @@ public class ProductService {
         }
 
         logger.debug("Знайдено {} заправок для відображення.", products.size());
-        System.out.println("\nНаявні заправки");
-        products.forEach(p -> System.out.println(String.format("%s | %.2f ккал",
-                p.getName(), p.getCaloriesPer100g())));
+        renderer.render("\nНаявні заправки", products, (out, i, p) -> out.format("%s | %.2f ккал",
+                p.getName(), p.getCaloriesPer100g()));
     }
 
     public void viewToppings() {
         logger.info("Користувач переглядає каталог топінгів.");
-        List<Topping> products = filterProductsByType(Topping.class);
+        List<IProduct> products = productRepository.getProductsByKind(ProductKind.TOPPINGS);
         if (products.isEmpty()) {
             System.out.println("Каталог топінгів порожній.");
             logger.info("Каталог топінгів порожній.");
@@ -201,9 +213,177 @@ public class ProductService {
         }
 
         logger.debug("Знайдено {} топінгів для відображення.", products.size());
-        System.out.println("\nНаявні додатки:");
-        products.forEach(p -> System.out.println(String.format("%s | %.2f ккал",
-                p.getName(), p.getCaloriesPer100g())));
+        renderer.render("\nНаявні додатки:", products, (out, i, p) -> out.format("%s | %.2f ккал",
+                p.getName(), p.getCaloriesPer100g()));
+    }
+
+    // Функціонал редагування
+
+    public void editVegetable() {
+        logger.info("Запущено операцію: Редагувати овоч.");
+        viewVegetables();
+        editProduct(ProductKind.VEGETABLES, "овоча");
+    }
+
+    public void editDressing() {
+        logger.info("Запущено операцію: Редагувати заправку.");
+        viewDressings();
+        editProduct(ProductKind.DRESSINGS, "заправки");
+    }
+
+    public void editTopping() {
+        logger.info("Запущено операцію: Редагувати топінг.");
+        viewToppings();
+        editProduct(ProductKind.TOPPINGS, "топінгу");
+    }
+
+    /**
+     * ДОПОМІЖНИЙ МЕТОД: спільна логіка редагування.
+     * Порожнє введення залишає поточне значення поля. Продукт замінюється на тому ж місці каталогу,
+     * а перераховуються й перезаписуються лише рецепти, що його містять.
+     */
+    private void editProduct(Set<ProductKind> kinds, String label) {
+        System.out.print("\nВведіть назву " + label + " для редагування: ");
+        String nameToEdit = scanner.nextLine().trim();
+        logger.debug("Введена назва для редагування: {}", nameToEdit);
+
+        Optional<IProduct> productOpt = productRepository.getProductByName(nameToEdit);
+        if (productOpt.isEmpty() || !kinds.contains(productOpt.get().getKind())) {
+            System.out.println("Помилка: Продукт з назвою '" + nameToEdit + "' не знайдено.");
+            logger.error("Помилка редагування: Продукт з назвою '{}' не знайдено.", nameToEdit);
+            return;
+        }
+
+        IProduct existing = productOpt.get();
+        System.out.println("(Enter — залишити поточне значення)");
+
+        try {
+            String name = readText("Назва", existing.getName());
+            double calories = readDouble("Калорійність (на 100г)", existing.getCaloriesPer100g());
+            IProduct updated = buildEditedProduct(existing, name, calories);
+
+            // Назву і наявність продукту перевіряє репозиторій атомарно із заміною
+            if (!productRepository.updateProduct(existing, updated)) {
+                Optional<IProduct> sameName = productRepository.getProductByName(name);
+                if (sameName.isPresent() && sameName.get() != existing) {
+                    System.out.println("Помилка: Продукт з назвою '" + name + "' вже існує.");
+                    logger.warn("Редагування скасовано: назва '{}' вже зайнята.", name);
+                } else {
+                    System.out.println("Помилка: Продукт '" + existing.getName() + "' тим часом видалено або змінено.");
+                    logger.warn("Редагування скасовано: продукт '{}' відсутній у каталозі.", existing.getName());
+                }
+                return;
+            }
+            int affectedSalads = saladRepository == null ? 0 : saladRepository.replaceProductInSalads(existing, updated);
+
+            System.out.println("Продукт '" + updated.getName() + "' оновлено. Змінено рецептів: " + affectedSalads + ".");
+            logger.info("Продукт '{}' оновлено (нова назва: '{}'). Змінено рецептів: {}.",
+                    existing.getName(), updated.getName(), affectedSalads);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Помилка введення: Числові поля мають бути невід'ємними числами.");
+            logger.warn("Помилка введення числових даних під час редагування продукту: {}", e.getMessage());
+        }
+    }
+
+    // Створює нову версію продукту того ж класу, запитуючи специфічні для типу поля
+    private IProduct buildEditedProduct(IProduct existing, String name, double calories) {
+        switch (existing.getKind()) {
+            case ROOT_VEGETABLE:
+                RootVegetable root = (RootVegetable) existing;
+                double sugar = readDouble("Вміст цукру (г/100г)", root.getSugarContent());
+                boolean isHard = readBoolean("Твердий овоч (true/false)", root.isHard());
+                return new RootVegetable(name, calories, sugar, isHard);
+            case LEAFY_VEGETABLE:
+                double fiber = readDouble("Вміст клітковини (г/100г)", ((LeafyVegetable) existing).getFiberContent());
+                return new LeafyVegetable(name, calories, fiber);
+            case FRUITING_VEGETABLE:
+                double water = readDouble("Вміст води (%)", ((FruitingVegetable) existing).getWaterContentPercent());
+                return new FruitingVegetable(name, calories, water);
+            case TUBER_VEGETABLE:
+                double starch = readDouble("Вміст крохмалю (г/100г)", ((TuberVegetable) existing).getStarchContent());
+                return new TuberVegetable(name, calories, starch);
+            case DRESSING:
+                String baseType = readText("Тип основи (Олійна, Вершкова, Кисла)", ((Dressing) existing).getBaseType());
+                return new Dressing(name, calories, baseType);
+            case TOPPING:
+            default:
+                boolean isCrunchy = readBoolean("Хрусткий (true/false)", ((Topping) existing).isCrunchy());
+                return new Topping(name, calories, isCrunchy);
+        }
+    }
+
+    private String readText(String prompt, String current) {
+        System.out.print(prompt + " [" + current + "]: ");
+        String input = scanner.nextLine().trim();
+        return input.isEmpty() ? current : input;
+    }
+
+    private double readDouble(String prompt, double current) {
+        System.out.print(prompt + " [" + current + "]: ");
+        String input = scanner.nextLine().trim();
+        return input.isEmpty() ? current : Double.parseDouble(input.replace(",", "."));
+    }
+
+    private boolean readBoolean(String prompt, boolean current) {
+        System.out.print(prompt + " [" + current + "]: ");
+        String input = scanner.nextLine().trim();
+        return input.isEmpty() ? current : Boolean.parseBoolean(input);
+    }
+
+    // Функціонал імпорту
+
+    /**
+     * Масовий імпорт продуктів із CSV постачальника (додавання або оновлення за назвою).
+     */
+    public void importProductsFromCsv() {
+        logger.info("Запущено операцію: Імпорт продуктів із CSV.");
+        System.out.println("\n--- Імпорт продуктів із CSV ---");
+        System.out.print("Шлях до CSV-файлу: ");
+        Path csvFile = Paths.get(scanner.nextLine().trim());
+        if (!Files.isRegularFile(csvFile)) {
+            System.out.println("Файл " + csvFile + " не знайдено.");
+            logger.warn("Імпорт скасовано: файл {} не знайдено.", csvFile);
+            return;
+        }
+
+        System.out.println("Відповідність колонок, напр. name=Назва;calories=Ккал;type=0");
+        System.out.print("(Enter — стандартні заголовки type,name,calories,...): ");
+        String spec = scanner.nextLine().trim();
+        System.out.print("Роздільник [,]: ");
+        String delimiter = scanner.nextLine();
+
+        CsvProductImporter.ImportReport report;
+        try {
+            CsvColumnMapping mapping = CsvColumnMapping.parse(spec);
+            if (!delimiter.isEmpty()) {
+                mapping.delimiter(delimiter.equals("\\t") ? '\t' : delimiter.charAt(0));
+            }
+            Path rejectedReport = csvFile.resolveSibling(csvFile.getFileName() + ".rejected.txt");
+            report = new CsvProductImporter(productRepository, mapping).importFile(csvFile, rejectedReport);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Помилка налаштування імпорту: " + e.getMessage());
+            logger.warn("Імпорт скасовано: {}", e.getMessage());
+            return;
+        } catch (IOException e) {
+            System.err.println("Помилка читання файлу імпорту: " + e.getMessage());
+            logger.error("Помилка імпорту з {}: {}", csvFile, e.getMessage(), e);
+            return;
+        }
+
+        // Рецепти мають посилатися на нові версії оновлених продуктів
+        int affectedSalads = 0;
+        if (saladRepository != null) {
+            for (Map.Entry<IProduct, IProduct> entry : report.getReplaced().entrySet()) {
+                affectedSalads += saladRepository.replaceProductInSalads(entry.getKey(), entry.getValue());
+            }
+        }
+
+        System.out.printf("Імпорт завершено за %d мс: рядків %d, додано %d, оновлено %d, без змін %d, відхилено %d. Змінено рецептів: %d.\n",
+                report.getDurationMillis(), report.getRowsRead(), report.getInserted(), report.getUpdated(),
+                report.getUnchanged(), report.getRejected(), affectedSalads);
+        if (report.getRejectedReport() != null) {
+            System.out.println("Відхилені рядки записано у " + report.getRejectedReport());
+        }
     }
 
     // Функціонал видалення
@@ -218,7 +398,10 @@ public class ProductService {
 
         Optional<IProduct> productOpt = productRepository.getProductByName(nameToRemove);
 
-        if (productOpt.isPresent() && productOpt.get() instanceof Vegetable) {
+        if (productOpt.isPresent() && productOpt.get().getKind().isVegetable()) {
+            if (!confirmRemovalOfUsedProduct(productOpt.get())) {
+                return;
+            }
             productRepository.removeProduct(productOpt.get());
             System.out.println("Овоч '" + nameToRemove + "' успішно видалено. Збережено.");
             logger.info("Овоч '{}' успішно видалено.", nameToRemove);
@@ -238,7 +421,10 @@ public class ProductService {
 
         Optional<IProduct> productOpt = productRepository.getProductByName(nameToRemove);
 
-        if (productOpt.isPresent() && productOpt.get() instanceof Dressing) {
+        if (productOpt.isPresent() && productOpt.get().getKind() == ProductKind.DRESSING) {
+            if (!confirmRemovalOfUsedProduct(productOpt.get())) {
+                return;
+            }
             productRepository.removeProduct(productOpt.get());
             System.out.println("Заправку '" + nameToRemove + "' успішно видалено. Збережено.");
             logger.info("Заправку '{}' успішно видалено.", nameToRemove);
@@ -258,7 +444,10 @@ public class ProductService {
 
         Optional<IProduct> productOpt = productRepository.getProductByName(nameToRemove);
 
-        if (productOpt.isPresent() && productOpt.get() instanceof Topping) {
+        if (productOpt.isPresent() && productOpt.get().getKind() == ProductKind.TOPPING) {
+            if (!confirmRemovalOfUsedProduct(productOpt.get())) {
+                return;
+            }
             productRepository.removeProduct(productOpt.get());
             System.out.println("Топінг '" + nameToRemove + "' успішно видалено. Збережено.");
             logger.info("Топінг '{}' успішно видалено.", nameToRemove);
@@ -267,4 +456,32 @@ public class ProductService {
             logger.error("Помилка видалення: Топінг з назвою '{}' не знайдено.", nameToRemove);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * ДОПОМІЖНИЙ МЕТОД: попереджає, якщо продукт входить до рецептів.
+     * Якщо користувач підтверджує видалення, продукт каскадно прибирається з цих рецептів.
+     * Повертає false, якщо видалення скасовано.
+     */
+    private boolean confirmRemovalOfUsedProduct(IProduct product) {
+        if (saladRepository == null || !saladRepository.isProductUsed(product.getName())) {
+            return true;
+        }
+
+        List<Salad> salads = saladRepository.getSaladsUsing(product.getName());
+        logger.warn("Продукт '{}' використовується у {} рецептах.", product.getName(), salads.size());
+        System.out.println("Увага: '" + product.getName() + "' використовується у рецептах ("
+                + salads.size() + "): " + salads.stream().map(Salad::getName).collect(Collectors.joining(", ")));
+        System.out.print("Видалити продукт і прибрати його з цих рецептів? (так/ні): ");
+
+        String answer = scanner.nextLine().trim();
+        if (!answer.equalsIgnoreCase("так") && !answer.equalsIgnoreCase("y")) {
+            System.out.println("Видалення скасовано.");
+            logger.info("Видалення продукту '{}' скасовано користувачем.", product.getName());
+            return false;
+        }
+
+        int updated = saladRepository.removeProductFromSalads(product.getName());
+        System.out.println("Продукт прибрано з " + updated + " рецептів.");
+        return true;
+    }
+}
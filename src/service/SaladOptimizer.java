@@ -0,0 +1,405 @@
+package service;
+
+import products.IProduct;
+import products.ProductKind;
+import salad.SaladIngredient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Підбирає набори інгредієнтів і ваги, що дають задану калорійність салату.
+ *
+ * Пошук — паралельний branch-and-bound на fork-join пулі: дерево перебирає набори продуктів
+ * (за зростанням калорійності на грам), а ваги для кожного набору підбираються жадібно
+ * (спочатку збільшуємо найменш калорійні інгредієнти — це максимізує об'єм порції).
+ * Гілка відсікається, якщо мінімально можлива калорійність уже гірша за N-й найкращий результат.
+ */
+public class SaladOptimizer {
+    private static final Logger logger = LogManager.getLogger(SaladOptimizer.class);
+
+    // Піддерево з такою або більшою глибиною, що лишилась, ділиться на окремі задачі;
+    // дрібніші обходяться послідовно, щоб накладні витрати fork-join не перевищили саму роботу
+    private static final int SPLIT_MIN_DEPTH = 2;
+
+    private final List<IProduct> catalog;
+    private final ForkJoinPool pool;
+
+    public SaladOptimizer(List<IProduct> catalog) {
+        this(catalog, ForkJoinPool.commonPool());
+    }
+
+    public SaladOptimizer(List<IProduct> catalog, ForkJoinPool pool) {
+        this.catalog = new ArrayList<>(catalog);
+        this.pool = pool;
+    }
+
+    /**
+     * Обмеження пошуку. Значення за замовчуванням відповідають типовому салату.
+     */
+    public static class Constraints {
+        int minIngredients = 2;
+        int maxIngredients = 4;
+        int minLeafy = 1;
+        int maxDressings = 1;
+        double minWeight = 20;
+        double maxWeight = 200;
+        double weightStep = 10;
+        // Скільки продуктів каталогу розглядати; великі каталоги проріджуються рівномірно за калорійністю
+        int candidatePoolSize = 60;
+
+        public Constraints ingredients(int min, int max) {
+            if (min <= 0 || max < min) {
+                throw new IllegalArgumentException("Невірний діапазон кількості інгредієнтів.");
+            }
+            this.minIngredients = min;
+            this.maxIngredients = max;
+            return this;
+        }
+
+        public Constraints minLeafy(int minLeafy) {
+            this.minLeafy = minLeafy;
+            return this;
+        }
+
+        public Constraints maxDressings(int maxDressings) {
+            this.maxDressings = maxDressings;
+            return this;
+        }
+
+        public Constraints weightBounds(double min, double max, double step) {
+            if (min <= 0 || max < min || step <= 0) {
+                throw new IllegalArgumentException("Невірні межі ваги інгредієнта.");
+            }
+            this.minWeight = min;
+            this.maxWeight = max;
+            this.weightStep = step;
+            return this;
+        }
+
+        public Constraints candidatePoolSize(int size) {
+            this.candidatePoolSize = size;
+            return this;
+        }
+    }
+
+    /**
+     * Один знайдений варіант салату.
+     */
+    public static class Candidate {
+        private final List<SaladIngredient> ingredients;
+        private final double totalCalories;
+        private final double totalWeight;
+        private final double deviation;
+
+        Candidate(List<SaladIngredient> ingredients, double totalCalories, double totalWeight, double target) {
+            this.ingredients = ingredients;
+            this.totalCalories = totalCalories;
+            this.totalWeight = totalWeight;
+            this.deviation = Math.abs(totalCalories - target);
+        }
+
+        public List<SaladIngredient> getIngredients() {
+            return new ArrayList<>(ingredients);
+        }
+
+        public double getTotalCalories() {
+            return totalCalories;
+        }
+
+        public double getTotalWeight() {
+            return totalWeight;
+        }
+
+        public double getDeviation() {
+            return deviation;
+        }
+    }
+
+    // Кращий варіант: менше відхилення від цілі, а за рівності — більший об'єм порції
+    private static final Comparator<Candidate> BETTER_FIRST = Comparator
+            .comparingDouble(Candidate::getDeviation)
+            .thenComparing(Comparator.comparingDouble(Candidate::getTotalWeight).reversed());
+
+    /**
+     * Повертає до topN найкращих варіантів, знайдених за timeBudgetMillis.
+     */
+    public List<Candidate> optimize(double targetCalories, Constraints constraints, int topN, long timeBudgetMillis) {
+        List<IProduct> products = selectCandidatePool(constraints);
+        logger.info("Підбір салату: ціль {} ккал, кандидатів {}, бюджет {} мс.",
+                targetCalories, products.size(), timeBudgetMillis);
+
+        Search search = new Search(products, constraints, targetCalories, topN,
+                System.nanoTime() + timeBudgetMillis * 1_000_000);
+
+        List<SubtreeTask> roots = new ArrayList<>();
+        for (int i = 0; i < products.size(); i++) {
+            SubtreeTask root = SubtreeTask.root(search, i);
+            if (root != null) {
+                roots.add(root);
+            }
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(roots);
+            }
+        });
+
+        List<Candidate> result = search.results();
+        logger.info("Підбір завершено: {} варіантів, переглянуто {} наборів{}.", result.size(),
+                search.evaluated, search.timedOut ? " (вичерпано бюджет часу)" : "");
+        return result;
+    }
+
+    private List<IProduct> selectCandidatePool(Constraints constraints) {
+        List<IProduct> sorted = new ArrayList<>(catalog);
+        sorted.removeIf(p -> p.getCaloriesPer100g() < 0);
+        sorted.sort(Comparator.comparingDouble(IProduct::getCaloriesPer100g));
+        if (sorted.size() <= constraints.candidatePoolSize) {
+            return sorted;
+        }
+
+        // Рівномірна вибірка за калорійністю + окремо листові, щоб обмеження minLeafy було виконуваним
+        List<IProduct> leafy = new ArrayList<>();
+        for (IProduct product : sorted) {
+            if (product.getKind() == ProductKind.LEAFY_VEGETABLE) {
+                leafy.add(product);
+            }
+        }
+
+        List<IProduct> pool = new ArrayList<>();
+        int leafyQuota = constraints.minLeafy > 0 ? Math.min(leafy.size(), constraints.candidatePoolSize / 4) : 0;
+        addEvenlySpaced(leafy, leafyQuota, pool);
+        addEvenlySpaced(sorted, constraints.candidatePoolSize - pool.size(), pool);
+        pool.sort(Comparator.comparingDouble(IProduct::getCaloriesPer100g));
+        return pool;
+    }
+
+    private static void addEvenlySpaced(List<IProduct> source, int count, List<IProduct> target) {
+        if (count <= 0 || source.isEmpty()) {
+            return;
+        }
+        double stride = (double) source.size() / count;
+        for (int i = 0; i < count; i++) {
+            IProduct product = source.get((int) (i * stride));
+            if (!target.contains(product)) {
+                target.add(product);
+            }
+        }
+    }
+
+    /**
+     * Спільний стан пошуку: вхідні дані та обмежена черга найкращих результатів.
+     */
+    private static final class Search {
+        final IProduct[] products;
+        final double[] caloriesPerGram;
+        final Constraints constraints;
+        final double target;
+        final int topN;
+        final long deadlineNanos;
+
+        // Max-heap за якістю: на вершині найгірший із прийнятих варіантів
+        private final PriorityQueue<Candidate> best;
+        // Відхилення N-го найкращого варіанта; використовується для відсікання без блокування
+        private volatile double pruneDeviation = Double.POSITIVE_INFINITY;
+        volatile boolean timedOut;
+        volatile long evaluated;
+
+        Search(List<IProduct> products, Constraints constraints, double target, int topN, long deadlineNanos) {
+            this.products = products.toArray(new IProduct[0]);
+            this.caloriesPerGram = new double[this.products.length];
+            for (int i = 0; i < this.products.length; i++) {
+                caloriesPerGram[i] = this.products[i].getCaloriesPer100g() / 100.0;
+            }
+            this.constraints = constraints;
+            this.target = target;
+            this.topN = Math.max(1, topN);
+            this.deadlineNanos = deadlineNanos;
+            this.best = new PriorityQueue<>(BETTER_FIRST.reversed());
+        }
+
+        boolean expired() {
+            if (System.nanoTime() > deadlineNanos) {
+                timedOut = true;
+                return true;
+            }
+            return false;
+        }
+
+        double pruneDeviation() {
+            return pruneDeviation;
+        }
+
+        synchronized void offer(Candidate candidate) {
+            evaluated++;
+            if (best.size() < topN) {
+                best.add(candidate);
+            } else if (BETTER_FIRST.compare(candidate, best.peek()) < 0) {
+                best.poll();
+                best.add(candidate);
+            } else {
+                return;
+            }
+
+            if (best.size() == topN) {
+                pruneDeviation = best.peek().getDeviation();
+            }
+        }
+
+        synchronized List<Candidate> results() {
+            List<Candidate> result = new ArrayList<>(best);
+            result.sort(BETTER_FIRST);
+            return result;
+        }
+    }
+
+    /**
+     * Піддерево пошуку із зафіксованим префіксом набору. Великі піддерева рекурсивно діляться
+     * на дочірні задачі (по одній на наступний інгредієнт), щоб work-stealing вирівнював
+     * навантаження й тоді, коли кілька перших продуктів містять більшість роботи.
+     */
+    private static final class SubtreeTask extends RecursiveAction {
+        // ForkJoinTask успадковує Serializable, але задачі пошуку ніколи не серіалізуються
+        private static final long serialVersionUID = 1L;
+
+        private final transient Search search;
+        private final int[] chosen;
+        private final int size;
+        private final int leafy;
+        private final int dressings;
+        private final double minCalories;
+
+        private SubtreeTask(Search search, int[] chosen, int size, int leafy, int dressings, double minCalories) {
+            this.search = search;
+            this.chosen = chosen;
+            this.size = size;
+            this.leafy = leafy;
+            this.dressings = dressings;
+            this.minCalories = minCalories;
+        }
+
+        // Корінь піддерева з першим інгредієнтом first; null, якщо він сам порушує обмеження
+        static SubtreeTask root(Search search, int first) {
+            IProduct product = search.products[first];
+            int leafy = product.getKind() == ProductKind.LEAFY_VEGETABLE ? 1 : 0;
+            int dressings = product.getKind() == ProductKind.DRESSING ? 1 : 0;
+            if (dressings > search.constraints.maxDressings) {
+                return null;
+            }
+            int[] chosen = new int[search.constraints.maxIngredients];
+            chosen[0] = first;
+            return new SubtreeTask(search, chosen, 1, leafy, dressings,
+                    search.caloriesPerGram[first] * search.constraints.minWeight);
+        }
+
+        @Override
+        protected void compute() {
+            explore(chosen, size, leafy, dressings, minCalories);
+        }
+
+        private void explore(int[] chosen, int size, int leafy, int dressings, double minCalories) {
+            if (search.expired()) {
+                return;
+            }
+
+            // Калорійність лише зростає з кожним новим інгредієнтом, тож далі буде не краще
+            if (minCalories - search.target > search.pruneDeviation()) {
+                return;
+            }
+
+            Constraints c = search.constraints;
+            if (size >= c.minIngredients && leafy >= c.minLeafy) {
+                evaluate(chosen, size);
+            }
+            if (size == c.maxIngredients) {
+                return;
+            }
+
+            // Глибина, що лишилась у дочірніх піддерев
+            boolean split = c.maxIngredients - (size + 1) >= SPLIT_MIN_DEPTH;
+            List<SubtreeTask> children = split ? new ArrayList<>() : null;
+
+            for (int next = chosen[size - 1] + 1; next < search.products.length; next++) {
+                IProduct product = search.products[next];
+                int nextDressings = dressings + (product.getKind() == ProductKind.DRESSING ? 1 : 0);
+                if (nextDressings > c.maxDressings) {
+                    continue;
+                }
+
+                double nextMin = minCalories + search.caloriesPerGram[next] * c.minWeight;
+                if (nextMin - search.target > search.pruneDeviation()) {
+                    // Продукти відсортовані за калорійністю — наступні дадуть ще більше
+                    break;
+                }
+
+                int nextLeafy = leafy + (product.getKind() == ProductKind.LEAFY_VEGETABLE ? 1 : 0);
+                if (split) {
+                    int[] prefix = Arrays.copyOf(chosen, chosen.length);
+                    prefix[size] = next;
+                    children.add(new SubtreeTask(search, prefix, size + 1, nextLeafy, nextDressings, nextMin));
+                } else {
+                    chosen[size] = next;
+                    explore(chosen, size + 1, nextLeafy, nextDressings, nextMin);
+                }
+            }
+
+            if (split && !children.isEmpty()) {
+                invokeAll(children);
+            }
+        }
+
+        // Жадібний підбір ваг: усі на мінімумі, далі добираємо калорії найменш калорійними інгредієнтами
+        private void evaluate(int[] chosen, int size) {
+            Constraints c = search.constraints;
+            double[] weights = new double[size];
+            double calories = 0;
+            for (int i = 0; i < size; i++) {
+                weights[i] = c.minWeight;
+                calories += search.caloriesPerGram[chosen[i]] * c.minWeight;
+            }
+
+            // chosen упорядкований за зростанням калорійності на грам
+            for (int i = 0; i < size && calories < search.target; i++) {
+                double perGram = search.caloriesPerGram[chosen[i]];
+                double room = c.maxWeight - weights[i];
+                if (perGram <= 0) {
+                    weights[i] = c.maxWeight;
+                    continue;
+                }
+
+                double wanted = Math.min(room, (search.target - calories) / perGram);
+                double steps = Math.floor(wanted / c.weightStep);
+                // Якщо крок угору дає менше відхилення — беремо його
+                if (steps * c.weightStep < room) {
+                    double under = search.target - (calories + steps * c.weightStep * perGram);
+                    double over = calories + (steps + 1) * c.weightStep * perGram - search.target;
+                    if (over < under) {
+                        steps++;
+                    }
+                }
+
+                double added = Math.min(room, steps * c.weightStep);
+                weights[i] += added;
+                calories += added * perGram;
+            }
+
+            List<SaladIngredient> ingredients = new ArrayList<>(size);
+            double totalWeight = 0;
+            for (int i = 0; i < size; i++) {
+                ingredients.add(new SaladIngredient(search.products[chosen[i]], weights[i]));
+                totalWeight += weights[i];
+            }
+            search.offer(new Candidate(ingredients, calories, totalWeight, search.target));
+        }
+    }
+}
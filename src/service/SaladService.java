@@ -1,13 +1,19 @@
 package service;
 
 import saving.ProductRepository;
+import saving.SaladEditSession;
 import saving.SaladRepository;
+import index.RecipeBitsetIndex;
+import index.SaladSimilarityIndex;
 import products.IProduct;
-import products.Vegetable;
+import salad.CalorieBatch;
 import salad.Salad;
+import salad.SaladFilters;
 import salad.SaladIngredient;
+import ui.render.PagedRenderer;
 
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
@@ -19,23 +25,32 @@ import org.apache.logging.log4j.Logger;
 public class SaladService {
     private static final Logger logger = LogManager.getLogger(SaladService.class);
 
+    // Скільки варіантів автодоповнення показувати, якщо назву продукту не знайдено
+    private static final int SUGGESTION_LIMIT = 5;
+
+    // Параметри підбору салату під ціль калорій за замовчуванням
+    private static final int OPTIMIZER_RESULTS = 5;
+    private static final long OPTIMIZER_BUDGET_MILLIS = 2000;
+    // Скільки схожих салатів показувати
+    private static final int SIMILAR_SALADS_LIMIT = 10;
+
     private final SaladRepository saladRepository;
     private final ProductRepository productRepository;
     private final Scanner scanner;
+    private final PagedRenderer renderer;
 
     public SaladService(SaladRepository sRepo, ProductRepository pRepo, Scanner scanner) {
         this.saladRepository = sRepo;
         this.productRepository = pRepo;
         this.scanner = scanner;
+        this.renderer = new PagedRenderer(scanner);
         logger.info("SaladService ініціалізовано. Репозиторії: SaladRepo={}, ProductRepo={}",
                 sRepo.getClass().getSimpleName(), pRepo.getClass().getSimpleName());
     }
 
     private double calculateTotalCalories(Salad salad) {
         logger.debug("Розрахунок загальної калорійності для салату '{}'", salad.getName());
-        return salad.getIngredients().stream()
-                .mapToDouble(SaladIngredient::getTotalCalories)
-                .sum();
+        return salad.getTotalCalories();
     }
 
     private double calculateTotalWeight(Salad salad) {
@@ -46,7 +61,7 @@ public class SaladService {
     }
 
     /**
-     * Створює новий, порожній салат та зберігає його.
+     * Створює новий салат і відкриває редагування; файл записується один раз — при виході з редагування.
      */
     public void createNewSalad() {
         logger.info("Запущено операцію: Створення нового салату.");
@@ -64,13 +79,31 @@ public class SaladService {
             return;
         }
 
-        Salad newSalad = new Salad(name);
-        saladRepository.saveSalad(newSalad);
+        SaladEditSession session = saladRepository.openNewSaladSession(name);
+
+        System.out.println("Салат '" + name + "' створено.");
+        logger.info("Салат '{}' створено, відкрито редагування.", name);
+
+        handleEditLoop(session);
+    }
+
+    /**
+     * Редагує склад наявного салату. Зміни вносяться у копію і зберігаються лише тоді,
+     * коли салат не змінив ніхто інший за час редагування (інакше — запит на перезапис).
+     */
+    public void editSalad() {
+        logger.info("Запущено операцію: Редагування салату.");
+        System.out.print("\nВведіть назву салату для редагування: ");
+        String name = scanner.nextLine().trim();
 
-        System.out.println("Салат '" + name + "' створено та збережено.");
-        logger.info("Салат '{}' успішно створено та збережено.", name);
+        Optional<SaladEditSession> session = saladRepository.openEditSession(name);
+        if (session.isEmpty()) {
+            logger.error("Редагування скасовано: Рецепт '{}' не знайдено.", name);
+            System.out.println("Рецепт '" + name + "' не знайдено.");
+            return;
+        }
 
-        handleEditLoop(newSalad);
+        handleEditLoop(session.get());
     }
 
     /**
@@ -86,13 +119,8 @@ public class SaladService {
         }
 
         logger.info("Знайдено {} рецептів для відображення.", salads.size());
-        System.out.println("\n--- Наявні рецепти салатів ---");
-        for (int i = 0; i < salads.size(); i++) {
-            Salad salad = salads.get(i);
-            double cals = calculateTotalCalories(salad);
-            System.out.printf("%d. %s (Загалом: %.2f ккал)\n",
-                    i + 1, salad.getName(), cals);
-        }
+        renderer.render("\n--- Наявні рецепти салатів ---", salads, (out, i, salad) ->
+                out.format("%d. %s (Загалом: %.2f ккал)", i + 1, salad.getName(), calculateTotalCalories(salad)));
     }
 
     /**
@@ -164,9 +192,10 @@ public class SaladService {
 
     /**
      * ДОПОМІЖНИЙ МЕТОД: Головний цикл додавання/видалення.
-     * Працює з об'єктом Salad, переданим як аргумент.
+     * Працює з приватною копією салату із сесії редагування.
      */
-    private void handleEditLoop(Salad salad) {
+    private void handleEditLoop(SaladEditSession session) {
+        Salad salad = session.getSalad();
         boolean editing = true;
 
         while (editing) {
@@ -186,9 +215,12 @@ public class SaladService {
                     handleRemoveIngredient(salad);
                     break;
                 case "0":
-                    saladRepository.saveSalad(salad);
-                    logger.info("Зміни в рецепті '{}' збережено.", salad.getName());
-                    System.out.println("Зміни в рецепті '" + salad.getName() + "' збережено.");
+                    if (session.hasChanges()) {
+                        commitSession(session);
+                    } else {
+                        logger.info("Рецепт '{}' не змінено, збереження не потрібне.", salad.getName());
+                        System.out.println("Змін у рецепті '" + salad.getName() + "' немає.");
+                    }
                     editing = false;
                     break;
                 default:
@@ -198,6 +230,40 @@ public class SaladService {
         }
     }
 
+    // Фіксує сесію; при конфлікті версій пропонує перезаписати чужі зміни або відмовитись від своїх
+    private void commitSession(SaladEditSession session) {
+        Salad salad = session.getSalad();
+        if (session.commit()) {
+            logger.info("Зміни в рецепті '{}' збережено.", salad.getName());
+            System.out.println("Зміни в рецепті '" + salad.getName() + "' збережено.");
+            return;
+        }
+
+        long currentVersion = saladRepository.getVersion(salad.getName());
+        if (currentVersion == session.getBaseVersion()) {
+            System.out.println("Не вдалося зберегти рецепт '" + salad.getName() + "'.");
+            return;
+        }
+
+        logger.warn("Конфлікт редагування '{}': базова версія {}, поточна {}.",
+                salad.getName(), session.getBaseVersion(), currentVersion);
+        System.out.println("Рецепт '" + salad.getName() + "' вже змінив інший користувач (версія "
+                + session.getBaseVersion() + " -> " + currentVersion + ").");
+        System.out.print("1 — перезаписати своїми змінами, інше — скасувати свої зміни: ");
+        if (scanner.hasNextLine() && "1".equals(scanner.nextLine().trim())) {
+            session.rebase();
+            if (session.commit()) {
+                logger.info("Рецепт '{}' перезаписано після конфлікту.", salad.getName());
+                System.out.println("Зміни в рецепті '" + salad.getName() + "' збережено.");
+            } else {
+                System.out.println("Рецепт знову змінився, зміни не збережено.");
+            }
+        } else {
+            logger.info("Зміни в рецепті '{}' скасовано через конфлікт.", salad.getName());
+            System.out.println("Ваші зміни скасовано.");
+        }
+    }
+
     public void sortIngredients() {
         logger.info("Запущено операцію: Сортування інгредієнтів.");
         System.out.print("\nВведіть назву салату для сортування інгредієнтів: ");
@@ -251,12 +317,17 @@ public class SaladService {
 
         Optional<IProduct> productOpt = productRepository.getProductByName(productName);
 
+        if (productOpt.isEmpty()) {
+            productOpt = chooseSuggestedProduct(productName);
+        }
+
         if (productOpt.isEmpty()) {
             logger.warn("Продукт '{}' не знайдено в каталозі.", productName);
             System.out.println("Продукт '" + productName + "' не знайдено в каталозі.");
             return;
         }
 
+        productName = productOpt.get().getName();
         try {
             System.out.print("Введіть вагу в грамах (напр., 150): ");
             double weight = Double.parseDouble(scanner.nextLine());
@@ -267,14 +338,51 @@ public class SaladService {
             logger.info("Інгредієнт '{}' ({}г) успішно додано до салату '{}'.", productName, weight, salad.getName());
             System.out.println(productName + " (" + weight + "г) додано до салату.");
 
-        } catch (NumberFormatException e) {
-            logger.warn("Помилка введення ваги: '{}' має бути числом.", e.getMessage());
-            System.out.println("Помилка: Вага має бути числом.");
+        } catch (IllegalArgumentException e) {
+            logger.warn("Помилка введення ваги: {}", e.getMessage());
+            System.out.println("Помилка: Вага має бути додатним числом.");
         } catch (Exception e) {
             logger.error("Критична помилка при додаванні інгредієнта: {}", e.getMessage(), e);
         }
     }
 
+    /**
+     * ДОПОМІЖНИЙ МЕТОД: пропонує продукти, назва яких починається з введеного тексту
+     * або схожа на нього (одруківки), і дозволяє обрати один із них за номером.
+     */
+    private Optional<IProduct> chooseSuggestedProduct(String input) {
+        List<IProduct> suggestions = new ArrayList<>(productRepository.findByPrefix(input, SUGGESTION_LIMIT));
+        if (suggestions.size() < SUGGESTION_LIMIT) {
+            for (IProduct similar : productRepository.findSimilar(input, SUGGESTION_LIMIT)) {
+                if (suggestions.size() < SUGGESTION_LIMIT && !suggestions.contains(similar)) {
+                    suggestions.add(similar);
+                }
+            }
+        }
+
+        if (suggestions.isEmpty()) {
+            return Optional.empty();
+        }
+
+        logger.debug("Для '{}' знайдено {} варіантів автодоповнення.", input, suggestions.size());
+        System.out.println("Точного збігу немає. Можливо, ви мали на увазі:");
+        for (int i = 0; i < suggestions.size(); i++) {
+            System.out.println(" " + (i + 1) + ". " + suggestions.get(i).getName());
+        }
+        System.out.print("Оберіть номер (Enter — скасувати): ");
+
+        String choice = scanner.nextLine().trim();
+        try {
+            int index = Integer.parseInt(choice) - 1;
+            if (index >= 0 && index < suggestions.size()) {
+                return Optional.of(suggestions.get(index));
+            }
+        } catch (NumberFormatException e) {
+            logger.debug("Вибір автодоповнення скасовано: '{}'", choice);
+        }
+        return Optional.empty();
+    }
+
     private void handleRemoveIngredient(Salad salad) {
         logger.info("Видалення інгредієнта із салату '{}'.", salad.getName());
         System.out.println("\n--- Наявні інгредієнти ---");
@@ -309,15 +417,20 @@ public class SaladService {
             return;
         }
 
-        salads.sort(Comparator.comparingDouble(this::calculateTotalCalories));
+        // Калорійність усіх салатів рахується одним пакетом, а не в компараторі при кожному порівнянні
+        CalorieBatch batch = CalorieBatch.of(salads);
+        double[] totals = batch.computeTotals();
+        int[] order = CalorieBatch.orderByTotals(totals);
+        List<Salad> sorted = new ArrayList<>(order.length);
+        double[] sortedTotals = new double[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sorted.add(batch.getSalad(order[i]));
+            sortedTotals[i] = totals[order[i]];
+        }
 
         logger.info("Загальний список салатів відсортовано ({} шт.).", salads.size());
-        System.out.println("\n--- Список салатів (Відсортовано за ккал) ---");
-        for (int i = 0; i < salads.size(); i++) {
-            Salad salad = salads.get(i);
-            double cals = calculateTotalCalories(salad);
-            System.out.printf("%d. %s (Загалом: %.2f ккал)\n", i + 1, salad.getName(), cals);
-        }
+        renderer.render("\n--- Список салатів (Відсортовано за ккал) ---", sorted, (out, i, salad) ->
+                out.format("%d. %s (Загалом: %.2f ккал)", i + 1, salad.getName(), sortedTotals[i]));
     }
 
     /**
@@ -344,7 +457,7 @@ public class SaladService {
             double maxCal = Double.parseDouble(scanner.nextLine());
 
             List<SaladIngredient> results = salad.getIngredients().stream()
-                    .filter(ing -> ing.getConsumable() instanceof Vegetable)
+                    .filter(ing -> ing.getConsumable().getKind().isVegetable())
                     .filter(ing -> {
                         double baseCals = ing.getConsumable().getCaloriesPer100g();
                         return baseCals >= minCal && baseCals <= maxCal;
@@ -364,4 +477,258 @@ public class SaladService {
             System.out.println("Помилка введення: Межі калорійності мають бути числами.");
         }
     }
+
+    /**
+     * Підбирає з каталогу варіанти салату, що дають задану калорійність, і пропонує зберегти один із них.
+     */
+    public void optimizeSalad() {
+        logger.info("Запущено операцію: Підбір салату під ціль калорій.");
+        System.out.println("\n--- Підбір салату під ціль калорій ---");
+
+        double target;
+        SaladOptimizer.Constraints constraints = new SaladOptimizer.Constraints();
+        try {
+            System.out.print("Цільова калорійність (ккал): ");
+            target = Double.parseDouble(scanner.nextLine().trim().replace(",", "."));
+            if (target <= 0) {
+                System.out.println("Ціль має бути додатною.");
+                return;
+            }
+
+            System.out.println("(Enter — значення за замовчуванням)");
+            int maxIngredients = (int) readOptionalNumber("Максимум інгредієнтів [4]: ", 4);
+            int minLeafy = (int) readOptionalNumber("Мінімум листових овочів [1]: ", 1);
+            int maxDressings = (int) readOptionalNumber("Максимум заправок [1]: ", 1);
+            double minWeight = readOptionalNumber("Мінімальна вага інгредієнта, г [20]: ", 20);
+            double maxWeight = readOptionalNumber("Максимальна вага інгредієнта, г [200]: ", 200);
+
+            constraints.ingredients(Math.min(2, maxIngredients), maxIngredients)
+                    .minLeafy(minLeafy)
+                    .maxDressings(maxDressings)
+                    .weightBounds(minWeight, maxWeight, 10);
+        } catch (NumberFormatException e) {
+            logger.warn("Підбір скасовано: некоректне число.", e);
+            System.out.println("Помилка введення: очікувалося число.");
+            return;
+        } catch (IllegalArgumentException e) {
+            logger.warn("Підбір скасовано: {}", e.getMessage());
+            System.out.println(e.getMessage());
+            return;
+        }
+
+        SaladOptimizer optimizer = new SaladOptimizer(productRepository.getAllProducts());
+        List<SaladOptimizer.Candidate> candidates =
+                optimizer.optimize(target, constraints, OPTIMIZER_RESULTS, OPTIMIZER_BUDGET_MILLIS);
+        if (candidates.isEmpty()) {
+            System.out.println("Не вдалося підібрати жодного варіанта з такими обмеженнями.");
+            return;
+        }
+
+        for (int i = 0; i < candidates.size(); i++) {
+            SaladOptimizer.Candidate candidate = candidates.get(i);
+            System.out.printf("\n%d. %.2f ккал (відхилення %.2f), %.0f г:\n", i + 1,
+                    candidate.getTotalCalories(), candidate.getDeviation(), candidate.getTotalWeight());
+            for (SaladIngredient ingredient : candidate.getIngredients()) {
+                System.out.printf("   - %s: %.0f г\n", ingredient.getConsumable().getName(), ingredient.getWeightInGrams());
+            }
+        }
+
+        System.out.print("\nЗберегти варіант № (Enter — не зберігати): ");
+        String choice = scanner.nextLine().trim();
+        if (choice.isEmpty()) {
+            return;
+        }
+
+        int index;
+        try {
+            index = Integer.parseInt(choice) - 1;
+        } catch (NumberFormatException e) {
+            index = -1;
+        }
+        if (index < 0 || index >= candidates.size()) {
+            System.out.println("Невірний номер варіанта.");
+            return;
+        }
+
+        System.out.print("Назва нового салату: ");
+        String name = scanner.nextLine().trim();
+        if (name.isEmpty()) {
+            System.out.println("Назва не може бути порожньою.");
+            return;
+        }
+
+        // Сесія нового салату: commit не перезапише рецепт, який хтось встиг створити з тією ж назвою
+        SaladEditSession session = saladRepository.openNewSaladSession(name);
+        Salad salad = session.getSalad();
+        candidates.get(index).getIngredients().forEach(salad::addIngredient);
+        if (!session.commit()) {
+            logger.warn("Підібраний салат не збережено: рецепт '{}' вже існує.", name);
+            System.out.println("Рецепт '" + name + "' вже існує.");
+            return;
+        }
+        logger.info("Підібраний салат '{}' збережено ({} інгредієнтів).", name, salad.getIngredients().size());
+        System.out.println("Салат '" + name + "' збережено.");
+    }
+
+    /**
+     * Виводить зведений звіт з харчової цінності по всіх салатах.
+     */
+    public void showNutritionReport() {
+        logger.info("Запущено операцію: Звіт з харчової цінності.");
+        List<Salad> salads = saladRepository.getAllSalads();
+        if (salads.isEmpty()) {
+            System.out.println("Немає рецептів для аналізу.");
+            return;
+        }
+
+        NutritionReport report = new NutritionAnalytics().analyze(salads);
+
+        String summary = String.format("%n--- Звіт з харчової цінності ---%n"
+                        + "Салатів: %d, інгредієнтів: %d%n"
+                        + "Середня вага салату: %.2f г, середня калорійність: %.2f ккал%n"
+                        + "Частка калорій: овочі %.1f%%, заправки %.1f%%, топінги %.1f%%%n"
+                        + "%nКалорії за типом продукту:",
+                report.getSaladCount(), report.getIngredientCount(),
+                report.getAverageSaladWeight(), report.getAverageSaladCalories(),
+                report.getVegetableShare() * 100, report.getDressingShare() * 100, report.getToppingShare() * 100);
+        renderer.render(summary, new ArrayList<>(report.getCaloriesByType().entrySet()), (out, i, entry) ->
+                out.format(" - %s: %.2f ккал", entry.getKey(), entry.getValue()));
+        renderer.render("\nНайважчі інгредієнти:", report.getHeaviestIngredients(), (out, i, usage) ->
+                out.format(" - %s (%s): %.2f г", usage.getProductName(), usage.getSaladName(), usage.getWeightInGrams()));
+    }
+
+    /**
+     * Показує k найлегших або найкалорійніших салатів з опційним фільтром за складом.
+     */
+    public void showTopSaladsByCalories() {
+        logger.info("Запущено операцію: Топ салатів за калорійністю.");
+        System.out.print("\nСкільки салатів показати: ");
+        int k;
+        try {
+            k = Integer.parseInt(scanner.nextLine().trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Помилка введення: очікувалося ціле число.");
+            return;
+        }
+        if (k <= 0) {
+            System.out.println("Кількість має бути додатною.");
+            return;
+        }
+
+        System.out.print("1 — найменш калорійні, 2 — найкалорійніші: ");
+        boolean lowest = !"2".equals(scanner.nextLine().trim());
+
+        System.out.print("Фільтр: 1 — без заправок, 2 — лише з топінгом, Enter — без фільтра: ");
+        String filterChoice = scanner.nextLine().trim();
+        Predicate<Salad> filter;
+        switch (filterChoice) {
+            case "1":
+                filter = SaladFilters.withoutDressing();
+                break;
+            case "2":
+                filter = SaladFilters.withTopping();
+                break;
+            default:
+                filter = SaladFilters.any();
+        }
+
+        List<Salad> salads = lowest
+                ? saladRepository.findLowestCalorie(k, filter)
+                : saladRepository.findHighestCalorie(k, filter);
+        logger.info("Топ-{} ({}) повернув {} салатів.", k, lowest ? "найлегші" : "найкалорійніші", salads.size());
+
+        if (salads.isEmpty()) {
+            System.out.println("Немає салатів, що відповідають умовам.");
+            return;
+        }
+
+        renderer.render("\n--- " + (lowest ? "Найменш калорійні" : "Найкалорійніші") + " салати ---", salads,
+                (out, i, salad) -> out.format("%d. %s (Загалом: %.2f ккал)", i + 1, salad.getName(),
+                        calculateTotalCalories(salad)));
+    }
+
+    /**
+     * Показує салати зі схожим складом продуктів (наприклад, "схожі на Цезар").
+     */
+    public void showSimilarSalads() {
+        logger.info("Запущено операцію: Пошук схожих салатів.");
+        System.out.print("\nВведіть назву салату: ");
+        String name = scanner.nextLine().trim();
+        Optional<Salad> salad = saladRepository.getSaladByName(name);
+        if (salad.isEmpty()) {
+            System.out.println("Салат '" + name + "' не знайдено.");
+            return;
+        }
+
+        List<SaladSimilarityIndex.Match> matches =
+                saladRepository.findSimilarSalads(salad.get().getName(), SIMILAR_SALADS_LIMIT);
+        logger.info("Пошук схожих на '{}' повернув {} салатів.", name, matches.size());
+        if (matches.isEmpty()) {
+            System.out.println("Салатів зі схожим складом не знайдено.");
+            return;
+        }
+
+        renderer.render("\n--- Салати, схожі на '" + salad.get().getName() + "' ---", matches, (out, i, match) ->
+                out.format("%d. %s (схожість складу: %.0f%%)", i + 1, match.getSaladName(), match.getSimilarity() * 100));
+    }
+
+    /**
+     * Показує салати, які можна приготувати з наявних продуктів (повністю або докупивши кілька інгредієнтів).
+     */
+    public void showMakeableSalads() {
+        logger.info("Запущено операцію: Що можна приготувати.");
+        System.out.print("\nВведіть наявні продукти через кому: ");
+        List<String> available = new ArrayList<>();
+        for (String name : scanner.nextLine().split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            Optional<IProduct> product = productRepository.getProductByName(trimmed);
+            if (product.isPresent()) {
+                available.add(product.get().getName());
+            } else {
+                System.out.println("Продукт '" + trimmed + "' не знайдено в каталозі, пропущено.");
+            }
+        }
+        if (available.isEmpty()) {
+            System.out.println("Не вказано жодного продукту з каталогу.");
+            return;
+        }
+
+        int maxMissing;
+        try {
+            maxMissing = (int) readOptionalNumber("Скільки інгредієнтів можна докупити (Enter — 0): ", 0);
+        } catch (NumberFormatException e) {
+            System.out.println("Помилка введення: очікувалося число.");
+            return;
+        }
+        if (maxMissing < 0) {
+            System.out.println("Кількість не може бути від'ємною.");
+            return;
+        }
+
+        List<RecipeBitsetIndex.Match> matches = saladRepository.findMakeableSalads(available, maxMissing);
+        logger.info("З {} продуктів можна приготувати {} салатів (докупивши до {}).",
+                available.size(), matches.size(), maxMissing);
+        if (matches.isEmpty()) {
+            System.out.println("З цих продуктів не вийде жодного салату.");
+            return;
+        }
+
+        renderer.render("\n--- Що можна приготувати ---", matches, (out, i, match) -> {
+            if (match.getMissingCount() == 0) {
+                out.format("%d. %s (усе є)", i + 1, match.getSaladName());
+            } else {
+                out.format("%d. %s (бракує: %s)", i + 1, match.getSaladName(),
+                        String.join(", ", match.getMissingProducts()));
+            }
+        });
+    }
+
+    private double readOptionalNumber(String prompt, double defaultValue) {
+        System.out.print(prompt);
+        String input = scanner.nextLine().trim();
+        return input.isEmpty() ? defaultValue : Double.parseDouble(input.replace(",", "."));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package test;
+
+import org.junit.jupiter.api.Test;
+import products.*;
+import salad.CalorieBatch;
+import salad.Salad;
+import salad.SaladIngredient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalorieBatchTest {
+
+    @Test
+    void batchTotalsShouldMatchPerSaladCalculation() {
+        // 1. Arrange: салати різного розміру, включно з порожнім
+        Random random = new Random(42);
+        List<IProduct> products = List.of(
+                new LeafyVegetable("Салат", 15, 1.3),
+                new RootVegetable("Морква", 41, 4.7, true),
+                new Dressing("Олія", 900, "Олійна"),
+                new Topping("Сухарики", 400, true));
+        List<Salad> salads = new ArrayList<>();
+        for (int s = 0; s < 50; s++) {
+            Salad salad = new Salad("Салат " + s);
+            for (int i = 0; i < s % 9; i++) {
+                salad.addIngredient(new SaladIngredient(products.get(random.nextInt(products.size())),
+                        1 + random.nextInt(200)));
+            }
+            salads.add(salad);
+        }
+
+        // 2. Act
+        long[] totals = CalorieBatch.of(salads).computeMilliTotals();
+
+        // 3. Assert: цілочисельні суми збігаються точно, без допуску
+        assertEquals(salads.size(), totals.length);
+        for (int s = 0; s < salads.size(); s++) {
+            assertEquals(salads.get(s).getTotalMilliCalories(), totals[s]);
+        }
+    }
+
+    @Test
+    void batchShouldRejectOverflowLikePerSaladCalculation() {
+        // 1. Arrange: 10^12 г олії — добуток мг × мкал виходить за межі long
+        Salad salad = new Salad("Цистерна");
+        salad.addIngredient(new SaladIngredient(new Dressing("Олія", 900, "Олійна"), 1e12));
+        CalorieBatch batch = CalorieBatch.of(List.of(salad));
+
+        // 2. Act & 3. Assert: помилка замість тихо переповненої суми
+        assertThrows(ArithmeticException.class, batch::computeMilliTotals);
+        assertThrows(ArithmeticException.class, salad::getTotalMilliCalories);
+    }
+
+    @Test
+    void orderByTotalsShouldSortAscending() {
+        // 1. Arrange
+        double[] totals = {300, 15.5, 120, 0};
+
+        // 2. Act
+        int[] order = CalorieBatch.orderByTotals(totals);
+
+        // 3. Assert
+        assertArrayEquals(new int[]{3, 1, 2, 0}, order);
+    }
+
+    @Test
+    void orderByTotalsShouldKeepSnapshotOrderForEqualTotals() {
+        // 1. Arrange: непарна довжина і повтори
+        double[] totals = {50, 10, 50, 10, 30, 50, 10};
+
+        // 2. Act
+        int[] order = CalorieBatch.orderByTotals(totals);
+
+        // 3. Assert
+        assertArrayEquals(new int[]{1, 3, 6, 4, 0, 2, 5}, order);
+    }
+}
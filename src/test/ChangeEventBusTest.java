@@ -0,0 +1,110 @@
+package test;
+
+import event.ChangeEvent;
+import event.ChangeEventBus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import products.*;
+import salad.Salad;
+import salad.SaladIngredient;
+import saving.ProductRepository;
+import saving.SaladRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeEventBusTest {
+
+    private static final String TEST_PRODUCTS_FILE = "test_products_for_events.txt";
+    private static final Path TEST_SALADS_DIR = Paths.get("test_salads_for_events");
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tearDown();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(Paths.get(TEST_PRODUCTS_FILE));
+        if (Files.exists(TEST_SALADS_DIR)) {
+            try (Stream<Path> walk = Files.walk(TEST_SALADS_DIR)) {
+                for (Path path : walk.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldDeliverOnlySubscribedTypesInSequenceOrder() throws InterruptedException {
+        // 1. Arrange
+        ChangeEventBus bus = new ChangeEventBus();
+        List<ChangeEvent> sync = new ArrayList<>();
+        List<ChangeEvent> async = Collections.synchronizedList(new ArrayList<>());
+        bus.subscribe(EnumSet.of(ChangeEvent.Type.PRODUCT_ADDED), sync::add);
+        bus.subscribeAsync(EnumSet.allOf(ChangeEvent.Type.class), async::add);
+        ChangeEventBus.Subscription failing = bus.subscribe(EnumSet.allOf(ChangeEvent.Type.class), event -> {
+            throw new IllegalStateException("збій обробника");
+        });
+        IProduct oil = new Dressing("Олія", 884, "Олійна");
+
+        // 2. Act
+        bus.productAdded(oil);
+        bus.saladDeleted("Цезар");
+        failing.cancel();
+        bus.productRemoved(oil);
+
+        // 3. Assert
+        assertTrue(bus.awaitAsyncDelivery(5_000));
+        assertEquals(1, sync.size());
+        assertSame(oil, sync.get(0).getProduct());
+        assertEquals(List.of(ChangeEvent.Type.PRODUCT_ADDED, ChangeEvent.Type.SALAD_DELETED,
+                ChangeEvent.Type.PRODUCT_REMOVED), async.stream().map(ChangeEvent::getType).toList());
+        assertEquals(List.of(1L, 2L, 3L), async.stream().map(ChangeEvent::getSequence).toList());
+        assertEquals(2, bus.getFailureCount());
+    }
+
+    @Test
+    void repositoriesShouldPublishChangesOnSharedBus() {
+        // 1. Arrange
+        ProductRepository productRepository = new ProductRepository(TEST_PRODUCTS_FILE);
+        SaladRepository saladRepository = new SaladRepository(TEST_SALADS_DIR.toString(), productRepository);
+        List<ChangeEvent> received = new ArrayList<>();
+        saladRepository.getEventBus().subscribe(EnumSet.allOf(ChangeEvent.Type.class), received::add);
+        IProduct carrot = new RootVegetable("Морква", 41, 5, true);
+
+        // 2. Act
+        productRepository.addProduct(carrot);
+        Salad salad = new Salad("Морквяний");
+        salad.addIngredient(new SaladIngredient(carrot, 100));
+        saladRepository.saveSalad(salad);
+        saladRepository.saveSalad(salad); // без змін — запису й події немає
+        IProduct sweeter = new RootVegetable("Морква", 45, 6, true);
+        productRepository.updateProduct(carrot, sweeter);
+        saladRepository.replaceProductInSalads(carrot, sweeter);
+        saladRepository.deleteSalad("Морквяний");
+
+        // 3. Assert
+        assertEquals(List.of(ChangeEvent.Type.PRODUCT_ADDED, ChangeEvent.Type.SALAD_SAVED,
+                ChangeEvent.Type.PRODUCT_UPDATED, ChangeEvent.Type.SALAD_SAVED, ChangeEvent.Type.SALAD_DELETED),
+                received.stream().map(ChangeEvent::getType).toList());
+        assertSame(carrot, received.get(2).getPrevious());
+        assertSame(sweeter, received.get(2).getProduct());
+        // Події несуть знімки складу: заміна продукту не змінила вже опубліковану подію
+        assertNotSame(salad, received.get(1).getSalad());
+        assertSame(carrot, received.get(1).getSalad().getIngredients().get(0).getConsumable());
+        assertSame(sweeter, received.get(3).getSalad().getIngredients().get(0).getConsumable());
+        assertEquals("Морквяний", received.get(4).getSaladName());
+    }
+}
@@ -0,0 +1,172 @@
+package test;
+
+import event.ChangeEvent;
+import event.ChangeEventBus;
+import event.ChangeFeed;
+import event.ChangeRecord;
+import org.junit.jupiter.api.Test;
+import products.Dressing;
+import products.IProduct;
+import products.LeafyVegetable;
+import salad.Salad;
+import salad.SaladIngredient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedTest {
+
+    @Test
+    void shouldHonorDemandAndSnapshotContent() {
+        // 1. Arrange: синхронний executor — доставка в потоці виклику, без очікувань у тесті
+        ChangeEventBus bus = new ChangeEventBus();
+        ChangeFeed feed = new ChangeFeed(bus, 16, Runnable::run);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        feed.subscribe(subscriber);
+
+        IProduct lettuce = new LeafyVegetable("Салат", 15, 1.3);
+        Salad salad = new Salad("Зелений");
+        salad.addIngredient(new SaladIngredient(lettuce, 150));
+
+        // 2. Act
+        bus.productAdded(lettuce);
+        bus.saladSaved(salad);
+        salad.addIngredient(new SaladIngredient(lettuce, 50)); // зміна після події не впливає на запис
+        bus.saladDeleted("Зелений");
+        subscriber.subscription.request(2);
+
+        // 3. Assert
+        assertEquals(2, subscriber.records.size());
+        assertEquals("LeafyVegetable;Салат;15.00;1.30", subscriber.records.get(0).getPayload());
+        assertEquals("Салат;150.00\n", subscriber.records.get(1).getPayload());
+
+        subscriber.subscription.request(10);
+        assertEquals(3, subscriber.records.size());
+        assertEquals(ChangeEvent.Type.SALAD_DELETED, subscriber.records.get(2).getType());
+        assertEquals(3, feed.getLastSequence());
+    }
+
+    @Test
+    void shouldResumeFromSequenceAndReportGap() {
+        // 1. Arrange
+        ChangeEventBus bus = new ChangeEventBus();
+        ChangeFeed feed = new ChangeFeed(bus, 4, Runnable::run);
+        IProduct oil = new Dressing("Олія", 884, "Олійна");
+        for (int i = 0; i < 6; i++) {
+            bus.productUpdated(oil, oil);
+        }
+
+        // 2. Act
+        RecordingSubscriber resumed = new RecordingSubscriber();
+        feed.subscribe(resumed, 4);
+        resumed.subscription.request(Long.MAX_VALUE);
+        RecordingSubscriber tooOld = new RecordingSubscriber();
+        feed.subscribe(tooOld, 1);
+        tooOld.subscription.request(1);
+        feed.close();
+
+        // 3. Assert
+        assertEquals(List.of(5L, 6L), resumed.records.stream().map(ChangeRecord::getSequence).toList());
+        assertTrue(resumed.completed);
+        assertInstanceOf(ChangeFeed.SequenceGapException.class, tooOld.error);
+        assertEquals(3, ((ChangeFeed.SequenceGapException) tooOld.error).getOldestAvailable());
+        assertEquals(0, feed.getSubscriberCount());
+    }
+
+    @Test
+    void shouldRejectPositionFromAnotherEpoch() {
+        // 1. Arrange: позиція збережена попереднім запуском — інша шина, інша епоха
+        ChangeEventBus previousRun = new ChangeEventBus();
+        ChangeEventBus bus = new ChangeEventBus();
+        ChangeFeed feed = new ChangeFeed(bus, 4, Runnable::run);
+        IProduct oil = new Dressing("Олія", 884, "Олійна");
+        bus.productAdded(oil);
+
+        // 2. Act
+        RecordingSubscriber stale = new RecordingSubscriber();
+        feed.subscribe(stale, previousRun.getEpoch(), 0);
+        RecordingSubscriber current = new RecordingSubscriber();
+        feed.subscribe(current, feed.getEpoch(), 0);
+        current.subscription.request(1);
+
+        // 3. Assert
+        assertNotEquals(previousRun.getEpoch(), bus.getEpoch());
+        assertInstanceOf(ChangeFeed.SequenceGapException.class, stale.error);
+        assertTrue(stale.records.isEmpty());
+        assertEquals(1, current.records.size());
+    }
+
+    @Test
+    void closedFeedShouldNotBeReturnedByBus() {
+        // 1. Arrange
+        ChangeEventBus bus = new ChangeEventBus();
+        ChangeFeed first = bus.getChangeFeed();
+
+        // 2. Act
+        first.close();
+        ChangeFeed second = bus.getChangeFeed();
+
+        // 3. Assert
+        assertNotSame(first, second);
+        assertSame(second, bus.getChangeFeed());
+        second.close();
+    }
+
+    @Test
+    void failedSnapshotShouldBecomeGapInsteadOfStallingFeed() {
+        // 1. Arrange
+        ChangeEventBus bus = new ChangeEventBus();
+        ChangeFeed feed = new ChangeFeed(bus, 16, Runnable::run);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        feed.subscribe(subscriber);
+        IProduct lettuce = new LeafyVegetable("Салат", 15, 1.3);
+        IProduct broken = new LeafyVegetable("Зламаний", 20, 1.0) {
+            @Override
+            public String toTxtLine() {
+                throw new IllegalStateException("немає рядка каталогу");
+            }
+        };
+
+        // 2. Act
+        bus.productAdded(lettuce);
+        bus.productAdded(broken);
+        bus.productAdded(lettuce);
+        subscriber.subscription.request(10);
+
+        // 3. Assert: наступні записи видимі, а підписник дізнається про втрачений
+        assertEquals(3, feed.getLastSequence());
+        assertEquals(1, subscriber.records.size());
+        assertInstanceOf(ChangeFeed.SequenceGapException.class, subscriber.error);
+        assertEquals(2, ((ChangeFeed.SequenceGapException) subscriber.error).getRequested());
+    }
+
+    private static final class RecordingSubscriber implements Flow.Subscriber<ChangeRecord> {
+        final List<ChangeRecord> records = new ArrayList<>();
+        Flow.Subscription subscription;
+        Throwable error;
+        boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(ChangeRecord item) {
+            records.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import products.*;
+import saving.CsvColumnMapping;
+import saving.CsvProductImporter;
+import saving.ProductRepository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvProductImporterTest {
+
+    private static final Path PRODUCTS_FILE = Paths.get("test_import_products.txt");
+    private static final Path CSV_FILE = Paths.get("test_import_vendor.csv");
+    private static final Path REJECTED_FILE = Paths.get("test_import_vendor.rejected.txt");
+
+    private ProductRepository repository;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tearDown();
+        repository = new ProductRepository(PRODUCTS_FILE.toString());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(PRODUCTS_FILE);
+        Files.deleteIfExists(CSV_FILE);
+        Files.deleteIfExists(REJECTED_FILE);
+    }
+
+    @Test
+    void shouldUpsertByNameAndReportRejectedRows() throws IOException {
+        // 1. Arrange: у каталозі вже є морква, у файлі — оновлення моркви, нові продукти та помилки
+        IProduct oldCarrot = new RootVegetable("Морква", 41, 5, true);
+        repository.addProduct(oldCarrot);
+
+        String csv = String.join("\n",
+                "Вид,Назва,Ккал,Цукор,Твердий,Основа,Хрусткий",
+                "RootVegetable,морква,35,4,так,,",
+                "Dressing,\"Соус \"\"Цезар\"\", класичний\",480,,,Яйце,",
+                "Topping,Сухарики,400,,,,1",
+                "Topping,Горіхи,abc,,,,1",
+                "Fruit,Яблуко,52,,,,",
+                "",
+                "Topping,Сухарики,410,,,,0");
+        Files.write(CSV_FILE, csv.getBytes(StandardCharsets.UTF_8));
+
+        CsvColumnMapping mapping = CsvColumnMapping.parse(
+                "type=Вид;name=Назва;calories=Ккал;sugar=Цукор;hard=Твердий;base_type=Основа;crunchy=Хрусткий");
+
+        // 2. Act: шматки по 2 рядки, щоб розбір справді йшов кількома задачами
+        CsvProductImporter importer = new CsvProductImporter(repository, mapping, new ForkJoinPool(2), 2);
+        CsvProductImporter.ImportReport report = importer.importFile(CSV_FILE, REJECTED_FILE);
+
+        // 3. Assert
+        assertEquals(7, report.getRowsRead());
+        assertEquals(2, report.getInserted());
+        assertEquals(1, report.getUpdated());
+        assertEquals(2, report.getRejected());
+        assertSame(repository.getProductByName("Морква").get(), report.getReplaced().get(oldCarrot));
+
+        assertEquals(3, repository.getProductCount());
+        assertEquals(35, repository.getProductByName("Морква").get().getCaloriesPer100g(), 0.001);
+        Topping croutons = (Topping) repository.getProductByName("Сухарики").get();
+        assertEquals(410, croutons.getCaloriesPer100g(), 0.001, "Останній рядок з тією ж назвою перемагає");
+        assertTrue(repository.getProductByName("Соус \"Цезар\", класичний").isPresent());
+
+        List<String> rejected = Files.readAllLines(REJECTED_FILE, StandardCharsets.UTF_8);
+        assertEquals(3, rejected.size());
+        assertTrue(rejected.get(1).startsWith("5;"));
+        assertTrue(rejected.get(2).startsWith("6;"));
+
+        // Каталог збережено один раз — після першого addProduct і наприкінці імпорту
+        assertEquals(2, repository.getStats().getSaveCount());
+    }
+
+    @Test
+    void shouldFailWhenRequiredColumnIsMissing() throws IOException {
+        Files.write(CSV_FILE, "type,title,calories\nTopping,Сухарики,400\n".getBytes(StandardCharsets.UTF_8));
+
+        CsvProductImporter importer = new CsvProductImporter(repository, CsvColumnMapping.defaults());
+
+        assertThrows(IllegalArgumentException.class, () -> importer.importFile(CSV_FILE, REJECTED_FILE));
+        assertEquals(0, repository.getProductCount());
+    }
+
+    @Test
+    void shouldRejectNonFiniteAndNegativeNumbers() throws IOException {
+        // 1. Arrange: Double.parseDouble приймає NaN та Infinity — такі рядки мають бути відхилені
+        String csv = String.join("\n",
+                "type,name,calories,sugar,hard,fiber",
+                "rootvegetable,Морква,41,NaN,true,",
+                "rootvegetable,Буряк,Infinity,6,true,",
+                "leafyvegetable,Шпинат,23,,,-1",
+                "leafyvegetable,Салат,15,,,1.3");
+        Files.write(CSV_FILE, csv.getBytes(StandardCharsets.UTF_8));
+        CsvProductImporter importer = new CsvProductImporter(repository, CsvColumnMapping.defaults());
+
+        // 2. Act
+        CsvProductImporter.ImportReport report = importer.importFile(CSV_FILE, REJECTED_FILE);
+        repository.addProduct(new Topping("Горіхи", 600, true));
+
+        // 3. Assert: у каталог потрапив лише коректний рядок, і подальші збереження працюють
+        assertEquals(3, report.getRejected());
+        assertEquals(1, report.getInserted());
+        assertEquals(2, repository.getProductCount());
+        assertTrue(repository.getProductByName("Морква").isEmpty());
+        assertTrue(Files.readString(REJECTED_FILE, StandardCharsets.UTF_8).contains("sugar"));
+    }
+
+    @Test
+    void shouldRemoveStaleRejectedReportAfterCleanImport() throws IOException {
+        // 1. Arrange: попередній імпорт мав помилки і залишив звіт
+        CsvProductImporter importer = new CsvProductImporter(repository, CsvColumnMapping.defaults());
+        Files.write(CSV_FILE, "type,name,calories\nTopping,Горіхи,abc\n".getBytes(StandardCharsets.UTF_8));
+        importer.importFile(CSV_FILE, REJECTED_FILE);
+        assertTrue(Files.exists(REJECTED_FILE));
+
+        // 2. Act
+        Files.write(CSV_FILE, "type,name,calories,crunchy\nTopping,Горіхи,600,так\n".getBytes(StandardCharsets.UTF_8));
+        CsvProductImporter.ImportReport report = importer.importFile(CSV_FILE, REJECTED_FILE);
+
+        // 3. Assert
+        assertEquals(0, report.getRejected());
+        assertNull(report.getRejectedReport());
+        assertFalse(Files.exists(REJECTED_FILE), "Звіт попереднього імпорту не має виглядати актуальним");
+    }
+}
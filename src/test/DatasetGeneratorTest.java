@@ -0,0 +1,81 @@
+package test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import salad.Salad;
+import saving.ProductRepository;
+import saving.SaladRepository;
+import tools.DatasetGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatasetGeneratorTest {
+
+    private static final Path TEST_DATA_DIR = Paths.get("test_generated_data");
+
+    @BeforeEach
+    void setUp() throws IOException {
+        deleteDirectoryRecursively(TEST_DATA_DIR);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        deleteDirectoryRecursively(TEST_DATA_DIR);
+    }
+
+    @Test
+    void generatedDataShouldLoadThroughRepositories() throws IOException {
+        // 1. Arrange: невеликий набір, щоб тест був швидким
+        DatasetGenerator generator = new DatasetGenerator(500, 40, 3, 6,
+                new double[]{1, 1, 1, 1, 1, 1}, 1.0, 7);
+        Path productFile = TEST_DATA_DIR.resolve("product_repo");
+        Path saladDir = TEST_DATA_DIR.resolve("salad_repo");
+
+        // 2. Act
+        generator.writeProducts(productFile);
+        generator.writeSalads(saladDir);
+
+        ProductRepository productRepository = new ProductRepository(productFile.toString());
+        productRepository.loadFromFile();
+        SaladRepository saladRepository = new SaladRepository(saladDir.toString(), productRepository);
+        saladRepository.loadAllSalads();
+
+        // 3. Assert: усі продукти та всі інгредієнти мають розпізнатись
+        assertEquals(500, productRepository.getAllProducts().size());
+        assertEquals(40, saladRepository.getAllSalads().size());
+        for (Salad salad : saladRepository.getAllSalads()) {
+            int size = salad.getIngredients().size();
+            assertTrue(size >= 3 && size <= 6, "Кількість інгредієнтів має бути в межах 3..6");
+        }
+    }
+
+    @Test
+    void shouldRejectInvalidIngredientRange() {
+        assertThrows(IllegalArgumentException.class, () -> new DatasetGenerator(10, 1, 5, 2,
+                new double[]{1, 1, 1, 1, 1, 1}, 1.0, 1));
+        // Після обмеження максимуму кількістю продуктів діапазон був би порожнім
+        assertThrows(IllegalArgumentException.class, () -> new DatasetGenerator(3, 1, 5, 8,
+                new double[]{1, 1, 1, 1, 1, 1}, 1.0, 1));
+        assertDoesNotThrow(() -> new DatasetGenerator(3, 1, 2, 8,
+                new double[]{1, 1, 1, 1, 1, 1}, 1.0, 1));
+    }
+
+    private void deleteDirectoryRecursively(Path path) throws IOException {
+        if (Files.exists(path)) {
+            try (Stream<Path> walk = Files.walk(path)) {
+                walk.sorted(Comparator.reverseOrder())
+                        .map(Path::toFile)
+                        .forEach(File::delete);
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import saving.Durability;
+import saving.DurableFileWriter;
+import saving.RepositoryStats;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class DurableFileWriterTest {
+
+    private static final Path TEST_DIR = Paths.get("test_durable_dir");
+
+    @BeforeEach
+    void setUp() throws IOException {
+        deleteDirectoryRecursively(TEST_DIR);
+        Files.createDirectories(TEST_DIR);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        deleteDirectoryRecursively(TEST_DIR);
+    }
+
+    @Test
+    void shouldReplaceFileAtomicallyAndLeaveNoTempFiles() throws IOException {
+        // 1. Arrange
+        Path target = TEST_DIR.resolve("catalog.txt");
+        Files.write(target, "старий вміст".getBytes(StandardCharsets.UTF_8));
+        RepositoryStats stats = new RepositoryStats();
+        DurableFileWriter writer = new DurableFileWriter(stats, Durability.PER_COMMIT);
+
+        // 2. Act
+        writer.write(target, "новий вміст".getBytes(StandardCharsets.UTF_8));
+
+        // 3. Assert
+        assertEquals("новий вміст", Files.readString(target, StandardCharsets.UTF_8));
+        assertEquals(1, stats.getSyncCount());
+        try (Stream<Path> files = Files.list(TEST_DIR)) {
+            assertEquals(1, files.count(), "Тимчасових файлів не повинно залишитись");
+        }
+    }
+
+    @Test
+    void concurrentCommitsShouldShareSyncs() throws Exception {
+        // 1. Arrange: 8 потоків одночасно пишуть у ті самі файли
+        RepositoryStats stats = new RepositoryStats();
+        DurableFileWriter writer = new DurableFileWriter(stats, Durability.PER_BATCH);
+        int threads = 8;
+        int commitsPerThread = 25;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < commitsPerThread; i++) {
+                        Path target = TEST_DIR.resolve("salad" + (i % 3) + ".txt");
+                        writer.write(target, ("потік " + id + ", запис " + i).getBytes(StandardCharsets.UTF_8));
+                    }
+                } catch (Exception e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        // 2. Act
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        // 3. Assert
+        assertTrue(errors.isEmpty(), "Помилки запису: " + errors);
+        assertTrue(stats.getSyncCount() >= 1);
+        assertTrue(stats.getSyncCount() <= threads * commitsPerThread);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(Files.readString(TEST_DIR.resolve("salad" + i + ".txt"), StandardCharsets.UTF_8).startsWith("потік "));
+        }
+        try (Stream<Path> files = Files.list(TEST_DIR)) {
+            assertEquals(3, files.count());
+        }
+    }
+
+    @Test
+    void shouldKeepPermissionsOfRewrittenFile() throws IOException {
+        // 1. Arrange
+        Path target = TEST_DIR.resolve("catalog.txt");
+        Files.write(target, "старий вміст".getBytes(StandardCharsets.UTF_8));
+        assumeTrue(Files.getFileStore(target).supportsFileAttributeView(PosixFileAttributeView.class));
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r-----");
+        Files.setPosixFilePermissions(target, permissions);
+
+        // 2. Act
+        new DurableFileWriter(new RepositoryStats(), Durability.NONE)
+                .write(target, "новий вміст".getBytes(StandardCharsets.UTF_8));
+
+        // 3. Assert: замінений файл має права оригіналу, а не права тимчасового файлу
+        assertEquals(permissions, Files.getPosixFilePermissions(target));
+    }
+
+    @Test
+    void shouldDeleteStaleTempFiles() throws IOException {
+        // Свіжий тимчасовий файл може належати запису іншого процесу, тож лишається
+        Path stale = Files.write(TEST_DIR.resolve(".catalog.txt.12345.tmp"), new byte[]{1, 2, 3});
+        Files.setLastModifiedTime(stale, FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS)));
+        Files.write(TEST_DIR.resolve(".catalog.txt.67890.tmp"), new byte[]{4});
+        Files.write(TEST_DIR.resolve("catalog.txt"), new byte[]{1});
+
+        DurableFileWriter.deleteStaleTempFiles(TEST_DIR);
+
+        try (Stream<Path> files = Files.list(TEST_DIR)) {
+            assertEquals(List.of(".catalog.txt.67890.tmp", "catalog.txt"),
+                    files.map(p -> p.getFileName().toString()).sorted().toList());
+        }
+    }
+
+    @Test
+    void shouldDeleteOnlyOwnTempFilesNextToTarget() throws IOException {
+        // Каталог лежить у робочій директорії процесу: чужі приховані .tmp-файли там не чіпаються
+        FileTime hourAgo = FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS));
+        Path target = TEST_DIR.resolve("catalog.txt");
+        for (String name : List.of(".catalog.txt.1.tmp", ".catalog.txt.manifest.2.tmp", ".editor.swp.tmp", ".catalog.txt2.3.tmp")) {
+            Files.setLastModifiedTime(Files.write(TEST_DIR.resolve(name), new byte[]{1}), hourAgo);
+        }
+
+        DurableFileWriter.deleteStaleTempFilesOf(target);
+
+        try (Stream<Path> files = Files.list(TEST_DIR)) {
+            assertEquals(List.of(".catalog.txt2.3.tmp", ".editor.swp.tmp"),
+                    files.map(p -> p.getFileName().toString()).sorted().toList());
+        }
+    }
+
+    private void deleteDirectoryRecursively(Path path) throws IOException {
+        if (Files.exists(path)) {
+            try (Stream<Path> walk = Files.walk(path)) {
+                walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+}
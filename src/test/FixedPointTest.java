@@ -0,0 +1,76 @@
+package test;
+
+import org.junit.jupiter.api.Test;
+import products.FixedPoint;
+import products.LeafyVegetable;
+import products.RootVegetable;
+import salad.Salad;
+import salad.SaladIngredient;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointTest {
+
+    @Test
+    void formatShouldNotDependOnLocale() {
+        // 1. Arrange
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("uk-UA"));
+        try {
+            // 2. Act
+            String line = new RootVegetable("Морква", 41.5, 4.7, true).toTxtLine();
+
+            // 3. Assert
+            assertEquals("RootVegetable;Морква;41.50;4.70;true", line);
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+
+    @Test
+    void parseShouldAcceptLegacyCommaAndRoundTrip() {
+        // 1. Arrange & 2. Act & 3. Assert
+        assertEquals(41_500, FixedPoint.parse("41,50"));
+        assertEquals(125, FixedPoint.parse("0.125"));
+        assertEquals("0.125", FixedPoint.format(125));
+        assertEquals("-2.00", FixedPoint.format(-2_000));
+        assertEquals(2_000, FixedPoint.parse(FixedPoint.format(2_000)));
+        assertThrows(NumberFormatException.class, () -> FixedPoint.parse("сорок"));
+    }
+
+    @Test
+    void productsShouldRejectNonFiniteAndNegativeValuesAtConstruction() {
+        // 1. Arrange & 2. Act & 3. Assert: помилка одразу, а не під час запису каталогу
+        assertThrows(IllegalArgumentException.class, () -> new RootVegetable("Буряк", 43, Double.NaN, true));
+        assertThrows(IllegalArgumentException.class, () -> new RootVegetable("Буряк", Double.POSITIVE_INFINITY, 6, true));
+        assertThrows(IllegalArgumentException.class, () -> new LeafyVegetable("Шпинат", 23, -1));
+        assertThrows(IllegalArgumentException.class, () -> new LeafyVegetable("Шпинат", 1e300, 1));
+        assertThrows(IllegalArgumentException.class, () -> FixedPoint.toMilli(Double.NEGATIVE_INFINITY));
+        assertEquals("RootVegetable;Буряк;43.00;0.00;true", new RootVegetable("Буряк", 43, 0, true).toTxtLine());
+    }
+
+    @Test
+    void saladTotalShouldNotDependOnIngredientOrder() {
+        // 1. Arrange: значення, сума яких у double залежить від порядку додавання
+        LeafyVegetable a = new LeafyVegetable("А", 0.1, 1);
+        LeafyVegetable b = new LeafyVegetable("Б", 0.2, 1);
+        LeafyVegetable c = new LeafyVegetable("В", 0.3, 1);
+        Salad forward = new Salad("Прямий");
+        Salad backward = new Salad("Зворотний");
+
+        // 2. Act
+        forward.addIngredient(new SaladIngredient(a, 100));
+        forward.addIngredient(new SaladIngredient(b, 100));
+        forward.addIngredient(new SaladIngredient(c, 100));
+        backward.addIngredient(new SaladIngredient(c, 100));
+        backward.addIngredient(new SaladIngredient(b, 100));
+        backward.addIngredient(new SaladIngredient(a, 100));
+
+        // 3. Assert
+        assertEquals(600, forward.getTotalMilliCalories());
+        assertEquals(forward.getTotalMilliCalories(), backward.getTotalMilliCalories());
+        assertEquals(0.6, forward.getTotalCalories());
+    }
+}
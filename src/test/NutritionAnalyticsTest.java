@@ -0,0 +1,71 @@
+package test;
+
+import org.junit.jupiter.api.Test;
+import products.*;
+import salad.Salad;
+import salad.SaladIngredient;
+import service.NutritionAnalytics;
+import service.NutritionReport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NutritionAnalyticsTest {
+
+    @Test
+    void shouldAggregateAllSaladsInOnePass() {
+        // 1. Arrange
+        IProduct lettuce = new LeafyVegetable("Салат", 15, 1.3);
+        IProduct oil = new Dressing("Олія", 900, "Олійна");
+        IProduct croutons = new Topping("Сухарики", 400, true);
+
+        Salad first = new Salad("Перший");
+        first.addIngredient(new SaladIngredient(lettuce, 200)); // 30 ккал
+        first.addIngredient(new SaladIngredient(oil, 10));      // 90 ккал
+        Salad second = new Salad("Другий");
+        second.addIngredient(new SaladIngredient(lettuce, 100)); // 15 ккал
+        second.addIngredient(new SaladIngredient(croutons, 15)); // 60 ккал
+
+        // 2. Act
+        NutritionReport report = new NutritionAnalytics(2).analyze(List.of(first, second));
+
+        // 3. Assert
+        assertEquals(2, report.getSaladCount());
+        assertEquals(4, report.getIngredientCount());
+        assertEquals(195, report.getTotalCalories(), 0.001);
+        assertEquals(162.5, report.getAverageSaladWeight(), 0.001);
+        assertEquals(90.0 / 195, report.getDressingShare(), 0.001);
+        assertEquals(45, report.getCaloriesByType().get("LeafyVegetable"), 0.001);
+        assertEquals("Dressing", report.getCaloriesByType().keySet().iterator().next());
+
+        List<NutritionReport.IngredientUsage> heaviest = report.getHeaviestIngredients();
+        assertEquals(2, heaviest.size());
+        assertEquals("Перший", heaviest.get(0).getSaladName());
+        assertEquals(200, heaviest.get(0).getWeightInGrams(), 0.001);
+        assertEquals(100, heaviest.get(1).getWeightInGrams(), 0.001);
+    }
+
+    @Test
+    void parallelResultShouldMatchSequentialSums() {
+        IProduct tomato = new FruitingVegetable("Помідор", 20, 94);
+        List<Salad> salads = new ArrayList<>();
+        double expectedWeight = 0;
+        for (int i = 0; i < 5000; i++) {
+            Salad salad = new Salad("Салат " + i);
+            double weight = 10 + i % 50;
+            salad.addIngredient(new SaladIngredient(tomato, weight));
+            expectedWeight += weight;
+            salads.add(salad);
+        }
+
+        NutritionReport report = new NutritionAnalytics().analyze(salads);
+
+        assertEquals(5000, report.getSaladCount());
+        assertEquals(expectedWeight, report.getTotalWeight(), 0.001);
+        assertEquals(expectedWeight * 0.2, report.getVegetableCalories(), 0.001);
+        assertEquals(10, report.getHeaviestIngredients().size());
+        assertEquals(59, report.getHeaviestIngredients().get(9).getWeightInGrams(), 0.001);
+    }
+}
@@ -0,0 +1,139 @@
+package test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import products.*;
+import saving.OffHeapProductCatalog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapProductCatalogTest {
+
+    private static final Path SNAPSHOT = Paths.get("test_offheap_catalog.bin");
+
+    private final List<IProduct> products = List.of(
+            new RootVegetable("Морква", 41, 4.7, true),
+            new LeafyVegetable("Шпинат", 23, 2.2),
+            new FruitingVegetable("Помідор", 18, 94.5),
+            new TuberVegetable("Картопля", 77, 17.5),
+            new Dressing("Оливкова олія", 884, "Олія"),
+            new Topping("Грінки", 407, true));
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(SNAPSHOT);
+    }
+
+    @Test
+    void shouldStoreProductsOffHeapAndFindThemByName() {
+        // 1. Arrange
+        try (OffHeapProductCatalog catalog = OffHeapProductCatalog.build(products)) {
+
+            // 2. Act
+            OffHeapProductCatalog.Entry carrot = catalog.findByName("МОРКВА").orElseThrow();
+            IProduct dressing = catalog.findByName("оливкова олія").orElseThrow().toHeapProduct();
+
+            // 3. Assert
+            assertEquals(6, catalog.size());
+            assertEquals(ProductKind.ROOT_VEGETABLE, carrot.getKind());
+            assertEquals(41, carrot.getCaloriesPer100g(), 1e-9);
+            assertTrue(((RootVegetable) carrot.toHeapProduct()).isHard());
+            assertEquals("Олія", ((Dressing) dressing).getBaseType());
+            assertTrue(catalog.findByName("Огірок").isEmpty());
+            assertEquals(41 + 23 + 18 + 77, catalog.sumCalories(ProductKind.ROOT_VEGETABLE)
+                    + catalog.sumCalories(ProductKind.LEAFY_VEGETABLE)
+                    + catalog.sumCalories(ProductKind.FRUITING_VEGETABLE)
+                    + catalog.sumCalories(ProductKind.TUBER_VEGETABLE), 1e-9);
+        }
+    }
+
+    @Test
+    void mappedSnapshotShouldMatchOriginalCatalog() throws IOException {
+        // 1. Arrange
+        try (OffHeapProductCatalog catalog = OffHeapProductCatalog.build(products)) {
+            catalog.writeTo(SNAPSHOT);
+        }
+
+        // 2. Act
+        try (OffHeapProductCatalog mapped = OffHeapProductCatalog.map(SNAPSHOT)) {
+
+            // 3. Assert
+            assertEquals(products.size(), mapped.size());
+            for (int i = 0; i < products.size(); i++) {
+                assertEquals(products.get(i).toTxtLine(), mapped.get(i).toTxtLine());
+            }
+            assertEquals("Шпинат", mapped.findByName("шпинат").orElseThrow().getName());
+        }
+    }
+
+    @Test
+    void rewritingSnapshotShouldNotBreakMappedCatalog() throws IOException {
+        // 1. Arrange
+        try (OffHeapProductCatalog catalog = OffHeapProductCatalog.build(products)) {
+            catalog.writeTo(SNAPSHOT);
+        }
+
+        try (OffHeapProductCatalog mapped = OffHeapProductCatalog.map(SNAPSHOT);
+             OffHeapProductCatalog smaller = OffHeapProductCatalog.build(products.subList(0, 2))) {
+
+            // 2. Act: новий знімок замінює файл, поки старий ще відображений
+            smaller.writeTo(SNAPSHOT);
+
+            // 3. Assert
+            assertEquals(products.size(), mapped.size());
+            assertEquals("Грінки", mapped.findByName("грінки").orElseThrow().getName());
+        }
+        try (OffHeapProductCatalog remapped = OffHeapProductCatalog.map(SNAPSHOT)) {
+            assertEquals(2, remapped.size());
+        }
+    }
+
+    @Test
+    void mapShouldRejectForeignFile() throws IOException {
+        // 1. Arrange
+        Files.writeString(SNAPSHOT, "RootVegetable,Морква,41,4.7,true\n".repeat(4));
+
+        // 2. Act & 3. Assert
+        assertThrows(IllegalArgumentException.class, () -> OffHeapProductCatalog.map(SNAPSHOT));
+    }
+
+    @Test
+    void shouldKeepCaloriesExactInFixedPoint() {
+        // 1. Arrange: 0.1 + 0.2 у double дає 0.30000000000000004
+        List<IProduct> light = List.of(new Topping("Кунжут", 0.1, true), new Topping("Мак", 0.2, true));
+
+        // 2. Act
+        try (OffHeapProductCatalog catalog = OffHeapProductCatalog.build(light)) {
+
+            // 3. Assert
+            assertEquals(0.3, catalog.sumCalories(ProductKind.TOPPING));
+            assertEquals(100, catalog.get(0).getMilliCaloriesPer100g());
+        }
+    }
+
+    @Test
+    void mapShouldRejectCorruptedHashTableHeader() throws IOException {
+        // 1. Arrange: знімок, у заголовку якого кількість слотів не є степенем двійки
+        try (OffHeapProductCatalog catalog = OffHeapProductCatalog.build(products)) {
+            catalog.writeTo(SNAPSHOT);
+        }
+        ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(SNAPSHOT)).order(ByteOrder.nativeOrder());
+        header.putLong(24, 12);
+        Files.write(SNAPSHOT, header.array());
+
+        // 2. Act
+        IllegalArgumentException error =
+                assertThrows(IllegalArgumentException.class, () -> OffHeapProductCatalog.map(SNAPSHOT));
+
+        // 3. Assert
+        assertTrue(error.getMessage().contains("хеш-таблиця"));
+    }
+}
@@ -0,0 +1,74 @@
+package test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ui.render.PagedRenderer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedRendererTest {
+
+    private final PrintStream originalOut = System.out;
+    private ByteArrayOutputStream captured;
+
+    @BeforeEach
+    void setUp() {
+        captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    void shouldPrintSinglePageWithoutPrompt() {
+        // Якщо навігація не потрібна, сканер не читається
+        Scanner scanner = new Scanner("не має бути прочитано\n");
+        new PagedRenderer(scanner, 10).render("Заголовок", List.of("a", "b"),
+                (out, i, item) -> out.format("%d. %s", i + 1, item));
+
+        String output = captured.toString(StandardCharsets.UTF_8);
+        assertEquals(String.join(System.lineSeparator(), "Заголовок", "1. a", "2. b", ""), output);
+        assertTrue(scanner.hasNextLine());
+    }
+
+    @Test
+    void shouldNavigatePagesUntilQuit() {
+        // Далі -> назад -> вихід: сторінки 1, 2, 1
+        Scanner scanner = new Scanner("n\np\nq\nзалишок\n");
+        new PagedRenderer(scanner, 2).render(null, List.of("a", "b", "c", "d", "e"),
+                (out, i, item) -> out.format("%s", item));
+
+        String output = captured.toString(StandardCharsets.UTF_8);
+        assertEquals(2, output.split("сторінка 1/3", -1).length - 1);
+        assertEquals(1, output.split("сторінка 2/3", -1).length - 1);
+        assertFalse(output.contains("сторінка 3/3"));
+        assertEquals("залишок", scanner.nextLine());
+    }
+
+    @Test
+    void shouldFollowReplacedSystemOut() {
+        // 1. Arrange
+        PagedRenderer renderer = new PagedRenderer(null);
+        renderer.write("перший");
+        ByteArrayOutputStream replacement = new ByteArrayOutputStream();
+
+        // 2. Act: writer рендерера перевикористовується, доки System.out той самий
+        System.setOut(new PrintStream(replacement, true, StandardCharsets.UTF_8));
+        renderer.write("другий");
+        renderer.write("третій");
+
+        // 3. Assert
+        assertEquals("перший", captured.toString(StandardCharsets.UTF_8));
+        assertEquals("другийтретій", replacement.toString(StandardCharsets.UTF_8));
+    }
+}
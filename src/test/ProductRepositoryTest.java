@@ -10,8 +10,11 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -158,4 +161,187 @@ class ProductRepositoryTest {
         assertEquals(1, products.size(), "Мав завантажитись лише 1 коректний продукт");
         assertEquals("Potato", products.get(0).getName());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldTrackLoadAndSaveStatistics() throws IOException {
+        // 1. Arrange: один коректний рядок і два пошкоджені
+        String data = "TuberVegetable;Potato;80;15\n" +
+                "RootVegetable;Broken;NotANumber;5;true\n" +
+                "UnknownType;Something;10;1";
+        Files.write(Paths.get(TEST_FILE_PATH), data.getBytes());
+
+        // 2. Act
+        repository.loadFromFile();
+        repository.addProduct(new Topping("Croutons", 300, true));
+
+        // 3. Assert
+        assertEquals(1, repository.getStats().getLoadCount());
+        assertEquals(2, repository.getStats().getParseErrors(), "Пошкоджені рядки мають рахуватись як помилки");
+        assertEquals(1, repository.getStats().getSaveCount());
+        assertEquals(Files.size(Paths.get(TEST_FILE_PATH)), repository.getStats().getBytesWritten());
+        assertTrue(repository.getStats().getLastSaveTimeMillis() > 0);
+        assertEquals(2, repository.getProductCount());
+    }
+
+    @Test
+    void shouldCompleteProductNamesByPrefix() {
+        // Arrange
+        repository.addProduct(new Dressing("Оливкова олія", 880, "Олійна"));
+        repository.addProduct(new Dressing("Оцет", 12, "Кисла"));
+        repository.addProduct(new LeafyVegetable("Огірок", 15, 1));
+        repository.addProduct(new Topping("Моцарела", 280, false));
+
+        // Act
+        List<IProduct> completions = repository.findByPrefix("о", 10);
+        List<IProduct> limited = repository.findByPrefix("О", 2);
+
+        // Assert: пошук без урахування регістру, відсортований за назвою
+        assertEquals(List.of("Огірок", "Оливкова олія", "Оцет"),
+                completions.stream().map(IProduct::getName).toList());
+        assertEquals(2, limited.size(), "Має повертатись не більше limit варіантів");
+        assertTrue(repository.findByPrefix("", 10).isEmpty(), "Порожній префікс не дає підказок");
+
+        // Після видалення продукт зникає з індексу
+        repository.removeProduct(repository.getProductByName("оцет").get());
+        assertEquals(2, repository.findByPrefix("о", 10).size());
+        assertTrue(repository.getProductByName("Оцет").isEmpty());
+    }
+
+    @Test
+    void shouldFindSimilarProductNamesWithTypos() {
+        // Arrange
+        repository.addProduct(new FruitingVegetable("Болгарський перець", 27, 80));
+        repository.addProduct(new Dressing("Оливкова олія", 880, "Олійна"));
+        repository.addProduct(new Dressing("Соняшникова олія", 895, "Олійна"));
+        repository.addProduct(new Topping("Моцарела", 280, false));
+
+        // Act & Assert: пропущена літера, зайва літера, заміна літери
+        assertEquals("Болгарський перець", repository.findSimilar("Болгарьский перец", 3).get(0).getName());
+        assertEquals("Оливкова олія", repository.findSimilar("оливкова олiя", 3).get(0).getName());
+        assertEquals("Моцарела", repository.findSimilar("Моцарелла", 3).get(0).getName());
+
+        // Надто різні назви не пропонуються
+        assertTrue(repository.findSimilar("Кавун", 3).isEmpty());
+    }
+
+    @Test
+    void shouldNotRewriteUnchangedCatalog() {
+        // 1. Arrange
+        IProduct carrot = new RootVegetable("Морква", 41, 5, true);
+        repository.addProduct(carrot);
+        long savesAfterAdd = repository.getStats().getSaveCount();
+
+        // 2. Act: явне збереження без змін і "редагування" з тими ж значеннями
+        repository.saveToFile();
+        repository.updateProduct(carrot, new RootVegetable("Морква", 41, 5, true));
+
+        // 3. Assert
+        assertEquals(savesAfterAdd, repository.getStats().getSaveCount());
+        assertEquals(2, repository.getStats().getSkippedWrites());
+
+        repository.updateProduct(repository.getProductByName("Морква").get(), new RootVegetable("Морква", 35, 5, true));
+        assertEquals(savesAfterAdd + 1, repository.getStats().getSaveCount());
+    }
+
+    @Test
+    void forcedSaveShouldRewriteFileWithoutChanges() throws IOException {
+        // 1. Arrange: файл каталогу видалено ззовні, а в пам'яті змін немає
+        repository.addProduct(new RootVegetable("Морква", 41, 5, true));
+        Files.delete(Paths.get(TEST_FILE_PATH));
+
+        // 2. Act
+        repository.saveToFile();
+        boolean writtenByPlainSave = Files.exists(Paths.get(TEST_FILE_PATH));
+        repository.forceSaveToFile();
+
+        // 3. Assert
+        assertFalse(writtenByPlainSave);
+        ProductRepository reloaded = new ProductRepository(TEST_FILE_PATH);
+        reloaded.loadFromFile();
+        assertTrue(reloaded.getProductByName("Морква").isPresent());
+    }
+
+    @Test
+    void shouldRejectUpdateToNameOfAnotherProduct() {
+        // 1. Arrange
+        IProduct carrot = new RootVegetable("Морква", 41, 5, true);
+        IProduct beet = new RootVegetable("Буряк", 43, 7, true);
+        repository.addProduct(carrot);
+        repository.addProduct(beet);
+
+        // 2. Act
+        boolean renamed = repository.updateProduct(beet, new RootVegetable("МОРКВА", 43, 7, true));
+        boolean edited = repository.updateProduct(beet, new RootVegetable("Буряк", 45, 7, true));
+
+        // 3. Assert
+        assertFalse(renamed);
+        assertTrue(edited);
+        assertSame(carrot, repository.getProductByName("морква").get());
+        assertEquals(2, repository.getAllProducts().size());
+    }
+
+    @Test
+    void shouldKeepTypePartitionsInSyncWithCatalog() {
+        // 1. Arrange
+        IProduct carrot = new RootVegetable("Морква", 41, 5, true);
+        IProduct spinach = new LeafyVegetable("Шпинат", 23, 2.2);
+        IProduct oil = new Dressing("Олія", 884, "Олійна");
+        repository.addProduct(carrot);
+        repository.addProduct(oil);
+        repository.addProduct(spinach);
+
+        // 2. Act: видалення, заміна в межах типу і перезавантаження з файлу
+        repository.removeProduct(carrot);
+        repository.updateProduct(spinach, new LeafyVegetable("Шпинат", 25, 2.2));
+        repository.addProduct(new Topping("Грінки", 407, true));
+        ProductRepository reloaded = new ProductRepository(TEST_FILE_PATH);
+        reloaded.loadFromFile();
+
+        // 3. Assert
+        for (ProductRepository repo : List.of(repository, reloaded)) {
+            List<IProduct> vegetables = repo.getProductsByKind(ProductKind.VEGETABLES);
+            assertEquals(1, vegetables.size());
+            assertEquals(25, vegetables.get(0).getCaloriesPer100g(), 0.001);
+            assertEquals("Олія", repo.getProductsByKind(ProductKind.DRESSINGS).get(0).getName());
+            assertEquals(1, repo.countByKind(ProductKind.TOPPINGS));
+            assertEquals(3, repo.countByKind(EnumSet.allOf(ProductKind.class)));
+        }
+    }
+
+    @Test
+    void shouldAllowReadsFromAnotherThreadDuringChanges() throws InterruptedException {
+        // 1. Arrange: читач (як JMX чи відправник реплікації) працює паралельно з потоком, що змінює каталог
+        ProductRepository catalog = ProductRepository.inMemory();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread reader = new Thread(() -> {
+            try {
+                while (running.get()) {
+                    for (IProduct product : catalog.getAllProducts()) {
+                        assertNotNull(product.getName());
+                    }
+                    catalog.getProductsByKind(ProductKind.VEGETABLES);
+                    catalog.findByPrefix("Продукт 1", 5);
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        reader.start();
+
+        // 2. Act
+        for (int i = 0; i < 2000; i++) {
+            IProduct product = new LeafyVegetable("Продукт " + i, 20, 1);
+            catalog.addProduct(product);
+            if (i % 2 == 0) {
+                catalog.removeProduct(product);
+            }
+        }
+        running.set(false);
+        reader.join();
+
+        // 3. Assert
+        assertNull(failure.get(), () -> "Читання під час змін завершилось помилкою: " + failure.get());
+        assertEquals(1000, catalog.getProductCount());
+    }
+}
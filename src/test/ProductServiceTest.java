@@ -10,6 +10,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -99,6 +101,26 @@ class ProductServiceTest {
         assertTrue(fakeRepository.products.isEmpty(), "Програма не повинна падати, список має залишитись порожнім");
     }
 
+    @Test
+    void shouldRejectNonFiniteValues_InVegetables() {
+        // Input: Назва -> Калорії -> Тип(1) -> Цукор "NaN" -> Твердий
+        setupServiceWithInput("Буряк\n43\n1\nNaN\ntrue\n");
+
+        // NaN розбирається Double.parseDouble, але конструктор його відхиляє — меню не падає
+        assertDoesNotThrow(() -> productService.addNewVegetable());
+
+        assertTrue(fakeRepository.products.isEmpty());
+    }
+
+    @Test
+    void shouldRejectInfiniteCalories_InDressings() {
+        setupServiceWithInput("Майонез\nInfinity\nОлійна\n");
+
+        assertDoesNotThrow(() -> productService.addNewDressing());
+
+        assertTrue(fakeRepository.products.isEmpty());
+    }
+
     // --- ТЕСТИ ДОДАВАННЯ ІНШИХ ПРОДУКТІВ ---
 
     @Test
@@ -185,6 +207,55 @@ class ProductServiceTest {
         assertTrue(fakeRepository.products.isEmpty());
     }
 
+    // --- ТЕСТИ РЕДАГУВАННЯ ---
+
+    @Test
+    void shouldEditDressingKeepingUnchangedFields() {
+        // Arrange
+        Dressing original = new Dressing("Сметана", 175, "Вершкова");
+        fakeRepository.addProduct(original);
+
+        // Act: назва -> нова назва (Enter = залишити) -> нова калорійність -> тип основи (Enter)
+        setupServiceWithInput("Сметана\n\n200\n\n");
+        productService.editDressing();
+
+        // Assert
+        assertEquals(1, fakeRepository.products.size());
+        Dressing edited = (Dressing) fakeRepository.products.get(0);
+        assertEquals("Сметана", edited.getName());
+        assertEquals(200.0, edited.getCaloriesPer100g());
+        assertEquals("Вершкова", edited.getBaseType());
+    }
+
+    @Test
+    void shouldNotEditProductOfAnotherType() {
+        // Arrange
+        fakeRepository.addProduct(new Topping("Горіхи", 600, true));
+
+        // Act: Пробуємо редагувати топінг через меню ОВОЧІВ
+        setupServiceWithInput("Горіхи\n");
+        productService.editVegetable();
+
+        // Assert
+        assertEquals(600.0, fakeRepository.products.get(0).getCaloriesPer100g());
+    }
+
+    @Test
+    void shouldNotRenameProductToExistingName() {
+        // Arrange
+        fakeRepository.addProduct(new Dressing("Сметана", 175, "Вершкова"));
+        fakeRepository.addProduct(new Dressing("Майонез", 680, "Яйце"));
+
+        // Act: перейменовуємо сметану на вже наявний майонез
+        setupServiceWithInput("Сметана\nмайонез\n200\n\n");
+        productService.editDressing();
+
+        // Assert
+        assertEquals(2, fakeRepository.products.size());
+        assertEquals("Сметана", fakeRepository.products.get(0).getName());
+        assertEquals(175.0, fakeRepository.products.get(0).getCaloriesPer100g());
+    }
+
     // --- Допоміжний метод ---
     private void setupServiceWithInput(String inputData) {
         Scanner mockScanner = new Scanner(inputData);
@@ -217,6 +288,13 @@ class ProductServiceTest {
             return new ArrayList<>(products);
         }
 
+        @Override
+        public List<IProduct> getProductsByKind(Set<ProductKind> kinds) {
+            return products.stream()
+                    .filter(p -> kinds.contains(p.getKind()))
+                    .collect(Collectors.toList());
+        }
+
         @Override
         public Optional<IProduct> getProductByName(String name) {
             return products.stream()
@@ -224,6 +302,17 @@ class ProductServiceTest {
                     .findFirst();
         }
 
+        @Override
+        public boolean updateProduct(IProduct existing, IProduct replacement) {
+            int index = products.indexOf(existing);
+            Optional<IProduct> sameName = getProductByName(replacement.getName());
+            if (index < 0 || (sameName.isPresent() && sameName.get() != existing)) {
+                return false;
+            }
+            products.set(index, replacement);
+            return true;
+        }
+
         // Перевизначаємо методи роботи з файлами, щоб вони нічого не робили
         @Override
         public void saveToFile() { }
@@ -0,0 +1,99 @@
+package test;
+
+import index.RecipeBitsetIndex;
+import org.junit.jupiter.api.Test;
+import products.*;
+import salad.*;
+import saving.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeBitsetIndexTest {
+
+    @Test
+    void shouldRankRecipesByMissingIngredients() {
+        // 1. Arrange
+        RecipeBitsetIndex index = new RecipeBitsetIndex();
+        index.index("Вінегрет", List.of("Буряк", "Картопля", "Морква", "Огірок"));
+        index.index("Морквяний", List.of("Морква", "Часник"));
+        index.index("Капустяний", List.of("Капуста", "Морква"));
+
+        // 2. Act
+        List<RecipeBitsetIndex.Match> exact = index.findMakeable(List.of("морква", "Капуста", "Часник"), 0);
+        List<RecipeBitsetIndex.Match> withTwoMissing = index.findMakeable(List.of("Морква", "Буряк", "Капуста"), 2);
+
+        // 3. Assert
+        assertEquals(List.of("Капустяний", "Морквяний"), exact.stream().map(RecipeBitsetIndex.Match::getSaladName).toList());
+        assertEquals(3, withTwoMissing.size());
+        assertEquals("Капустяний", withTwoMissing.get(0).getSaladName());
+        assertEquals(List.of("Часник"), withTwoMissing.get(1).getMissingProducts());
+        assertEquals(List.of("Картопля", "Огірок"), withTwoMissing.get(2).getMissingProducts());
+    }
+
+    @Test
+    void shouldHandleMoreThanOneWordOfProductsAndReuseIds() {
+        // 1. Arrange: 150 продуктів — множини займають кілька 64-бітних слів
+        RecipeBitsetIndex index = new RecipeBitsetIndex();
+        List<String> all = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            all.add("Продукт " + i);
+        }
+        index.index("Великий", all);
+        index.index("Малий", List.of("Продукт 149", "Продукт 3"));
+
+        // 2. Act
+        List<RecipeBitsetIndex.Match> missingOne = index.findMakeable(all.subList(0, 149), 1);
+        index.remove("Великий");
+        index.index("Новий", List.of("Продукт 3", "Інше"));
+        List<RecipeBitsetIndex.Match> afterRemoval = index.findMakeable(List.of("Продукт 3", "Інше"), 0);
+
+        // 3. Assert
+        assertEquals(2, missingOne.size());
+        missingOne.forEach(match -> assertEquals(List.of("Продукт 149"), match.getMissingProducts()));
+        assertEquals(2, index.size());
+        assertEquals(1, afterRemoval.size());
+        assertEquals("Новий", afterRemoval.get(0).getSaladName());
+    }
+
+    @Test
+    void emptyRecipeShouldNotBeMakeable() {
+        // 1. Arrange
+        RecipeBitsetIndex index = new RecipeBitsetIndex();
+        index.index("Морквяний", List.of("Морква"));
+        index.index("Порожній", List.of());
+
+        // 2. Act
+        List<RecipeBitsetIndex.Match> matches = index.findMakeable(List.of("Морква"), 0);
+        index.index("Морквяний", List.of());
+
+        // 3. Assert: повторна індексація без продуктів прибирає салат
+        assertEquals(List.of("Морквяний"), matches.stream().map(RecipeBitsetIndex.Match::getSaladName).toList());
+        assertEquals(0, index.size());
+        assertTrue(index.findMakeable(List.of("Морква"), 0).isEmpty());
+    }
+
+    @Test
+    void repositoryShouldAnswerFromSavedRecipes() {
+        // 1. Arrange
+        ProductRepository products = ProductRepository.inMemory();
+        products.addProduct(new RootVegetable("Морква", 41, 5, true));
+        products.addProduct(new LeafyVegetable("Капуста", 25, 2.5));
+        SaladRepository salads = SaladRepository.inMemory(products);
+        Salad salad = new Salad("Осінній");
+        salad.addIngredient(new SaladIngredient(products.getProductByName("Морква").get(), 100));
+        salad.addIngredient(new SaladIngredient(products.getProductByName("Капуста").get(), 100));
+        salads.saveSalad(salad);
+
+        // 2. Act
+        List<RecipeBitsetIndex.Match> beforeDelete = salads.findMakeableSalads(List.of("Морква"), 1);
+        salads.deleteSalad("Осінній");
+
+        // 3. Assert
+        assertEquals(1, beforeDelete.size());
+        assertEquals(List.of("Капуста"), beforeDelete.get(0).getMissingProducts());
+        assertTrue(salads.findMakeableSalads(List.of("Морква"), 1).isEmpty());
+    }
+}
@@ -0,0 +1,121 @@
+package test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import products.*;
+import replication.ReplicationFollower;
+import replication.ReplicationLeader;
+import salad.*;
+import saving.*;
+
+import java.io.IOException;
+import java.net.BindException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Лідер і репліка в одному процесі, з'єднані через loopback.
+ */
+class ReplicationTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private ProductRepository leaderProducts;
+    private SaladRepository leaderSalads;
+    private ReplicationLeader leader;
+    private ReplicationFollower follower;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        leaderProducts = ProductRepository.inMemory();
+        leaderSalads = SaladRepository.inMemory(leaderProducts);
+        leaderProducts.addProduct(new RootVegetable("Морква", 41, 5, true));
+        leaderProducts.addProduct(new LeafyVegetable("Салат", 15, 1.3));
+
+        Salad salad = new Salad("Весняний");
+        salad.addIngredient(new SaladIngredient(leaderProducts.getProductByName("Морква").get(), 100));
+        leaderSalads.saveSalad(salad);
+
+        leader = ReplicationLeader.onLoopback(leaderProducts, leaderSalads, 0);
+        follower = new ReplicationFollower("127.0.0.1", leader.getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        follower.close();
+        leader.close();
+    }
+
+    private long leaderSequence() {
+        return leaderProducts.getChangeFeed().getLastSequence();
+    }
+
+    @Test
+    void followerShouldStartFromSnapshotAndApplyChanges() throws InterruptedException {
+        // 1. Arrange
+        follower.start();
+        assertTrue(follower.awaitSequence(leaderSequence(), TIMEOUT_MILLIS));
+        ProductRepository replica = follower.getProductRepository();
+        assertEquals(2, replica.getProductCount());
+        assertEquals(1, follower.getSnapshotCount());
+
+        // 2. Act
+        leaderProducts.addProduct(new Topping("Сухарики", 400, false));
+        IProduct carrot = leaderProducts.getProductByName("Морква").get();
+        leaderProducts.updateProduct(carrot, new RootVegetable("Морква", 35, 5, true));
+        Salad salad = new Salad("Хрусткий");
+        salad.addIngredient(new SaladIngredient(leaderProducts.getProductByName("Сухарики").get(), 20));
+        leaderSalads.saveSalad(salad);
+        leaderSalads.deleteSalad("Весняний");
+        assertTrue(follower.awaitSequence(leaderSequence(), TIMEOUT_MILLIS));
+
+        // 3. Assert
+        assertEquals(3, replica.getProductCount());
+        assertEquals(35, replica.getProductByName("Морква").get().getCaloriesPer100g(), 0.001);
+        SaladRepository replicaSalads = follower.getSaladRepository();
+        assertTrue(replicaSalads.getSaladByName("Весняний").isEmpty());
+        assertEquals(80, replicaSalads.getSaladByName("Хрусткий").get().getTotalCalories(), 0.001);
+        assertEquals(0, follower.getLagRecords());
+        assertEquals(1, follower.getSnapshotCount(), "Поточні зміни мають надходити записами, а не знімками");
+    }
+
+    @Test
+    void followerShouldCatchUpFromSnapshotAfterLeaderRestart() throws Exception {
+        // 1. Arrange
+        follower.start();
+        assertTrue(follower.awaitSequence(leaderSequence(), TIMEOUT_MILLIS));
+        int port = leader.getPort();
+
+        // 2. Act: лідер перезапускається з новою історією, поки репліка відключена
+        leader.close();
+        leaderProducts = ProductRepository.inMemory();
+        leaderSalads = SaladRepository.inMemory(leaderProducts);
+        leaderProducts.addProduct(new Dressing("Олія", 884, "Олія"));
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        leader = restartLeader(port, deadline);
+
+        // 3. Assert: репліка отримала новий знімок і прибрала застарілі дані
+        while (follower.getSnapshotCount() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(2, follower.getSnapshotCount());
+        assertEquals(1, follower.getProductRepository().getProductCount());
+        assertTrue(follower.getProductRepository().getProductByName("Олія").isPresent());
+        assertEquals(0, follower.getSaladRepository().getSaladCount());
+    }
+
+    // Порт звільняється лише після того, як обидві сторони закриють старі з'єднання
+    private ReplicationLeader restartLeader(int port, long deadline) throws Exception {
+        while (true) {
+            try {
+                return ReplicationLeader.onLoopback(leaderProducts, leaderSalads, port);
+            } catch (BindException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(50);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package test;
+
+import org.junit.jupiter.api.Test;
+import products.*;
+import salad.SaladIngredient;
+import service.SaladOptimizer;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SaladOptimizerTest {
+
+    private final List<IProduct> catalog = List.of(
+            new LeafyVegetable("Салат", 15, 1.3),
+            new LeafyVegetable("Шпинат", 23, 2.2),
+            new FruitingVegetable("Огірок", 16, 95),
+            new FruitingVegetable("Помідор", 20, 94),
+            new Dressing("Оливкова олія", 884, "Олія"),
+            new Dressing("Майонез", 680, "Яйце"),
+            new Topping("Сухарики", 400, true)
+    );
+
+    @Test
+    void shouldFindCandidatesCloseToTargetWithinConstraints() {
+        // 1. Arrange
+        SaladOptimizer optimizer = new SaladOptimizer(catalog);
+        SaladOptimizer.Constraints constraints = new SaladOptimizer.Constraints()
+                .ingredients(2, 4)
+                .minLeafy(1)
+                .maxDressings(1)
+                .weightBounds(20, 200, 10);
+
+        // 2. Act
+        List<SaladOptimizer.Candidate> candidates = optimizer.optimize(250, constraints, 3, 5000);
+
+        // 3. Assert
+        assertEquals(3, candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            SaladOptimizer.Candidate candidate = candidates.get(i);
+            assertTrue(candidate.getDeviation() < 10, "Відхилення має бути меншим за один крок ваги");
+
+            long leafy = candidate.getIngredients().stream().filter(ing -> ing.getConsumable() instanceof LeafyVegetable).count();
+            long dressings = candidate.getIngredients().stream().filter(ing -> ing.getConsumable() instanceof Dressing).count();
+            assertTrue(leafy >= 1);
+            assertTrue(dressings <= 1);
+
+            double calories = 0;
+            for (SaladIngredient ingredient : candidate.getIngredients()) {
+                assertTrue(ingredient.getWeightInGrams() >= 20 && ingredient.getWeightInGrams() <= 200);
+                calories += ingredient.getTotalCalories();
+            }
+            assertEquals(candidate.getTotalCalories(), calories, 0.001);
+
+            if (i > 0) {
+                assertTrue(candidates.get(i - 1).getDeviation() <= candidate.getDeviation());
+            }
+        }
+    }
+
+    @Test
+    void shouldReturnNothingWhenConstraintsCannotBeMet() {
+        // Листових овочів у каталозі лише два, а вимагаємо три
+        SaladOptimizer optimizer = new SaladOptimizer(catalog);
+        SaladOptimizer.Constraints constraints = new SaladOptimizer.Constraints().minLeafy(3);
+
+        assertTrue(optimizer.optimize(200, constraints, 5, 1000).isEmpty());
+    }
+
+    @Test
+    void shouldFindSameBestDeviationsWithOneOrManyWorkers() {
+        // 1. Arrange: глибина 5 — піддерева діляться на кількох рівнях
+        SaladOptimizer.Constraints constraints = new SaladOptimizer.Constraints()
+                .ingredients(2, 5)
+                .minLeafy(1)
+                .maxDressings(2)
+                .weightBounds(20, 200, 10);
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool parallel = new ForkJoinPool(4);
+
+        try {
+            // 2. Act
+            List<SaladOptimizer.Candidate> sequential =
+                    new SaladOptimizer(catalog, single).optimize(333, constraints, 5, 10_000);
+            List<SaladOptimizer.Candidate> forked =
+                    new SaladOptimizer(catalog, parallel).optimize(333, constraints, 5, 10_000);
+
+            // 3. Assert
+            assertEquals(5, sequential.size());
+            assertEquals(sequential.size(), forked.size());
+            for (int i = 0; i < sequential.size(); i++) {
+                assertEquals(sequential.get(i).getDeviation(), forked.get(i).getDeviation(), 1e-9);
+            }
+        } finally {
+            single.shutdown();
+            parallel.shutdown();
+        }
+    }
+}
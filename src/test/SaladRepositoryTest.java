@@ -10,9 +10,13 @@ import saving.*;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -178,4 +182,242 @@ class SaladRepositoryTest {
         assertEquals(0, retrievedList.size(), "Локальний список має стати порожнім");
         assertEquals(2, saladRepository.getAllSalads().size(), "Репозиторій не повинен постраждати від змін у отриманому списку");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldTrackWhichSaladsUseProduct() {
+        // 1. Arrange
+        IProduct carrot = productRepository.getProductByName("Морква").get();
+        IProduct potato = productRepository.getProductByName("Картопля").get();
+
+        Salad vinaigrette = new Salad("Вінегрет");
+        vinaigrette.addIngredient(new SaladIngredient(carrot, 100));
+        vinaigrette.addIngredient(new SaladIngredient(potato, 200));
+        Salad carrotSalad = new Salad("Морквяний");
+        carrotSalad.addIngredient(new SaladIngredient(carrot, 150));
+
+        // 2. Act
+        saladRepository.saveSalad(vinaigrette);
+        saladRepository.saveSalad(carrotSalad);
+
+        // 3. Assert
+        assertEquals(2, saladRepository.getSaladsUsing("морква").size(), "Пошук має ігнорувати регістр");
+        assertEquals(1, saladRepository.getSaladsUsing("Картопля").size());
+
+        // Після зміни рецепту та видалення салату індекс оновлюється
+        vinaigrette.removeIngredient(vinaigrette.getIngredients().get(1));
+        saladRepository.saveSalad(vinaigrette);
+        assertFalse(saladRepository.isProductUsed("Картопля"));
+
+        saladRepository.deleteSalad("Морквяний");
+        assertEquals(List.of("Вінегрет"),
+                saladRepository.getSaladsUsing("Морква").stream().map(Salad::getName).toList());
+    }
+
+    @Test
+    void shouldCascadeProductRemovalToUsingSalads() {
+        // 1. Arrange
+        IProduct carrot = productRepository.getProductByName("Морква").get();
+        IProduct potato = productRepository.getProductByName("Картопля").get();
+        Salad salad = new Salad("Вінегрет");
+        salad.addIngredient(new SaladIngredient(carrot, 100));
+        salad.addIngredient(new SaladIngredient(potato, 200));
+        saladRepository.saveSalad(salad);
+
+        // 2. Act
+        int updated = saladRepository.removeProductFromSalads("Морква");
+
+        // 3. Assert: і пам'ять, і файл оновлені
+        assertEquals(1, updated);
+        SaladRepository reloaded = new SaladRepository(TEST_SALADS_DIR, productRepository);
+        reloaded.loadAllSalads();
+        List<SaladIngredient> ingredients = reloaded.getSaladByName("Вінегрет").get().getIngredients();
+        assertEquals(1, ingredients.size());
+        assertEquals("Картопля", ingredients.get(0).getConsumable().getName());
+        assertFalse(saladRepository.isProductUsed("Морква"));
+    }
+
+    @Test
+    void shouldPropagateProductEditToUsingSaladsOnly() throws IOException {
+        // 1. Arrange
+        IProduct carrot = productRepository.getProductByName("Морква").get();
+        IProduct potato = productRepository.getProductByName("Картопля").get();
+        Salad carrotSalad = new Salad("Морквяний");
+        carrotSalad.addIngredient(new SaladIngredient(carrot, 200));
+        Salad potatoSalad = new Salad("Картопляний");
+        potatoSalad.addIngredient(new SaladIngredient(potato, 100));
+        saladRepository.saveSalad(carrotSalad);
+        saladRepository.saveSalad(potatoSalad);
+        assertEquals(82.0, carrotSalad.getTotalCalories(), 0.001);
+
+        // 2. Act: змінюємо калорійність і назву моркви
+        IProduct youngCarrot = new RootVegetable("Молода морква", 30, 4, false);
+        productRepository.updateProduct(carrot, youngCarrot);
+        int affected = saladRepository.replaceProductInSalads(carrot, youngCarrot);
+
+        // 3. Assert
+        assertEquals(1, affected, "Змінитись має лише салат, що містить моркву");
+        assertEquals(60.0, carrotSalad.getTotalCalories(), 0.001);
+        assertEquals(80.0, potatoSalad.getTotalCalories(), 0.001);
+        assertTrue(saladRepository.isProductUsed("Молода морква"));
+        assertFalse(saladRepository.isProductUsed("Морква"));
+
+        // Файл рецепту містить нову назву продукту
+        List<String> lines = Files.readAllLines(Paths.get(TEST_SALADS_DIR, "Морквяний.txt"));
+        assertTrue(lines.get(0).startsWith("Молода морква;"));
+        assertTrue(productRepository.getProductByName("Морква").isEmpty());
+    }
+
+    @Test
+    void shouldReturnTopKByCaloriesWithFilter() {
+        // 1. Arrange: салати з калорійністю 41, 82, 123, 164, 205 (морква) і один із заправкою
+        IProduct carrot = productRepository.getProductByName("Морква").get();
+        for (int i = 1; i <= 5; i++) {
+            Salad salad = new Salad("Салат " + i);
+            salad.addIngredient(new SaladIngredient(carrot, 100 * i));
+            saladRepository.saveSalad(salad);
+        }
+        Salad dressed = new Salad("Заправлений");
+        dressed.addIngredient(new SaladIngredient(carrot, 10));
+        dressed.addIngredient(new SaladIngredient(new Dressing("Олія", 900, "Олійна"), 1));
+        saladRepository.saveSalad(dressed);
+
+        // 2. Act
+        List<Salad> lowest = saladRepository.findLowestCalorie(2, SaladFilters.any());
+        List<Salad> lowestPlain = saladRepository.findLowestCalorie(2, SaladFilters.withoutDressing());
+        List<Salad> highest = saladRepository.findHighestCalorie(3, SaladFilters.any());
+
+        // 3. Assert
+        assertEquals(List.of("Заправлений", "Салат 1"), lowest.stream().map(Salad::getName).toList());
+        assertEquals(List.of("Салат 1", "Салат 2"), lowestPlain.stream().map(Salad::getName).toList());
+        assertEquals(List.of("Салат 5", "Салат 4", "Салат 3"), highest.stream().map(Salad::getName).toList());
+        assertTrue(saladRepository.findHighestCalorie(3, SaladFilters.withTopping()).isEmpty());
+    }
+
+    @Test
+    void shouldSkipWritingUnchangedSalads() throws IOException {
+        // 1. Arrange
+        IProduct carrot = productRepository.getProductByName("Морква").get();
+        Salad salad = new Salad("Морквяний");
+        salad.addIngredient(new SaladIngredient(carrot, 100));
+        saladRepository.saveSalad(salad);
+        Path file = Paths.get(TEST_SALADS_DIR, "Морквяний.txt");
+        FileTime firstWrite = Files.getLastModifiedTime(file);
+        long savesBefore = saladRepository.getStats().getSaveCount();
+
+        // 2. Act: повторне збереження без змін і "flush" усіх рецептів
+        assertFalse(saladRepository.hasUnsavedChanges(salad));
+        saladRepository.saveSalad(salad);
+        saladRepository.saveAllSalads();
+
+        // 3. Assert
+        assertEquals(savesBefore, saladRepository.getStats().getSaveCount());
+        assertEquals(2, saladRepository.getStats().getSkippedWrites());
+        assertEquals(firstWrite, Files.getLastModifiedTime(file));
+
+        // Після зміни салат знову "брудний" і записується
+        salad.addIngredient(new SaladIngredient(carrot, 50));
+        assertTrue(saladRepository.hasUnsavedChanges(salad));
+        saladRepository.saveSalad(salad);
+        assertEquals(savesBefore + 1, saladRepository.getStats().getSaveCount());
+    }
+
+    @Test
+    void editSessionShouldWorkOnCopyAndDetectConflicts() {
+        // 1. Arrange
+        IProduct carrot = productRepository.getProductByName("Морква").get();
+        IProduct potato = productRepository.getProductByName("Картопля").get();
+        Salad salad = new Salad("Спільний");
+        salad.addIngredient(new SaladIngredient(carrot, 100));
+        saladRepository.saveSalad(salad);
+        long version = saladRepository.getVersion("Спільний");
+
+        SaladEditSession first = saladRepository.openEditSession("Спільний").get();
+        SaladEditSession second = saladRepository.openEditSession("Спільний").get();
+
+        // 2. Act: обидва редагують; зміни не видно в репозиторії до коміту
+        first.getSalad().addIngredient(new SaladIngredient(potato, 50));
+        second.getSalad().addIngredient(new SaladIngredient(carrot, 20));
+        assertEquals(1, saladRepository.getSaladByName("Спільний").get().getIngredients().size());
+
+        boolean firstCommitted = first.commit();
+        boolean secondCommitted = second.commit();
+
+        // 3. Assert
+        assertTrue(firstCommitted);
+        assertFalse(secondCommitted, "Другий коміт має отримати конфлікт версій");
+        assertEquals(version + 1, saladRepository.getVersion("Спільний"));
+        assertEquals(1, saladRepository.getStats().getConflicts());
+        assertSame(first.getSalad(), saladRepository.getSaladByName("Спільний").get());
+
+        // Після rebase другий редактор може свідомо перезаписати
+        second.rebase();
+        assertTrue(second.commit());
+        assertEquals(version + 2, saladRepository.getVersion("Спільний"));
+    }
+
+    @Test
+    void newSaladSessionShouldFailIfNameWasTakenMeanwhile() {
+        SaladEditSession session = saladRepository.openNewSaladSession("Новий");
+        assertTrue(session.hasChanges());
+        saladRepository.saveSalad(new Salad("новий"));
+
+        assertFalse(session.commit());
+        assertEquals(SaladRepository.NO_VERSION, saladRepository.getVersion("Неіснуючий"));
+    }
+
+    @Test
+    void differentSaladsShouldCommitConcurrently() throws InterruptedException {
+        // 1. Arrange: 8 потоків, кожен редагує власний салат
+        IProduct carrot = productRepository.getProductByName("Морква").get();
+        int threads = 8;
+        for (int i = 0; i < threads; i++) {
+            saladRepository.saveSalad(new Salad("Паралельний " + i));
+        }
+
+        List<Thread> workers = new ArrayList<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (int i = 0; i < threads; i++) {
+            String name = "Паралельний " + i;
+            Thread worker = new Thread(() -> {
+                for (int round = 0; round < 10; round++) {
+                    SaladEditSession session = saladRepository.openEditSession(name).get();
+                    session.getSalad().addIngredient(new SaladIngredient(carrot, 10 + round));
+                    if (!session.commit()) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        // 2. Act
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        // 3. Assert
+        assertEquals(0, failures.get(), "Різні салати не повинні конфліктувати");
+        for (int i = 0; i < threads; i++) {
+            assertEquals(10, saladRepository.getSaladByName("Паралельний " + i).get().getIngredients().size());
+        }
+    }
+
+    @Test
+    void exportedRecipesShouldParseBackToSameSalads() {
+        // 1. Arrange
+        Salad salad = new Salad("Експорт");
+        salad.addIngredient(new SaladIngredient(productRepository.getProductByName("Морква").get(), 120));
+        salad.addIngredient(new SaladIngredient(productRepository.getProductByName("Картопля").get(), 80.5));
+        saladRepository.saveSalad(salad);
+
+        // 2. Act
+        Map<String, String> recipes = saladRepository.exportRecipes();
+
+        // 3. Assert
+        assertEquals(saladRepository.getSaladCount(), recipes.size());
+        Salad parsed = saladRepository.parseRecipe("Експорт", recipes.get("Експорт"));
+        assertEquals(salad.getTotalMilliCalories(), parsed.getTotalMilliCalories());
+        assertEquals(2, parsed.getIngredients().size());
+    }
+}
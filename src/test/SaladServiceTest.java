@@ -200,6 +200,12 @@ class SaladServiceTest {
             salads.add(salad);
         }
 
+        @Override
+        public boolean saveSalad(Salad salad, long expectedVersion) {
+            saveSalad(salad);
+            return true;
+        }
+
         @Override
         public void deleteSalad(String name) {
             salads.removeIf(s -> s.getName().equalsIgnoreCase(name));
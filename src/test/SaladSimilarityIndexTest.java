@@ -0,0 +1,130 @@
+package test;
+
+import index.SaladSimilarityIndex;
+import org.junit.jupiter.api.Test;
+import products.*;
+import salad.*;
+import saving.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SaladSimilarityIndexTest {
+
+    private static Map<String, Long> composition(Object... nameAndGrams) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < nameAndGrams.length; i += 2) {
+            result.put((String) nameAndGrams[i], ((Number) nameAndGrams[i + 1]).longValue() * 1000);
+        }
+        return result;
+    }
+
+    @Test
+    void shouldRankSaladsBySharedProducts() {
+        // 1. Arrange
+        SaladSimilarityIndex index = new SaladSimilarityIndex();
+        index.index("Цезар", composition("Салат ромен", 100, "Сухарики", 30, "Пармезан", 20, "Соус цезар", 30));
+        index.index("Цезар з куркою", composition("Салат ромен", 100, "Сухарики", 30, "Пармезан", 20,
+                "Соус цезар", 30, "Курка", 120));
+        index.index("Вінегрет", composition("Буряк", 150, "Картопля", 100, "Морква", 80, "Огірок квашений", 60));
+
+        // 2. Act
+        List<SaladSimilarityIndex.Match> matches = index.findSimilar("цезар", 5);
+
+        // 3. Assert: справжня схожість 4/5, салат без спільних продуктів не є кандидатом
+        assertEquals(1, matches.size());
+        assertEquals("Цезар з куркою", matches.get(0).getSaladName());
+        assertEquals(0.8, matches.get(0).getSimilarity(), 0.2);
+    }
+
+    @Test
+    void shouldForgetRemovedAndReindexedSalads() {
+        // 1. Arrange
+        SaladSimilarityIndex index = new SaladSimilarityIndex();
+        index.index("Перший", composition("Морква", 100, "Капуста", 100));
+        index.index("Другий", composition("Морква", 100, "Капуста", 100));
+
+        // 2. Act
+        index.index("Другий", composition("Буряк", 100, "Квасоля", 100));
+        List<SaladSimilarityIndex.Match> afterReindex = index.findSimilar("Перший", 5);
+        index.remove("Другий");
+        index.index("Порожній", Map.of());
+
+        // 3. Assert
+        assertTrue(afterReindex.isEmpty());
+        assertEquals(1, index.size());
+        assertTrue(index.findSimilar("Порожній", 5).isEmpty());
+    }
+
+    @Test
+    void configuredIndexShouldReadGramsPerTokenProperty() {
+        // 1. Arrange
+        String property = SaladSimilarityIndex.GRAMS_PER_TOKEN_PROPERTY;
+        try {
+            // 2. Act
+            System.setProperty(property, "25");
+            SaladSimilarityIndex weighted = SaladSimilarityIndex.configured();
+            System.setProperty(property, "багато");
+            SaladSimilarityIndex invalid = SaladSimilarityIndex.configured();
+            System.clearProperty(property);
+            SaladSimilarityIndex plain = SaladSimilarityIndex.configured();
+
+            // 3. Assert
+            assertEquals(25, weighted.getGramsPerToken());
+            assertEquals(0, invalid.getGramsPerToken());
+            assertEquals(0, plain.getGramsPerToken());
+        } finally {
+            System.clearProperty(property);
+        }
+    }
+
+    @Test
+    void weightedIndexShouldDistinguishProportions() {
+        // 1. Arrange
+        SaladSimilarityIndex index = new SaladSimilarityIndex(32, 2, 10);
+        index.index("Морквяний", composition("Морква", 200, "Капуста", 20));
+        index.index("Капустяний", composition("Морква", 20, "Капуста", 200));
+
+        // 2. Act
+        List<SaladSimilarityIndex.Match> sameProportions = index.findSimilar(composition("Морква", 180, "Капуста", 20), 5);
+
+        // 3. Assert: за складом салати однакові, але ближчий той, у якого ті самі пропорції
+        assertFalse(sameProportions.isEmpty());
+        assertEquals("Морквяний", sameProportions.get(0).getSaladName());
+        if (sameProportions.size() > 1) {
+            assertTrue(sameProportions.get(0).getSimilarity() > sameProportions.get(1).getSimilarity());
+        }
+    }
+
+    @Test
+    void repositoryShouldMaintainIndexOnSaveAndDelete() {
+        // 1. Arrange
+        ProductRepository products = ProductRepository.inMemory();
+        products.addProduct(new RootVegetable("Морква", 41, 5, true));
+        products.addProduct(new LeafyVegetable("Капуста", 25, 2.5));
+        products.addProduct(new Topping("Горіхи", 600, true));
+        SaladRepository salads = SaladRepository.inMemory(products);
+
+        Salad base = new Salad("Базовий");
+        base.addIngredient(new SaladIngredient(products.getProductByName("Морква").get(), 100));
+        base.addIngredient(new SaladIngredient(products.getProductByName("Капуста").get(), 100));
+        Salad similar = new Salad("З горіхами");
+        similar.addIngredient(new SaladIngredient(products.getProductByName("Морква").get(), 100));
+        similar.addIngredient(new SaladIngredient(products.getProductByName("Капуста").get(), 100));
+        similar.addIngredient(new SaladIngredient(products.getProductByName("Горіхи").get(), 20));
+
+        // 2. Act
+        salads.saveSalad(base);
+        salads.saveSalad(similar);
+        List<SaladSimilarityIndex.Match> beforeDelete = salads.findSimilarSalads("Базовий", 5);
+        salads.deleteSalad("З горіхами");
+
+        // 3. Assert
+        assertEquals(1, beforeDelete.size());
+        assertEquals("З горіхами", beforeDelete.get(0).getSaladName());
+        assertTrue(salads.findSimilarSalads("Базовий", 5).isEmpty());
+    }
+}
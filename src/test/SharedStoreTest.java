@@ -0,0 +1,140 @@
+package test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import products.*;
+import salad.*;
+import saving.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Два екземпляри репозиторіїв над одними файлами імітують дві запущені копії програми.
+ */
+class SharedStoreTest {
+
+    private static final String TEST_PRODUCTS_FILE = "test_shared_products.txt";
+    private static final String TEST_SALADS_DIR = "test_shared_salads";
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cleanUp();
+        ProductRepository seed = new ProductRepository(TEST_PRODUCTS_FILE);
+        seed.enableSharedAccess();
+        seed.addProduct(new RootVegetable("Морква", 41, 5, true));
+        seed.addProduct(new RootVegetable("Картопля", 80, 15, false));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        cleanUp();
+    }
+
+    private ProductRepository openCatalog() {
+        ProductRepository repository = new ProductRepository(TEST_PRODUCTS_FILE);
+        repository.enableSharedAccess();
+        repository.loadFromFile();
+        return repository;
+    }
+
+    private SaladRepository openSalads(ProductRepository catalog) {
+        SaladRepository repository = new SaladRepository(TEST_SALADS_DIR, catalog);
+        repository.enableSharedAccess();
+        repository.loadAllSalads();
+        return repository;
+    }
+
+    @Test
+    void concurrentCatalogEditsShouldBeMerged() {
+        // 1. Arrange
+        ProductRepository first = openCatalog();
+        ProductRepository second = openCatalog();
+
+        // 2. Act: кожен екземпляр додає свій продукт, не знаючи про інший
+        first.addProduct(new RootVegetable("Буряк", 43, 8, true));
+        second.addProduct(new RootVegetable("Редиска", 16, 4, false));
+
+        // 3. Assert: другий запис злив зміни першого, а не затер їх
+        ProductRepository reopened = openCatalog();
+        assertTrue(reopened.getProductByName("Буряк").isPresent());
+        assertTrue(reopened.getProductByName("Редиска").isPresent());
+        assertEquals(4, reopened.getProductCount());
+
+        assertTrue(first.refreshFromDisk());
+        assertTrue(first.getProductByName("Редиска").isPresent());
+        assertFalse(first.refreshFromDisk(), "Без нових змін перевірка не має нічого перечитувати");
+    }
+
+    @Test
+    void staleSaladWriteShouldBeRefusedAndRefreshed() {
+        // 1. Arrange
+        ProductRepository catalog = openCatalog();
+        SaladRepository first = openSalads(catalog);
+        Salad salad = new Salad("Вінегрет");
+        salad.addIngredient(new SaladIngredient(catalog.getProductByName("Морква").get(), 100));
+        first.saveSalad(salad);
+
+        SaladRepository second = openSalads(openCatalog());
+        SaladEditSession stale = first.openEditSession("Вінегрет").get();
+
+        // 2. Act: інший екземпляр змінює салат, поки перший редагує свою копію
+        SaladEditSession remote = second.openEditSession("Вінегрет").get();
+        remote.getSalad().addIngredient(new SaladIngredient(
+                remote.getSalad().getIngredients().get(0).getConsumable(), 50));
+        assertTrue(remote.commit());
+
+        stale.getSalad().removeIngredient(stale.getSalad().getIngredients().get(0));
+        boolean committed = stale.commit();
+
+        // 3. Assert: застарілий запис відхилено, а перший екземпляр уже бачить чужу версію
+        assertFalse(committed);
+        assertEquals(2, first.getSaladByName("Вінегрет").get().getIngredients().size());
+        assertTrue(first.getStats().getConflicts() > 0);
+    }
+
+    @Test
+    void refreshShouldPickUpRemoteSaladsAndProductEdits() {
+        // 1. Arrange
+        ProductRepository firstCatalog = openCatalog();
+        SaladRepository first = openSalads(firstCatalog);
+        ProductRepository secondCatalog = openCatalog();
+        SaladRepository second = openSalads(secondCatalog);
+
+        Salad salad = new Salad("Пюре");
+        salad.addIngredient(new SaladIngredient(secondCatalog.getProductByName("Картопля").get(), 200));
+        second.saveSalad(salad);
+
+        // 2. Act
+        assertTrue(first.refreshFromDisk());
+        IProduct potato = secondCatalog.getProductByName("Картопля").get();
+        secondCatalog.updateProduct(potato, new RootVegetable("Картопля", 77, 15, false));
+        assertTrue(firstCatalog.refreshFromDisk());
+
+        // 3. Assert: салат з'явився, а його інгредієнт посилається на оновлений продукт
+        Salad loaded = first.getSaladByName("Пюре").get();
+        assertEquals(77, loaded.getIngredients().get(0).getConsumable().getCaloriesPer100g(), 0.001);
+        assertEquals(154, loaded.getTotalCalories(), 0.001);
+
+        second.deleteSalad("Пюре");
+        assertTrue(first.refreshFromDisk());
+        assertTrue(first.getSaladByName("Пюре").isEmpty());
+    }
+
+    private static void cleanUp() throws IOException {
+        for (String suffix : new String[]{"", ".manifest", ".lock"}) {
+            Files.deleteIfExists(Paths.get(TEST_PRODUCTS_FILE + suffix));
+        }
+        Path directory = Paths.get(TEST_SALADS_DIR);
+        if (Files.exists(directory)) {
+            try (Stream<Path> walk = Files.walk(directory)) {
+                walk.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+}
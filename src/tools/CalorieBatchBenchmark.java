@@ -0,0 +1,120 @@
+package tools;
+
+import products.Dressing;
+import products.IProduct;
+import products.LeafyVegetable;
+import products.RootVegetable;
+import products.Topping;
+import salad.CalorieBatch;
+import salad.Salad;
+import salad.SaladIngredient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Порівнює пакетний розрахунок калорійності (CalorieBatch) з поштучним через
+ * SaladIngredient.getTotalCalories(). Кеш калорійності в Salad не використовується —
+ * вимірюється саме обхід складу.
+ *
+ * Приклад: --salads=200000 --ingredients=8 --products=5000 --rounds=20
+ */
+public class CalorieBatchBenchmark {
+    private static final Logger logger = LogManager.getLogger(CalorieBatchBenchmark.class);
+
+    public static void main(String[] args) {
+        int saladCount = 200_000;
+        int ingredientsPerSalad = 8;
+        int productCount = 5_000;
+        int rounds = 20;
+        for (String arg : args) {
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Невірний аргумент: " + arg);
+            }
+            switch (kv[0]) {
+                case "salads": saladCount = Integer.parseInt(kv[1]); break;
+                case "ingredients": ingredientsPerSalad = Integer.parseInt(kv[1]); break;
+                case "products": productCount = Integer.parseInt(kv[1]); break;
+                case "rounds": rounds = Integer.parseInt(kv[1]); break;
+                default: throw new IllegalArgumentException("Невідомий параметр: " + kv[0]);
+            }
+        }
+
+        List<Salad> salads = generate(saladCount, ingredientsPerSalad, productCount, new Random(1));
+        System.out.printf("Салатів: %d, інгредієнтів у салаті: %d, раундів: %d\n",
+                saladCount, ingredientsPerSalad, rounds);
+
+        // Прогрів, щоб JIT скомпілював обидва шляхи
+        double checksum = 0;
+        for (int i = 0; i < 5; i++) {
+            checksum += perSalad(salads)[0] + CalorieBatch.of(salads).computeTotals()[0];
+        }
+
+        long scalarNanos = 0;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            checksum += perSalad(salads)[i % saladCount];
+            scalarNanos += System.nanoTime() - start;
+        }
+
+        CalorieBatch batch = CalorieBatch.of(salads);
+        long batchNanos = 0;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            checksum += batch.computeTotals()[i % saladCount];
+            batchNanos += System.nanoTime() - start;
+        }
+
+        long start = System.nanoTime();
+        CalorieBatch.of(salads);
+        long layoutNanos = System.nanoTime() - start;
+
+        System.out.printf("Поштучно:        %.2f мс/раунд\n", scalarNanos / 1e6 / rounds);
+        System.out.printf("Пакетно:         %.2f мс/раунд (розкладка масивів %.2f мс одноразово)\n",
+                batchNanos / 1e6 / rounds, layoutNanos / 1e6);
+        System.out.printf("Прискорення:     %.1fx\n", (double) scalarNanos / Math.max(1, batchNanos));
+        logger.info("Бенчмарк пакетного розрахунку завершено (контрольна сума {}).", checksum);
+    }
+
+    private static double[] perSalad(List<Salad> salads) {
+        double[] totals = new double[salads.size()];
+        for (int s = 0; s < totals.length; s++) {
+            double sum = 0;
+            for (SaladIngredient ingredient : salads.get(s).getIngredients()) {
+                sum += ingredient.getTotalCalories();
+            }
+            totals[s] = sum;
+        }
+        return totals;
+    }
+
+    private static List<Salad> generate(int saladCount, int ingredientsPerSalad, int productCount, Random random) {
+        // Чотири різні класи продуктів, щоб виклики getCaloriesPer100g() були мегаморфними, як у реальному каталозі
+        List<IProduct> products = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i++) {
+            double calories = 5 + random.nextInt(800);
+            switch (i % 4) {
+                case 0: products.add(new LeafyVegetable("Листовий " + i, calories, 1.5)); break;
+                case 1: products.add(new RootVegetable("Коренеплід " + i, calories, 4.0, true)); break;
+                case 2: products.add(new Dressing("Заправка " + i, calories, "Олія")); break;
+                default: products.add(new Topping("Топінг " + i, calories, false)); break;
+            }
+        }
+
+        List<Salad> salads = new ArrayList<>(saladCount);
+        for (int s = 0; s < saladCount; s++) {
+            Salad salad = new Salad("Салат " + s);
+            for (int i = 0; i < ingredientsPerSalad; i++) {
+                salad.addIngredient(new SaladIngredient(products.get(random.nextInt(productCount)),
+                        10 + random.nextInt(190)));
+            }
+            salads.add(salad);
+        }
+        return salads;
+    }
+}
@@ -0,0 +1,285 @@
+package tools;
+
+import products.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Генерує синтетичні набори даних у форматах product_repo та salad_repo.
+ * Дозволяє налаштувати кількість продуктів і рецептів, частки типів продуктів
+ * та перекіс популярності продуктів (розподіл Ципфа).
+ */
+public class DatasetGenerator {
+    private static final Logger logger = LogManager.getLogger(DatasetGenerator.class);
+
+    private static final String[] ROOT_NAMES = {"Морква", "Буряк", "Пастернак", "Редис", "Селера", "Імбир", "Хрін", "Ріпа"};
+    private static final String[] LEAFY_NAMES = {"Айсберг", "Рукола", "Шпинат", "Капуста", "Латук", "Романо", "Щавель", "Мангольд"};
+    private static final String[] FRUITING_NAMES = {"Помідор", "Огірок", "Болгарський перець", "Баклажан", "Кабачок", "Кукурудза"};
+    private static final String[] TUBER_NAMES = {"Картопля", "Батат", "Топінамбур", "Ямс"};
+    private static final String[] DRESSING_NAMES = {"Сметана", "Майонез", "Оливкова олія", "Соняшникова олія", "Лляна олія", "Оцет", "Йогурт", "Гірчичний соус"};
+    private static final String[] TOPPING_NAMES = {"Фета", "Моцарела", "Кунжут", "Сухарики", "Грецькі горіхи", "Пармезан", "Насіння гарбуза"};
+
+    private static final String[] ADJECTIVES = {"Молода", "Фермерська", "Домашня", "Органічна", "Гірська", "Степова",
+            "Полтавська", "Карпатська", "Рання", "Пізня", "Херсонська", "Волинська", "Золота", "Червона", "Біла"};
+    private static final String[] DRESSING_BASES = {"Олійна", "Вершкова", "Кисломолочна", "Кисла"};
+    private static final String[] SALAD_WORDS = {"Весняний", "Літній", "Осінній", "Зимовий", "Фермерський", "Легкий",
+            "Ситний", "Святковий", "Домашній", "Грецький", "Селянський", "Морський", "Київський", "Львівський"};
+
+    private final int productCount;
+    private final int saladCount;
+    private final int minIngredients;
+    private final int maxIngredients;
+    private final double popularitySkew;
+    private final double[] typeWeights;
+    private final Random random;
+
+    // Назви згенерованих продуктів (індекс = ранг популярності)
+    private String[] productNames;
+    private double[] popularityCdf;
+
+    /**
+     * @param typeWeights відносні частки типів у порядку: Root, Leafy, Fruiting, Tuber, Dressing, Topping
+     * @param popularitySkew показник Ципфа (0 — рівномірно, ~1 — типовий перекіс популярності)
+     */
+    public DatasetGenerator(int productCount, int saladCount, int minIngredients, int maxIngredients,
+                            double[] typeWeights, double popularitySkew, long seed) {
+        if (productCount <= 0 || saladCount < 0) {
+            throw new IllegalArgumentException("Кількість продуктів має бути додатною, а салатів — невід'ємною.");
+        }
+        if (minIngredients <= 0 || maxIngredients < minIngredients) {
+            throw new IllegalArgumentException("Невірний діапазон кількості інгредієнтів.");
+        }
+        // Інгредієнти салату різні, тож їх не може бути більше, ніж продуктів у каталозі
+        if (minIngredients > productCount) {
+            throw new IllegalArgumentException("Мінімальна кількість інгредієнтів (" + minIngredients
+                    + ") більша за кількість продуктів (" + productCount + ").");
+        }
+        if (typeWeights == null || typeWeights.length != 6) {
+            throw new IllegalArgumentException("Потрібно вказати 6 часток типів продуктів.");
+        }
+
+        this.productCount = productCount;
+        this.saladCount = saladCount;
+        this.minIngredients = minIngredients;
+        this.maxIngredients = Math.min(maxIngredients, productCount);
+        this.typeWeights = typeWeights.clone();
+        this.popularitySkew = popularitySkew;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Записує каталог продуктів у файл (формат ProductRepository).
+     */
+    public void writeProducts(Path productFile) throws IOException {
+        logger.info("Генерація каталогу: {} продуктів у {}.", productCount, productFile);
+        if (productFile.getParent() != null) {
+            Files.createDirectories(productFile.getParent());
+        }
+
+        productNames = new String[productCount];
+        double totalWeight = 0;
+        for (double w : typeWeights) {
+            totalWeight += w;
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(productFile, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < productCount; i++) {
+                IProduct product = randomProduct(i, pickType(totalWeight));
+                productNames[i] = product.getName();
+                writer.write(product.toTxtLine());
+                writer.newLine();
+            }
+        }
+
+        buildPopularityCdf();
+        logger.info("Каталог згенеровано: {}.", productFile);
+    }
+
+    /**
+     * Записує рецепти салатів у директорію (формат SaladRepository).
+     * Потрібно викликати після writeProducts().
+     */
+    public void writeSalads(Path saladDirectory) throws IOException {
+        if (productNames == null) {
+            throw new IllegalStateException("Спочатку потрібно згенерувати каталог продуктів.");
+        }
+
+        logger.info("Генерація {} рецептів у {}.", saladCount, saladDirectory);
+        Files.createDirectories(saladDirectory);
+
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < saladCount; i++) {
+            String saladName = SALAD_WORDS[i % SALAD_WORDS.length] + " " + (i + 1);
+            int ingredients = minIngredients + random.nextInt(maxIngredients - minIngredients + 1);
+
+            used.clear();
+            try (BufferedWriter writer = Files.newBufferedWriter(
+                    saladDirectory.resolve(saladName + ".txt"), StandardCharsets.UTF_8)) {
+                while (used.size() < ingredients) {
+                    int productIndex = pickPopularProduct();
+                    if (!used.add(productIndex)) {
+                        continue;
+                    }
+
+                    double weight = 5 * (1 + random.nextInt(40)); // 5..200 г з кроком 5 г
+                    writer.write(productNames[productIndex] + ";" + weight);
+                    writer.newLine();
+                }
+            }
+        }
+
+        logger.info("Рецепти згенеровано: {}.", saladDirectory);
+    }
+
+    private int pickType(double totalWeight) {
+        double r = random.nextDouble() * totalWeight;
+        for (int t = 0; t < typeWeights.length; t++) {
+            r -= typeWeights[t];
+            if (r < 0) {
+                return t;
+            }
+        }
+        return typeWeights.length - 1;
+    }
+
+    private IProduct randomProduct(int index, int type) {
+        double calories = 10 + random.nextInt(90);
+        switch (type) {
+            case 0:
+                return new RootVegetable(productName(ROOT_NAMES, index), calories,
+                        round(random.nextDouble() * 10), random.nextBoolean());
+            case 1:
+                return new LeafyVegetable(productName(LEAFY_NAMES, index), calories / 3,
+                        round(random.nextDouble() * 5));
+            case 2:
+                return new FruitingVegetable(productName(FRUITING_NAMES, index), calories / 2,
+                        round(80 + random.nextDouble() * 18));
+            case 3:
+                return new TuberVegetable(productName(TUBER_NAMES, index), calories + 40,
+                        round(10 + random.nextDouble() * 15));
+            case 4:
+                return new Dressing(productName(DRESSING_NAMES, index), 100 + random.nextInt(800),
+                        DRESSING_BASES[random.nextInt(DRESSING_BASES.length)]);
+            default:
+                return new Topping(productName(TOPPING_NAMES, index), 200 + random.nextInt(450),
+                        random.nextBoolean());
+        }
+    }
+
+    // Назва вигляду "Морква Карпатська 1042" — унікальна завдяки порядковому номеру
+    private String productName(String[] bases, int index) {
+        return bases[random.nextInt(bases.length)] + " "
+                + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + (index + 1);
+    }
+
+    private void buildPopularityCdf() {
+        popularityCdf = new double[productCount];
+        double sum = 0;
+        for (int i = 0; i < productCount; i++) {
+            sum += 1.0 / Math.pow(i + 1, popularitySkew);
+            popularityCdf[i] = sum;
+        }
+    }
+
+    private int pickPopularProduct() {
+        double r = random.nextDouble() * popularityCdf[productCount - 1];
+        int low = 0;
+        int high = productCount - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (popularityCdf[mid] < r) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * Приклад: --products=1000000 --salads=100000 --min-ingredients=3 --max-ingredients=8
+     *          --mix=2,3,3,1,1,1 --skew=1.0 --seed=42 --out=/tmp/salad_data
+     */
+    public static void main(String[] args) throws IOException {
+        GeneratorOptions options = GeneratorOptions.parse(args);
+        DatasetGenerator generator = options.createGenerator();
+
+        long start = System.nanoTime();
+        generator.writeProducts(options.productFile());
+        generator.writeSalads(options.saladDirectory());
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("Згенеровано " + options.products + " продуктів і " + options.salads
+                + " рецептів у " + options.outputDirectory + " за " + elapsedMs + " мс.");
+    }
+
+    /**
+     * Параметри генератора з командного рядка (спільні для DatasetGenerator і SoakTest).
+     */
+    static class GeneratorOptions {
+        int products = 10_000;
+        int salads = 1_000;
+        int minIngredients = 3;
+        int maxIngredients = 8;
+        double[] mix = {2, 3, 3, 1, 1, 1};
+        double skew = 1.0;
+        long seed = 42;
+        Path outputDirectory = Paths.get("generated_data");
+
+        static GeneratorOptions parse(String[] args) {
+            GeneratorOptions options = new GeneratorOptions();
+            for (String arg : args) {
+                String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+                if (kv.length != 2) {
+                    continue;
+                }
+
+                switch (kv[0]) {
+                    case "products": options.products = Integer.parseInt(kv[1]); break;
+                    case "salads": options.salads = Integer.parseInt(kv[1]); break;
+                    case "min-ingredients": options.minIngredients = Integer.parseInt(kv[1]); break;
+                    case "max-ingredients": options.maxIngredients = Integer.parseInt(kv[1]); break;
+                    case "skew": options.skew = Double.parseDouble(kv[1]); break;
+                    case "seed": options.seed = Long.parseLong(kv[1]); break;
+                    case "out": options.outputDirectory = Paths.get(kv[1]); break;
+                    case "mix":
+                        String[] parts = kv[1].split(",");
+                        for (int i = 0; i < parts.length && i < options.mix.length; i++) {
+                            options.mix[i] = Double.parseDouble(parts[i]);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return options;
+        }
+
+        DatasetGenerator createGenerator() {
+            return new DatasetGenerator(products, salads, minIngredients, maxIngredients, mix, skew, seed);
+        }
+
+        Path productFile() {
+            return outputDirectory.resolve("product_repo");
+        }
+
+        Path saladDirectory() {
+            return outputDirectory.resolve("salad_repo");
+        }
+    }
+}
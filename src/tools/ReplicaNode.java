@@ -0,0 +1,49 @@
+package tools;
+
+import replication.ReplicationFollower;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Окремий процес-репліка: підключається до лідера (Main --replication-port=...) і періодично
+ * друкує стан реплікації — кількість продуктів і салатів, застосований номер та відставання.
+ *
+ * Приклад: --host=127.0.0.1 --port=7070 --interval=5
+ */
+public class ReplicaNode {
+    private static final Logger logger = LogManager.getLogger(ReplicaNode.class);
+
+    public static void main(String[] args) throws InterruptedException {
+        String host = "127.0.0.1";
+        int port = 7070;
+        int intervalSeconds = 5;
+        for (String arg : args) {
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Невірний аргумент: " + arg);
+            }
+            switch (kv[0]) {
+                case "host": host = kv[1]; break;
+                case "port": port = Integer.parseInt(kv[1]); break;
+                case "interval": intervalSeconds = Integer.parseInt(kv[1]); break;
+                default: throw new IllegalArgumentException("Невідомий параметр: " + kv[0]);
+            }
+        }
+
+        ReplicationFollower follower = new ReplicationFollower(host, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(follower::close));
+        follower.start();
+        logger.info("Репліку запущено для лідера {}:{}.", host, port);
+
+        while (true) {
+            Thread.sleep(intervalSeconds * 1000L);
+            System.out.printf("[%s] продуктів: %d, салатів: %d, застосовано #%d з #%d, відставання: %d записів / %d мс, знімків: %d\n",
+                    follower.isConnected() ? "online" : "offline",
+                    follower.getProductRepository().getProductCount(),
+                    follower.getSaladRepository().getSaladCount(),
+                    follower.getAppliedSequence(), follower.getLeaderSequence(),
+                    follower.getLagRecords(), follower.getLagMillis(), follower.getSnapshotCount());
+        }
+    }
+}
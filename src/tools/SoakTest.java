@@ -0,0 +1,250 @@
+package tools;
+
+import products.IProduct;
+import products.LeafyVegetable;
+import salad.Salad;
+import salad.SaladIngredient;
+import saving.ProductRepository;
+import saving.SaladEditSession;
+import saving.SaladRepository;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Навантажувальний (soak) тест: генерує великий набір даних, завантажує його через
+ * ProductRepository/SaladRepository та виконує змішане навантаження протягом заданого часу.
+ * Наприкінці друкує час операцій, максимальне використання heap та статистику GC.
+ *
+ * Приклад: --products=1000000 --salads=100000 --duration=120 --out=/tmp/soak
+ */
+public class SoakTest {
+    private static final Logger logger = LogManager.getLogger(SoakTest.class);
+
+    // Найдовша окрема збірка GC (мс) за JMX-сповіщеннями. Це тривалість збірки (GcInfo.getDuration),
+    // а не пауза: для G1/ZGC вона включає і конкурентну роботу, під час якої потоки програми не стоять
+    private static final AtomicLong maxGcDurationMillis = new AtomicLong();
+
+    private final ProductRepository productRepository;
+    private final SaladRepository saladRepository;
+    private final Random random;
+
+    // Лічильники для звіту: кількість та сумарний час (нс) кожного виду операцій
+    private final String[] operationNames = {"Пошук продукту", "Пошук салату", "Калорійність салату",
+            "Сортування салатів", "Зміна і збереження салату", "Додавання/видалення продукту",
+            "Збереження без змін (пропущено)"};
+    private final long[] operationCounts = new long[operationNames.length];
+    private final long[] operationNanos = new long[operationNames.length];
+    private final long[] operationMaxNanos = new long[operationNames.length];
+
+    public SoakTest(ProductRepository productRepository, SaladRepository saladRepository, long seed) {
+        this.productRepository = productRepository;
+        this.saladRepository = saladRepository;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Виконує змішане навантаження до завершення відведеного часу.
+     */
+    public void runWorkload(long durationMillis) {
+        List<IProduct> products = productRepository.getAllProducts();
+        List<Salad> salads = saladRepository.getAllSalads();
+        if (products.isEmpty()) {
+            System.out.println("Каталог порожній — навантаження не виконується.");
+            return;
+        }
+
+        long deadline = System.currentTimeMillis() + durationMillis;
+        while (System.currentTimeMillis() < deadline) {
+            int roll = random.nextInt(1000);
+            long start = System.nanoTime();
+            int op;
+
+            if (roll < 500) {
+                op = 0;
+                productRepository.getProductByName(products.get(random.nextInt(products.size())).getName());
+            } else if (roll < 750 && !salads.isEmpty()) {
+                op = 1;
+                saladRepository.getSaladByName(salads.get(random.nextInt(salads.size())).getName());
+            } else if (roll < 950 && !salads.isEmpty()) {
+                op = 2;
+                salads.get(random.nextInt(salads.size())).getIngredients().stream()
+                        .mapToDouble(SaladIngredient::getTotalCalories)
+                        .sum();
+            } else if (roll < 955 && !salads.isEmpty()) {
+                op = 3;
+                salads.stream()
+                        .sorted(Comparator.comparingDouble(s -> s.getIngredients().stream()
+                                .mapToDouble(SaladIngredient::getTotalCalories).sum()))
+                        .limit(10)
+                        .count();
+            } else if (roll < 995 && !salads.isEmpty()) {
+                // Незмінений салат репозиторій не перезаписує, тож для виміру запису салат спершу змінюється
+                Optional<SaladEditSession> session =
+                        saladRepository.openEditSession(salads.get(random.nextInt(salads.size())).getName());
+                if (session.isPresent() && adjustRandomWeight(session.get().getSalad())) {
+                    op = 4;
+                    session.get().commit();
+                } else {
+                    op = 6;
+                    session.ifPresent(SaladEditSession::commit);
+                }
+            } else {
+                op = 5;
+                IProduct temporary = new LeafyVegetable("Тимчасовий продукт " + random.nextInt(), 10, 1);
+                productRepository.addProduct(temporary);
+                productRepository.removeProduct(temporary);
+            }
+
+            long elapsed = System.nanoTime() - start;
+            operationCounts[op]++;
+            operationNanos[op] += elapsed;
+            operationMaxNanos[op] = Math.max(operationMaxNanos[op], elapsed);
+        }
+    }
+
+    // Змінює вагу випадкового інгредієнта на 1 г; false, якщо салат порожній
+    private boolean adjustRandomWeight(Salad salad) {
+        List<SaladIngredient> ingredients = salad.getIngredients();
+        if (ingredients.isEmpty()) {
+            return false;
+        }
+        SaladIngredient ingredient = ingredients.get(random.nextInt(ingredients.size()));
+        double weight = ingredient.getWeightInGrams();
+        double adjusted = weight > 1 && random.nextBoolean() ? weight - 1 : weight + 1;
+        salad.removeIngredient(ingredient);
+        salad.addIngredient(new SaladIngredient(ingredient.getConsumable(), adjusted));
+        return true;
+    }
+
+    public void printReport() {
+        System.out.println("\n--- Результати навантаження ---");
+        for (int i = 0; i < operationNames.length; i++) {
+            if (operationCounts[i] == 0) {
+                continue;
+            }
+            System.out.printf("%-30s | %10d оп. | сер. %10.1f мкс | макс. %10.1f мкс\n",
+                    operationNames[i], operationCounts[i],
+                    operationNanos[i] / 1000.0 / operationCounts[i],
+                    operationMaxNanos[i] / 1000.0);
+        }
+        System.out.printf("Пропущених записів без змін: салатів %d, каталогу %d\n",
+                saladRepository.getStats().getSkippedWrites(), productRepository.getStats().getSkippedWrites());
+    }
+
+    public static void main(String[] args) throws IOException {
+        DatasetGenerator.GeneratorOptions options = DatasetGenerator.GeneratorOptions.parse(args);
+        long durationSeconds = 60;
+        boolean generate = true;
+        for (String arg : args) {
+            if (arg.startsWith("--duration=")) {
+                durationSeconds = Long.parseLong(arg.substring("--duration=".length()));
+            } else if (arg.equals("--no-generate")) {
+                generate = false;
+            }
+        }
+
+        if (generate) {
+            long start = System.nanoTime();
+            DatasetGenerator generator = options.createGenerator();
+            generator.writeProducts(options.productFile());
+            generator.writeSalads(options.saladDirectory());
+            System.out.printf("Генерація даних: %d мс\n", (System.nanoTime() - start) / 1_000_000);
+        }
+
+        resetPeakUsage();
+        listenForGcDurations();
+        long gcCountBefore = totalGcCount();
+        long gcTimeBefore = totalGcTimeMillis();
+
+        ProductRepository productRepository = new ProductRepository(options.productFile().toString());
+        SaladRepository saladRepository = new SaladRepository(options.saladDirectory().toString(), productRepository);
+
+        long start = System.nanoTime();
+        productRepository.loadFromFile();
+        long productLoadMs = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        saladRepository.loadAllSalads();
+        long saladLoadMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("Завантаження каталогу: %d продуктів за %d мс\n",
+                productRepository.getAllProducts().size(), productLoadMs);
+        System.out.printf("Завантаження рецептів: %d салатів за %d мс\n",
+                saladRepository.getAllSalads().size(), saladLoadMs);
+
+        SoakTest soakTest = new SoakTest(productRepository, saladRepository, options.seed);
+        soakTest.runWorkload(durationSeconds * 1000);
+        soakTest.printReport();
+
+        System.out.printf("Максимальне використання heap: %.1f МБ\n", peakHeapUsage() / (1024.0 * 1024.0));
+        System.out.printf("GC: %d збірок, сумарна тривалість збірок %d мс, найдовша збірка %d мс\n",
+                totalGcCount() - gcCountBefore, totalGcTimeMillis() - gcTimeBefore, maxGcDurationMillis.get());
+        logger.info("Soak-тест завершено ({} с навантаження).", durationSeconds);
+    }
+
+    private static void resetPeakUsage() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+    }
+
+    private static void listenForGcDurations() {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(gc instanceof NotificationEmitter)) {
+                continue;
+            }
+
+            ((NotificationEmitter) gc).addNotificationListener((notification, handback) -> {
+                if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                    GarbageCollectionNotificationInfo info =
+                            GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                    maxGcDurationMillis.accumulateAndGet(info.getGcInfo().getDuration(), Math::max);
+                }
+            }, null, null);
+        }
+    }
+
+    // Сума піків усіх heap-пулів — верхня оцінка high-water mark
+    private static long peakHeapUsage() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += Optional.ofNullable(pool.getPeakUsage()).map(u -> u.getUsed()).orElse(0L);
+            }
+        }
+        return peak;
+    }
+
+    private static long totalGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long totalGcTimeMillis() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+}
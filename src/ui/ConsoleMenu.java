@@ -1,8 +1,10 @@
 package ui;
 
+import monitoring.jfr.CommandExecutionEvent;
 import ui.command.Command;
 // Імпортуйте ваш новий клас
 import ui.command.MenuSeparatorCommand;
+import ui.render.PagedRenderer;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -12,14 +14,25 @@ public class ConsoleMenu {
 
     private final Map<String, Command> menuItems;
     private final Scanner scanner;
+    private final PagedRenderer renderer;
+    // Меню не змінюється між командами, тож текст будується один раз (скидається при addMenuItem)
+    private String renderedMenu;
+    // Виконується перед кожною командою (наприклад, підхоплення змін від інших екземплярів програми)
+    private Runnable beforeCommand = () -> { };
 
     public ConsoleMenu() {
         this.menuItems = new LinkedHashMap<>();
         this.scanner = new Scanner(System.in, "UTF-8");
+        this.renderer = new PagedRenderer(scanner);
     }
 
     public void addMenuItem(String key, Command command) {
         menuItems.put(key, command);
+        renderedMenu = null;
+    }
+
+    public void setBeforeCommand(Runnable beforeCommand) {
+        this.beforeCommand = beforeCommand;
     }
 
     public void run() {
@@ -37,7 +50,7 @@ public class ConsoleMenu {
                     continue;
                 }
 
-                command.execute();
+                execute(key, command);
 
                 if (command.getMenuTitle().equals("Вихід")) {
                     running = false;
@@ -50,18 +63,36 @@ public class ConsoleMenu {
         System.out.println("Програму завершено.");
     }
 
+    // Кожне виконання команди фіксується JFR-подією (ключ меню, клас, назва, тривалість).
+    // Підхоплення змін з диска виконується до початку події, щоб його тривалість не приписувалась команді
+    private void execute(String key, Command command) {
+        beforeCommand.run();
+        CommandExecutionEvent event = CommandExecutionEvent.beginIfEnabled();
+        try {
+            command.execute();
+        } finally {
+            CommandExecutionEvent.finish(event, key, command, command.getMenuTitle());
+        }
+    }
+
     private void printMenu() {
-        System.out.println("\n\u001B[34mМеню програми:\u001B[0m");
-        for (Map.Entry<String, Command> entry : menuItems.entrySet()) {
+        if (renderedMenu == null) {
+            String lineSeparator = System.lineSeparator();
+            StringBuilder menu = new StringBuilder(lineSeparator)
+                    .append("\u001B[34mМеню програми:\u001B[0m").append(lineSeparator);
+            for (Map.Entry<String, Command> entry : menuItems.entrySet()) {
 
-            Command command = entry.getValue();
-            String key = entry.getKey();
+                Command command = entry.getValue();
+                String key = entry.getKey();
 
-            if (command instanceof MenuSeparatorCommand) {
-                System.out.println(command.getMenuTitle());
-            } else {
-                System.out.println(key + ". " + command.getMenuTitle());
+                if (command instanceof MenuSeparatorCommand) {
+                    menu.append(command.getMenuTitle()).append(lineSeparator);
+                } else {
+                    menu.append(key).append(". ").append(command.getMenuTitle()).append(lineSeparator);
+                }
             }
+            renderedMenu = menu.toString();
         }
+        renderer.write(renderedMenu);
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package ui.command;
+
+import service.ProductService;
+
+public class EditDressingCommand implements Command {
+
+    private final ProductService productService;
+
+    public EditDressingCommand(ProductService productService) {
+        this.productService = productService;
+    }
+
+    @Override
+    public void execute() {
+        productService.editDressing();
+    }
+
+    @Override
+    public String getMenuTitle() {
+        return "Редагувати заправку";
+    }
+}
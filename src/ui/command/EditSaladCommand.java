@@ -0,0 +1,22 @@
+package ui.command;
+
+import service.SaladService;
+
+public class EditSaladCommand implements Command {
+
+    private final SaladService saladService;
+
+    public EditSaladCommand(SaladService saladService) {
+        this.saladService = saladService;
+    }
+
+    @Override
+    public void execute() {
+        saladService.editSalad();
+    }
+
+    @Override
+    public String getMenuTitle() {
+        return "Редагувати склад салату";
+    }
+}
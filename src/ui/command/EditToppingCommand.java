@@ -0,0 +1,22 @@
+package ui.command;
+
+import service.ProductService;
+
+public class EditToppingCommand implements Command {
+
+    private final ProductService productService;
+
+    public EditToppingCommand(ProductService productService) {
+        this.productService = productService;
+    }
+
+    @Override
+    public void execute() {
+        productService.editTopping();
+    }
+
+    @Override
+    public String getMenuTitle() {
+        return "Редагувати топінг";
+    }
+}
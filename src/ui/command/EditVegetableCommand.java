@@ -0,0 +1,22 @@
+package ui.command;
+
+import service.ProductService;
+
+public class EditVegetableCommand implements Command {
+
+    private final ProductService productService;
+
+    public EditVegetableCommand(ProductService productService) {
+        this.productService = productService;
+    }
+
+    @Override
+    public void execute() {
+        productService.editVegetable();
+    }
+
+    @Override
+    public String getMenuTitle() {
+        return "Редагувати овоч";
+    }
+}
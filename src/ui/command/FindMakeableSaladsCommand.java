@@ -0,0 +1,22 @@
+package ui.command;
+
+import service.SaladService;
+
+public class FindMakeableSaladsCommand implements Command {
+
+    private final SaladService saladService;
+
+    public FindMakeableSaladsCommand(SaladService saladService) {
+        this.saladService = saladService;
+    }
+
+    @Override
+    public void execute() {
+        saladService.showMakeableSalads();
+    }
+
+    @Override
+    public String getMenuTitle() {
+        return "Що можна приготувати з наявних продуктів";
+    }
+}
@@ -0,0 +1,22 @@
+package ui.command;
+
+import service.SaladService;
+
+public class FindSimilarSaladsCommand implements Command {
+
+    private final SaladService saladService;
+
+    public FindSimilarSaladsCommand(SaladService saladService) {
+        this.saladService = saladService;
+    }
+
+    @Override
+    public void execute() {
+        saladService.showSimilarSalads();
+    }
+
+    @Override
+    public String getMenuTitle() {
+        return "Знайти салати зі схожим складом";
+    }
+}
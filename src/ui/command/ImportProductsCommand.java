@@ -0,0 +1,22 @@
+package ui.command;
+
+import service.ProductService;
+
+public class ImportProductsCommand implements Command {
+
+    private final ProductService productService;
+
+    public ImportProductsCommand(ProductService productService) {
+        this.productService = productService;
+    }
+
+    @Override
+    public void execute() {
+        productService.importProductsFromCsv();
+    }
+
+    @Override
+    public String getMenuTitle() {
+        return "Імпортувати продукти з CSV";
+    }
+}
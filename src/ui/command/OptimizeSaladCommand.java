@@ -0,0 +1,22 @@
+package ui.command;
+
+import service.SaladService;
+
+public class OptimizeSaladCommand implements Command {
+
+    private final SaladService saladService;
+
+    public OptimizeSaladCommand(SaladService saladService) {
+        this.saladService = saladService;
+    }
+
+    @Override
+    public void execute() {
+        saladService.optimizeSalad();
+    }
+
+    @Override
+    public String getMenuTitle() {
+        return "Підібрати салат під ціль калорій";
+    }
+}
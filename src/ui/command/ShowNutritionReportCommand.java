@@ -0,0 +1,22 @@
+package ui.command;
+
+import service.SaladService;
+
+public class ShowNutritionReportCommand implements Command {
+
+    private final SaladService saladService;
+
+    public ShowNutritionReportCommand(SaladService saladService) {
+        this.saladService = saladService;
+    }
+
+    @Override
+    public void execute() {
+        saladService.showNutritionReport();
+    }
+
+    @Override
+    public String getMenuTitle() {
+        return "Звіт з харчової цінності салатів";
+    }
+}
@@ -0,0 +1,22 @@
+package ui.command;
+
+import service.SaladService;
+
+public class TopSaladsByCaloriesCommand implements Command {
+
+    private final SaladService saladService;
+
+    public TopSaladsByCaloriesCommand(SaladService saladService) {
+        this.saladService = saladService;
+    }
+
+    @Override
+    public void execute() {
+        saladService.showTopSaladsByCalories();
+    }
+
+    @Override
+    public String getMenuTitle() {
+        return "Топ салатів за калорійністю (найлегші / найкалорійніші)";
+    }
+}
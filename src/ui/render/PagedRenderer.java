@@ -0,0 +1,108 @@
+package ui.render;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.Formatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Scanner;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Виводить великі списки посторінково.
+ *
+ * Рядки сторінки форматуються в один StringBuilder, що перевикористовується, і записуються
+ * одним буферизованим записом у System.out замість println на кожен рядок.
+ * Якщо список вміщується на одну сторінку, навігація не запитується.
+ */
+public class PagedRenderer {
+    private static final Logger logger = LogManager.getLogger(PagedRenderer.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 40;
+
+    private final Scanner scanner;
+    private final int pageSize;
+    private final StringBuilder buffer = new StringBuilder(8192);
+    private final Formatter formatter = new Formatter(buffer, Locale.getDefault(Locale.Category.FORMAT));
+    private final String lineSeparator = System.lineSeparator();
+    // Один буферизований writer на рендерер; створюється заново, лише якщо System.out підмінили
+    private PrintStream target;
+    private Writer writer;
+
+    public PagedRenderer(Scanner scanner) {
+        this(scanner, DEFAULT_PAGE_SIZE);
+    }
+
+    public PagedRenderer(Scanner scanner, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Розмір сторінки має бути додатним.");
+        }
+        this.scanner = scanner;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Показує rows з заголовком header; між сторінками: Enter/n — далі, p — назад, q — вийти.
+     */
+    public synchronized <T> void render(String header, List<T> rows, RowFormatter<T> rowFormatter) {
+        int pages = Math.max(1, (rows.size() + pageSize - 1) / pageSize);
+        int page = 0;
+
+        while (true) {
+            buffer.setLength(0);
+            if (header != null) {
+                buffer.append(header).append(lineSeparator);
+            }
+
+            int from = page * pageSize;
+            int to = Math.min(rows.size(), from + pageSize);
+            for (int i = from; i < to; i++) {
+                rowFormatter.format(formatter, i, rows.get(i));
+                buffer.append(lineSeparator);
+            }
+
+            if (pages > 1) {
+                formatter.format("[сторінка %d/%d, записи %d-%d з %d] n/Enter — далі, p — назад, q — вийти: ",
+                        page + 1, pages, from + 1, to, rows.size());
+            }
+            write(buffer);
+
+            if (pages == 1 || scanner == null || !scanner.hasNextLine()) {
+                return;
+            }
+
+            String command = scanner.nextLine().trim().toLowerCase(Locale.ROOT);
+            if (command.equals("q")) {
+                return;
+            } else if (command.equals("p")) {
+                page = Math.max(0, page - 1);
+            } else if (page == pages - 1) {
+                return;
+            } else {
+                page++;
+            }
+        }
+    }
+
+    /**
+     * Записує текст у поточний System.out одним буферизованим записом.
+     */
+    public synchronized void write(CharSequence text) {
+        PrintStream out = System.out;
+        try {
+            if (out != target) {
+                target = out;
+                writer = new BufferedWriter(new OutputStreamWriter(out, out.charset()), 1 << 16);
+            }
+            writer.append(text);
+            writer.flush();
+        } catch (IOException e) {
+            logger.error("Помилка виводу в консоль: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ui.render;
+
+import java.util.Formatter;
+
+/**
+ * Форматує один рядок списку у спільний буфер сторінки (без переведення рядка в кінці).
+ */
+@FunctionalInterface
+public interface RowFormatter<T> {
+    void format(Formatter out, int index, T item);
+}